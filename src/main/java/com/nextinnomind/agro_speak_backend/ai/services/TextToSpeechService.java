@@ -2,6 +2,8 @@ package com.nextinnomind.agro_speak_backend.ai.services;
 
 import com.nextinnomind.agro_speak_backend.ai.models.AIResponse;
 import com.nextinnomind.agro_speak_backend.ai.models.SpeechSynthesisResult;
+import com.nextinnomind.agro_speak_backend.config.Upstream;
+import com.nextinnomind.agro_speak_backend.config.UpstreamClients;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
@@ -12,11 +14,15 @@ import java.util.Map;
 @Service
 public class TextToSpeechService {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
 
     @Value("${ai.flask.base-url:http://localhost:5000}")
     private String flaskApiBase;
 
+    public TextToSpeechService(UpstreamClients upstreamClients) {
+        this.restTemplate = upstreamClients.restTemplate(Upstream.FLASK_AI);
+    }
+
     public AIResponse<SpeechSynthesisResult> speak(String text) {
         String url = flaskApiBase + "/api/speak";
 
@@ -2,6 +2,9 @@ package com.nextinnomind.agro_speak_backend.ai.services;
 
 import com.nextinnomind.agro_speak_backend.ai.models.AIResponse;
 import com.nextinnomind.agro_speak_backend.ai.models.TranslationResult;
+import com.nextinnomind.agro_speak_backend.config.Upstream;
+import com.nextinnomind.agro_speak_backend.config.UpstreamClients;
+import com.nextinnomind.agro_speak_backend.service.TranslationCache;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
@@ -12,45 +15,60 @@ import java.util.Map;
 @Service
 public class TranslationAIService {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
 
     @Value("${ai.flask.base-url:http://localhost:5000}")
     private String flaskApiBase;
 
-    public AIResponse<TranslationResult> translate(String text, String sourceLang, String targetLang) {
-        String url = flaskApiBase + "/api/translate";
+    private final TranslationCache translationCache;
+
+    public TranslationAIService(UpstreamClients upstreamClients, TranslationCache translationCache) {
+        this.restTemplate = upstreamClients.restTemplate(Upstream.FLASK_AI);
+        this.translationCache = translationCache;
+    }
 
+    public AIResponse<TranslationResult> translate(String text, String sourceLang, String targetLang) {
         try {
-            Map<String, Object> payload = Map.of(
-                "text", text,
-                "sourceLang", sourceLang,
-                "targetLang", targetLang
-            );
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
-            @SuppressWarnings("unchecked")
-            ResponseEntity<Map<String, Object>> response = (ResponseEntity<Map<String, Object>>)(ResponseEntity<?>) 
-                    restTemplate.postForEntity(url, request, Map.class);
-            Map<String, Object> data = response.getBody();
-
-            if (data == null || data.containsKey("error")) {
-                String errorMsg = data != null ? (String) data.getOrDefault("error", "Translation failed") : "Translation failed";
-                return new AIResponse<>(false, errorMsg, null);
-            }
-
-            TranslationResult result = new TranslationResult(
-                (String) data.get("originalText"),
-                (String) data.get("sourceLang"),
-                (String) data.get("targetLang"),
-                (String) data.get("translation")
-            );
-
-            return new AIResponse<>(true, "Translation successful", result);
+            String translation = translationCache.translate("flask", text, sourceLang, targetLang,
+                    () -> requestTranslation(text, sourceLang, targetLang));
+            return new AIResponse<>(true, "Translation successful",
+                    new TranslationResult(text, sourceLang, targetLang, translation));
+        } catch (TranslationFailedException e) {
+            return new AIResponse<>(false, e.getMessage(), null);
         } catch (Exception e) {
             return new AIResponse<>(false, "Translation failed: " + e.getMessage(), null);
         }
     }
+
+    private String requestTranslation(String text, String sourceLang, String targetLang) {
+        String url = flaskApiBase + "/api/translate";
+
+        Map<String, Object> payload = Map.of(
+            "text", text,
+            "sourceLang", sourceLang,
+            "targetLang", targetLang
+        );
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
+        @SuppressWarnings("unchecked")
+        ResponseEntity<Map<String, Object>> response = (ResponseEntity<Map<String, Object>>)(ResponseEntity<?>) 
+                restTemplate.postForEntity(url, request, Map.class);
+        Map<String, Object> data = response.getBody();
+
+        if (data == null || data.containsKey("error") || data.get("translation") == null) {
+            String errorMsg = data != null ? String.valueOf(data.getOrDefault("error", "Translation failed")) : "Translation failed";
+            throw new TranslationFailedException(errorMsg);
+        }
+        return (String) data.get("translation");
+    }
+
+    // A failure reported by the Flask service; passed through the cache uncached and returned as is
+    private static class TranslationFailedException extends RuntimeException {
+        TranslationFailedException(String message) {
+            super(message);
+        }
+    }
 }
@@ -0,0 +1,45 @@
+package com.nextinnomind.agro_speak_backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the agronomic indicators (degree days, evapotranspiration, rainfall, dry spells)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "weather.indicators")
+public class AgroIndicatorProperties {
+
+    /**
+     * Number of past days the observed indicators cover (Open-Meteo allows up to 92)
+     */
+    private int pastDays = 30;
+
+    /**
+     * Number of days, today included, the forecast indicators cover (Open-Meteo allows up to 16)
+     */
+    private int forecastDays = 7;
+
+    /**
+     * Default base temperature for growing degree days in °C (10 °C suits maize, sorghum and most
+     * warm-season crops); requests may pass their own
+     */
+    private double baseTemperature = 10.0;
+
+    /**
+     * Upper threshold for growing degree days in °C: hotter hours do not add development
+     */
+    private double upperTemperature = 30.0;
+
+    /**
+     * A day with less rain than this (mm) counts as dry
+     */
+    private double dryDayThreshold = 1.0;
+
+    /**
+     * Maximum number of grid cells whose indicators are kept in memory
+     */
+    private long maxCells = 50_000;
+}
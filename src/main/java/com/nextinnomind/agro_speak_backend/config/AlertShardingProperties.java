@@ -0,0 +1,43 @@
+package com.nextinnomind.agro_speak_backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for splitting the weather alert job across application instances
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "weather.alerts.sharding")
+public class AlertShardingProperties {
+
+    /**
+     * Whether instances coordinate through the lease table. Disable only for a single instance
+     * that should process every cell without touching the database.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Number of shards grid cells are hashed into; more shards than instances lets load spread evenly.
+     * Must be the same on every instance.
+     */
+    private int shards = 64;
+
+    /**
+     * How long a claimed shard stays owned without renewal; a dead node's shards are taken over after this
+     */
+    private Duration leaseDuration = Duration.ofSeconds(60);
+
+    /**
+     * How often a node renews its leases, refreshes its heartbeat and rebalances
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    /**
+     * Identifier of this instance in the lease table; defaults to the host name plus a random suffix
+     */
+    private String nodeId = "";
+}
@@ -0,0 +1,59 @@
+package com.nextinnomind.agro_speak_backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nextinnomind.agro_speak_backend.dto.ColumnarWeatherResponse;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link WeatherResponse} bodies as {@link ColumnarWeatherResponse} when the client explicitly
+ * asks for {@value ColumnarWeatherResponse#MEDIA_TYPE}. Wildcard requests keep getting plain JSON.
+ */
+public class ColumnarWeatherMessageConverter extends AbstractHttpMessageConverter<WeatherResponse> {
+
+    public static final MediaType COLUMNAR = MediaType.parseMediaType(ColumnarWeatherResponse.MEDIA_TYPE);
+
+    private final ObjectMapper objectMapper;
+
+    public ColumnarWeatherMessageConverter(ObjectMapper objectMapper) {
+        super(COLUMNAR);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(@NonNull Class<?> clazz) {
+        return WeatherResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(@NonNull Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(@NonNull Class<?> clazz, MediaType mediaType) {
+        // Not offered for Accept: */* or a missing Accept header; the Jackson converter still advertises
+        // application/*+json, which is how an explicit columnar Accept gets negotiated down to this one
+        return mediaType != null && COLUMNAR.equalsTypeAndSubtype(mediaType) && supports(clazz);
+    }
+
+    @Override
+    @NonNull
+    protected WeatherResponse readInternal(@NonNull Class<? extends WeatherResponse> clazz,
+                                           @NonNull HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar weather payloads are write-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(@NonNull WeatherResponse response, @NonNull HttpOutputMessage outputMessage)
+            throws IOException {
+        outputMessage.getBody().write(objectMapper.writeValueAsBytes(ColumnarWeatherResponse.from(response)));
+    }
+}
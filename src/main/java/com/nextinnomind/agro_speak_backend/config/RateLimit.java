@@ -0,0 +1,39 @@
+package com.nextinnomind.agro_speak_backend.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+
+/**
+ * A rate of permits per period with a burst allowance, e.g. 3 per hour in bursts of up to 2
+ */
+@Data
+@NoArgsConstructor
+public class RateLimit {
+
+    /**
+     * Permits per period (0 = unlimited)
+     */
+    private int permits;
+
+    private Duration period = Duration.ofHours(1);
+
+    /**
+     * Permits that may be used back to back before the rate applies
+     */
+    private int burst = 1;
+
+    public RateLimit(int permits, Duration period, int burst) {
+        this.permits = permits;
+        this.period = period;
+        this.burst = burst;
+    }
+
+    /**
+     * Time between two permits at the sustained rate, or zero when unlimited
+     */
+    public Duration interval() {
+        return permits > 0 ? period.dividedBy(permits) : Duration.ZERO;
+    }
+}
@@ -4,6 +4,7 @@ import com.nextinnomind.agro_speak_backend.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -68,6 +69,16 @@ public class SecurityConfig {
 
             // Authorization rules
             .authorizeHttpRequests(auth -> auth
+                // Sends SMS to arbitrary numbers at Twilio's cost, so admins only (matched before the public weather paths)
+                .requestMatchers(HttpMethod.POST, "/api/v1/weather/sms/broadcast").hasRole("ADMIN")
+                // Operational stats and configuration of the running instance, admins only
+                .requestMatchers(HttpMethod.GET, "/api/v1/weather/sms/outbox").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.GET, "/api/v1/weather/alerts/last-run").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.GET, "/api/v1/weather/alerts/rules").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.GET, "/api/v1/weather/push/stats").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.GET, "/api/v1/weather/cache/stats").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.GET, "/api/v1/security/health/upstreams").hasRole("ADMIN")
+
                 // Public endpoints
                 .requestMatchers(
                         "/api/v1/auth/**",
@@ -0,0 +1,31 @@
+package com.nextinnomind.agro_speak_backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the admin SMS broadcast endpoint
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "sms.broadcast")
+public class SmsBroadcastProperties {
+
+    /**
+     * Recipients of one broadcast
+     */
+    private int maxRecipients = 10_000;
+
+    /**
+     * Broadcasts per authenticated caller
+     */
+    private RateLimit perCaller = new RateLimit(10, Duration.ofHours(1), 2);
+
+    /**
+     * Callers tracked at once
+     */
+    private long maxKeys = 10_000;
+}
@@ -0,0 +1,31 @@
+package com.nextinnomind.agro_speak_backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the limits on the public ad-hoc forecast SMS endpoint
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "sms.forecast-limits")
+public class SmsForecastLimitProperties {
+
+    /**
+     * Requests per client IP
+     */
+    private RateLimit perIp = new RateLimit(30, Duration.ofHours(1), 10);
+
+    /**
+     * Requests per destination phone number, whoever asks
+     */
+    private RateLimit perPhone = new RateLimit(3, Duration.ofHours(1), 2);
+
+    /**
+     * Keys tracked at once per limit
+     */
+    private long maxKeys = 200_000;
+}
@@ -0,0 +1,79 @@
+package com.nextinnomind.agro_speak_backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the SMS outbox and its dispatcher
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "sms.outbox")
+public class SmsOutboxProperties {
+
+    /**
+     * Whether this instance dispatches queued messages (they are queued either way)
+     */
+    private boolean dispatcherEnabled = true;
+
+    /**
+     * Concurrent Twilio calls of this instance
+     */
+    private int workers = 8;
+
+    /**
+     * Twilio requests per second of this instance, for the account's throughput limit (0 = unlimited)
+     */
+    private double rate = 10;
+
+    /**
+     * Twilio requests that may go out back to back before the rate applies
+     */
+    private int burst = 1;
+
+    /**
+     * Messages per phone number; a message over it is put back until the number has a permit again
+     * (0 permits = unlimited)
+     */
+    private RateLimit perPhone = new RateLimit(10, Duration.ofHours(1), 3);
+
+    /**
+     * Phone numbers whose rate is tracked at once
+     */
+    private long maxTrackedPhones = 200_000;
+
+    /**
+     * Maximum number of messages claimed per poll
+     */
+    private int batchSize = 50;
+
+    /**
+     * How often the outbox is polled for due messages
+     */
+    private Duration pollInterval = Duration.ofMillis(500);
+
+    /**
+     * Attempts before a message is marked failed
+     */
+    private int maxAttempts = 6;
+
+    /**
+     * Delay before the first retry; doubled for each further one, up to maxBackoff
+     */
+    private Duration initialBackoff = Duration.ofSeconds(30);
+
+    private Duration maxBackoff = Duration.ofHours(1);
+
+    /**
+     * How long a claimed message may stay in flight before another dispatcher takes it back
+     */
+    private Duration lockDuration = Duration.ofMinutes(2);
+
+    /**
+     * Sent and failed messages are deleted after this long
+     */
+    private Duration retention = Duration.ofDays(7);
+}
@@ -0,0 +1,46 @@
+package com.nextinnomind.agro_speak_backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the on-disk forecast snapshot store
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "weather.snapshot-store")
+public class SnapshotStoreProperties {
+
+    /**
+     * Whether forecasts are persisted to disk at all
+     */
+    private boolean enabled = true;
+
+    /**
+     * H2 MVStore file holding the snapshots
+     */
+    private String path = "data/forecast-snapshots.mv.db";
+
+    /**
+     * Snapshots older than this are neither loaded at startup nor served as a fallback, and are pruned
+     */
+    private Duration maxAge = Duration.ofHours(48);
+
+    /**
+     * How often snapshots past the max age are removed from the file
+     */
+    private Duration pruneInterval = Duration.ofHours(1);
+
+    /**
+     * Snapshots kept at most; beyond this the oldest are removed
+     */
+    private int maxEntries = 100_000;
+
+    /**
+     * Snapshots waiting for the writer thread; beyond this new writes are dropped
+     */
+    private int writeQueueSize = 10_000;
+}
@@ -0,0 +1,43 @@
+package com.nextinnomind.agro_speak_backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the translation cache
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "translation.cache")
+public class TranslationCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Translations kept in memory; the least recently used are evicted first
+     */
+    private long maxEntries = 50_000;
+
+    /**
+     * How long a translation is reused, in memory and in the datasource
+     */
+    private Duration ttl = Duration.ofDays(30);
+
+    /**
+     * Also keep translations in the datasource (translation_cache table)
+     */
+    private boolean persist = false;
+
+    /**
+     * How often persisted translations older than the time to live are deleted
+     */
+    private Duration purgeInterval = Duration.ofHours(6);
+
+    /**
+     * Longer texts are translated without caching; they are rarely repeated
+     */
+    private int maxTextLength = 2000;
+}
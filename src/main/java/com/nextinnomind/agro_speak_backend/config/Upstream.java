@@ -0,0 +1,24 @@
+package com.nextinnomind.agro_speak_backend.config;
+
+/**
+ * External services the backend calls, each with its own connection pool, timeouts and bulkhead
+ */
+public enum Upstream {
+    OPEN_METEO("open-meteo"),
+    OPENROUTER("openrouter"),
+    TWILIO("twilio"),
+    FLASK_AI("flask-ai");
+
+    private final String id;
+
+    Upstream(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Name used in configuration keys, pool names and stats
+     */
+    public String id() {
+        return id;
+    }
+}
@@ -0,0 +1,14 @@
+package com.nextinnomind.agro_speak_backend.config;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Thrown instead of calling an upstream whose bulkhead is full, i.e. that already has its maximum
+ * number of requests in flight
+ */
+public class UpstreamBusyException extends RestClientException {
+
+    public UpstreamBusyException(Upstream upstream) {
+        super("Too many concurrent requests to " + upstream.id());
+    }
+}
@@ -0,0 +1,287 @@
+package com.nextinnomind.agro_speak_backend.config;
+
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.ReactorClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outbound HTTP clients, one per {@link Upstream}. Each upstream gets its own Reactor Netty keep-alive
+ * connection pool with its own connect/read timeouts, shared by a RestTemplate and by WebClients built
+ * for it, and a bulkhead limiting the requests in flight. When an upstream slows down, callers beyond
+ * its bulkhead are rejected with {@link UpstreamBusyException} after a short wait instead of queueing,
+ * so one slow dependency cannot tie up every request thread. A request holds its slot until its response
+ * body has been read (or the response is closed), so a slowly streaming body counts against the bulkhead.
+ * <p>
+ * Requests, errors (I/O failures, timeouts and 5xx), rejections and latency up to the end of the body are
+ * counted per upstream.
+ */
+@Slf4j
+@Component
+public class UpstreamClients {
+
+    private final Map<Upstream, Client> clients = new EnumMap<>(Upstream.class);
+    private final WebClient.Builder webClientBuilder;
+
+    public UpstreamClients(UpstreamProperties properties, WebClient.Builder webClientBuilder) {
+        this.webClientBuilder = webClientBuilder;
+        for (Upstream upstream : Upstream.values()) {
+            clients.put(upstream, new Client(upstream, properties.get(upstream)));
+        }
+    }
+
+    /**
+     * The shared RestTemplate of an upstream
+     */
+    public RestTemplate restTemplate(Upstream upstream) {
+        return clients.get(upstream).restTemplate;
+    }
+
+    /**
+     * A WebClient builder using the upstream's connection pool and bulkhead, to be customised (base URL,
+     * default headers) and built by the caller
+     */
+    public WebClient.Builder webClient(Upstream upstream) {
+        Client client = clients.get(upstream);
+        return webClientBuilder.clone()
+                .clientConnector(client.connector)
+                .filter(client.filter());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        clients.values().forEach(client -> client.provider.dispose());
+    }
+
+    /**
+     * Pool settings and request counters per upstream
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        clients.forEach((upstream, client) -> result.put(upstream.id(), client.stats()));
+        return result;
+    }
+
+    private static final class Client {
+        private final Upstream upstream;
+        private final UpstreamProperties.Settings settings;
+        private final ConnectionProvider provider;
+        private final ReactorClientHttpConnector connector;
+        private final RestTemplate restTemplate;
+        private final Semaphore bulkhead;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+        private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+        Client(Upstream upstream, UpstreamProperties.Settings settings) {
+            this.upstream = upstream;
+            this.settings = settings;
+            this.bulkhead = new Semaphore(Math.max(1, settings.getMaxConcurrentRequests()));
+            this.provider = ConnectionProvider.builder("upstream-" + upstream.id())
+                    .maxConnections(Math.max(1, settings.getMaxConnections()))
+                    .pendingAcquireTimeout(settings.getConnectTimeout().plus(settings.getBulkheadWait()))
+                    .maxIdleTime(settings.getMaxIdleTime())
+                    .evictInBackground(settings.getMaxIdleTime())
+                    .build();
+            HttpClient httpClient = HttpClient.create(provider)
+                    .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) settings.getConnectTimeout().toMillis())
+                    .responseTimeout(settings.getReadTimeout());
+            this.connector = new ReactorClientHttpConnector(httpClient);
+
+            ReactorClientHttpRequestFactory requestFactory = new ReactorClientHttpRequestFactory(httpClient);
+            requestFactory.setReadTimeout(settings.getReadTimeout());
+            this.restTemplate = new RestTemplate(requestFactory);
+            this.restTemplate.getInterceptors().add(interceptor());
+        }
+
+        private ClientHttpRequestInterceptor interceptor() {
+            return (request, body, execution) -> {
+                enter(settings.getBulkheadWait());
+                Call call = new Call();
+                ClientHttpResponse response;
+                try {
+                    response = execution.execute(request, body);
+                    call.failed = response.getStatusCode().is5xxServerError();
+                } catch (IOException | RuntimeException e) {
+                    call.finish();
+                    throw e;
+                }
+                // RestTemplate closes the response once the body has been extracted
+                return new ReleasingResponse(response, call);
+            };
+        }
+
+        ExchangeFilterFunction filter() {
+            return (request, next) -> Mono.defer(() -> {
+                // Never block an event loop thread waiting for a slot
+                enter(Schedulers.isInNonBlockingThread() ? Duration.ZERO : settings.getBulkheadWait());
+                Call call = new Call();
+                return next.exchange(request)
+                        .map(response -> {
+                            call.responded = true;
+                            call.failed = response.statusCode().is5xxServerError();
+                            // WebClient consumes or releases every body, so this ends every exchange that got a response
+                            return response.mutate()
+                                    .body(body -> body
+                                            .doOnError(e -> call.failed = true)
+                                            .doFinally(signal -> call.finish()))
+                                    .build();
+                        })
+                        .doOnError(e -> call.finish())
+                        .doOnCancel(() -> {
+                            if (!call.responded) call.finish();
+                        })
+                        .switchIfEmpty(Mono.fromRunnable(call::finish));
+            });
+        }
+
+        /**
+         * One request holding a bulkhead slot, released once whichever way the request ends
+         */
+        private final class Call {
+            private final long start = System.nanoTime();
+            private final AtomicBoolean finished = new AtomicBoolean();
+            private volatile boolean failed = true;
+            private volatile boolean responded;
+
+            void finish() {
+                if (finished.compareAndSet(false, true)) exit(start, failed);
+            }
+        }
+
+        /**
+         * A response that releases its request's slot when closed, counting a failed body read as an error
+         */
+        private static final class ReleasingResponse implements ClientHttpResponse {
+            private final ClientHttpResponse delegate;
+            private final Call call;
+
+            ReleasingResponse(ClientHttpResponse delegate, Call call) {
+                this.delegate = delegate;
+                this.call = call;
+            }
+
+            @Override
+            public HttpStatusCode getStatusCode() throws IOException {
+                return delegate.getStatusCode();
+            }
+
+            @Override
+            public String getStatusText() throws IOException {
+                return delegate.getStatusText();
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return delegate.getHeaders();
+            }
+
+            @Override
+            public InputStream getBody() throws IOException {
+                return new FilterInputStream(delegate.getBody()) {
+                    @Override
+                    public int read() throws IOException {
+                        try {
+                            return super.read();
+                        } catch (IOException e) {
+                            call.failed = true;
+                            throw e;
+                        }
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        try {
+                            return super.read(b, off, len);
+                        } catch (IOException e) {
+                            call.failed = true;
+                            throw e;
+                        }
+                    }
+                };
+            }
+
+            @Override
+            public void close() {
+                try {
+                    delegate.close();
+                } finally {
+                    call.finish();
+                }
+            }
+        }
+
+        private void enter(Duration wait) {
+            boolean acquired;
+            try {
+                acquired = bulkhead.tryAcquire(wait.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+            if (!acquired) {
+                rejected.increment();
+                log.warn("Rejected request to {}: {} requests already in flight", upstream.id(), inFlight.get());
+                throw new UpstreamBusyException(upstream);
+            }
+            inFlight.incrementAndGet();
+        }
+
+        private void exit(long start, boolean failed) {
+            long nanos = System.nanoTime() - start;
+            inFlight.decrementAndGet();
+            bulkhead.release();
+            requests.increment();
+            if (failed) errors.increment();
+            latencyNanos.add(nanos);
+            maxLatencyNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        Map<String, Object> stats() {
+            long count = requests.sum();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("maxConnections", settings.getMaxConnections());
+            result.put("maxConcurrentRequests", settings.getMaxConcurrentRequests());
+            result.put("connectTimeoutMs", settings.getConnectTimeout().toMillis());
+            result.put("readTimeoutMs", settings.getReadTimeout().toMillis());
+            result.put("inFlight", inFlight.get());
+            result.put("requests", count);
+            result.put("errors", errors.sum());
+            result.put("rejected", rejected.sum());
+            result.put("avgLatencyMs", count > 0 ? TimeUnit.NANOSECONDS.toMillis(latencyNanos.sum() / count) : 0);
+            result.put("maxLatencyMs", TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get()));
+            return result;
+        }
+    }
+}
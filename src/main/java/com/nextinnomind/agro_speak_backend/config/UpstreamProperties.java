@@ -0,0 +1,77 @@
+package com.nextinnomind.agro_speak_backend.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Connection pool, timeout and bulkhead settings per upstream (http.upstreams.&lt;name&gt;.*)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "http.upstreams")
+public class UpstreamProperties {
+
+    private Settings openMeteo = new Settings(Duration.ofSeconds(2), Duration.ofSeconds(10), 32, 32);
+
+    private Settings openrouter = new Settings(Duration.ofSeconds(3), Duration.ofSeconds(60), 20, 16);
+
+    private Settings twilio = new Settings(Duration.ofSeconds(2), Duration.ofSeconds(10), 10, 8);
+
+    private Settings flaskAi = new Settings(Duration.ofSeconds(2), Duration.ofSeconds(120), 10, 8);
+
+    public Settings get(Upstream upstream) {
+        return switch (upstream) {
+            case OPEN_METEO -> openMeteo;
+            case OPENROUTER -> openrouter;
+            case TWILIO -> twilio;
+            case FLASK_AI -> flaskAi;
+        };
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Settings {
+
+        /**
+         * Time allowed to establish a TCP/TLS connection
+         */
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Time allowed between sending the request and receiving the response
+         */
+        private Duration readTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Size of the keep-alive connection pool
+         */
+        private int maxConnections = 10;
+
+        /**
+         * Requests allowed in flight at once; further callers wait up to bulkheadWait and are then rejected,
+         * so a slow upstream holds at most this many request threads
+         */
+        private int maxConcurrentRequests = 8;
+
+        /**
+         * How long a caller waits for a free bulkhead slot before being rejected
+         */
+        private Duration bulkheadWait = Duration.ofMillis(200);
+
+        /**
+         * Pooled connections idle for longer than this are closed
+         */
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+
+        public Settings(Duration connectTimeout, Duration readTimeout, int maxConnections, int maxConcurrentRequests) {
+            this.connectTimeout = connectTimeout;
+            this.readTimeout = readTimeout;
+            this.maxConnections = maxConnections;
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+    }
+}
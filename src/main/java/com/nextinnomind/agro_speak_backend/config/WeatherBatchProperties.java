@@ -0,0 +1,34 @@
+package com.nextinnomind.agro_speak_backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for multi-location Open-Meteo requests
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "weather.batch")
+public class WeatherBatchProperties {
+
+    /**
+     * Maximum number of locations sent in one Open-Meteo request
+     */
+    private int maxLocationsPerRequest = 100;
+
+    /**
+     * Upper bound on the request URL length; chunks are split before exceeding it
+     */
+    private int maxUrlLength = 4000;
+
+    /**
+     * Number of chunk requests run concurrently
+     */
+    private int concurrency = 4;
+
+    /**
+     * Maximum number of coordinates accepted by a single batch API call
+     */
+    private int maxCoordinatesPerCall = 1000;
+}
@@ -0,0 +1,89 @@
+package com.nextinnomind.agro_speak_backend.config;
+
+import com.nextinnomind.agro_speak_backend.service.WeatherDataType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the in-process weather forecast cache
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "weather.cache")
+public class WeatherCacheProperties {
+
+    /**
+     * Whether forecasts are cached at all (disable to always hit Open-Meteo)
+     */
+    private boolean enabled = true;
+
+    /**
+     * Grid resolution in degrees that request coordinates are snapped to.
+     * 0.1 degrees is roughly 11 km, close to the Open-Meteo best-match model grid.
+     */
+    private double gridResolution = 0.1;
+
+    /**
+     * Maximum number of cached forecasts before eviction kicks in
+     */
+    private long maximumSize = 50_000;
+
+    /**
+     * Time-to-live of current conditions
+     */
+    private Duration currentTtl = Duration.ofMinutes(10);
+
+    /**
+     * Time-to-live of hourly forecasts
+     */
+    private Duration hourlyTtl = Duration.ofHours(1);
+
+    /**
+     * Time-to-live of daily forecasts
+     */
+    private Duration dailyTtl = Duration.ofHours(3);
+
+    /**
+     * Time-to-live of soil temperature and moisture data
+     */
+    private Duration soilTtl = Duration.ofHours(1);
+
+    /**
+     * Time-to-live of the combined current + hourly forecast evaluated by the alert scheduler
+     */
+    private Duration alertTtl = Duration.ofMinutes(10);
+
+    /**
+     * Time-to-live of the combined farm dashboard forecast (bounded by its most volatile section)
+     */
+    private Duration dashboardTtl = Duration.ofMinutes(10);
+
+    /**
+     * How long past its TTL an entry may still be served while it is refreshed in the background
+     */
+    private Duration staleWhileRevalidate = Duration.ofMinutes(10);
+
+    /**
+     * Number of threads refreshing stale entries in the background
+     */
+    private int refreshConcurrency = 4;
+
+    /**
+     * Number of most-requested keys tracked for refresh-ahead prefetching
+     */
+    private long hotKeys = 2_000;
+
+    public Duration ttlFor(WeatherDataType type) {
+        return switch (type) {
+            case CURRENT -> currentTtl;
+            case HOURLY -> hourlyTtl;
+            case DAILY -> dailyTtl;
+            case SOIL -> soilTtl;
+            case ALERT -> alertTtl;
+            case DASHBOARD -> dashboardTtl;
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package com.nextinnomind.agro_speak_backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the real-time weather push channel (WebSocket at /ws/weather)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "weather.push")
+public class WeatherPushProperties {
+
+    /**
+     * Whether the WebSocket endpoint accepts connections at all
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of open connections on this instance
+     */
+    private int maxSessions = 10_000;
+
+    /**
+     * Maximum number of grid cells one connection may subscribe to
+     */
+    private int maxSubscriptionsPerSession = 10;
+
+    /**
+     * Maximum number of distinct grid cells watched across all connections of this instance; each one is
+     * kept fresh against Open-Meteo, so this bounds the upstream load anonymous clients can cause
+     */
+    private int maxCells = 2_000;
+
+    /**
+     * How often the forecasts of subscribed cells are checked, so they are refreshed (and pushed)
+     * without any client polling
+     */
+    private Duration refreshInterval = Duration.ofMinutes(1);
+
+    /**
+     * Threads preparing messages and starting their sends; sends themselves do not block them
+     */
+    private int senders = 4;
+
+    /**
+     * Threads loading forecasts for new subscriptions and the periodic checks, which may wait on Open-Meteo
+     */
+    private int loaders = 2;
+
+    /**
+     * A connection that does not take a message within this time is closed
+     */
+    private Duration sendTimeLimit = Duration.ofSeconds(10);
+
+    /**
+     * Bytes buffered per connection while a send is in progress; beyond this the oldest messages are dropped
+     */
+    private int bufferSizeLimit = 512 * 1024;
+}
@@ -1,7 +1,9 @@
 package com.nextinnomind.agro_speak_backend.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -9,6 +11,7 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 
 /**
  * Web MVC Configuration for interceptors, resource handlers, and other web-related settings
@@ -18,6 +21,7 @@ import java.nio.file.Paths;
 public class WebConfig implements WebMvcConfigurer {
 
     private final RequestLoggingInterceptor requestLoggingInterceptor;
+    private final ObjectMapper objectMapper;
     private static final String UPLOAD_DIR = "uploads/";
 
     @Override
@@ -34,6 +38,13 @@ public class WebConfig implements WebMvcConfigurer {
                 );
     }
 
+    @Override
+    public void extendMessageConverters(@org.springframework.lang.NonNull List<HttpMessageConverter<?>> converters) {
+        // Columnar weather encoding must come before the Jackson JSON converter, which also accepts application/*+json.
+        // CBOR and Smile converters are registered automatically because their Jackson modules are on the classpath.
+        converters.add(0, new ColumnarWeatherMessageConverter(objectMapper));
+    }
+
     @Override
     public void addResourceHandlers(@org.springframework.lang.NonNull ResourceHandlerRegistry registry) {
         // Create uploads directory if it doesn't exist
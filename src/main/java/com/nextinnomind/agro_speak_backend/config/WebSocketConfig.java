@@ -0,0 +1,27 @@
+package com.nextinnomind.agro_speak_backend.config;
+
+import com.nextinnomind.agro_speak_backend.controllers.WeatherWebSocketHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * WebSocket endpoints (permitted without authentication under /ws/** in {@link SecurityConfig}),
+ * open to the same origins as the REST API
+ */
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final WeatherWebSocketHandler weatherWebSocketHandler;
+    private final CorsProperties corsProperties;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(weatherWebSocketHandler, "/ws/weather")
+                .setAllowedOrigins(corsProperties.getAllowedOrigins().toArray(String[]::new));
+    }
+}
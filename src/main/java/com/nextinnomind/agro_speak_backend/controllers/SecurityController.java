@@ -1,5 +1,7 @@
 package com.nextinnomind.agro_speak_backend.controllers;
 
+import com.nextinnomind.agro_speak_backend.config.UpstreamClients;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.web.csrf.CsrfToken;
@@ -16,8 +18,11 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api/v1/security")
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:4200", "http://localhost:8080"})
+@RequiredArgsConstructor
 public class SecurityController {
 
+    private final UpstreamClients upstreamClients;
+
     /**
      * Handle CORS preflight requests
      */
@@ -70,6 +75,15 @@ public class SecurityController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Connection pool settings, in-flight requests, errors, bulkhead rejections and latency per upstream
+     * (Open-Meteo, OpenRouter, Twilio, Flask AI service). Admins only (see SecurityConfig).
+     */
+    @GetMapping("/health/upstreams")
+    public ResponseEntity<Map<String, Object>> upstreams() {
+        return ResponseEntity.ok(upstreamClients.stats());
+    }
+
     /**
      * Helper method to get client IP address from request
      */
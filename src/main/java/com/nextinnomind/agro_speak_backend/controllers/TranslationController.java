@@ -2,18 +2,27 @@ package com.nextinnomind.agro_speak_backend.controllers;
 
 import com.nextinnomind.agro_speak_backend.dto.TranslationRequest;
 import com.nextinnomind.agro_speak_backend.dto.TranslationResponse;
+import com.nextinnomind.agro_speak_backend.service.TranslationCache;
+import com.nextinnomind.agro_speak_backend.service.TranslationGlossary;
 import com.nextinnomind.agro_speak_backend.service.TranslationService;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/translate")
 @CrossOrigin
 public class TranslationController {
 
     private final TranslationService translationService;
+    private final TranslationCache translationCache;
+    private final TranslationGlossary glossary;
 
-    public TranslationController(TranslationService translationService) {
+    public TranslationController(TranslationService translationService, TranslationCache translationCache,
+                                 TranslationGlossary glossary) {
         this.translationService = translationService;
+        this.translationCache = translationCache;
+        this.glossary = glossary;
     }
 
     @PostMapping
@@ -25,4 +34,20 @@ public class TranslationController {
         );
         return new TranslationResponse(translated);
     }
-}
\ No newline at end of file
+
+    /**
+     * Hit rate and size of the translation cache
+     */
+    @GetMapping("/cache/stats")
+    public Map<String, Object> cacheStats() {
+        return translationCache.stats();
+    }
+
+    /**
+     * Terms per language of the active glossary and how many of them translations used
+     */
+    @GetMapping("/glossary/stats")
+    public Map<String, Object> glossaryStats() {
+        return glossary.stats();
+    }
+}
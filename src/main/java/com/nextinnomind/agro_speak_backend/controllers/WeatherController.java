@@ -1,18 +1,44 @@
 package com.nextinnomind.agro_speak_backend.controllers;
 
-import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+import com.nextinnomind.agro_speak_backend.config.SmsBroadcastProperties;
+import com.nextinnomind.agro_speak_backend.config.WeatherBatchProperties;
+import com.nextinnomind.agro_speak_backend.dto.AgroIndicatorsResponse;
+import com.nextinnomind.agro_speak_backend.dto.Coordinate;
+import com.nextinnomind.agro_speak_backend.dto.SmsBroadcastRequest;
+import com.nextinnomind.agro_speak_backend.dto.WeatherDashboardResponse;
+import com.nextinnomind.agro_speak_backend.service.AgroIndicatorService;
+import com.nextinnomind.agro_speak_backend.service.AlertRunReport;
+import com.nextinnomind.agro_speak_backend.service.CachedForecast;
+import com.nextinnomind.agro_speak_backend.service.ComposedSms;
+import com.nextinnomind.agro_speak_backend.service.ForecastSmsRenderer;
+import com.nextinnomind.agro_speak_backend.service.WeatherAlertScheduler;
+import com.nextinnomind.agro_speak_backend.service.WeatherCache;
+import com.nextinnomind.agro_speak_backend.service.WeatherPushHub;
 import com.nextinnomind.agro_speak_backend.service.WeatherService;
-import com.nextinnomind.agro_speak_backend.service.SmsService;
+import com.nextinnomind.agro_speak_backend.service.SmsBroadcastThrottle;
+import com.nextinnomind.agro_speak_backend.service.SmsDispatcher;
+import com.nextinnomind.agro_speak_backend.service.SmsForecastThrottle;
+import com.nextinnomind.agro_speak_backend.service.SmsOutbox;
 import com.nextinnomind.agro_speak_backend.repository.UserRepository;
 import com.nextinnomind.agro_speak_backend.entity.User;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @RestController
@@ -22,8 +48,18 @@ import java.util.Map;
 public class WeatherController {
 
     private final WeatherService weatherService;
-    private final SmsService smsService;
+    private final SmsOutbox smsOutbox;
     private final UserRepository userRepository;
+    private final WeatherCache weatherCache;
+    private final WeatherAlertScheduler weatherAlertScheduler;
+    private final WeatherBatchProperties batchProperties;
+    private final WeatherPushHub weatherPushHub;
+    private final AgroIndicatorService agroIndicatorService;
+    private final ForecastSmsRenderer forecastSmsRenderer;
+    private final SmsDispatcher smsDispatcher;
+    private final SmsForecastThrottle smsForecastThrottle;
+    private final SmsBroadcastProperties broadcastProperties;
+    private final SmsBroadcastThrottle smsBroadcastThrottle;
 
     /**
      * Get current weather conditions
@@ -41,9 +77,9 @@ public class WeatherController {
         log.info("Fetching current weather for coordinates: lat={}, lon={}", latitude, longitude);
         
         try {
-            WeatherResponse response = weatherService.getCurrentWeather(latitude, longitude);
+            CachedForecast forecast = weatherService.getCurrentWeatherCached(latitude, longitude);
             log.info("Current weather data retrieved successfully for lat={}, lon={}", latitude, longitude);
-            return ResponseEntity.ok(response);
+            return conditional(forecast, "", request);
         } catch (Exception e) {
             log.error("Error fetching current weather for lat={}, lon={} from IP {}: {}", 
                      latitude, longitude, clientIp, e.getMessage(), e);
@@ -53,13 +89,53 @@ public class WeatherController {
     }
 
     /**
-     * Send forecast via SMS to a phone number (ad-hoc)
+     * Get current weather for many locations at once (dashboards, cooperative-level views).
+     * The result list is aligned with the request; entries that could not be fetched are null.
+     */
+    @PostMapping("/current/batch")
+    public ResponseEntity<?> getCurrentWeatherBatch(
+            @RequestBody List<Coordinate> coordinates,
+            HttpServletRequest request) {
+
+        String clientIp = getClientIpAddress(request);
+        log.info("=== CURRENT WEATHER BATCH ENDPOINT ACCESSED ===");
+        log.info("Method: POST | Endpoint: /api/v1/weather/current/batch | IP: {} | Locations: {}",
+                 clientIp, coordinates.size());
+
+        if (coordinates.size() > batchProperties.getMaxCoordinatesPerCall()) {
+            return ResponseEntity.badRequest().body(createErrorResponse(
+                    "At most " + batchProperties.getMaxCoordinatesPerCall() + " coordinates per request"));
+        }
+        for (int i = 0; i < coordinates.size(); i++) {
+            Coordinate coordinate = coordinates.get(i);
+            // Written so that NaN is rejected as well
+            if (coordinate == null || !(coordinate.latitude() >= -90 && coordinate.latitude() <= 90)
+                    || !(coordinate.longitude() >= -180 && coordinate.longitude() <= 180)) {
+                return ResponseEntity.badRequest().body(createErrorResponse("Invalid coordinate at position " + i
+                        + ": latitude must be between -90 and 90 and longitude between -180 and 180"));
+            }
+        }
+
+        try {
+            return ResponseEntity.ok(weatherService.getCurrentWeather(coordinates));
+        } catch (Exception e) {
+            log.error("Error fetching batch current weather for {} locations from IP {}: {}",
+                     coordinates.size(), clientIp, e.getMessage(), e);
+            return ResponseEntity.internalServerError()
+                    .body(createErrorResponse("Failed to fetch current weather data"));
+        }
+    }
+
+    /**
+     * Send forecast via SMS to a phone number (ad-hoc). The message is queued in the SMS outbox and
+     * delivered in the background, so this answers 202 with the outbox id.
      */
     @PostMapping("/sms/forecast")
     public ResponseEntity<?> sendForecastSms(
             @RequestParam double latitude,
             @RequestParam double longitude,
             @RequestParam String phone,
+            @RequestParam(defaultValue = "en") String language,
             HttpServletRequest request) {
 
         String clientIp = getClientIpAddress(request);
@@ -67,32 +143,90 @@ public class WeatherController {
         log.info("Method: POST | Endpoint: /api/v1/weather/sms/forecast | IP: {} | User-Agent: {}", 
                  clientIp, request.getHeader("User-Agent"));
 
+        String number = SmsOutbox.normalizePhone(phone);
+        if (number == null) {
+            return ResponseEntity.badRequest().body(createErrorResponse(
+                    "Invalid phone number; use the international format, e.g. +260971234567"));
+        }
+
+        Duration retryAfter = smsForecastThrottle.check(clientIp, number);
+        if (!retryAfter.isZero()) {
+            log.warn("SMS forecast to {} from IP {} rate limited", phone, clientIp);
+            return ResponseEntity.status(429)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())))
+                    .body(createErrorResponse("Too many SMS requests, try again later"));
+        }
+
         try {
-            WeatherResponse resp = weatherService.getDailyForecast(latitude, longitude, 3);
-            StringBuilder body = new StringBuilder();
-            body.append("3-day forecast:\n");
-            if (resp != null && resp.getDaily() != null) {
-                String[] times = resp.getDaily().getTime();
-                double[] tmax = resp.getDaily().getTemperatureMax();
-                double[] tmin = resp.getDaily().getTemperatureMin();
-                String[] messages = resp.getDaily().getMessages();
-                int n = Math.min(times.length, Math.min(tmax.length, tmin.length));
-                for (int i = 0; i < n; i++) {
-                    body.append(times[i]).append(": ")
-                        .append(messages != null && messages.length > i ? messages[i] : "")
-                        .append(" - ").append(tmin[i]).append("/" ).append(tmax[i]).append(" C\n");
-                }
-            } else {
-                body.append("Forecast not available.");
-            }
+            String body = forecastSmsRenderer.render(latitude, longitude, language);
 
-            boolean sent = smsService.sendSms(phone, body.toString());
-            if (sent) return ResponseEntity.ok().body(Map.of("message", "SMS sent"));
-            return ResponseEntity.status(503).body(createErrorResponse("SMS sending failed or not configured"));
+            long id = smsOutbox.enqueue(number, body, SmsOutbox.SOURCE_FORECAST);
+            return ResponseEntity.accepted().body(Map.of("message", "SMS queued", "id", id));
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
-            log.error("Error sending SMS forecast to {} from IP {}: {}", phone, clientIp, e.getMessage(), e);
-            return ResponseEntity.internalServerError().body(createErrorResponse("Failed to send SMS forecast"));
+            log.error("Error queueing SMS forecast to {} from IP {}: {}", phone, clientIp, e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(createErrorResponse("Failed to queue SMS forecast"));
+        }
+    }
+
+    /**
+     * Send one message to many phone numbers. The body is normalised and compacted once, then queued for
+     * every recipient; the SMS dispatcher delivers them at its configured parallelism and rate.
+     * Admins only (see SecurityConfig), and limited per caller.
+     */
+    @PostMapping("/sms/broadcast")
+    public ResponseEntity<?> broadcastSms(@RequestBody SmsBroadcastRequest broadcast,
+                                          @AuthenticationPrincipal User caller,
+                                          HttpServletRequest request) {
+        String clientIp = getClientIpAddress(request);
+        int recipients = broadcast.getPhones() != null ? broadcast.getPhones().size() : 0;
+        if (caller == null) {
+            return ResponseEntity.status(401).body(createErrorResponse("Authentication required"));
+        }
+        log.info("POST /api/v1/weather/sms/broadcast - {} recipients from user {} (IP: {})",
+                 recipients, caller.getId(), clientIp);
+
+        int maxBroadcastRecipients = broadcastProperties.getMaxRecipients();
+        if (recipients == 0) {
+            return ResponseEntity.badRequest().body(createErrorResponse("At least one phone number is required"));
+        }
+        if (recipients > maxBroadcastRecipients) {
+            return ResponseEntity.badRequest().body(createErrorResponse(
+                    "A broadcast is limited to " + maxBroadcastRecipients + " recipients"));
+        }
+        if (broadcast.getMessage() == null || broadcast.getMessage().isBlank()) {
+            return ResponseEntity.badRequest().body(createErrorResponse("Message is required"));
+        }
+        List<String> invalid = broadcast.getPhones().stream().filter(phone -> SmsOutbox.normalizePhone(phone) == null).toList();
+        if (!invalid.isEmpty()) {
+            return ResponseEntity.badRequest().body(createErrorResponse(invalid.size()
+                    + " invalid phone numbers (use the international format, e.g. +260971234567): "
+                    + invalid.stream().limit(5).map(String::valueOf).collect(Collectors.joining(", "))
+                    + (invalid.size() > 5 ? ", ..." : "")));
+        }
+
+        Duration retryAfter = smsBroadcastThrottle.check("user:" + caller.getId());
+        if (!retryAfter.isZero()) {
+            log.warn("SMS broadcast by user {} rate limited", caller.getId());
+            return ResponseEntity.status(429)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())))
+                    .body(createErrorResponse("Too many broadcasts, try again later"));
+        }
+
+        try {
+            ComposedSms sms = smsOutbox.broadcast(broadcast.getPhones(), broadcast.getMessage());
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("message", "SMS broadcast queued");
+            body.put("recipients", broadcast.getPhones().stream().map(SmsOutbox::normalizePhone).distinct().count());
+            body.put("encoding", sms.encoding());
+            body.put("segmentsPerMessage", sms.segments());
+            body.put("compacted", sms.compacted());
+            return ResponseEntity.accepted().body(body);
+        } catch (Exception e) {
+            log.error("Error queueing SMS broadcast from IP {}: {}", clientIp, e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(createErrorResponse("Failed to queue SMS broadcast"));
         }
     }
 
@@ -113,6 +247,8 @@ public class WeatherController {
             if (latitude != null && longitude != null) {
                 user.setLatitude(latitude);
                 user.setLongitude(longitude);
+                // Reassigned from the new location before the next alert scan
+                user.setAlertShard(null);
             }
             userRepository.save(user);
             return ResponseEntity.ok(Map.of("message", "Subscription updated", "alertsEnabled", enable));
@@ -139,10 +275,10 @@ public class WeatherController {
         log.info("Fetching {}-day forecast for coordinates: lat={}, lon={}", days, latitude, longitude);
         
         try {
-            WeatherResponse response = weatherService.getDailyForecast(latitude, longitude, days);
+            CachedForecast forecast = weatherService.getDailyForecastCached(latitude, longitude, days);
             log.info("Daily forecast data retrieved successfully for lat={}, lon={} ({} days)", 
                      latitude, longitude, days);
-            return ResponseEntity.ok(response);
+            return conditional(forecast, "", request);
         } catch (Exception e) {
             log.error("Error fetching daily forecast for lat={}, lon={} from IP {}: {}", 
                      latitude, longitude, clientIp, e.getMessage(), e);
@@ -151,6 +287,38 @@ public class WeatherController {
         }
     }
 
+    /**
+     * Agronomic indicators: growing degree days, reference evapotranspiration, rainfall and dry spells
+     * over the past days and the forecast
+     */
+    @GetMapping("/indicators")
+    public ResponseEntity<?> getIndicators(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(required = false) Double baseTemperature,
+            HttpServletRequest request) {
+
+        String clientIp = getClientIpAddress(request);
+        log.info("Method: GET | Endpoint: /api/v1/weather/indicators | IP: {} | lat={}, lon={}, baseTemperature={}",
+                 clientIp, latitude, longitude, baseTemperature);
+
+        if (baseTemperature != null && (baseTemperature < -10 || baseTemperature > 30)) {
+            return ResponseEntity.badRequest().body(createErrorResponse("baseTemperature must be between -10 and 30"));
+        }
+        try {
+            AgroIndicatorsResponse indicators = agroIndicatorService.getIndicators(latitude, longitude, baseTemperature);
+            if (indicators == null) {
+                return ResponseEntity.internalServerError().body(createErrorResponse("No indicator data available"));
+            }
+            return ResponseEntity.ok(indicators);
+        } catch (Exception e) {
+            log.error("Error computing indicators for lat={}, lon={} from IP {}: {}",
+                     latitude, longitude, clientIp, e.getMessage(), e);
+            return ResponseEntity.internalServerError()
+                    .body(createErrorResponse("Failed to compute agronomic indicators"));
+        }
+    }
+
     /**
      * Get hourly forecast
      */
@@ -159,6 +327,7 @@ public class WeatherController {
             @RequestParam double latitude,
             @RequestParam double longitude,
             @RequestParam(defaultValue = "24") int hours,
+            @RequestParam(defaultValue = "1") int step,
             HttpServletRequest request) {
         
         String clientIp = getClientIpAddress(request);
@@ -168,10 +337,11 @@ public class WeatherController {
         log.info("Fetching {}-hour forecast for coordinates: lat={}, lon={}", hours, latitude, longitude);
         
         try {
-            WeatherResponse response = weatherService.getHourlyForecast(latitude, longitude, hours);
+            CachedForecast forecast = weatherService.getHourlyForecastCached(latitude, longitude,
+                    clampHours(hours), clampStep(step));
             log.info("Hourly forecast data retrieved successfully for lat={}, lon={} ({} hours)", 
                      latitude, longitude, hours);
-            return ResponseEntity.ok(response);
+            return conditional(forecast, "hours=" + clampHours(hours) + "&step=" + clampStep(step), request);
         } catch (Exception e) {
             log.error("Error fetching hourly forecast for lat={}, lon={} from IP {}: {}", 
                      latitude, longitude, clientIp, e.getMessage(), e);
@@ -181,12 +351,14 @@ public class WeatherController {
     }
 
     /**
-     * Get soil data for agriculture
+     * Get soil data for agriculture; the next 7 days unless a shorter window is asked for with 'hours'
      */
     @GetMapping("/soil")
     public ResponseEntity<?> getSoilData(
             @RequestParam double latitude,
             @RequestParam double longitude,
+            @RequestParam(defaultValue = "168") int hours,
+            @RequestParam(defaultValue = "1") int step,
             HttpServletRequest request) {
         
         String clientIp = getClientIpAddress(request);
@@ -196,9 +368,10 @@ public class WeatherController {
         log.info("Fetching soil data for coordinates: lat={}, lon={}", latitude, longitude);
         
         try {
-            WeatherResponse response = weatherService.getSoilData(latitude, longitude);
+            CachedForecast forecast = weatherService.getSoilDataCached(latitude, longitude,
+                    clampHours(hours), clampStep(step));
             log.info("Soil data retrieved successfully for lat={}, lon={}", latitude, longitude);
-            return ResponseEntity.ok(response);
+            return conditional(forecast, "hours=" + clampHours(hours) + "&step=" + clampStep(step), request);
         } catch (Exception e) {
             log.error("Error fetching soil data for lat={}, lon={} from IP {}: {}", 
                      latitude, longitude, clientIp, e.getMessage(), e);
@@ -207,19 +380,162 @@ public class WeatherController {
         }
     }
 
+    /**
+     * Farm dashboard: current, hourly, daily and soil data in one response backed by one upstream request.
+     * Use 'sections' (comma-separated: current,hourly,daily,soil) to fetch only part of it.
+     */
+    @GetMapping("/dashboard")
+    public ResponseEntity<?> getDashboard(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(required = false) String sections,
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "24") int hours,
+            HttpServletRequest request) {
+
+        String clientIp = getClientIpAddress(request);
+        log.info("=== DASHBOARD ENDPOINT ACCESSED ===");
+        log.info("Method: GET | Endpoint: /api/v1/weather/dashboard | IP: {} | User-Agent: {}",
+                 clientIp, request.getHeader("User-Agent"));
+
+        Set<WeatherDashboardResponse.Section> selected;
+        try {
+            selected = parseSections(sections);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(
+                    "Invalid sections '" + sections + "'; expected any of current,hourly,daily,soil"));
+        }
+        // Open-Meteo serves at most 16 forecast days
+        int daysAhead = Math.max(1, Math.min(days, 16));
+        int hoursAhead = clampHours(hours);
+
+        try {
+            CachedForecast forecast = weatherService.getDashboardForecastCached(
+                    latitude, longitude, selected, daysAhead, hoursAhead);
+            log.info("Dashboard data retrieved successfully for lat={}, lon={} ({})", latitude, longitude, selected);
+            return conditional(forecast, forecast != null ? WeatherDashboardResponse.from(forecast.response(), selected) : null,
+                    "", request);
+        } catch (Exception e) {
+            log.error("Error fetching dashboard data for lat={}, lon={} from IP {}: {}",
+                     latitude, longitude, clientIp, e.getMessage(), e);
+            return ResponseEntity.internalServerError()
+                    .body(createErrorResponse("Failed to fetch dashboard data"));
+        }
+    }
+
+    /**
+     * Weather cache hit/miss/eviction counters. Admins only (see SecurityConfig).
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<?> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(weatherCache.stats());
+        stats.put("smsBodies", forecastSmsRenderer.stats());
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * SMS outbox backlog (messages per status, age of the oldest pending one), this instance's delivery
+     * counters (throughput, segments per message) and composition counters. Admins only (see SecurityConfig).
+     */
+    @GetMapping("/sms/outbox")
+    public ResponseEntity<?> getSmsOutbox() {
+        Map<String, Object> body = new LinkedHashMap<>(smsOutbox.backlog());
+        body.put("dispatcher", smsDispatcher.stats());
+        body.put("forecastLimits", smsForecastThrottle.stats());
+        body.put("broadcastLimits", smsBroadcastThrottle.stats());
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * Connections, subscriptions and delivery counters of the WebSocket push channel (/ws/weather).
+     * Admins only (see SecurityConfig).
+     */
+    @GetMapping("/push/stats")
+    public ResponseEntity<?> getPushStats() {
+        return ResponseEntity.ok(weatherPushHub.stats());
+    }
+
+    /**
+     * Completion report (counts and per-stage timings) of the most recent alert run on this instance,
+     * with alert ledger counters and shard ownership. Admins only (see SecurityConfig).
+     */
+    @GetMapping("/alerts/last-run")
+    public ResponseEntity<?> getLastAlertRun() {
+        AlertRunReport report = weatherAlertScheduler.getLastReport();
+        if (report == null) return ResponseEntity.status(404).body(createErrorResponse("No alert run completed yet"));
+        Map<String, Object> body = report.toMap();
+        body.put("ledger", weatherAlertScheduler.getLedgerStats());
+        body.put("sharding", weatherAlertScheduler.getShardStats());
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * Alert rules currently in effect (reloaded from the rules file when it changes). Admins only (see
+     * SecurityConfig), as it shows where the rules are loaded from.
+     */
+    @GetMapping("/alerts/rules")
+    public ResponseEntity<?> getAlertRules() {
+        return ResponseEntity.ok(weatherAlertScheduler.getRules());
+    }
+
     // Helper methods
+    /**
+     * The client's address as resolved by the servlet container. Behind a reverse proxy, Tomcat takes it
+     * from X-Forwarded-For only when the request comes from a trusted proxy (server.forward-headers-strategy,
+     * server.tomcat.remoteip.internal-proxies); the raw header is chosen by the client, so it is never read
+     * here, as this address keys the SMS rate limits.
+     */
     private String getClientIpAddress(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
+        return request.getRemoteAddr();
+    }
+
+    private ResponseEntity<?> conditional(CachedForecast forecast, String variant, HttpServletRequest request) {
+        return conditional(forecast, forecast != null ? forecast.response() : null, variant, request);
+    }
+
+    /**
+     * 200 with a strong ETag and a max-age matching the forecast's remaining cache lifetime. For a GET whose
+     * If-None-Match matches the tag, Spring answers 304 without serializing the body.
+     */
+    private ResponseEntity<?> conditional(CachedForecast forecast, Object body, String variant,
+                                          HttpServletRequest request) {
+        if (forecast == null) return ResponseEntity.ok(body);
+        // The same forecast is served as JSON, CBOR, Smile or columnar, so the tag covers the Accept header too
+        String etag = forecast.etag(variant + "|" + request.getHeader(HttpHeaders.ACCEPT));
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(forecast.maxAge()))
+                .varyBy(HttpHeaders.ACCEPT);
+        if (forecast.degraded()) {
+            // Open-Meteo is unreachable and this is the last known forecast
+            builder.header("X-Forecast-Stale", "true")
+                    .header("X-Forecast-Age", String.valueOf(forecast.age().toSeconds()));
         }
-        
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty()) {
-            return xRealIp;
+        return builder.body(body);
+    }
+
+    // Open-Meteo serves at most 16 days of hourly data
+    private int clampHours(int hours) {
+        return Math.max(1, Math.min(hours, 16 * 24));
+    }
+
+    // Aggregation step in hours (1 = hourly, 3 = 3-hourly, ...)
+    private int clampStep(int step) {
+        return Math.max(1, Math.min(step, 24));
+    }
+
+    private Set<WeatherDashboardResponse.Section> parseSections(String sections) {
+        if (sections == null || sections.isBlank()) {
+            return EnumSet.allOf(WeatherDashboardResponse.Section.class);
         }
-        
-        return request.getRemoteAddr();
+        Set<WeatherDashboardResponse.Section> selected = EnumSet.noneOf(WeatherDashboardResponse.Section.class);
+        for (String section : sections.split(",")) {
+            if (!section.isBlank()) {
+                selected.add(WeatherDashboardResponse.Section.valueOf(section.trim().toUpperCase(Locale.ROOT)));
+            }
+        }
+        if (selected.isEmpty()) throw new IllegalArgumentException("No sections selected");
+        return selected;
     }
 
     private Map<String, Object> createErrorResponse(String message) {
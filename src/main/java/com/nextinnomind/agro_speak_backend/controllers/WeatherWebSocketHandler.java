@@ -0,0 +1,114 @@
+package com.nextinnomind.agro_speak_backend.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nextinnomind.agro_speak_backend.config.WeatherPushProperties;
+import com.nextinnomind.agro_speak_backend.service.GridCell;
+import com.nextinnomind.agro_speak_backend.service.WeatherDataType;
+import com.nextinnomind.agro_speak_backend.service.WeatherPushHub;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * WebSocket endpoint for real-time weather at /ws/weather. Clients send
+ * <pre>
+ * {"action": "subscribe", "latitude": -15.4, "longitude": 28.3, "types": ["CURRENT", "HOURLY", "ALERT"]}
+ * {"action": "unsubscribe", "latitude": -15.4, "longitude": 28.3}
+ * </pre>
+ * and receive a "subscribed" acknowledgement, the current forecasts of the location's grid cell, then
+ * "forecast" and "alert" events whenever the cell's forecast is refreshed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WeatherWebSocketHandler extends TextWebSocketHandler {
+
+    private final WeatherPushHub pushHub;
+    private final WeatherPushProperties properties;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        if (!properties.isEnabled() || !pushHub.connect(session)) {
+            log.warn("Rejected weather push connection from {}: push disabled or connection limit reached",
+                    session.getRemoteAddress());
+            session.close(CloseStatus.SERVICE_OVERLOAD);
+            return;
+        }
+        log.debug("Weather push connection {} opened from {}", session.getId(), session.getRemoteAddress());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        try {
+            JsonNode request = objectMapper.readTree(message.getPayload());
+            String action = request.path("action").asText("");
+            double latitude = coordinate(request, "latitude", 90);
+            double longitude = coordinate(request, "longitude", 180);
+
+            switch (action) {
+                case "subscribe" -> pushHub.subscribe(session.getId(), latitude, longitude, types(request.path("types")));
+                case "unsubscribe" -> {
+                    GridCell cell = pushHub.unsubscribe(session.getId(), latitude, longitude);
+                    Map<String, Object> ack = new LinkedHashMap<>();
+                    ack.put("event", "unsubscribed");
+                    ack.put("cell", cell != null ? cell.id() : null);
+                    pushHub.reply(session.getId(), ack);
+                }
+                default -> throw new IllegalArgumentException("Unknown action '" + action + "'");
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            pushHub.reply(session.getId(), createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            log.debug("Invalid weather push message on connection {}: {}", session.getId(), e.getMessage());
+            pushHub.reply(session.getId(), createErrorResponse("Invalid message"));
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("Weather push connection {} failed: {}", session.getId(), exception.getMessage());
+        pushHub.disconnect(session.getId());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        pushHub.disconnect(session.getId());
+    }
+
+    private static double coordinate(JsonNode request, String field, double limit) {
+        JsonNode node = request.get(field);
+        if (node == null || !node.isNumber() || Math.abs(node.asDouble()) > limit) {
+            throw new IllegalArgumentException("'" + field + "' must be a number between -" + (int) limit
+                    + " and " + (int) limit);
+        }
+        return node.asDouble();
+    }
+
+    private static Set<WeatherDataType> types(JsonNode node) {
+        if (!node.isArray()) return null;
+        Set<WeatherDataType> types = EnumSet.noneOf(WeatherDataType.class);
+        for (JsonNode type : node) {
+            types.add(WeatherDataType.valueOf(type.asText().toUpperCase(Locale.ROOT)));
+        }
+        return types;
+    }
+
+    private Map<String, Object> createErrorResponse(String message) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("event", "error");
+        error.put("message", message);
+        return error;
+    }
+}
@@ -0,0 +1,65 @@
+package com.nextinnomind.agro_speak_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Agronomic indicators of a grid cell: growing degree days, FAO-56 reference evapotranspiration,
+ * rainfall and dry spells over the past days (observed) and the coming days (forecast), with the
+ * daily values they are summed from. Temperatures in °C, amounts in mm.
+ */
+@Setter
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AgroIndicatorsResponse {
+
+    private double latitude;
+    private double longitude;
+    private String timezone;
+    private String fetchedAt;
+    private boolean degraded;
+
+    private double baseTemperature;
+    private double upperTemperature;
+
+    /**
+     * Consecutive dry days up to and including yesterday
+     */
+    private int currentDrySpell;
+
+    private Period past;
+    private Period forecast;
+    private List<Day> daily;
+
+    @Setter
+    @Getter
+    public static class Period {
+        private String from;
+        private String to;
+        private int days;
+        private double growingDegreeDays;
+        private double et0;
+        private double rainfall;
+        /**
+         * Rainfall minus reference evapotranspiration; negative means a water deficit
+         */
+        private double waterBalance;
+        private int dryDays;
+        private int longestDrySpell;
+    }
+
+    @Setter
+    @Getter
+    public static class Day {
+        private String date;
+        private double minTemperature;
+        private double maxTemperature;
+        private double growingDegreeDays;
+        private double rainfall;
+        private double et0;
+        private boolean forecast;
+    }
+}
@@ -0,0 +1,11 @@
+package com.nextinnomind.agro_speak_backend.dto;
+
+/**
+ * Projection of a subscriber's location and the alert shard currently assigned to it
+ */
+public interface AlertLocation {
+    Long getId();
+    Double getLatitude();
+    Double getLongitude();
+    Integer getAlertShard();
+}
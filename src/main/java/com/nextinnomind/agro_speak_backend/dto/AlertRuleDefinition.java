@@ -0,0 +1,51 @@
+package com.nextinnomind.agro_speak_backend.dto;
+
+import com.nextinnomind.agro_speak_backend.service.HazardType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One alert rule as written in the rules file ({@code weather.alerts.rules-file}), e.g.
+ * <pre>
+ * {"rules": [
+ *   {"name": "thunderstorm", "hazard": "SEVERE_WEATHER", "codes": [95, 96, 99],
+ *    "message": "Severe weather alert: {weather} at location ({lat},{lon})."},
+ *   {"name": "heavy-rain", "hazard": "HEAVY_PRECIPITATION", "variable": "precipitation",
+ *    "above": 20.0, "step": 20.0, "message": "Heavy precipitation expected: {peak}mm."},
+ *   {"name": "frost", "hazard": "FROST", "variable": "temperature_2m",
+ *    "below": 2.0, "step": 2.0, "message": "Frost risk: down to {peak}C."}
+ * ]}
+ * </pre>
+ * A rule either lists weather codes (mildest first; a later code is a higher severity) or sets a
+ * threshold ({@code above} or {@code below}) on an hourly variable. With a {@code step}, every further
+ * step beyond the threshold raises the severity by one. Message placeholders: {peak}, {weather},
+ * {lat} and {lon}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertRuleDefinition {
+
+    private String name;
+    private HazardType hazard;
+    /** Open-Meteo hourly variable: precipitation, wind_speed_10m, temperature_2m or soil_moisture_0_to_7cm */
+    private String variable;
+    private Double above;
+    private Double below;
+    private Double step;
+    private List<Integer> codes;
+    private String message;
+
+    /**
+     * Root of the rules file
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RuleSet {
+        private List<AlertRuleDefinition> rules;
+    }
+}
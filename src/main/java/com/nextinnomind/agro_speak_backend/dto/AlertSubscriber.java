@@ -0,0 +1,11 @@
+package com.nextinnomind.agro_speak_backend.dto;
+
+/**
+ * Projection of the few user columns the weather alert scheduler needs
+ */
+public interface AlertSubscriber {
+    Long getId();
+    String getPhone();
+    Double getLatitude();
+    Double getLongitude();
+}
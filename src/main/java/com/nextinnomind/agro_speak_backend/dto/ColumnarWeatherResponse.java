@@ -0,0 +1,182 @@
+package com.nextinnomind.agro_speak_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.nextinnomind.agro_speak_backend.entity.NullableDoubleArray;
+import com.nextinnomind.agro_speak_backend.entity.TimeAxis;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Columnar encoding of a {@link WeatherResponse} for clients on metered connections.
+ * <p>
+ * Instead of one ISO string per entry, the time axis is a base epoch second plus a fixed step.
+ * Each numeric series is quantized to an integer ({@code round(value * scale)}) and delta-encoded:
+ * the first element is absolute and every following element is the difference to the previous
+ * non-null one; missing values stay null. Repeated messages are dictionary-encoded.
+ */
+@Setter
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ColumnarWeatherResponse {
+
+    public static final String MEDIA_TYPE = "application/vnd.agrospeak.columnar+json";
+
+    private double latitude;
+    private double longitude;
+    private String timezone;
+    private Integer utcOffsetSeconds;
+    private Double elevation;
+
+    private WeatherResponse.CurrentWeather current;
+    private Columns hourly;
+    private Columns daily;
+
+    @Setter
+    @Getter
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Columns {
+        // Epoch second (UTC) of the first entry and seconds between entries
+        private Long start;
+        private Integer step;
+        // Raw time strings, only when the axis is not evenly spaced
+        private String[] time;
+        private int count;
+        private Map<String, Series> series = new LinkedHashMap<>();
+        private Labels messages;
+    }
+
+    @Setter
+    @Getter
+    public static class Series {
+        private int scale;
+        private Long[] deltas;
+    }
+
+    @Setter
+    @Getter
+    public static class Labels {
+        private String[] dictionary;
+        private int[] index;
+    }
+
+    /**
+     * Encode a weather response column by column
+     */
+    public static ColumnarWeatherResponse from(WeatherResponse source) {
+        ColumnarWeatherResponse result = new ColumnarWeatherResponse();
+        result.setLatitude(source.getLatitude());
+        result.setLongitude(source.getLongitude());
+        result.setTimezone(source.getTimezone());
+        result.setUtcOffsetSeconds(source.getUtcOffsetSeconds());
+        result.setElevation(source.getElevation());
+        result.setCurrent(source.getCurrentWeather());
+
+        int offset = source.getUtcOffsetSeconds() != null ? source.getUtcOffsetSeconds() : 0;
+
+        WeatherResponse.Hourly h = source.getHourly();
+        if (h != null && h.getTime() != null) {
+            Columns hourly = columns(h.getTime(), offset);
+            put(hourly, "temperature_2m", h.getTemperature(), 10);
+            put(hourly, "precipitation_probability", h.getPrecipitationProbability());
+            put(hourly, "precipitation", h.getPrecipitation(), 10);
+            put(hourly, "wind_speed_10m", h.getWindSpeed(), 10);
+            put(hourly, "weathercode", h.getWeathercode());
+            put(hourly, "soil_temperature_0_to_7cm", h.getSoilTemperature(), 10);
+            put(hourly, "soil_moisture_0_to_7cm", h.getSoilMoisture(), 1000);
+            hourly.setMessages(labels(h.getMessages()));
+            result.setHourly(hourly);
+        }
+
+        WeatherResponse.Daily d = source.getDaily();
+        if (d != null && d.getTime() != null) {
+            Columns daily = columns(d.getTime(), offset);
+            put(daily, "temperature_2m_max", d.getTemperatureMax(), 10);
+            put(daily, "temperature_2m_min", d.getTemperatureMin(), 10);
+            put(daily, "precipitation_sum", d.getPrecipitationSum(), 10);
+            put(daily, "weathercode", d.getWeathercode());
+            daily.setMessages(labels(d.getMessages()));
+            result.setDaily(daily);
+        }
+
+        return result;
+    }
+
+    private static Columns columns(TimeAxis time, int utcOffsetSeconds) {
+        Columns columns = new Columns();
+        columns.setCount(time.size());
+        if (!time.isRegular()) {
+            columns.setTime(time.toArray());
+            return columns;
+        }
+        // The axis holds local times; shift to UTC
+        if (time.size() > 0) columns.setStart(time.start() - utcOffsetSeconds);
+        columns.setStep(time.step());
+        return columns;
+    }
+
+    private static void put(Columns columns, String name, double[] values, int scale) {
+        if (values == null) return;
+        Long[] deltas = new Long[values.length];
+        long previous = 0;
+        for (int i = 0; i < values.length; i++) {
+            long quantized = Math.round(values[i] * scale);
+            deltas[i] = quantized - previous;
+            previous = quantized;
+        }
+        columns.getSeries().put(name, series(scale, deltas));
+    }
+
+    private static void put(Columns columns, String name, NullableDoubleArray values, int scale) {
+        if (values == null) return;
+        Long[] deltas = new Long[values.length()];
+        long previous = 0;
+        for (int i = 0; i < values.length(); i++) {
+            if (values.isNull(i)) continue;
+            long quantized = Math.round(values.get(i) * scale);
+            deltas[i] = quantized - previous;
+            previous = quantized;
+        }
+        columns.getSeries().put(name, series(scale, deltas));
+    }
+
+    private static void put(Columns columns, String name, int[] values) {
+        if (values == null) return;
+        Long[] deltas = new Long[values.length];
+        long previous = 0;
+        for (int i = 0; i < values.length; i++) {
+            deltas[i] = values[i] - previous;
+            previous = values[i];
+        }
+        columns.getSeries().put(name, series(1, deltas));
+    }
+
+    private static Series series(int scale, Long[] deltas) {
+        Series series = new Series();
+        series.setScale(scale);
+        series.setDeltas(deltas);
+        return series;
+    }
+
+    private static Labels labels(String[] values) {
+        if (values == null) return null;
+        Map<String, Integer> positions = new HashMap<>();
+        int[] index = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            String value = values[i] != null ? values[i] : "";
+            index[i] = positions.computeIfAbsent(value, v -> positions.size());
+        }
+
+        String[] dictionary = new String[positions.size()];
+        positions.forEach((value, position) -> dictionary[position] = value);
+
+        Labels labels = new Labels();
+        labels.setDictionary(dictionary);
+        labels.setIndex(index);
+        return labels;
+    }
+}
@@ -0,0 +1,7 @@
+package com.nextinnomind.agro_speak_backend.dto;
+
+/**
+ * A latitude/longitude pair, used by the multi-location weather APIs
+ */
+public record Coordinate(double latitude, double longitude) {
+}
@@ -0,0 +1,16 @@
+package com.nextinnomind.agro_speak_backend.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One SMS body for many recipients (POST /api/v1/weather/sms/broadcast)
+ */
+@Data
+public class SmsBroadcastRequest {
+
+    private List<String> phones;
+
+    private String message;
+}
@@ -0,0 +1,131 @@
+package com.nextinnomind.agro_speak_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.nextinnomind.agro_speak_backend.entity.NullableDoubleArray;
+import com.nextinnomind.agro_speak_backend.entity.TimeAxis;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Set;
+
+/**
+ * Compact farm dashboard payload: current conditions, hourly and daily forecast and soil data
+ * from one upstream request. Sections that were not requested are left out of the JSON.
+ */
+@Setter
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WeatherDashboardResponse {
+
+    public enum Section {
+        CURRENT,
+        HOURLY,
+        DAILY,
+        SOIL
+    }
+
+    private double latitude;
+    private double longitude;
+    private String timezone;
+
+    private Current current;
+    private Hourly hourly;
+    private Daily daily;
+    private Soil soil;
+
+    @Setter
+    @Getter
+    public static class Current {
+        private String time;
+        private double temperature;
+        private double windspeed;
+        private int weathercode;
+        private String message;
+    }
+
+    @Setter
+    @Getter
+    public static class Hourly {
+        private TimeAxis time;
+        private double[] temperature;
+        private int[] precipitationProbability;
+        private NullableDoubleArray precipitation;
+        private double[] windSpeed;
+        private int[] weathercode;
+    }
+
+    @Setter
+    @Getter
+    public static class Daily {
+        private TimeAxis time;
+        private double[] temperatureMax;
+        private double[] temperatureMin;
+        private double[] precipitationSum;
+        private int[] weathercode;
+        private String[] messages;
+    }
+
+    @Setter
+    @Getter
+    public static class Soil {
+        private TimeAxis time;
+        private double[] temperature;
+        private double[] moisture;
+    }
+
+    /**
+     * Map a combined Open-Meteo response onto the requested dashboard sections
+     */
+    public static WeatherDashboardResponse from(WeatherResponse source, Set<Section> sections) {
+        WeatherDashboardResponse result = new WeatherDashboardResponse();
+        result.setLatitude(source.getLatitude());
+        result.setLongitude(source.getLongitude());
+        result.setTimezone(source.getTimezone());
+
+        WeatherResponse.CurrentWeather cw = source.getCurrentWeather();
+        if (sections.contains(Section.CURRENT) && cw != null) {
+            Current current = new Current();
+            current.setTime(cw.getTime());
+            current.setTemperature(cw.getTemperature());
+            current.setWindspeed(cw.getWindspeed());
+            current.setWeathercode(cw.getWeathercode());
+            current.setMessage(cw.getMessage());
+            result.setCurrent(current);
+        }
+
+        WeatherResponse.Hourly h = source.getHourly();
+        if (sections.contains(Section.HOURLY) && h != null) {
+            Hourly hourly = new Hourly();
+            hourly.setTime(h.getTime());
+            hourly.setTemperature(h.getTemperature());
+            hourly.setPrecipitationProbability(h.getPrecipitationProbability());
+            hourly.setPrecipitation(h.getPrecipitation());
+            hourly.setWindSpeed(h.getWindSpeed());
+            hourly.setWeathercode(h.getWeathercode());
+            result.setHourly(hourly);
+        }
+
+        if (sections.contains(Section.SOIL) && h != null) {
+            Soil soil = new Soil();
+            soil.setTime(h.getTime());
+            soil.setTemperature(h.getSoilTemperature());
+            soil.setMoisture(h.getSoilMoisture());
+            result.setSoil(soil);
+        }
+
+        WeatherResponse.Daily d = source.getDaily();
+        if (sections.contains(Section.DAILY) && d != null) {
+            Daily daily = new Daily();
+            daily.setTime(d.getTime());
+            daily.setTemperatureMax(d.getTemperatureMax());
+            daily.setTemperatureMin(d.getTemperatureMin());
+            daily.setPrecipitationSum(d.getPrecipitationSum());
+            daily.setWeathercode(d.getWeathercode());
+            daily.setMessages(d.getMessages());
+            result.setDaily(daily);
+        }
+
+        return result;
+    }
+}
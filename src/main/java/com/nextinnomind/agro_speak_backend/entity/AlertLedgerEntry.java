@@ -0,0 +1,41 @@
+package com.nextinnomind.agro_speak_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A hazard type notified for a grid cell: its time window and severity. Kept in the shared datasource so
+ * the node that takes over a cell's alert shard knows what the previous owner already sent.
+ */
+@Entity
+@Table(name = "alert_ledger", indexes = {
+        @Index(name = "idx_alert_ledger_cell", columnList = "cell"),
+        @Index(name = "idx_alert_ledger_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertLedgerEntry {
+    // Cell id and hazard type, e.g. "-15.4,28.3/SEVERE_WEATHER"
+    @Id
+    @Column(length = 80)
+    private String id;
+
+    @Column(nullable = false, length = 50)
+    private String cell;
+
+    @Column(nullable = false, length = 30)
+    private String hazardType;
+
+    // Epoch seconds
+    private long windowStart;
+    private long windowEnd;
+
+    private int severity;
+
+    // End of the window plus the cooldown; the entry no longer suppresses anything after it
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+}
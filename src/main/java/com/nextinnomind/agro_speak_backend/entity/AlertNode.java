@@ -0,0 +1,22 @@
+package com.nextinnomind.agro_speak_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Heartbeat of an application instance taking part in the weather alert job. The number of live
+ * nodes decides each node's fair share of alert shards.
+ */
+@Entity
+@Table(name = "alert_nodes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertNode {
+    @Id
+    private String nodeId;
+
+    private Instant lastSeen;
+}
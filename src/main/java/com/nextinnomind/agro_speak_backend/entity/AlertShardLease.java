@@ -0,0 +1,26 @@
+package com.nextinnomind.agro_speak_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Ownership of one shard of the weather alert job. A node owns the shard while {@code leaseUntil}
+ * is in the future; it renews the lease with every heartbeat, and once the lease has run out
+ * (the node died or stalled) any other node may claim the shard.
+ */
+@Entity
+@Table(name = "alert_shard_leases")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertShardLease {
+    @Id
+    private Integer shard;
+
+    // Node id of the current holder; null when released
+    private String owner;
+
+    private Instant leaseUntil;
+}
@@ -0,0 +1,147 @@
+package com.nextinnomind.agro_speak_backend.entity;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * Array of doubles in which entries may be missing (Open-Meteo sends null where a model has no value).
+ * Values live in a primitive array with a bitmap of the missing entries, instead of one boxed Double each.
+ * Serialized as a plain JSON array with nulls, exactly like Open-Meteo sends it.
+ */
+@JsonSerialize(using = NullableDoubleArray.Serializer.class)
+@JsonDeserialize(using = NullableDoubleArray.Deserializer.class)
+public final class NullableDoubleArray {
+
+    private final double[] values;
+    // Null when nothing is missing
+    private final BitSet missing;
+
+    private NullableDoubleArray(double[] values, BitSet missing) {
+        this.values = values;
+        this.missing = missing == null || missing.isEmpty() ? null : missing;
+    }
+
+    public static NullableDoubleArray of(Double... values) {
+        Builder builder = new Builder(values.length);
+        for (Double value : values) {
+            if (value == null) builder.addNull();
+            else builder.add(value);
+        }
+        return builder.build();
+    }
+
+    public int length() {
+        return values.length;
+    }
+
+    public boolean isNull(int i) {
+        return missing != null && missing.get(i);
+    }
+
+    /**
+     * Value at i; 0 for a missing entry (check {@link #isNull} where that matters)
+     */
+    public double get(int i) {
+        return values[i];
+    }
+
+    public Double[] toArray() {
+        Double[] result = new Double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = isNull(i) ? null : values[i];
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        return o instanceof NullableDoubleArray other
+                && Arrays.equals(values, other.values)
+                && Objects.equals(missing, other.missing);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    public static final class Builder {
+        private double[] values;
+        private BitSet missing;
+        private int size;
+
+        public Builder() {
+            this(192);
+        }
+
+        public Builder(int capacity) {
+            values = new double[Math.max(1, capacity)];
+        }
+
+        public Builder add(double value) {
+            ensureCapacity();
+            values[size++] = value;
+            return this;
+        }
+
+        public Builder addNull() {
+            ensureCapacity();
+            if (missing == null) missing = new BitSet();
+            missing.set(size++);
+            return this;
+        }
+
+        public NullableDoubleArray build() {
+            return new NullableDoubleArray(size == values.length ? values : Arrays.copyOf(values, size), missing);
+        }
+
+        private void ensureCapacity() {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        }
+    }
+
+    public static class Serializer extends JsonSerializer<NullableDoubleArray> {
+        @Override
+        public void serialize(NullableDoubleArray array, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartArray(array, array.length());
+            for (int i = 0; i < array.length(); i++) {
+                if (array.isNull(i)) gen.writeNull();
+                else gen.writeNumber(array.values[i]);
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<NullableDoubleArray> {
+        @Override
+        public NullableDoubleArray deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!p.isExpectedStartArrayToken()) {
+                return (NullableDoubleArray) ctxt.handleUnexpectedToken(NullableDoubleArray.class, p);
+            }
+            Builder builder = new Builder();
+            for (JsonToken t = p.nextToken(); t != JsonToken.END_ARRAY; t = p.nextToken()) {
+                if (t == JsonToken.VALUE_NULL) builder.addNull();
+                else builder.add(p.getDoubleValue());
+            }
+            return builder.build();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.nextinnomind.agro_speak_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * An SMS waiting in (or delivered from) the outbox. Callers only insert rows; the SMS dispatcher claims
+ * due rows, sends them through Twilio and records the outcome, retrying failures with backoff.
+ */
+@Entity
+@Table(name = "sms_outbox", indexes = {
+        @Index(name = "idx_sms_outbox_due", columnList = "status, nextAttemptAt"),
+        @Index(name = "idx_sms_outbox_claim", columnList = "claimToken")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SmsOutboxMessage {
+
+    public enum Status {
+        /** Waiting for its next attempt */
+        PENDING,
+        /** Claimed by a dispatcher, attempt in progress */
+        SENDING,
+        SENT,
+        /** Given up: rejected by Twilio or out of attempts */
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 20)
+    private String phone;
+
+    @Column(nullable = false, length = 1600)
+    private String body;
+
+    // Segments the body is billed as
+    private Integer segments;
+
+    // What queued the message, e.g. ALERT or FORECAST
+    @Column(length = 20)
+    private String source;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Status status;
+
+    private int attempts;
+
+    private Instant createdAt;
+
+    private Instant nextAttemptAt;
+
+    // Set while a dispatcher holds the row; a claim that outlives lockedUntil is taken back
+    private String claimToken;
+
+    private Instant lockedUntil;
+
+    private Instant sentAt;
+
+    // Duration of the successful Twilio call
+    private Long latencyMs;
+
+    @Column(length = 500)
+    private String lastError;
+}
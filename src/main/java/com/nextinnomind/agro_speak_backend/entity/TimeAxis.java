@@ -0,0 +1,302 @@
+package com.nextinnomind.agro_speak_backend.entity;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Compact time axis of an Open-Meteo series. Open-Meteo sends one local ISO string per entry
+ * ("2025-01-01T00:00" hourly, "2025-01-01" daily); they are kept as local epoch seconds instead,
+ * and an evenly spaced axis (the normal case) is just a start, a step and a count. Strings are only
+ * produced when asked for, and JSON output is the same string array Open-Meteo sent.
+ * <p>
+ * Times are local to the forecast's timezone: the epoch seconds are those of the local date-time
+ * read as if it were UTC. Subtract {@code utc_offset_seconds} to get the real instant.
+ */
+@JsonSerialize(using = TimeAxis.Serializer.class)
+@JsonDeserialize(using = TimeAxis.Deserializer.class)
+public final class TimeAxis {
+
+    private static final TimeAxis EMPTY = new TimeAxis(0, 0, 0, null, false);
+
+    private final long start;
+    private final int step;
+    private final int size;
+    // Only set when the axis is not evenly spaced
+    private final long[] times;
+    private final boolean dateOnly;
+
+    private TimeAxis(long start, int step, int size, long[] times, boolean dateOnly) {
+        this.start = start;
+        this.step = step;
+        this.size = size;
+        this.times = times;
+        this.dateOnly = dateOnly;
+    }
+
+    public static TimeAxis regular(long start, int step, int size, boolean dateOnly) {
+        return new TimeAxis(start, step, size, null, dateOnly);
+    }
+
+    /**
+     * Axis from Open-Meteo style strings ("yyyy-MM-dd" or "yyyy-MM-ddTHH:mm")
+     */
+    public static TimeAxis of(String... values) {
+        Builder builder = new Builder();
+        for (String value : values) {
+            builder.add(value.toCharArray(), 0, value.length());
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Whether entries are evenly spaced, i.e. fully described by {@link #start()} and {@link #step()}
+     */
+    public boolean isRegular() {
+        return times == null;
+    }
+
+    public long start() {
+        return size == 0 ? 0 : epochSecond(0);
+    }
+
+    /**
+     * Seconds between entries of a regular axis
+     */
+    public int step() {
+        return step;
+    }
+
+    public boolean isDateOnly() {
+        return dateOnly;
+    }
+
+    /**
+     * Local epoch second of entry i
+     */
+    public long epochSecond(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException(i);
+        return times != null ? times[i] : start + (long) step * i;
+    }
+
+    /**
+     * Entry i formatted the way Open-Meteo sends it
+     */
+    public String get(int i) {
+        char[] buffer = new char[16];
+        return new String(buffer, 0, format(epochSecond(i), dateOnly, buffer));
+    }
+
+    public String[] toArray() {
+        String[] result = new String[size];
+        for (int i = 0; i < size; i++) result[i] = get(i);
+        return result;
+    }
+
+    /**
+     * Every stride-th entry among the first count, i.e. the start times of blocks of 'stride' entries
+     */
+    public TimeAxis sample(int count, int stride) {
+        int limit = Math.max(0, Math.min(count, size));
+        int blocks = (limit + stride - 1) / stride;
+        if (limit == 0) return EMPTY;
+        if (times == null) return new TimeAxis(start, step * stride, blocks, null, dateOnly);
+
+        long[] sampled = new long[blocks];
+        for (int b = 0; b < blocks; b++) sampled[b] = times[b * stride];
+        return new TimeAxis(0, 0, blocks, sampled, dateOnly);
+    }
+
+    /**
+     * The count entries starting at entry from (fewer if the axis ends first)
+     */
+    public TimeAxis slice(int from, int count) {
+        int first = Math.max(0, Math.min(from, size));
+        int limit = Math.max(0, Math.min(count, size - first));
+        if (limit == 0) return EMPTY;
+        if (times == null) return new TimeAxis(start + (long) step * first, step, limit, null, dateOnly);
+        return new TimeAxis(0, 0, limit, Arrays.copyOfRange(times, first, first + limit), dateOnly);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TimeAxis other) || size != other.size || dateOnly != other.dateOnly) return false;
+        for (int i = 0; i < size; i++) {
+            if (epochSecond(i) != other.epochSecond(i)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return size == 0 ? 0 : Long.hashCode(start()) * 31 + size;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    // ================= Parsing / formatting without intermediate objects =================
+
+    /**
+     * Parse "yyyy-MM-dd" or "yyyy-MM-ddTHH:mm[:ss]" into local epoch seconds
+     */
+    static long parse(char[] text, int offset, int length) {
+        if (length < 10 || text[offset + 4] != '-' || text[offset + 7] != '-') {
+            throw new IllegalArgumentException("Unsupported time '" + new String(text, offset, length) + "'");
+        }
+        int year = digits(text, offset, 4);
+        int month = digits(text, offset + 5, 2);
+        int day = digits(text, offset + 8, 2);
+        long seconds = daysFromCivil(year, month, day) * 86_400L;
+        if (length >= 16) {
+            seconds += digits(text, offset + 11, 2) * 3_600L + digits(text, offset + 14, 2) * 60L;
+            if (length >= 19) seconds += digits(text, offset + 17, 2);
+        }
+        return seconds;
+    }
+
+    /**
+     * Format local epoch seconds into the buffer (at least 16 chars) and return the length written
+     */
+    static int format(long epochSecond, boolean dateOnly, char[] buffer) {
+        long days = Math.floorDiv(epochSecond, 86_400L);
+        int secondOfDay = (int) Math.floorMod(epochSecond, 86_400L);
+
+        // Inverse of daysFromCivil (H. Hinnant's civil_from_days)
+        long z = days + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long doe = z - era * 146_097;
+        long yoe = (doe - doe / 1_460 + doe / 36_524 - doe / 146_096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        int year = (int) (yoe + era * 400 + (month <= 2 ? 1 : 0));
+
+        put(buffer, 0, year, 4);
+        buffer[4] = '-';
+        put(buffer, 5, month, 2);
+        buffer[7] = '-';
+        put(buffer, 8, day, 2);
+        if (dateOnly) return 10;
+
+        buffer[10] = 'T';
+        put(buffer, 11, secondOfDay / 3_600, 2);
+        buffer[13] = ':';
+        put(buffer, 14, secondOfDay / 60 % 60, 2);
+        return 16;
+    }
+
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yoe = y - era * 400;
+        long doy = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146_097 + doe - 719_468;
+    }
+
+    private static int digits(char[] text, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = text[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Unexpected '" + text[i] + "' in time value");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static void put(char[] buffer, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /**
+     * Accumulates entries one at a time and keeps only a start and a step while they are evenly spaced
+     */
+    public static final class Builder {
+        private long start;
+        private int step;
+        private int size;
+        private long last;
+        private long[] times;
+        private boolean dateOnly;
+
+        public Builder add(char[] text, int offset, int length) {
+            dateOnly = length == 10;
+            return add(parse(text, offset, length));
+        }
+
+        public Builder add(long epochSecond) {
+            if (size == 0) {
+                start = epochSecond;
+            } else if (size == 1 && times == null) {
+                step = (int) (epochSecond - start);
+            } else if (times == null && epochSecond - last != step) {
+                // Irregular from here on: materialise what was implied so far
+                times = new long[Math.max(16, size * 2)];
+                for (int i = 0; i < size; i++) times[i] = start + (long) step * i;
+            }
+            if (times != null) {
+                if (size == times.length) times = Arrays.copyOf(times, size * 2);
+                times[size] = epochSecond;
+            }
+            last = epochSecond;
+            size++;
+            return this;
+        }
+
+        public TimeAxis build() {
+            if (size == 0) return EMPTY;
+            return times == null
+                    ? new TimeAxis(start, step, size, null, dateOnly)
+                    : new TimeAxis(0, 0, size, Arrays.copyOf(times, size), dateOnly);
+        }
+    }
+
+    public static class Serializer extends JsonSerializer<TimeAxis> {
+        @Override
+        public void serialize(TimeAxis axis, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            char[] buffer = new char[16];
+            gen.writeStartArray(axis, axis.size());
+            for (int i = 0; i < axis.size(); i++) {
+                gen.writeString(buffer, 0, format(axis.epochSecond(i), axis.dateOnly, buffer));
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<TimeAxis> {
+        @Override
+        public TimeAxis deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!p.isExpectedStartArrayToken()) {
+                return (TimeAxis) ctxt.handleUnexpectedToken(TimeAxis.class, p);
+            }
+            Builder builder = new Builder();
+            for (JsonToken t = p.nextToken(); t != JsonToken.END_ARRAY; t = p.nextToken()) {
+                builder.add(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+            }
+            return builder.build();
+        }
+    }
+}
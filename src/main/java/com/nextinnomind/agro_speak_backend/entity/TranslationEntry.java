@@ -0,0 +1,41 @@
+package com.nextinnomind.agro_speak_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A translation kept in the datasource, so the translation cache survives restarts and is shared
+ * between instances. The id is a hash of the provider, language pair and normalised text.
+ */
+@Entity
+@Table(name = "translation_cache", indexes = {
+        // Purge of translations past the time to live
+        @Index(name = "idx_translation_cache_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TranslationEntry {
+    @Id
+    @Column(length = 64)
+    private String cacheKey;
+
+    @Column(length = 100)
+    private String provider;
+
+    @Column(length = 30)
+    private String sourceLanguage;
+
+    @Column(length = 30)
+    private String targetLanguage;
+
+    @Column(length = 4000)
+    private String sourceText;
+
+    @Column(length = 8000)
+    private String translation;
+
+    private Instant createdAt;
+}
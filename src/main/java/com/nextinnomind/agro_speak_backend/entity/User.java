@@ -8,7 +8,12 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        // Keyset scan of alert subscribers by the weather alert scheduler
+        @Index(name = "idx_users_alerts_enabled_id", columnList = "alerts_enabled, id"),
+        // Same scan restricted to the alert shards one instance holds
+        @Index(name = "idx_users_alerts_enabled_shard_id", columnList = "alerts_enabled, alert_shard, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,6 +36,10 @@ public class User {
     // Optional preferred location for weather alerts (falls back to provided coordinates in requests)
     private Double latitude;
     private Double longitude;
+
+    // Alert shard of the grid cell the location falls in; null until assigned by AlertSubscriberIndex
+    @Column(name = "alert_shard")
+    private Integer alertShard;
     
     private String avatarUrl;
 
@@ -20,6 +20,9 @@ public class WeatherResponse {
     @JsonProperty("timezone_abbreviation")
     private String timezoneAbbreviation;
 
+    @JsonProperty("utc_offset_seconds")
+    private Integer utcOffsetSeconds;
+
     @JsonProperty("elevation")
     private Double elevation;
 
@@ -63,7 +66,7 @@ public class WeatherResponse {
     @Getter
     public static class Daily {
         @JsonProperty("time")
-        private String[] time;
+        private TimeAxis time;
 
         @JsonProperty("temperature_2m_max")
         private double[] temperatureMax;
@@ -86,7 +89,7 @@ public class WeatherResponse {
     @Getter
     public static class Hourly {
         @JsonProperty("time")
-        private String[] time;
+        private TimeAxis time;
 
         @JsonProperty("temperature_2m")
         private double[] temperature;
@@ -94,8 +97,14 @@ public class WeatherResponse {
         @JsonProperty("weathercode")
         private int[] weathercode;
 
+        @JsonProperty("precipitation_probability")
+        private int[] precipitationProbability;
+
         @JsonProperty("precipitation")
-        private Double[] precipitation;
+        private NullableDoubleArray precipitation;
+
+        @JsonProperty("wind_speed_10m")
+        private double[] windSpeed;
 
         @JsonProperty("soil_temperature_0_to_7cm")
         private double[] soilTemperature;
@@ -103,6 +112,10 @@ public class WeatherResponse {
         @JsonProperty("soil_moisture_0_to_7cm")
         private double[] soilMoisture;
 
+        // FAO-56 Penman-Monteith reference evapotranspiration (mm per hour)
+        @JsonProperty("et0_fao_evapotranspiration")
+        private NullableDoubleArray et0;
+
         // Custom field for human-readable messages
         private String[] messages;
     }
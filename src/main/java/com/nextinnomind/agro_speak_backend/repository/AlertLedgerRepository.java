@@ -0,0 +1,27 @@
+package com.nextinnomind.agro_speak_backend.repository;
+
+import com.nextinnomind.agro_speak_backend.entity.AlertLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface AlertLedgerRepository extends JpaRepository<AlertLedgerEntry, String> {
+
+    List<AlertLedgerEntry> findByCellAndExpiresAtAfter(String cell, Instant now);
+
+    @Query("select count(distinct e.cell) from AlertLedgerEntry e where e.expiresAt > :now")
+    long countCells(@Param("now") Instant now);
+
+    /**
+     * Forget hazards whose window and cooldown have passed
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from AlertLedgerEntry e where e.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,23 @@
+package com.nextinnomind.agro_speak_backend.repository;
+
+import com.nextinnomind.agro_speak_backend.entity.AlertNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface AlertNodeRepository extends JpaRepository<AlertNode, String> {
+
+    long countByLastSeenAfter(Instant since);
+
+    /**
+     * Forget nodes that stopped sending heartbeats
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from AlertNode n where n.lastSeen < :cutoff")
+    int deleteStale(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,62 @@
+package com.nextinnomind.agro_speak_backend.repository;
+
+import com.nextinnomind.agro_speak_backend.entity.AlertShardLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface AlertShardLeaseRepository extends JpaRepository<AlertShardLease, Integer> {
+
+    /**
+     * Create the row of a shard. Fails with a constraint violation if another node created it first;
+     * unlike save(), it can never overwrite an existing lease.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into alert_shard_leases (shard, owner, lease_until) values (:shard, null, :leaseUntil)",
+            nativeQuery = true)
+    void insertShard(@Param("shard") int shard, @Param("leaseUntil") Instant leaseUntil);
+
+    /**
+     * Take the shard if it is free, its lease has expired or the node already holds it. The condition is
+     * part of the update, so when two nodes race for a shard exactly one of them gets it.
+     *
+     * @return 1 if the node now holds the shard, 0 otherwise
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update AlertShardLease l set l.owner = :node, l.leaseUntil = :until
+            where l.shard = :shard
+              and (l.owner = :node or l.owner is null or l.leaseUntil < :now)""")
+    int claim(@Param("shard") int shard, @Param("node") String node,
+              @Param("now") Instant now, @Param("until") Instant until);
+
+    /**
+     * Extend every lease the node still holds. Leases that already ran out are not revived,
+     * since another node may have taken them over in the meantime.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update AlertShardLease l set l.leaseUntil = :until where l.owner = :node and l.leaseUntil >= :now")
+    int renew(@Param("node") String node, @Param("now") Instant now, @Param("until") Instant until);
+
+    /**
+     * Hand a shard back so another node can claim it right away
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update AlertShardLease l set l.owner = null, l.leaseUntil = :now where l.shard = :shard and l.owner = :node")
+    int release(@Param("shard") int shard, @Param("node") String node, @Param("now") Instant now);
+
+    @Query("select l.shard from AlertShardLease l where l.owner = :node and l.leaseUntil > :now order by l.shard")
+    List<Integer> findHeldShards(@Param("node") String node, @Param("now") Instant now);
+
+    @Query("select l.shard from AlertShardLease l where l.owner is null or l.leaseUntil < :now")
+    List<Integer> findClaimableShards(@Param("now") Instant now);
+}
@@ -0,0 +1,89 @@
+package com.nextinnomind.agro_speak_backend.repository;
+
+import com.nextinnomind.agro_speak_backend.entity.SmsOutboxMessage;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface SmsOutboxRepository extends JpaRepository<SmsOutboxMessage, Long> {
+
+    @Query("""
+            select m.id from SmsOutboxMessage m
+            where m.status = com.nextinnomind.agro_speak_backend.entity.SmsOutboxMessage.Status.PENDING
+              and m.nextAttemptAt <= :now
+            order by m.nextAttemptAt""")
+    List<Long> findDueIds(@Param("now") Instant now, Limit limit);
+
+    /**
+     * Claim those of the given messages that are still pending. The status check is part of the update,
+     * so when several dispatchers race for a message exactly one of them gets it.
+     *
+     * @return number of messages claimed
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update SmsOutboxMessage m
+            set m.status = com.nextinnomind.agro_speak_backend.entity.SmsOutboxMessage.Status.SENDING,
+                m.claimToken = :token, m.lockedUntil = :until
+            where m.id in :ids
+              and m.status = com.nextinnomind.agro_speak_backend.entity.SmsOutboxMessage.Status.PENDING""")
+    int claim(@Param("ids") Collection<Long> ids, @Param("token") String token, @Param("until") Instant until);
+
+    List<SmsOutboxMessage> findByClaimToken(String claimToken);
+
+    /**
+     * Record the outcome of an attempt, provided the claim is still held
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update SmsOutboxMessage m
+            set m.status = :status, m.attempts = :attempts, m.nextAttemptAt = :nextAttemptAt,
+                m.sentAt = :sentAt, m.latencyMs = :latencyMs, m.lastError = :lastError,
+                m.claimToken = null, m.lockedUntil = null
+            where m.id = :id and m.claimToken = :token""")
+    int complete(@Param("id") long id, @Param("token") String token,
+                 @Param("status") SmsOutboxMessage.Status status, @Param("attempts") int attempts,
+                 @Param("nextAttemptAt") Instant nextAttemptAt, @Param("sentAt") Instant sentAt,
+                 @Param("latencyMs") Long latencyMs, @Param("lastError") String lastError);
+
+    /**
+     * Put messages back whose dispatcher died or stalled mid-attempt
+     *
+     * @return number of messages recovered
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update SmsOutboxMessage m
+            set m.status = com.nextinnomind.agro_speak_backend.entity.SmsOutboxMessage.Status.PENDING,
+                m.claimToken = null, m.lockedUntil = null
+            where m.status = com.nextinnomind.agro_speak_backend.entity.SmsOutboxMessage.Status.SENDING
+              and m.lockedUntil < :now""")
+    int recoverExpired(@Param("now") Instant now);
+
+    @Query("select m.status, count(m) from SmsOutboxMessage m group by m.status")
+    List<Object[]> countByStatus();
+
+    @Query("""
+            select min(m.createdAt) from SmsOutboxMessage m
+            where m.status = com.nextinnomind.agro_speak_backend.entity.SmsOutboxMessage.Status.PENDING""")
+    Instant findOldestPendingCreatedAt();
+
+    @Transactional
+    @Modifying
+    @Query("""
+            delete from SmsOutboxMessage m
+            where m.status in (com.nextinnomind.agro_speak_backend.entity.SmsOutboxMessage.Status.SENT,
+                               com.nextinnomind.agro_speak_backend.entity.SmsOutboxMessage.Status.FAILED)
+              and m.createdAt < :before""")
+    int deleteFinishedBefore(@Param("before") Instant before);
+}
@@ -0,0 +1,21 @@
+package com.nextinnomind.agro_speak_backend.repository;
+
+import com.nextinnomind.agro_speak_backend.entity.TranslationEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface TranslationEntryRepository extends JpaRepository<TranslationEntry, String> {
+
+    /**
+     * Delete translations stored before the cutoff
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from TranslationEntry e where e.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") Instant cutoff);
+}
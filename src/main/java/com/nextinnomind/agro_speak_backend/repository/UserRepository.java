@@ -1,9 +1,86 @@
 package com.nextinnomind.agro_speak_backend.repository;
 
+import com.nextinnomind.agro_speak_backend.dto.AlertLocation;
+import com.nextinnomind.agro_speak_backend.dto.AlertSubscriber;
 import com.nextinnomind.agro_speak_backend.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    /**
+     * Keyset page of alert-eligible users (alerts on, phone and location set) with id greater than afterId.
+     * Served by the (alerts_enabled, id) index; pass the last id of the previous page to continue.
+     */
+    @Query("""
+            select u.id as id, u.phone as phone, u.latitude as latitude, u.longitude as longitude
+            from User u
+            where u.alertsEnabled = true
+              and u.id > :afterId
+              and u.phone is not null and u.phone <> ''
+              and u.latitude is not null and u.longitude is not null
+            order by u.id""")
+    List<AlertSubscriber> findAlertSubscribersAfter(@Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Keyset page of alert-eligible users whose location lies in one of the given shards.
+     * Served by the (alerts_enabled, alert_shard, id) index, so an instance only reads its own subscribers.
+     */
+    @Query("""
+            select u.id as id, u.phone as phone, u.latitude as latitude, u.longitude as longitude
+            from User u
+            where u.alertsEnabled = true
+              and u.alertShard in :shards
+              and u.id > :afterId
+              and u.phone is not null and u.phone <> ''
+              and u.latitude is not null and u.longitude is not null
+            order by u.id""")
+    List<AlertSubscriber> findAlertSubscribersInShardsAfter(@Param("shards") Collection<Integer> shards,
+                                                            @Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Keyset page of the locations of alert-enabled users, with their current alert shard
+     */
+    @Query("""
+            select u.id as id, u.latitude as latitude, u.longitude as longitude, u.alertShard as alertShard
+            from User u
+            where u.alertsEnabled = true
+              and u.id > :afterId
+              and u.latitude is not null and u.longitude is not null
+            order by u.id""")
+    List<AlertLocation> findAlertLocationsAfter(@Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Keyset page of the locations of alert-enabled users that have no alert shard assigned yet.
+     * Served by the (alerts_enabled, alert_shard, id) index.
+     */
+    @Query("""
+            select u.id as id, u.latitude as latitude, u.longitude as longitude, u.alertShard as alertShard
+            from User u
+            where u.alertsEnabled = true
+              and u.alertShard is null
+              and u.id > :afterId
+              and u.latitude is not null and u.longitude is not null
+            order by u.id""")
+    List<AlertLocation> findUnassignedAlertLocationsAfter(@Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Set a user's alert shard, unless the location it was computed from has changed in the meantime
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update User u set u.alertShard = :shard
+            where u.id = :id and u.latitude = :latitude and u.longitude = :longitude""")
+    int assignAlertShard(@Param("id") long id, @Param("latitude") double latitude,
+                         @Param("longitude") double longitude, @Param("shard") int shard);
 }
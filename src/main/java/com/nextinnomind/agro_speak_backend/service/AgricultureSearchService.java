@@ -1,5 +1,7 @@
 package com.nextinnomind.agro_speak_backend.service;
 
+import com.nextinnomind.agro_speak_backend.config.Upstream;
+import com.nextinnomind.agro_speak_backend.config.UpstreamClients;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -16,8 +18,8 @@ public class AgricultureSearchService {
     @Value("${openrouter.model}")
     private String model;
 
-    public AgricultureSearchService(WebClient.Builder builder, TranslationService translationService) {
-        this.webClient = builder.baseUrl("https://openrouter.ai/api/v1").build();
+    public AgricultureSearchService(UpstreamClients upstreamClients, TranslationService translationService) {
+        this.webClient = upstreamClients.webClient(Upstream.OPENROUTER).baseUrl("https://openrouter.ai/api/v1").build();
         this.translationService = translationService;
     }
 
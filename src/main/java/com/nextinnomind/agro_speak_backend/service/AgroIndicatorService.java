@@ -0,0 +1,286 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nextinnomind.agro_speak_backend.config.AgroIndicatorProperties;
+import com.nextinnomind.agro_speak_backend.dto.AgroIndicatorsResponse;
+import com.nextinnomind.agro_speak_backend.entity.NullableDoubleArray;
+import com.nextinnomind.agro_speak_backend.entity.TimeAxis;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Agronomic indicators per grid cell, computed server-side from the hourly temperature, precipitation and
+ * reference evapotranspiration series (past days plus forecast) that the weather cache holds.
+ * <p>
+ * The indicators are maintained incrementally: hours are folded into daily totals, and a day that lies
+ * completely in the past is sealed and never read again. When a newer series arrives, whether requested or
+ * refreshed in the background by the cache, only the hours from today on are aggregated again, and the
+ * per-cell result at the default base temperature is kept ready, so a request is a cache read.
+ */
+@Slf4j
+@Service
+public class AgroIndicatorService {
+
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private final WeatherService weatherService;
+    private final AgroIndicatorProperties properties;
+    private final Cache<GridCell, CellIndicators> cells;
+
+    public AgroIndicatorService(WeatherService weatherService, AgroIndicatorProperties properties) {
+        this.weatherService = weatherService;
+        this.properties = properties;
+        this.cells = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxCells())
+                .expireAfterAccess(Duration.ofDays(2))
+                .build();
+    }
+
+    /**
+     * Indicators for the grid cell of the given coordinates
+     *
+     * @param baseTemperature base temperature for degree days, or null for the configured default
+     */
+    public AgroIndicatorsResponse getIndicators(double latitude, double longitude, Double baseTemperature) {
+        GridCell cell = weatherService.gridCellFor(latitude, longitude);
+        CachedForecast series = weatherService.getIndicatorSeriesCached(cell, properties.getPastDays(),
+                properties.getForecastDays());
+        if (series == null) return null;
+
+        CellIndicators indicators = cells.get(cell, c -> new CellIndicators());
+        indicators.apply(series.response(), series.fetchedAt(), series.degraded(), Instant.now().getEpochSecond());
+        return indicators.response(cell, baseTemperature != null ? baseTemperature : properties.getBaseTemperature());
+    }
+
+    /**
+     * Fold a series the cache refreshed in the background into the cell's indicators right away
+     */
+    @EventListener
+    public void onForecastRefreshed(ForecastRefreshedEvent event) {
+        WeatherCacheKey key = event.key();
+        if (!key.equals(WeatherService.indicatorKey(key.cell(), properties.getPastDays(), properties.getForecastDays()))) {
+            return;
+        }
+        CellIndicators indicators = cells.getIfPresent(key.cell());
+        if (indicators == null) return;
+        try {
+            ForecastSnapshot snapshot = event.snapshot();
+            indicators.apply(snapshot.response(), snapshot.fetchedAt(), snapshot.fallback(), Instant.now().getEpochSecond());
+        } catch (Exception e) {
+            log.warn("Updating indicators of cell {} failed: {}", key.cell().id(), e.getMessage());
+        }
+    }
+
+    /**
+     * Totals of one local calendar day
+     */
+    private record DayTotals(long epochDay, double minTemperature, double maxTemperature, double rain, double et0,
+                             boolean forecast) {
+
+        boolean dry(double threshold) {
+            return rain < threshold;
+        }
+
+        /**
+         * Degree days by the modified average method: temperatures are capped at the upper threshold and
+         * the minimum is raised to the base
+         */
+        double degreeDays(double base, double upper) {
+            if (Double.isNaN(minTemperature)) return 0;
+            double max = Math.min(maxTemperature, upper);
+            double min = Math.max(Math.min(minTemperature, upper), base);
+            return Math.max(0, (max + min) / 2 - base);
+        }
+    }
+
+    private static final class DayAccumulator {
+        final long epochDay;
+        double min = Double.NaN;
+        double max = Double.NaN;
+        double rain;
+        double et0;
+
+        DayAccumulator(long epochDay) {
+            this.epochDay = epochDay;
+        }
+
+        void add(double[] temperature, NullableDoubleArray precipitation, NullableDoubleArray evapotranspiration, int i) {
+            if (temperature != null && i < temperature.length) {
+                double t = temperature[i];
+                min = Double.isNaN(min) ? t : Math.min(min, t);
+                max = Double.isNaN(max) ? t : Math.max(max, t);
+            }
+            rain += valueAt(precipitation, i);
+            et0 += valueAt(evapotranspiration, i);
+        }
+
+        DayTotals totals(boolean forecast) {
+            return new DayTotals(epochDay, min, max, rain, et0, forecast);
+        }
+
+        private static double valueAt(NullableDoubleArray values, int i) {
+            return values != null && i < values.length() && !values.isNull(i) ? values.get(i) : 0;
+        }
+    }
+
+    /**
+     * Running state of one grid cell: the sealed past days, the days from today on as of the latest series,
+     * and the response at the default base temperature built from them
+     */
+    private final class CellIndicators {
+        private final Deque<DayTotals> sealed = new ArrayDeque<>();
+        private long lastSealedDay = Long.MIN_VALUE;
+        private List<DayTotals> open = List.of();
+
+        private Instant appliedAt;
+        private boolean degraded;
+        private WeatherResponse source;
+        private AgroIndicatorsResponse defaultResponse;
+
+        synchronized void apply(WeatherResponse series, Instant fetchedAt, boolean fallback, long nowEpochSecond) {
+            long today = Math.floorDiv(nowEpochSecond + offsetOf(series), SECONDS_PER_DAY);
+            boolean dayChanged = !open.isEmpty() && open.get(0).epochDay() != today;
+            if (appliedAt != null && !fetchedAt.isAfter(appliedAt) && !dayChanged) return;
+            WeatherResponse.Hourly hourly = series.getHourly();
+            if (hourly == null || hourly.getTime() == null) return;
+
+            TimeAxis time = hourly.getTime();
+            // Only hours after the last sealed day are read; the sealed ones are final
+            int from = lastSealedDay == Long.MIN_VALUE ? 0 : firstIndexAtOrAfter(time, (lastSealedDay + 1) * SECONDS_PER_DAY);
+            List<DayTotals> days = new ArrayList<>();
+            DayAccumulator day = null;
+            for (int i = from; i < time.size(); i++) {
+                long epochDay = Math.floorDiv(time.epochSecond(i), SECONDS_PER_DAY);
+                if (day == null || day.epochDay != epochDay) {
+                    if (day != null) close(day, today, days);
+                    day = new DayAccumulator(epochDay);
+                }
+                day.add(hourly.getTemperature(), hourly.getPrecipitation(), hourly.getEt0(), i);
+            }
+            if (day != null) close(day, today, days);
+
+            while (!sealed.isEmpty() && sealed.peekFirst().epochDay() < today - properties.getPastDays()) {
+                sealed.removeFirst();
+            }
+            open = days;
+            appliedAt = fetchedAt;
+            degraded = fallback;
+            source = series;
+            defaultResponse = null;
+        }
+
+        private void close(DayAccumulator day, long today, List<DayTotals> openDays) {
+            if (day.epochDay < today) {
+                if (day.epochDay > lastSealedDay) {
+                    sealed.addLast(day.totals(false));
+                    lastSealedDay = day.epochDay;
+                }
+            } else {
+                openDays.add(day.totals(true));
+            }
+        }
+
+        synchronized AgroIndicatorsResponse response(GridCell cell, double baseTemperature) {
+            boolean isDefault = baseTemperature == properties.getBaseTemperature();
+            if (isDefault && defaultResponse != null) return defaultResponse;
+
+            double upper = properties.getUpperTemperature();
+            double threshold = properties.getDryDayThreshold();
+            AgroIndicatorsResponse response = new AgroIndicatorsResponse();
+            response.setLatitude(cell.latitude());
+            response.setLongitude(cell.longitude());
+            response.setTimezone(source != null ? source.getTimezone() : null);
+            response.setFetchedAt(appliedAt != null ? appliedAt.toString() : null);
+            response.setDegraded(degraded);
+            response.setBaseTemperature(baseTemperature);
+            response.setUpperTemperature(upper);
+
+            List<DayTotals> past = new ArrayList<>(sealed);
+            int spell = 0;
+            for (int i = past.size() - 1; i >= 0 && past.get(i).dry(threshold); i--) spell++;
+            response.setCurrentDrySpell(spell);
+            response.setPast(period(past, baseTemperature, upper, threshold));
+            response.setForecast(period(open, baseTemperature, upper, threshold));
+
+            List<AgroIndicatorsResponse.Day> daily = new ArrayList<>(past.size() + open.size());
+            past.forEach(d -> daily.add(day(d, baseTemperature, upper)));
+            open.forEach(d -> daily.add(day(d, baseTemperature, upper)));
+            response.setDaily(daily);
+
+            if (isDefault) defaultResponse = response;
+            return response;
+        }
+    }
+
+    private static AgroIndicatorsResponse.Period period(List<DayTotals> days, double base, double upper,
+                                                        double dryThreshold) {
+        if (days.isEmpty()) return null;
+        double gdd = 0, et0 = 0, rain = 0;
+        int dryDays = 0, run = 0, longest = 0;
+        for (DayTotals d : days) {
+            gdd += d.degreeDays(base, upper);
+            et0 += d.et0();
+            rain += d.rain();
+            if (d.dry(dryThreshold)) {
+                dryDays++;
+                longest = Math.max(longest, ++run);
+            } else {
+                run = 0;
+            }
+        }
+        AgroIndicatorsResponse.Period period = new AgroIndicatorsResponse.Period();
+        period.setFrom(LocalDate.ofEpochDay(days.get(0).epochDay()).toString());
+        period.setTo(LocalDate.ofEpochDay(days.get(days.size() - 1).epochDay()).toString());
+        period.setDays(days.size());
+        period.setGrowingDegreeDays(round(gdd));
+        period.setEt0(round(et0));
+        period.setRainfall(round(rain));
+        period.setWaterBalance(round(rain - et0));
+        period.setDryDays(dryDays);
+        period.setLongestDrySpell(longest);
+        return period;
+    }
+
+    private static AgroIndicatorsResponse.Day day(DayTotals totals, double base, double upper) {
+        AgroIndicatorsResponse.Day day = new AgroIndicatorsResponse.Day();
+        day.setDate(LocalDate.ofEpochDay(totals.epochDay()).toString());
+        day.setMinTemperature(round(totals.minTemperature()));
+        day.setMaxTemperature(round(totals.maxTemperature()));
+        day.setGrowingDegreeDays(round(totals.degreeDays(base, upper)));
+        day.setRainfall(round(totals.rain()));
+        day.setEt0(round(totals.et0()));
+        day.setForecast(totals.forecast());
+        return day;
+    }
+
+    // Times of the series are local wall-clock times; this converts "now" to the same clock
+    private static long offsetOf(WeatherResponse series) {
+        return series.getUtcOffsetSeconds() != null ? series.getUtcOffsetSeconds() : 0;
+    }
+
+    private static int firstIndexAtOrAfter(TimeAxis time, long epochSecond) {
+        int low = 0;
+        int high = time.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (time.epochSecond(mid) < epochSecond) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private static double round(double value) {
+        return Double.isNaN(value) ? 0 : Math.round(value * 10) / 10.0;
+    }
+}
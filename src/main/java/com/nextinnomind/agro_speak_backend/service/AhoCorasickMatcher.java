@@ -0,0 +1,184 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * Finds which of a fixed set of terms occur in a text, in one pass over the text regardless of the number
+ * of terms (Aho-Corasick). Matching ignores case, treats any whitespace as a single space and only accepts
+ * whole words, so "maize" is found in "Maize, beans" but not in "maizemeal".
+ * <p>
+ * The automaton is built once and immutable afterwards; transitions of a state are a sorted char array
+ * searched by bisection, so a large glossary costs memory proportional to its total length only.
+ */
+public final class AhoCorasickMatcher {
+
+    private static final int[] NONE = new int[0];
+
+    private final int termCount;
+    private final int[] termLengths;
+    // Size - 1 of the buffer of recent text characters, a power of two longer than the longest term
+    private final int recentMask;
+    // Per state: sorted transition chars and their target states
+    private final char[][] edges;
+    private final int[][] targets;
+    private final int[] fail;
+    // Per state: terms ending here, including those reached through the failure links
+    private final int[][] outputs;
+
+    private AhoCorasickMatcher(int termCount, int[] termLengths, char[][] edges, int[][] targets, int[] fail,
+                               int[][] outputs) {
+        this.termCount = termCount;
+        this.termLengths = termLengths;
+        this.recentMask = Integer.highestOneBit(Arrays.stream(termLengths).max().orElse(0) + 1) * 2 - 1;
+        this.edges = edges;
+        this.targets = targets;
+        this.fail = fail;
+        this.outputs = outputs;
+    }
+
+    /**
+     * Build the automaton; the index of a term in the list is what {@link #find} reports
+     *
+     * @throws IllegalArgumentException if a term is blank
+     */
+    public static AhoCorasickMatcher build(List<String> terms) {
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<List<Integer>> ending = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        ending.add(new ArrayList<>(1));
+
+        int[] lengths = new int[terms.size()];
+        for (int t = 0; t < terms.size(); t++) {
+            String term = normalize(terms.get(t));
+            if (term.isEmpty()) throw new IllegalArgumentException("Blank glossary term at position " + t);
+            lengths[t] = term.length();
+            int state = 0;
+            for (int i = 0; i < term.length(); i++) {
+                Integer next = trie.get(state).get(term.charAt(i));
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    ending.add(new ArrayList<>(1));
+                    trie.get(state).put(term.charAt(i), next);
+                }
+                state = next;
+            }
+            ending.get(state).add(t);
+        }
+
+        int states = trie.size();
+        char[][] edges = new char[states][];
+        int[][] targets = new int[states][];
+        for (int s = 0; s < states; s++) {
+            TreeMap<Character, Integer> children = trie.get(s);
+            edges[s] = new char[children.size()];
+            targets[s] = new int[children.size()];
+            int i = 0;
+            for (var child : children.entrySet()) {
+                edges[s][i] = child.getKey();
+                targets[s][i++] = child.getValue();
+            }
+        }
+
+        // Failure links breadth first, so a state's link is known before its children are visited
+        int[] fail = new int[states];
+        int[][] outputs = new int[states][];
+        outputs[0] = NONE;
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[0]) queue.add(child);
+        for (int child : targets[0]) outputs[child] = toArray(ending.get(child), NONE);
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            for (int i = 0; i < edges[s].length; i++) {
+                char c = edges[s][i];
+                int child = targets[s][i];
+                int f = fail[s];
+                int next;
+                while ((next = step(edges, targets, f, c)) < 0 && f != 0) f = fail[f];
+                fail[child] = next >= 0 ? next : 0;
+                outputs[child] = toArray(ending.get(child), outputs[fail[child]]);
+                queue.add(child);
+            }
+        }
+        return new AhoCorasickMatcher(terms.size(), lengths, edges, targets, fail, outputs);
+    }
+
+    /**
+     * Indices of the terms occurring as whole words in the text, each once, in order of first occurrence
+     */
+    public int[] find(CharSequence text) {
+        if (text == null || termCount == 0) return NONE;
+        int[] found = null;
+        int count = 0;
+        BitSet seen = null;
+        // Folded characters fed to the automaton, to find the one before a match once whitespace is collapsed
+        char[] recent = new char[recentMask + 1];
+        int fed = 0;
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = fold(text.charAt(i));
+            if (c == ' ' && fed > 0 && recent[(fed - 1) & recentMask] == ' ') continue;
+            recent[fed++ & recentMask] = c;
+            int next;
+            while ((next = step(edges, targets, state, c)) < 0 && state != 0) state = fail[state];
+            state = Math.max(next, 0);
+            for (int term : outputs[state]) {
+                int before = fed - termLengths[term] - 1;
+                if (before >= 0 && Character.isLetterOrDigit(recent[before & recentMask])) continue;
+                if (i + 1 < text.length() && Character.isLetterOrDigit(text.charAt(i + 1))) continue;
+                if (seen == null) {
+                    seen = new BitSet(termCount);
+                    found = new int[4];
+                }
+                if (seen.get(term)) continue;
+                seen.set(term);
+                if (count == found.length) found = Arrays.copyOf(found, count * 2);
+                found[count++] = term;
+            }
+        }
+        return found == null ? NONE : Arrays.copyOf(found, count);
+    }
+
+    public int size() {
+        return termCount;
+    }
+
+    public int states() {
+        return fail.length;
+    }
+
+    private static int step(char[][] edges, int[][] targets, int state, char c) {
+        int i = Arrays.binarySearch(edges[state], c);
+        return i >= 0 ? targets[state][i] : -1;
+    }
+
+    private static char fold(char c) {
+        return Character.isWhitespace(c) ? ' ' : Character.toLowerCase(c);
+    }
+
+    // Folded the same way as the text, so a term matches exactly where its characters do
+    static String normalize(String term) {
+        if (term == null) return "";
+        StringBuilder folded = new StringBuilder(term.length());
+        for (int i = 0; i < term.length(); i++) {
+            char c = fold(term.charAt(i));
+            if (c == ' ' && (folded.isEmpty() || folded.charAt(folded.length() - 1) == ' ')) continue;
+            folded.append(c);
+        }
+        if (!folded.isEmpty() && folded.charAt(folded.length() - 1) == ' ') folded.setLength(folded.length() - 1);
+        return folded.toString();
+    }
+
+    private static int[] toArray(List<Integer> own, int[] inherited) {
+        if (own.isEmpty()) return inherited;
+        int[] result = Arrays.copyOf(own.stream().mapToInt(Integer::intValue).toArray(), own.size() + inherited.length);
+        System.arraycopy(inherited, 0, result, own.size(), inherited.length);
+        return result;
+    }
+}
@@ -0,0 +1,13 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+/**
+ * One hazard found in a cell's forecast.
+ *
+ * @param type        kind of hazard
+ * @param severity    level within the type; a higher level for the same hazard counts as an escalation
+ * @param windowStart epoch second (UTC) at which the hazard starts
+ * @param windowEnd   epoch second (UTC) at which it is expected to be over
+ * @param message     SMS text for this hazard
+ */
+public record AlertHazard(HazardType type, int severity, long windowStart, long windowEnd, String message) {
+}
@@ -0,0 +1,144 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.nextinnomind.agro_speak_backend.entity.AlertLedgerEntry;
+import com.nextinnomind.agro_speak_backend.repository.AlertLedgerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memory of the hazards already notified per grid cell, so a hazard that stays in the forecast window
+ * is sent once rather than on every alert run. A hazard is sent again only when it is new (no notified
+ * hazard of that type overlaps its time window) or escalated (its severity is higher than notified).
+ * <p>
+ * Everyone in a cell receives the same alert, so the ledger is kept per cell rather than per user:
+ * one row per cell and hazard type with an active hazard. A notified hazard is forgotten once its
+ * window has passed plus the cooldown. Rows live in the shared datasource next to the shard leases, so
+ * when a cell's shard moves to another instance (a node joins or leaves, a lease runs out) the new owner
+ * sees what was already sent, and ongoing hazards are not notified again after a restart either.
+ * The alert scheduler reads a cell once per run and writes it at the end of the run.
+ */
+@Slf4j
+@Component
+public class AlertLedger {
+
+    // Per hazard type: window start, window end, severity (0 = nothing notified)
+    private static final int SLOTS = 3;
+    private static final HazardType[] TYPES = HazardType.values();
+
+    private final Duration cooldown;
+    private final AlertLedgerRepository repository;
+
+    private final LongAdder checked = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+    private final LongAdder escalations = new LongAdder();
+
+    @Autowired
+    public AlertLedger(@Value("${weather.alerts.dedup-cooldown:6h}") Duration cooldown,
+                       AlertLedgerRepository repository) {
+        this.cooldown = cooldown;
+        this.repository = repository;
+    }
+
+    /**
+     * Hazards that have not been notified for the cell yet, or that have escalated since
+     */
+    public List<AlertHazard> unnotified(GridCell cell, List<AlertHazard> hazards) {
+        if (hazards.isEmpty()) return hazards;
+        long[] entry = load(cell);
+        List<AlertHazard> result = new ArrayList<>(hazards.size());
+        for (AlertHazard hazard : hazards) {
+            checked.increment();
+            int slot = hazard.type().ordinal() * SLOTS;
+            long severity = entry[slot + 2];
+            boolean known = severity > 0 && overlaps(entry, slot, hazard) && timeToLive(entry, slot).compareTo(Duration.ZERO) > 0;
+            if (!known) {
+                result.add(hazard);
+            } else if (hazard.severity() > severity) {
+                escalations.increment();
+                result.add(hazard);
+            } else {
+                suppressed.increment();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Record hazards as notified for the cell. A hazard continuing a notified one extends its window,
+     * so a long-lasting hazard stays suppressed for as long as it is in the forecast.
+     */
+    public void record(GridCell cell, List<AlertHazard> hazards) {
+        if (hazards.isEmpty()) return;
+        long[] entry = load(cell);
+        List<AlertLedgerEntry> changed = new ArrayList<>(hazards.size());
+        for (AlertHazard hazard : hazards) {
+            int slot = hazard.type().ordinal() * SLOTS;
+            boolean continuing = entry[slot + 2] > 0 && overlaps(entry, slot, hazard);
+            entry[slot] = continuing ? Math.min(entry[slot], hazard.windowStart()) : hazard.windowStart();
+            entry[slot + 1] = continuing ? Math.max(entry[slot + 1], hazard.windowEnd()) : hazard.windowEnd();
+            entry[slot + 2] = continuing ? Math.max(entry[slot + 2], hazard.severity()) : hazard.severity();
+            changed.add(new AlertLedgerEntry(cell.id() + "/" + hazard.type(), cell.id(), hazard.type().name(),
+                    entry[slot], entry[slot + 1], (int) entry[slot + 2],
+                    Instant.ofEpochSecond(entry[slot + 1]).plus(cooldown)));
+        }
+        repository.saveAll(changed);
+    }
+
+    /**
+     * Delete hazards that no longer suppress anything
+     */
+    @Scheduled(fixedDelayString = "${weather.alerts.ledger-purge-interval:1h}",
+            initialDelayString = "${weather.alerts.ledger-purge-interval:1h}")
+    public void purge() {
+        try {
+            int deleted = repository.deleteExpired(Instant.now());
+            if (deleted > 0) log.debug("Purged {} expired alert ledger entries", deleted);
+        } catch (Exception e) {
+            log.warn("Could not purge the alert ledger: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Ledger size and how many hazard checks were suppressed or escalated since startup
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("cells", repository.countCells(Instant.now()));
+        result.put("checked", checked.sum());
+        result.put("suppressed", suppressed.sum());
+        result.put("escalations", escalations.sum());
+        return result;
+    }
+
+    // The cell's notified hazards that have not expired, in slots per hazard type
+    private long[] load(GridCell cell) {
+        long[] entry = new long[TYPES.length * SLOTS];
+        for (AlertLedgerEntry row : repository.findByCellAndExpiresAtAfter(cell.id(), Instant.now())) {
+            int slot = HazardType.valueOf(row.getHazardType()).ordinal() * SLOTS;
+            entry[slot] = row.getWindowStart();
+            entry[slot + 1] = row.getWindowEnd();
+            entry[slot + 2] = row.getSeverity();
+        }
+        return entry;
+    }
+
+    private static boolean overlaps(long[] entry, int slot, AlertHazard hazard) {
+        // Touching windows count: a storm seen again in the next hour is the same storm
+        return hazard.windowStart() <= entry[slot + 1] && entry[slot] <= hazard.windowEnd();
+    }
+
+    private Duration timeToLive(long[] entry, int slot) {
+        return Duration.between(Instant.now(), Instant.ofEpochSecond(entry[slot + 1]).plus(cooldown));
+    }
+}
@@ -0,0 +1,321 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nextinnomind.agro_speak_backend.dto.AlertRuleDefinition;
+import com.nextinnomind.agro_speak_backend.entity.NullableDoubleArray;
+import com.nextinnomind.agro_speak_backend.entity.TimeAxis;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates the alert rules against a grid cell's forecast. Rules come from a JSON file
+ * ({@code weather.alerts.rules-file}, see {@link AlertRuleDefinition}) that is reloaded when it changes;
+ * without one, the severe-code and precipitation rules are built from {@code weather.alerts.severe-codes}
+ * and {@code weather.alerts.precipitation-threshold}.
+ * <p>
+ * Rules are compiled once per load: code sets become bitsets indexed by WMO code and thresholds become
+ * primitive loops over the hourly arrays, so evaluating a cell allocates nothing unless a hazard is found.
+ */
+@Slf4j
+@Component
+public class AlertRuleEngine {
+
+    private static final long HOUR = 3_600;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ReloadableFile<List<AlertRuleDefinition>> rulesFile;
+    private final List<AlertRuleDefinition> defaults;
+    private volatile RuleSet rules;
+
+    @Autowired
+    public AlertRuleEngine(@Value("${weather.alerts.rules-file:}") String rulesFile,
+                           @Value("${weather.alerts.precipitation-threshold:20.0}") double precipitationThreshold,
+                           @Value("${weather.alerts.severe-codes:95,96,99}") String severeCodes) {
+        this.defaults = defaultRules(precipitationThreshold, severeCodes);
+        this.rulesFile = rulesFile.isBlank() ? null
+                : new ReloadableFile<>(Path.of(rulesFile), "alert rules", path ->
+                        mapper.readValue(path.toFile(), AlertRuleDefinition.RuleSet.class).getRules());
+        this.rules = compile(defaults);
+        reload();
+    }
+
+    /**
+     * Pick up changes to the rules file. An invalid file is logged and the current rules stay active.
+     */
+    @Scheduled(fixedDelayString = "${weather.alerts.rules-reload-interval:30s}",
+            initialDelayString = "${weather.alerts.rules-reload-interval:30s}")
+    public void reload() {
+        if (rulesFile == null) return;
+        rulesFile.reloadIfChanged().ifPresent(definitions -> {
+            try {
+                rules = compile(definitions);
+                log.info("Alert rules active: {}", rules.names());
+            } catch (RuntimeException e) {
+                log.error("Alert rules in {} rejected; keeping the previous rules: {}", rulesFile.path(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Hazards the current rules find in the forecast; empty if none
+     */
+    public List<AlertHazard> evaluate(GridCell cell, WeatherResponse forecast, long nowEpochSecond) {
+        if (forecast == null) return List.of();
+        List<AlertHazard> hazards = null;
+        for (CompiledRule rule : rules.rules()) {
+            AlertHazard hazard = rule.evaluate(cell, forecast, nowEpochSecond);
+            if (hazard == null) continue;
+            if (hazards == null) hazards = new ArrayList<>(2);
+            hazards.add(hazard);
+        }
+        return hazards != null ? hazards : List.of();
+    }
+
+    /**
+     * Comma-separated hourly variables the active rules need, for the alert forecast query
+     */
+    public String hourlyVariables() {
+        return rules.hourlyVariables();
+    }
+
+    /**
+     * Names and source of the active rules
+     */
+    public Map<String, Object> describe() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("source", rulesFile != null ? rulesFile.path().toString() : "properties");
+        result.put("rules", rules.names());
+        result.put("hourlyVariables", rules.hourlyVariables());
+        return result;
+    }
+
+    // ================= Compilation =================
+
+    private record RuleSet(List<CompiledRule> rules, List<String> names, String hourlyVariables) {
+    }
+
+    static RuleSet compile(List<AlertRuleDefinition> definitions) {
+        if (definitions == null) throw new IllegalArgumentException("No \"rules\" array");
+        List<CompiledRule> compiled = new ArrayList<>(definitions.size());
+        Set<AlertVariable> variables = EnumSet.noneOf(AlertVariable.class);
+        for (AlertRuleDefinition definition : definitions) {
+            CompiledRule rule = compile(definition);
+            compiled.add(rule);
+            variables.add(rule.variable());
+        }
+        String hourly = variables.stream().map(AlertVariable::openMeteoName).collect(Collectors.joining(","));
+        return new RuleSet(List.copyOf(compiled), definitions.stream().map(AlertRuleDefinition::getName).toList(), hourly);
+    }
+
+    private static CompiledRule compile(AlertRuleDefinition d) {
+        String name = d.getName() != null ? d.getName() : String.valueOf(d.getHazard());
+        if (d.getHazard() == null) throw new IllegalArgumentException("Rule '" + name + "' has no hazard");
+        if (d.getMessage() == null) throw new IllegalArgumentException("Rule '" + name + "' has no message");
+
+        if (d.getCodes() != null && !d.getCodes().isEmpty()) {
+            return new WeatherCodeRule(d.getHazard(), d.getCodes(), d.getMessage());
+        }
+        if (d.getVariable() == null || (d.getAbove() == null) == (d.getBelow() == null)) {
+            throw new IllegalArgumentException("Rule '" + name + "' needs codes, or a variable with either 'above' or 'below'");
+        }
+        AlertVariable variable = AlertVariable.fromOpenMeteoName(d.getVariable());
+        if (variable == AlertVariable.WEATHER_CODE) {
+            throw new IllegalArgumentException("Rule '" + name + "': use 'codes' for weather codes");
+        }
+        boolean above = d.getAbove() != null;
+        double step = d.getStep() != null && d.getStep() > 0 ? d.getStep() : Double.POSITIVE_INFINITY;
+        return new ThresholdRule(d.getHazard(), variable, above, above ? d.getAbove() : d.getBelow(), step, d.getMessage());
+    }
+
+    private static List<AlertRuleDefinition> defaultRules(double precipitationThreshold, String severeCodes) {
+        List<Integer> codes = Arrays.stream(severeCodes.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .map(Integer::parseInt)
+                .toList();
+        return List.of(
+                new AlertRuleDefinition("severe-weather", HazardType.SEVERE_WEATHER, null, null, null, null, codes,
+                        "Severe weather alert: {weather} at location ({lat},{lon})."),
+                new AlertRuleDefinition("heavy-precipitation", HazardType.HEAVY_PRECIPITATION,
+                        AlertVariable.PRECIPITATION.openMeteoName(), precipitationThreshold, null, precipitationThreshold,
+                        null, "Heavy precipitation expected: {peak}mm."));
+    }
+
+    // ================= Compiled rules =================
+
+    private interface CompiledRule {
+        AlertVariable variable();
+
+        AlertHazard evaluate(GridCell cell, WeatherResponse forecast, long now);
+    }
+
+    /**
+     * Weather code set: matches the current code and any hourly code in the set. Severity is the
+     * position of the worst matched code in the configured list.
+     */
+    private static final class WeatherCodeRule implements CompiledRule {
+        private final HazardType hazard;
+        private final BitSet codes = new BitSet(100);
+        // Severity per WMO code (index), 0 when not in the set
+        private final int[] severity;
+        private final String message;
+
+        WeatherCodeRule(HazardType hazard, List<Integer> codeList, String message) {
+            this.hazard = hazard;
+            this.message = message;
+            this.severity = new int[codeList.stream().mapToInt(Integer::intValue).max().orElse(0) + 1];
+            for (int i = 0; i < codeList.size(); i++) {
+                int code = codeList.get(i);
+                if (code < 0) throw new IllegalArgumentException("Invalid weather code " + code);
+                codes.set(code);
+                severity[code] = i + 1;
+            }
+        }
+
+        @Override
+        public AlertVariable variable() {
+            return AlertVariable.WEATHER_CODE;
+        }
+
+        @Override
+        public AlertHazard evaluate(GridCell cell, WeatherResponse forecast, long now) {
+            int worst = -1;
+            long start = Long.MAX_VALUE;
+            long end = Long.MIN_VALUE;
+
+            WeatherResponse.CurrentWeather current = forecast.getCurrentWeather();
+            if (current != null && matches(current.getWeathercode())) {
+                worst = current.getWeathercode();
+                start = now;
+                end = now + HOUR;
+            }
+
+            WeatherResponse.Hourly hourly = forecast.getHourly();
+            int[] hourlyCodes = hourly != null ? hourly.getWeathercode() : null;
+            if (hourlyCodes != null) {
+                for (int i = 0; i < hourlyCodes.length; i++) {
+                    int code = hourlyCodes[i];
+                    if (!matches(code)) continue;
+                    if (worst < 0 || severity[code] > severity[worst]) worst = code;
+                    long hour = hourStart(forecast, i, now + i * HOUR);
+                    start = Math.min(start, hour);
+                    end = Math.max(end, hour + HOUR);
+                }
+            }
+            if (worst < 0) return null;
+
+            String text = render(message, cell, Double.NaN, WeatherService.getWeatherMessage(worst));
+            return new AlertHazard(hazard, severity[worst], start, end, text);
+        }
+
+        private boolean matches(int code) {
+            return code >= 0 && codes.get(code);
+        }
+    }
+
+    /**
+     * Threshold on an hourly variable ({@code above}: value >= threshold, {@code below}: value <= threshold).
+     * The window spans the first to the last matching hour; severity grows by one per step past the threshold.
+     */
+    private static final class ThresholdRule implements CompiledRule {
+        private final HazardType hazard;
+        private final AlertVariable variable;
+        private final boolean above;
+        private final double threshold;
+        private final double step;
+        private final String message;
+
+        ThresholdRule(HazardType hazard, AlertVariable variable, boolean above, double threshold, double step,
+                      String message) {
+            this.hazard = hazard;
+            this.variable = variable;
+            this.above = above;
+            this.threshold = threshold;
+            this.step = step;
+            this.message = message;
+        }
+
+        @Override
+        public AlertVariable variable() {
+            return variable;
+        }
+
+        @Override
+        public AlertHazard evaluate(GridCell cell, WeatherResponse forecast, long now) {
+            WeatherResponse.Hourly hourly = forecast.getHourly();
+            if (hourly == null) return null;
+
+            int first = -1;
+            int last = -1;
+            double peak = above ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+            if (variable == AlertVariable.PRECIPITATION) {
+                NullableDoubleArray values = hourly.getPrecipitation();
+                if (values == null) return null;
+                for (int i = 0; i < values.length(); i++) {
+                    if (values.isNull(i) || !matches(values.get(i))) continue;
+                    if (first < 0) first = i;
+                    last = i;
+                    peak = above ? Math.max(peak, values.get(i)) : Math.min(peak, values.get(i));
+                }
+            } else {
+                double[] values = switch (variable) {
+                    case WIND_SPEED -> hourly.getWindSpeed();
+                    case TEMPERATURE -> hourly.getTemperature();
+                    case SOIL_MOISTURE -> hourly.getSoilMoisture();
+                    default -> null;
+                };
+                if (values == null) return null;
+                for (int i = 0; i < values.length; i++) {
+                    if (!matches(values[i])) continue;
+                    if (first < 0) first = i;
+                    last = i;
+                    peak = above ? Math.max(peak, values[i]) : Math.min(peak, values[i]);
+                }
+            }
+            if (first < 0) return null;
+
+            int severity = 1 + (int) (Math.abs(peak - threshold) / step);
+            long start = hourStart(forecast, first, now + first * HOUR);
+            long end = hourStart(forecast, last, now + last * HOUR) + HOUR;
+            return new AlertHazard(hazard, severity, start, end, render(message, cell, peak, null));
+        }
+
+        private boolean matches(double value) {
+            return above ? value >= threshold : value <= threshold;
+        }
+    }
+
+    /**
+     * UTC epoch second of hourly entry i, or the fallback when the forecast has no usable time axis
+     */
+    private static long hourStart(WeatherResponse forecast, int i, long fallback) {
+        TimeAxis time = forecast.getHourly().getTime();
+        if (time == null || i >= time.size()) return fallback;
+        int offset = forecast.getUtcOffsetSeconds() != null ? forecast.getUtcOffsetSeconds() : 0;
+        return time.epochSecond(i) - offset;
+    }
+
+    private static String render(String template, GridCell cell, double peak, String weather) {
+        String text = template
+                .replace("{lat}", String.valueOf(cell.latitude()))
+                .replace("{lon}", String.valueOf(cell.longitude()));
+        if (!Double.isNaN(peak)) text = text.replace("{peak}", String.format("%.1f", peak));
+        if (weather != null) text = text.replace("{weather}", weather);
+        return text;
+    }
+}
@@ -0,0 +1,93 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and per-stage timings for one weather alert run. Stage times are summed across
+ * worker threads, so with parallel workers they can exceed the wall-clock duration.
+ */
+public class AlertRunReport {
+
+    public enum Stage {
+        /** Loading subscriber pages from the database */
+        SCAN,
+        /** Waiting on the Open-Meteo rate limiter */
+        FORECAST_THROTTLE,
+        /** Fetching forecasts (cache or upstream) */
+        FORECAST,
+        /** Evaluating alert rules */
+        EVALUATE,
+        /** Queueing SMS in the outbox */
+        NOTIFY
+    }
+
+    private final Instant startedAt = Instant.now();
+    private volatile Instant finishedAt;
+    private final Map<Stage, LongAdder> stageNanos = new EnumMap<>(Stage.class);
+
+    private final LongAdder subscribers = new LongAdder();
+    private final LongAdder subscribersElsewhere = new LongAdder();
+    private final LongAdder cells = new LongAdder();
+    private final LongAdder cellFailures = new LongAdder();
+    private final LongAdder cellsSkipped = new LongAdder();
+    private final LongAdder alertsQueued = new LongAdder();
+    private final LongAdder hazardsSuppressed = new LongAdder();
+    private final LongAdder queueFailures = new LongAdder();
+
+    public AlertRunReport() {
+        for (Stage stage : Stage.values()) {
+            stageNanos.put(stage, new LongAdder());
+        }
+    }
+
+    public void record(Stage stage, long nanos) {
+        stageNanos.get(stage).add(nanos);
+    }
+
+    public void subscribers(int count) { subscribers.add(count); }
+    public void subscriberElsewhere() { subscribersElsewhere.increment(); }
+    public void cellEvaluated() { cells.increment(); }
+    public void cellFailed() { cellFailures.increment(); }
+    public void cellSkipped() { cellsSkipped.increment(); }
+    public void alertsQueued(int count) { alertsQueued.add(count); }
+    public void hazardsSuppressed(int count) { hazardsSuppressed.add(count); }
+    public void queueFailed() { queueFailures.increment(); }
+
+    public void finish() {
+        finishedAt = Instant.now();
+    }
+
+    public Duration duration() {
+        return Duration.between(startedAt, finishedAt != null ? finishedAt : Instant.now());
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("startedAt", startedAt.toString());
+        result.put("finishedAt", finishedAt != null ? finishedAt.toString() : null);
+        result.put("durationMs", duration().toMillis());
+        result.put("subscribers", subscribers.sum());
+        result.put("subscribersOtherShards", subscribersElsewhere.sum());
+        result.put("cells", cells.sum());
+        result.put("cellFailures", cellFailures.sum());
+        result.put("cellsSkipped", cellsSkipped.sum());
+        result.put("alertsQueued", alertsQueued.sum());
+        result.put("hazardsSuppressed", hazardsSuppressed.sum());
+        result.put("queueFailures", queueFailures.sum());
+        Map<String, Long> stages = new LinkedHashMap<>();
+        stageNanos.forEach((stage, nanos) -> stages.put(stage.name().toLowerCase(), TimeUnit.NANOSECONDS.toMillis(nanos.sum())));
+        result.put("stageMs", stages);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+}
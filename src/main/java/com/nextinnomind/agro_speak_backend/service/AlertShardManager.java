@@ -0,0 +1,244 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.nextinnomind.agro_speak_backend.config.AlertShardingProperties;
+import com.nextinnomind.agro_speak_backend.entity.AlertNode;
+import com.nextinnomind.agro_speak_backend.repository.AlertNodeRepository;
+import com.nextinnomind.agro_speak_backend.repository.AlertShardLeaseRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Splits the weather alert job across application instances. Grid cells are hashed into a fixed number
+ * of shards; each instance claims shards through conditional updates on a lease table in the shared
+ * datasource and only evaluates cells of the shards it holds, so every subscriber is alerted by exactly
+ * one instance.
+ * <p>
+ * On every heartbeat a node renews its leases, records itself as alive and rebalances towards an equal
+ * share (shards / live nodes): it claims free or expired shards up to its share and, when not in the
+ * middle of an alert run, releases shards above it. Adding an instance therefore spreads the work, and
+ * the shards of a dead instance are taken over once its leases run out.
+ * <p>
+ * Heartbeats run on their own thread so a long alert run on the Spring scheduler cannot let leases lapse.
+ */
+@Slf4j
+@Component
+public class AlertShardManager {
+
+    private final AlertShardLeaseRepository leaseRepository;
+    private final AlertNodeRepository nodeRepository;
+    private final AlertShardingProperties properties;
+    private final String nodeId;
+
+    private final ScheduledExecutorService heartbeatExecutor;
+    private final AtomicInteger activeRuns = new AtomicInteger();
+
+    // Shards held as of the last successful heartbeat, and until when that is guaranteed
+    private volatile BitSet owned = new BitSet();
+    private volatile Instant ownedUntil = Instant.EPOCH;
+    private volatile long liveNodes;
+
+    public AlertShardManager(AlertShardLeaseRepository leaseRepository, AlertNodeRepository nodeRepository,
+                             AlertShardingProperties properties) {
+        this.leaseRepository = leaseRepository;
+        this.nodeRepository = nodeRepository;
+        this.properties = properties;
+        this.nodeId = properties.getNodeId() == null || properties.getNodeId().isBlank()
+                ? defaultNodeId() : properties.getNodeId();
+        this.heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "alert-shard-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) return;
+        long interval = properties.getHeartbeatInterval().toMillis();
+        heartbeatExecutor.scheduleWithFixedDelay(this::safeHeartbeat, 0, interval, TimeUnit.MILLISECONDS);
+        log.info("Alert sharding started as node {} ({} shards)", nodeId, properties.getShards());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeatExecutor.shutdownNow();
+        if (!properties.isEnabled()) return;
+        // Hand shards over right away instead of making other nodes wait for the leases to run out
+        try {
+            Instant now = Instant.now();
+            owned.stream().forEach(shard -> leaseRepository.release(shard, nodeId, now));
+            nodeRepository.deleteById(nodeId);
+        } catch (Exception e) {
+            log.debug("Could not release alert shards on shutdown: {}", e.getMessage());
+        }
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Shard of a grid cell; the same on every node
+     */
+    public int shardOf(GridCell cell) {
+        long h = cell.latIndex() * 0x9E3779B97F4A7C15L ^ cell.lonIndex() * 0xC2B2AE3D27D4EB4FL;
+        h ^= h >>> 31;
+        return (int) Math.floorMod(h, (long) properties.getShards());
+    }
+
+    /**
+     * Whether this node is responsible for the cell's alerts
+     */
+    public boolean owns(GridCell cell) {
+        if (!properties.isEnabled()) return true;
+        return Instant.now().isBefore(ownedUntil) && owned.get(shardOf(cell));
+    }
+
+    /**
+     * Whether cells are split across instances; when false this node handles every shard
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Shards this node currently holds (every shard when sharding is disabled)
+     */
+    public List<Integer> ownedShards() {
+        if (!properties.isEnabled()) return IntStream.range(0, properties.getShards()).boxed().toList();
+        if (!Instant.now().isBefore(ownedUntil)) return List.of();
+        return owned.stream().boxed().toList();
+    }
+
+    /**
+     * Whether this node currently holds any shard (always true when sharding is disabled)
+     */
+    public boolean ownsAny() {
+        return !properties.isEnabled() || (Instant.now().isBefore(ownedUntil) && !owned.isEmpty());
+    }
+
+    /**
+     * Mark the start of an alert run; shards are not given away while a run is in progress
+     */
+    public void runStarted() {
+        activeRuns.incrementAndGet();
+    }
+
+    public void runFinished() {
+        activeRuns.decrementAndGet();
+    }
+
+    private void safeHeartbeat() {
+        try {
+            heartbeat();
+        } catch (Exception e) {
+            // Ownership lapses on its own at ownedUntil, so a database outage cannot cause double sends
+            log.warn("Alert shard heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Renew, record liveness and rebalance. Public for tests and manual triggering.
+     */
+    public synchronized void heartbeat() {
+        int shards = properties.getShards();
+        Instant now = Instant.now();
+        Instant until = now.plus(properties.getLeaseDuration());
+
+        ensureShardRows(shards);
+        nodeRepository.save(new AlertNode(nodeId, now));
+        nodeRepository.deleteStale(now.minus(properties.getLeaseDuration().multipliedBy(3)));
+        leaseRepository.renew(nodeId, now, until);
+
+        liveNodes = Math.max(1, nodeRepository.countByLastSeenAfter(now.minus(properties.getLeaseDuration())));
+        int share = (int) ((shards + liveNodes - 1) / liveNodes);
+
+        List<Integer> held = new ArrayList<>(leaseRepository.findHeldShards(nodeId, now));
+        held.removeIf(shard -> shard >= shards);
+
+        if (held.size() > share && activeRuns.get() == 0) {
+            for (Integer shard : held.subList(share, held.size())) {
+                leaseRepository.release(shard, nodeId, now);
+            }
+            log.info("Released {} alert shards to rebalance across {} nodes", held.size() - share, liveNodes);
+        } else if (held.size() < share) {
+            List<Integer> claimable = new ArrayList<>(leaseRepository.findClaimableShards(now));
+            claimable.removeIf(shard -> shard >= shards);
+            // Random order so nodes starting together do not all race for the same shards
+            Collections.shuffle(claimable);
+            int claimed = 0;
+            for (Integer shard : claimable) {
+                if (held.size() + claimed >= share) break;
+                claimed += leaseRepository.claim(shard, nodeId, now, until);
+            }
+            if (claimed > 0) {
+                log.info("Claimed {} alert shards ({} live nodes, share {})", claimed, liveNodes, share);
+            }
+        }
+
+        BitSet current = new BitSet(shards);
+        leaseRepository.findHeldShards(nodeId, now).stream().filter(s -> s < shards).forEach(current::set);
+        owned = current;
+        // Leave a margin before the lease actually expires, so another node never takes over a shard we still use
+        ownedUntil = until.minus(properties.getLeaseDuration().dividedBy(4));
+    }
+
+    /**
+     * Shard ownership of this node and the number of live nodes
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", properties.isEnabled());
+        result.put("nodeId", nodeId);
+        result.put("shards", properties.getShards());
+        result.put("ownedShards", properties.isEnabled() ? owned.cardinality() : properties.getShards());
+        result.put("ownedUntil", properties.isEnabled() ? ownedUntil.toString() : null);
+        result.put("liveNodes", liveNodes);
+        return result;
+    }
+
+    private void ensureShardRows(int shards) {
+        if (leaseRepository.count() >= shards) return;
+        Set<Integer> existing = new HashSet<>();
+        leaseRepository.findAll().forEach(lease -> existing.add(lease.getShard()));
+        for (int shard = 0; shard < shards; shard++) {
+            if (existing.contains(shard)) continue;
+            try {
+                leaseRepository.insertShard(shard, Instant.EPOCH);
+            } catch (DataIntegrityViolationException e) {
+                // Another node created it concurrently
+            }
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
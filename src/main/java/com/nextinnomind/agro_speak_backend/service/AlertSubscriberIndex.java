@@ -0,0 +1,84 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.nextinnomind.agro_speak_backend.dto.AlertLocation;
+import com.nextinnomind.agro_speak_backend.dto.AlertSubscriber;
+import com.nextinnomind.agro_speak_backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.LongFunction;
+
+/**
+ * Reads alert subscribers shard by shard. Each user row carries the alert shard of its grid cell in an
+ * indexed column, so an instance pages through only the subscribers of the shards it holds instead of
+ * the whole user table.
+ * <p>
+ * The shard is assigned here rather than on write: a location change clears it, and users without one
+ * are assigned before each scan. On startup every assignment is recomputed, so changing the shard count
+ * or the grid resolution takes effect after a restart.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AlertSubscriberIndex {
+
+    private final UserRepository userRepository;
+    private final WeatherService weatherService;
+    private final AlertShardManager shardManager;
+
+    @Value("${weather.alerts.page-size:500}")
+    private int pageSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reassignAll() {
+        try {
+            int changed = assign(afterId -> userRepository.findAlertLocationsAfter(afterId, Limit.of(pageSize)));
+            if (changed > 0) log.info("Reassigned the alert shard of {} subscribers", changed);
+        } catch (Exception e) {
+            log.warn("Could not reassign alert shards on startup: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Assign a shard to alert subscribers that have none yet (new or moved locations)
+     *
+     * @return number of users assigned
+     */
+    public int assignUnassigned() {
+        return assign(afterId -> userRepository.findUnassignedAlertLocationsAfter(afterId, Limit.of(pageSize)));
+    }
+
+    /**
+     * Keyset page of the alert subscribers in the shards this instance holds, with id greater than afterId
+     */
+    public List<AlertSubscriber> page(long afterId, int limit) {
+        if (!shardManager.isEnabled()) return userRepository.findAlertSubscribersAfter(afterId, Limit.of(limit));
+        List<Integer> shards = shardManager.ownedShards();
+        if (shards.isEmpty()) return List.of();
+        return userRepository.findAlertSubscribersInShardsAfter(shards, afterId, Limit.of(limit));
+    }
+
+    private int assign(LongFunction<List<AlertLocation>> pages) {
+        int changed = 0;
+        long afterId = 0;
+        List<AlertLocation> page;
+        do {
+            page = pages.apply(afterId);
+            for (AlertLocation location : page) {
+                int shard = shardManager.shardOf(weatherService.gridCellFor(location.getLatitude(), location.getLongitude()));
+                if (Objects.equals(location.getAlertShard(), shard)) continue;
+                changed += userRepository.assignAlertShard(location.getId(), location.getLatitude(),
+                        location.getLongitude(), shard);
+            }
+            if (!page.isEmpty()) afterId = page.get(page.size() - 1).getId();
+        } while (page.size() == pageSize);
+        return changed;
+    }
+}
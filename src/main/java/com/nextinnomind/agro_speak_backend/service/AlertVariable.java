@@ -0,0 +1,34 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import java.util.Arrays;
+
+/**
+ * Hourly Open-Meteo variables that alert rules can test
+ */
+public enum AlertVariable {
+    PRECIPITATION("precipitation"),
+    WIND_SPEED("wind_speed_10m"),
+    TEMPERATURE("temperature_2m"),
+    SOIL_MOISTURE("soil_moisture_0_to_7cm"),
+    WEATHER_CODE("weathercode");
+
+    private final String openMeteoName;
+
+    AlertVariable(String openMeteoName) {
+        this.openMeteoName = openMeteoName;
+    }
+
+    /**
+     * Name of the variable in Open-Meteo's "hourly" query parameter and response
+     */
+    public String openMeteoName() {
+        return openMeteoName;
+    }
+
+    public static AlertVariable fromOpenMeteoName(String name) {
+        return Arrays.stream(values())
+                .filter(v -> v.openMeteoName.equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported alert variable '" + name + "'"));
+    }
+}
@@ -0,0 +1,48 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * A forecast served from the weather cache, with what HTTP caching needs to know about it:
+ * the cache key it was stored under, when it was fetched upstream, when the cache entry expires
+ * and whether it is a last known forecast served because Open-Meteo was unavailable.
+ */
+public record CachedForecast(WeatherCacheKey key, WeatherResponse response, Instant fetchedAt, Instant expiresAt,
+                             boolean degraded) {
+
+    public CachedForecast(WeatherCacheKey key, WeatherResponse response, Instant fetchedAt, Instant expiresAt) {
+        this(key, response, fetchedAt, expiresAt, false);
+    }
+
+    public Duration age() {
+        return Duration.between(fetchedAt, Instant.now());
+    }
+
+    /**
+     * Strong ETag for one representation of this forecast. It changes whenever the forecast is refetched
+     * upstream and differs between grid cells, data types and request variants (window, encoding, ...).
+     * Built from stable strings only, so every instance computes the same tag for the same forecast.
+     */
+    public String etag(String variant) {
+        String identity = key.type().name() + '|' + key.cell().id() + '|' + key.params() + '|' + variant;
+        return "\"" + Long.toString(fetchedAt.toEpochMilli(), 36) + '-' + Integer.toHexString(identity.hashCode()) + "\"";
+    }
+
+    /**
+     * Time until the cache entry expires, i.e. how long clients may reuse this response without asking
+     */
+    public Duration maxAge() {
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    /**
+     * Same cache metadata for a derived response (e.g. a window of the cached hourly series)
+     */
+    public CachedForecast withResponse(WeatherResponse derived) {
+        return new CachedForecast(key, derived, fetchedAt, expiresAt, degraded);
+    }
+}
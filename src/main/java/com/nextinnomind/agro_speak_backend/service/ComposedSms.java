@@ -0,0 +1,14 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+/**
+ * An SMS body ready to send, with the encoding it goes out in and the number of segments it is billed as
+ *
+ * @param gsm7      whether the body fits the GSM-7 alphabet (otherwise it is sent as UCS-2)
+ * @param compacted whether the body was shortened to fit the segment budget
+ */
+public record ComposedSms(String body, boolean gsm7, int segments, boolean compacted) {
+
+    public String encoding() {
+        return gsm7 ? "GSM-7" : "UCS-2";
+    }
+}
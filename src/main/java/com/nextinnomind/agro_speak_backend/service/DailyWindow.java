@@ -0,0 +1,63 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Server-side windowing of daily series: drop the days that have already passed at the forecast's
+ * location and keep the requested number of days from there. Like {@link HourlyWindow}, the source
+ * response is never modified; a shallow copy with new daily arrays is returned when anything is cut.
+ */
+public final class DailyWindow {
+
+    private DailyWindow() {
+    }
+
+    /**
+     * 'days' entries of the daily series starting at the local date, at the forecast's UTC offset, of 'now'
+     */
+    public static WeatherResponse fromToday(WeatherResponse source, Instant now, int days) {
+        if (source == null || source.getDaily() == null || source.getDaily().getTime() == null) return source;
+
+        WeatherResponse.Daily d = source.getDaily();
+        int offset = source.getUtcOffsetSeconds() != null ? source.getUtcOffsetSeconds() : 0;
+        long today = Math.floorDiv(now.getEpochSecond() + offset, 86_400L);
+
+        int available = d.getTime().size();
+        int from = 0;
+        while (from < available && Math.floorDiv(d.getTime().epochSecond(from), 86_400L) < today) from++;
+        int to = Math.min(available, from + Math.max(0, days));
+        if (from == 0 && to == available) return source;
+
+        WeatherResponse.Daily result = new WeatherResponse.Daily();
+        result.setTime(d.getTime().slice(from, to - from));
+        result.setTemperatureMax(slice(d.getTemperatureMax(), from, to));
+        result.setTemperatureMin(slice(d.getTemperatureMin(), from, to));
+        result.setPrecipitationSum(slice(d.getPrecipitationSum(), from, to));
+        result.setWeathercode(d.getWeathercode() != null
+                ? Arrays.copyOfRange(d.getWeathercode(), Math.min(from, d.getWeathercode().length),
+                Math.min(to, d.getWeathercode().length)) : null);
+        result.setMessages(d.getMessages() != null
+                ? Arrays.copyOfRange(d.getMessages(), Math.min(from, d.getMessages().length),
+                Math.min(to, d.getMessages().length)) : null);
+
+        WeatherResponse copy = new WeatherResponse();
+        copy.setLatitude(source.getLatitude());
+        copy.setLongitude(source.getLongitude());
+        copy.setTimezone(source.getTimezone());
+        copy.setTimezoneAbbreviation(source.getTimezoneAbbreviation());
+        copy.setUtcOffsetSeconds(source.getUtcOffsetSeconds());
+        copy.setElevation(source.getElevation());
+        copy.setCurrentWeather(source.getCurrentWeather());
+        copy.setHourly(source.getHourly());
+        copy.setDaily(result);
+        return copy;
+    }
+
+    private static double[] slice(double[] values, int from, int to) {
+        if (values == null) return null;
+        return Arrays.copyOfRange(values, Math.min(from, values.length), Math.min(to, values.length));
+    }
+}
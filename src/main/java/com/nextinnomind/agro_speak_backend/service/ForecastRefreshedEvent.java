@@ -0,0 +1,7 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+/**
+ * Published by the weather cache whenever a forecast has been (re)loaded from Open-Meteo
+ */
+public record ForecastRefreshedEvent(WeatherCacheKey key, ForecastSnapshot snapshot) {
+}
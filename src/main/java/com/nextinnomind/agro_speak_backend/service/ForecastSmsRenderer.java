@@ -0,0 +1,220 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nextinnomind.agro_speak_backend.entity.TimeAxis;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Forecast SMS bodies, rendered once per grid cell, day and language and then served from memory, so a
+ * burst of farmers in one area asking for the forecast costs one rendering instead of one per request.
+ * The bodies of a cell are dropped as soon as its daily forecast is refreshed, and the next request
+ * renders them from the new forecast.
+ * <p>
+ * Other languages than English are rendered from the same template, with its fixed phrases and weather
+ * descriptions translated once per language and remembered; the translation service is never called per
+ * cell or per request. Only the configured languages are accepted, and a phrase that failed to translate
+ * is not retried for a while, so neither unknown languages nor a translation outage turn requests into
+ * translation calls.
+ */
+@Slf4j
+@Service
+public class ForecastSmsRenderer {
+
+    static final int FORECAST_DAYS = 3;
+    private static final String DEFAULT_LANGUAGE = "en";
+
+    private final WeatherService weatherService;
+    private final TranslationService translationService;
+
+    // Rendered bodies by language, per cell and forecast start date
+    private final Cache<CellDay, Map<String, String>> bodies;
+    private final Cache<String, String> phrases;
+    // Phrases whose translation failed recently, not retried until they expire
+    private final Cache<String, Boolean> failedPhrases;
+    private final Set<String> languages;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder renders = new LongAdder();
+    private final LongAdder translationsSkipped = new LongAdder();
+
+    public ForecastSmsRenderer(WeatherService weatherService, TranslationService translationService,
+                               @Value("${weather.sms.rendered-max-cells:100000}") long maxCells,
+                               @Value("${weather.sms.languages:english,bemba,nyanja,tonga,lozi,kaonde,lunda,luvale}") List<String> languages,
+                               @Value("${weather.sms.translation-retry-after:5m}") Duration translationRetryAfter) {
+        this.weatherService = weatherService;
+        this.translationService = translationService;
+        this.languages = new LinkedHashSet<>();
+        for (String language : languages) {
+            if (!language.isBlank()) this.languages.add(canonical(language));
+        }
+        this.languages.add(DEFAULT_LANGUAGE);
+        this.bodies = Caffeine.newBuilder()
+                .maximumSize(maxCells)
+                .expireAfterWrite(Duration.ofDays(1))
+                .build();
+        this.phrases = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .build();
+        this.failedPhrases = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(translationRetryAfter)
+                .build();
+    }
+
+    /**
+     * The 3-day forecast SMS for the grid cell of the given coordinates, in the given language
+     * (one of the configured language names; English when blank)
+     *
+     * @throws IllegalArgumentException if the language is not supported
+     */
+    public String render(double latitude, double longitude, String language) {
+        String lang = normalize(language);
+        GridCell cell = weatherService.gridCellFor(latitude, longitude);
+        Map<String, String> byLanguage = bodies.get(new CellDay(cell, LocalDate.now()), k -> new ConcurrentHashMap<>());
+        String body = byLanguage.get(lang);
+        if (body != null) {
+            hits.increment();
+            return body;
+        }
+
+        CachedForecast forecast = weatherService.getDailyForecastCached(latitude, longitude, FORECAST_DAYS);
+        Rendering rendering = new Rendering(lang);
+        body = rendering.format(forecast != null ? forecast.response() : null);
+        renders.increment();
+        // Not kept if it is based on a last known forecast served during an outage or partly untranslated
+        if (forecast != null && !forecast.degraded() && rendering.complete) byLanguage.put(lang, body);
+        return body;
+    }
+
+    /**
+     * Drop the bodies of a cell once its daily forecast has been refreshed
+     */
+    @EventListener
+    public void onForecastRefreshed(ForecastRefreshedEvent event) {
+        WeatherCacheKey key = event.key();
+        if (key.type() != WeatherDataType.DAILY || !key.params().equals("days=" + FORECAST_DAYS)) return;
+        if (event.snapshot().fallback()) return;
+        bodies.invalidate(new CellDay(key.cell(), LocalDate.now()));
+    }
+
+    /**
+     * One rendering of the template in a language; English text stands in for phrases that could not be
+     * translated, in which case the body is incomplete
+     */
+    private final class Rendering {
+        private final String language;
+        private boolean complete = true;
+
+        Rendering(String language) {
+            this.language = language;
+        }
+
+        String format(WeatherResponse resp) {
+            StringBuilder body = new StringBuilder();
+            body.append(phrase(FORECAST_DAYS + "-day forecast:")).append('\n');
+            if (resp != null && resp.getDaily() != null) {
+                TimeAxis times = resp.getDaily().getTime();
+                double[] tmax = resp.getDaily().getTemperatureMax();
+                double[] tmin = resp.getDaily().getTemperatureMin();
+                String[] messages = resp.getDaily().getMessages();
+                int n = Math.min(times.size(), Math.min(tmax.length, tmin.length));
+                for (int i = 0; i < n; i++) {
+                    body.append(times.get(i)).append(": ")
+                        .append(messages != null && messages.length > i ? phrase(messages[i]) : "")
+                        .append(" - ").append(tmin[i]).append("/").append(tmax[i]).append(" C\n");
+                }
+            } else {
+                body.append(phrase("Forecast not available."));
+            }
+            return body.toString();
+        }
+
+        private String phrase(String english) {
+            String translated = translatePhrase(english, language);
+            if (translated != null) return translated;
+            complete = false;
+            return english;
+        }
+    }
+
+    /**
+     * A fixed phrase of the template in the given language, or null if it could not be translated.
+     * Failures are remembered for a short time only, after which the phrase is retried.
+     */
+    private String translatePhrase(String english, String language) {
+        if (DEFAULT_LANGUAGE.equals(language) || english.isEmpty()) return english;
+        String key = language + '\u0000' + english;
+        String cached = phrases.getIfPresent(key);
+        if (cached != null) return cached;
+        if (failedPhrases.getIfPresent(key) != null) {
+            translationsSkipped.increment();
+            return null;
+        }
+
+        try {
+            String translated = translationService.translate(english, "English", language);
+            if (translated == null || translated.isBlank() || translated.startsWith("Translation error")) {
+                log.warn("Could not translate SMS phrase '{}' to {}: {}", english, language, translated);
+                failedPhrases.put(key, Boolean.TRUE);
+                return null;
+            }
+            translated = translated.strip();
+            phrases.put(key, translated);
+            return translated;
+        } catch (Exception e) {
+            log.warn("Could not translate SMS phrase '{}' to {}: {}", english, language, e.getMessage());
+            failedPhrases.put(key, Boolean.TRUE);
+            return null;
+        }
+    }
+
+    // The language ends up in the translation prompt and every new one costs a round of translations,
+    // so only the configured languages are accepted
+    private String normalize(String language) {
+        if (language == null || language.isBlank()) return DEFAULT_LANGUAGE;
+        String lang = canonical(language);
+        if (!languages.contains(lang)) {
+            throw new IllegalArgumentException("Unsupported language '" + language + "'; supported: "
+                    + String.join(", ", languages));
+        }
+        return lang;
+    }
+
+    private static String canonical(String language) {
+        String lang = language.strip().toLowerCase(Locale.ROOT);
+        return lang.equals("english") ? DEFAULT_LANGUAGE : lang;
+    }
+
+    /**
+     * How often a body was served pre-rendered versus rendered
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("cells", bodies.estimatedSize());
+        result.put("hitCount", hits.sum());
+        result.put("renderCount", renders.sum());
+        result.put("translatedPhrases", phrases.estimatedSize());
+        result.put("failedPhrases", failedPhrases.estimatedSize());
+        result.put("translationsSkipped", translationsSkipped.sum());
+        return result;
+    }
+
+    private record CellDay(GridCell cell, LocalDate date) {
+    }
+}
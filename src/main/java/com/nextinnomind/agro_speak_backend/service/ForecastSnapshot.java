@@ -0,0 +1,26 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * An upstream forecast together with the moment it was fetched. A fallback snapshot is a last known
+ * forecast served because Open-Meteo could not be reached, or one restored from disk that is past
+ * its stale-while-revalidate window.
+ */
+public record ForecastSnapshot(WeatherResponse response, Instant fetchedAt, boolean fallback) {
+
+    public ForecastSnapshot(WeatherResponse response, Instant fetchedAt) {
+        this(response, fetchedAt, false);
+    }
+
+    public Duration age() {
+        return Duration.between(fetchedAt, Instant.now());
+    }
+
+    public ForecastSnapshot asFallback() {
+        return fallback ? this : new ForecastSnapshot(response, fetchedAt, true);
+    }
+}
@@ -0,0 +1,279 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.nextinnomind.agro_speak_backend.config.SnapshotStoreProperties;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Persistent copy of the weather cache in an embedded H2 MVStore file, keyed by data type, grid cell and
+ * parameters. Every forecast fetched upstream is written through; after a restart the store warms the
+ * in-memory cache, and while Open-Meteo is unreachable it supplies the last known forecast.
+ * <p>
+ * Values are Smile-encoded. Encoding and writing happen on a single writer thread, so callers only queue
+ * the snapshot; when the queue is full the write is dropped (the forecast is still cached in memory).
+ * Snapshots past the max age are pruned periodically, and beyond the entry limit the oldest ones go first.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ForecastSnapshotStore {
+
+    private final SnapshotStoreProperties properties;
+
+    private final ObjectMapper mapper = new SmileMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private MVStore store;
+    private MVMap<String, byte[]> snapshots;
+    private ThreadPoolExecutor writer;
+
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder writeNanos = new LongAdder();
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder readNanos = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+    private final LongAdder writesDropped = new LongAdder();
+    private final LongAdder pruned = new LongAdder();
+
+    private record StoredSnapshot(WeatherDataType type, long latIndex, long lonIndex, double resolution,
+                                  String params, long fetchedAt, WeatherResponse response) {
+    }
+
+    // Just the fetch time of a stored snapshot, read without binding its forecast
+    private record StoredAge(long fetchedAt) {
+    }
+
+    @PostConstruct
+    void open() {
+        if (!properties.isEnabled()) return;
+        try {
+            Path path = Path.of(properties.getPath()).toAbsolutePath();
+            if (path.getParent() != null) Files.createDirectories(path.getParent());
+            store = new MVStore.Builder()
+                    .fileName(path.toString())
+                    .compress()
+                    .open();
+            snapshots = store.openMap("forecasts");
+            writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(Math.max(1, properties.getWriteQueueSize())), r -> {
+                        Thread t = new Thread(r, "forecast-snapshot-writer");
+                        t.setDaemon(true);
+                        return t;
+                    });
+            log.info("Forecast snapshot store opened at {} ({} snapshots)", path, snapshots.size());
+        } catch (Exception e) {
+            // A locked or corrupt file must not keep the API from starting; it just runs without persistence
+            log.error("Could not open forecast snapshot store at {}: {}", properties.getPath(), e.getMessage());
+            store = null;
+            snapshots = null;
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        if (writer != null) {
+            // Let queued writes finish so the file holds the latest forecasts
+            writer.shutdown();
+            try {
+                writer.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    public boolean isOpen() {
+        return snapshots != null;
+    }
+
+    /**
+     * Queue a freshly fetched forecast to be persisted, replacing the previous one for the key
+     */
+    public void save(WeatherCacheKey key, ForecastSnapshot snapshot) {
+        if (snapshots == null) return;
+        try {
+            writer.execute(() -> write(key, snapshot));
+        } catch (RejectedExecutionException e) {
+            writesDropped.increment();
+        }
+    }
+
+    /**
+     * Wait until the writes queued so far have been written
+     */
+    public void flush() {
+        if (writer == null) return;
+        try {
+            writer.submit(() -> { }).get(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException | RejectedExecutionException e) {
+            log.warn("Could not flush forecast snapshot writes: {}", e.getMessage());
+        }
+    }
+
+    private void write(WeatherCacheKey key, ForecastSnapshot snapshot) {
+        long start = System.nanoTime();
+        try {
+            GridCell cell = key.cell();
+            StoredSnapshot stored = new StoredSnapshot(key.type(), cell.latIndex(), cell.lonIndex(), cell.resolution(),
+                    key.params(), snapshot.fetchedAt().toEpochMilli(), snapshot.response());
+            snapshots.put(idOf(key), mapper.writeValueAsBytes(stored));
+            writes.increment();
+            if (snapshots.size() > properties.getMaxEntries()) prune();
+        } catch (Exception e) {
+            writeFailures.increment();
+            log.warn("Failed to persist forecast snapshot {}: {}", idOf(key), e.getMessage());
+        } finally {
+            writeNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Last known forecast for the key, or null if there is none younger than the configured max age
+     */
+    public ForecastSnapshot load(WeatherCacheKey key) {
+        if (snapshots == null) return null;
+        long start = System.nanoTime();
+        try {
+            byte[] bytes = snapshots.get(idOf(key));
+            if (bytes == null) return null;
+            StoredSnapshot stored = mapper.readValue(bytes, StoredSnapshot.class);
+            ForecastSnapshot snapshot = new ForecastSnapshot(stored.response(), Instant.ofEpochMilli(stored.fetchedAt()));
+            return isExpired(snapshot) ? null : snapshot;
+        } catch (Exception e) {
+            log.warn("Unreadable forecast snapshot {}: {}", idOf(key), e.getMessage());
+            return null;
+        } finally {
+            reads.increment();
+            readNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Visit every snapshot younger than the max age; expired and unreadable snapshots are removed
+     *
+     * @return number of snapshots visited
+     */
+    public int forEach(BiConsumer<WeatherCacheKey, ForecastSnapshot> consumer) {
+        if (snapshots == null) return 0;
+        int visited = 0;
+        List<String> prune = new ArrayList<>();
+        for (Map.Entry<String, byte[]> entry : snapshots.entrySet()) {
+            try {
+                StoredSnapshot stored = mapper.readValue(entry.getValue(), StoredSnapshot.class);
+                ForecastSnapshot snapshot = new ForecastSnapshot(stored.response(), Instant.ofEpochMilli(stored.fetchedAt()));
+                if (isExpired(snapshot)) {
+                    prune.add(entry.getKey());
+                    continue;
+                }
+                GridCell cell = new GridCell(stored.latIndex(), stored.lonIndex(), stored.resolution());
+                consumer.accept(new WeatherCacheKey(stored.type(), cell, stored.params()), snapshot);
+                visited++;
+            } catch (Exception e) {
+                prune.add(entry.getKey());
+            }
+        }
+        prune.forEach(snapshots::remove);
+        if (!prune.isEmpty()) {
+            log.info("Pruned {} expired or unreadable forecast snapshots", prune.size());
+        }
+        return visited;
+    }
+
+    /**
+     * Remove snapshots older than the max age and unreadable ones, then the oldest beyond the entry limit.
+     * Over the limit the store is trimmed to 90% of it, so a full store is not pruned on every write.
+     *
+     * @return number of snapshots removed
+     */
+    @Scheduled(fixedDelayString = "${weather.snapshot-store.prune-interval:1h}",
+            initialDelayString = "${weather.snapshot-store.prune-interval:1h}")
+    public synchronized int prune() {
+        if (snapshots == null) return 0;
+        long oldest = Instant.now().minus(properties.getMaxAge()).toEpochMilli();
+        List<String> remove = new ArrayList<>();
+        List<Map.Entry<String, Long>> kept = new ArrayList<>();
+        for (Map.Entry<String, byte[]> entry : snapshots.entrySet()) {
+            try {
+                long fetchedAt = mapper.readValue(entry.getValue(), StoredAge.class).fetchedAt();
+                if (fetchedAt < oldest) remove.add(entry.getKey());
+                else kept.add(Map.entry(entry.getKey(), fetchedAt));
+            } catch (Exception e) {
+                remove.add(entry.getKey());
+            }
+        }
+        int excess = kept.size() - properties.getMaxEntries();
+        if (excess > 0) {
+            excess += properties.getMaxEntries() / 10;
+            kept.sort(Map.Entry.comparingByValue());
+            kept.subList(0, Math.min(excess, kept.size())).forEach(entry -> remove.add(entry.getKey()));
+        }
+        remove.forEach(snapshots::remove);
+        pruned.add(remove.size());
+        if (!remove.isEmpty()) {
+            log.info("Pruned {} expired, unreadable or excess forecast snapshots ({} left)", remove.size(),
+                    snapshots.size());
+        }
+        return remove.size();
+    }
+
+    /**
+     * Size and read/write latency counters since startup
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("open", isOpen());
+        result.put("size", snapshots != null ? snapshots.size() : 0);
+        result.put("writes", writes.sum());
+        result.put("writeFailures", writeFailures.sum());
+        result.put("writesDropped", writesDropped.sum());
+        result.put("pendingWrites", writer != null ? writer.getQueue().size() : 0);
+        result.put("pruned", pruned.sum());
+        result.put("avgWriteMicros", average(writeNanos.sum(), writes.sum() + writeFailures.sum()));
+        result.put("reads", reads.sum());
+        result.put("avgReadMicros", average(readNanos.sum(), reads.sum()));
+        return result;
+    }
+
+    private boolean isExpired(ForecastSnapshot snapshot) {
+        return snapshot.age().compareTo(properties.getMaxAge()) > 0;
+    }
+
+    private static double average(long nanos, long count) {
+        return count == 0 ? 0 : nanos / 1_000.0 / count;
+    }
+
+    private static String idOf(WeatherCacheKey key) {
+        return key.type().name() + '|' + key.cell().id() + '|' + key.cell().resolution() + '|' + key.params();
+    }
+}
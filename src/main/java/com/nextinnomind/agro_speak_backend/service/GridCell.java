@@ -0,0 +1,37 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+/**
+ * A forecast grid cell: coordinates snapped to a fixed-resolution lat/lon grid.
+ * Requests for any point inside the same cell share one upstream forecast.
+ */
+public record GridCell(long latIndex, long lonIndex, double resolution) {
+
+    public static GridCell snap(double latitude, double longitude, double resolution) {
+        return new GridCell(Math.round(latitude / resolution), Math.round(longitude / resolution), resolution);
+    }
+
+    /**
+     * Latitude of the cell centre, rounded to 4 decimals so it prints cleanly in URLs
+     */
+    public double latitude() {
+        return round(latIndex * resolution);
+    }
+
+    /**
+     * Longitude of the cell centre, rounded to 4 decimals so it prints cleanly in URLs
+     */
+    public double longitude() {
+        return round(lonIndex * resolution);
+    }
+
+    /**
+     * Compact identifier used in logs and derived keys
+     */
+    public String id() {
+        return latitude() + "," + longitude();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10_000d) / 10_000d;
+    }
+}
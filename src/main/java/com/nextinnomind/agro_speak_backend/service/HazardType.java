@@ -0,0 +1,19 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+/**
+ * Kinds of weather hazard the alert scheduler notifies subscribers about
+ */
+public enum HazardType {
+    /** A severe weather code (thunderstorm, hail) now or in the forecast window */
+    SEVERE_WEATHER,
+    /** Hourly precipitation at or above the alert threshold within the forecast window */
+    HEAVY_PRECIPITATION,
+    /** Wind speed at or above a threshold */
+    STRONG_WIND,
+    /** Temperature at or above a threshold */
+    HEAT,
+    /** Temperature at or below a threshold */
+    FROST,
+    /** Topsoil moisture at or below a threshold */
+    DRY_SOIL
+}
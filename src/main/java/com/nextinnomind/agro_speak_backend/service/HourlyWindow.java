@@ -0,0 +1,142 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.nextinnomind.agro_speak_backend.entity.NullableDoubleArray;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+
+import java.util.Arrays;
+
+/**
+ * Server-side windowing of hourly series: keep only the requested number of hours and optionally
+ * aggregate them into coarser steps (e.g. 3-hourly). The source response, which may be shared through
+ * the weather cache, is never modified; a shallow copy with new hourly arrays is returned instead.
+ */
+public final class HourlyWindow {
+
+    /** Upstream horizons requested from Open-Meteo, so different window sizes still share cache entries */
+    private static final int[] HORIZONS = {24, 48, 72, 168, 384};
+
+    private HourlyWindow() {
+    }
+
+    /**
+     * Smallest upstream horizon (in hours) that covers the requested window
+     */
+    public static int horizonFor(int hours) {
+        for (int horizon : HORIZONS) {
+            if (hours <= horizon) return horizon;
+        }
+        return HORIZONS[HORIZONS.length - 1];
+    }
+
+    /**
+     * First 'hours' entries of the hourly series, aggregated into blocks of 'step' hours.
+     * Temperatures and soil values are averaged, precipitation is summed, and precipitation probability,
+     * wind speed and weather code take the block maximum.
+     */
+    public static WeatherResponse apply(WeatherResponse source, int hours, int step) {
+        if (source == null || source.getHourly() == null) return source;
+
+        WeatherResponse.Hourly h = source.getHourly();
+        int available = h.getTime() != null ? h.getTime().size() : 0;
+        int count = Math.max(0, Math.min(hours, available));
+        int blockSize = Math.max(1, step);
+        if (count == available && blockSize == 1) return source;
+
+        int blocks = (count + blockSize - 1) / blockSize;
+        WeatherResponse.Hourly result = new WeatherResponse.Hourly();
+        result.setTime(h.getTime() != null ? h.getTime().sample(count, blockSize) : null);
+        result.setTemperature(h.getTemperature() != null ? new double[blocks] : null);
+        result.setSoilTemperature(h.getSoilTemperature() != null ? new double[blocks] : null);
+        result.setSoilMoisture(h.getSoilMoisture() != null ? new double[blocks] : null);
+        result.setPrecipitationProbability(h.getPrecipitationProbability() != null ? new int[blocks] : null);
+        result.setWindSpeed(h.getWindSpeed() != null ? new double[blocks] : null);
+        result.setWeathercode(h.getWeathercode() != null ? new int[blocks] : null);
+        result.setMessages(h.getMessages() != null ? new String[blocks] : null);
+
+        for (int b = 0; b < blocks; b++) {
+            int from = b * blockSize;
+            int to = Math.min(from + blockSize, count);
+
+            if (result.getTemperature() != null) result.getTemperature()[b] = mean(h.getTemperature(), from, to);
+            if (result.getSoilTemperature() != null) result.getSoilTemperature()[b] = mean(h.getSoilTemperature(), from, to);
+            if (result.getSoilMoisture() != null) result.getSoilMoisture()[b] = mean(h.getSoilMoisture(), from, to);
+            if (result.getPrecipitationProbability() != null) {
+                result.getPrecipitationProbability()[b] = max(h.getPrecipitationProbability(), from, to);
+            }
+            if (result.getWindSpeed() != null) result.getWindSpeed()[b] = max(h.getWindSpeed(), from, to);
+            if (result.getWeathercode() != null) {
+                int worst = argMax(h.getWeathercode(), from, to);
+                result.getWeathercode()[b] = h.getWeathercode()[worst];
+                if (result.getMessages() != null && worst < h.getMessages().length) {
+                    result.getMessages()[b] = h.getMessages()[worst];
+                }
+            } else if (result.getMessages() != null && from < h.getMessages().length) {
+                result.getMessages()[b] = h.getMessages()[from];
+            }
+        }
+
+        if (h.getPrecipitation() != null) result.setPrecipitation(sums(h.getPrecipitation(), count, blockSize));
+
+        return withHourly(source, result);
+    }
+
+    private static WeatherResponse withHourly(WeatherResponse source, WeatherResponse.Hourly hourly) {
+        WeatherResponse copy = new WeatherResponse();
+        copy.setLatitude(source.getLatitude());
+        copy.setLongitude(source.getLongitude());
+        copy.setTimezone(source.getTimezone());
+        copy.setTimezoneAbbreviation(source.getTimezoneAbbreviation());
+        copy.setUtcOffsetSeconds(source.getUtcOffsetSeconds());
+        copy.setElevation(source.getElevation());
+        copy.setCurrentWeather(source.getCurrentWeather());
+        copy.setDaily(source.getDaily());
+        copy.setHourly(hourly);
+        return copy;
+    }
+
+    private static double mean(double[] values, int from, int to) {
+        to = Math.min(to, values.length);
+        if (from >= to) return 0;
+        double total = 0;
+        for (int i = from; i < to; i++) total += values[i];
+        return total / (to - from);
+    }
+
+    // Block sums of the first 'count' entries; a block in which every hour is missing stays missing
+    private static NullableDoubleArray sums(NullableDoubleArray values, int count, int blockSize) {
+        int limit = Math.min(count, values.length());
+        NullableDoubleArray.Builder builder = new NullableDoubleArray.Builder((count + blockSize - 1) / blockSize);
+        for (int from = 0; from < count; from += blockSize) {
+            double total = 0;
+            boolean any = false;
+            for (int i = from; i < Math.min(from + blockSize, limit); i++) {
+                if (values.isNull(i)) continue;
+                total += values.get(i);
+                any = true;
+            }
+            if (any) builder.add(total);
+            else builder.addNull();
+        }
+        return builder.build();
+    }
+
+    private static double max(double[] values, int from, int to) {
+        to = Math.min(to, values.length);
+        if (from >= to) return 0;
+        return Arrays.stream(values, from, to).max().orElse(0);
+    }
+
+    private static int max(int[] values, int from, int to) {
+        to = Math.min(to, values.length);
+        if (from >= to) return 0;
+        return Arrays.stream(values, from, to).max().orElse(0);
+    }
+
+    private static int argMax(int[] values, int from, int to) {
+        int best = from;
+        for (int i = from + 1; i < Math.min(to, values.length); i++) {
+            if (values[i] > values[best]) best = i;
+        }
+        return best;
+    }
+}
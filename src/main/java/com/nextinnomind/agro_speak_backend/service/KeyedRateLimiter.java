@@ -0,0 +1,62 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nextinnomind.agro_speak_backend.config.RateLimit;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One {@link TokenBucket} per key (phone number, client IP). Buckets live in a size-bounded Caffeine
+ * map and expire once idle for as long as a bucket takes to refill, at which point dropping one loses
+ * nothing; memory therefore stays bounded by the keys active within that window, however many distinct
+ * keys are seen. Under size pressure the least recently used keys are evicted and start afresh.
+ */
+public class KeyedRateLimiter {
+
+    private final RateLimit limit;
+    private final Cache<String, TokenBucket> buckets;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder limited = new LongAdder();
+
+    public KeyedRateLimiter(RateLimit limit, long maxKeys) {
+        this.limit = limit;
+        Duration refill = limit.interval().multipliedBy(Math.max(1, limit.getBurst()));
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(refill.isZero() ? Duration.ofSeconds(1) : refill)
+                .build();
+    }
+
+    /**
+     * Take a permit for the key if one is available now
+     *
+     * @return 0 if taken, otherwise the nanoseconds until the key has a permit again
+     */
+    public long tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    long tryAcquire(String key, long now) {
+        if (limit.getPermits() <= 0) return 0;
+        long wait = buckets.get(key, k -> new TokenBucket(limit.interval().toNanos(), limit.getBurst())).tryAcquire(now);
+        if (wait == 0) allowed.increment();
+        else limited.increment();
+        return wait;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("permits", limit.getPermits());
+        result.put("period", limit.getPeriod().toString());
+        result.put("burst", limit.getBurst());
+        result.put("trackedKeys", buckets.estimatedSize());
+        result.put("allowed", allowed.sum());
+        result.put("limited", limited.sum());
+        return result;
+    }
+}
@@ -0,0 +1,226 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.nextinnomind.agro_speak_backend.entity.NullableDoubleArray;
+import com.nextinnomind.agro_speak_backend.entity.TimeAxis;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming parser for Open-Meteo forecast responses. It reads the body token by token straight into
+ * primitive arrays (a nullable bitmap where Open-Meteo may send null, a compact {@link TimeAxis} for
+ * the time strings), so the body is never buffered as a whole and no per-entry objects are created.
+ * Handles both a single location (an object) and several (an array of objects); unknown fields are skipped.
+ */
+public final class OpenMeteoParser {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    // Hourly series hold up to 16 days; start there so most responses never grow a buffer
+    private static final int INITIAL_CAPACITY = 384;
+
+    // Exactly representable powers of ten
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private OpenMeteoParser() {
+    }
+
+    /**
+     * Parse a response body: one element for a single-location object, one per location for an array
+     */
+    public static List<WeatherResponse> parse(InputStream body) throws IOException {
+        try (JsonParser p = FACTORY.createParser(body)) {
+            JsonToken first = p.nextToken();
+            if (first == JsonToken.START_OBJECT) {
+                return List.of(readResponse(p));
+            }
+            expect(p, first, JsonToken.START_ARRAY);
+
+            List<WeatherResponse> responses = new ArrayList<>();
+            for (JsonToken t = p.nextToken(); t != JsonToken.END_ARRAY; t = p.nextToken()) {
+                expect(p, t, JsonToken.START_OBJECT);
+                responses.add(readResponse(p));
+            }
+            return responses;
+        }
+    }
+
+    private static WeatherResponse readResponse(JsonParser p) throws IOException {
+        WeatherResponse response = new WeatherResponse();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "latitude" -> response.setLatitude(doubleValue(p, value));
+                case "longitude" -> response.setLongitude(doubleValue(p, value));
+                case "timezone" -> response.setTimezone(p.getValueAsString());
+                case "timezone_abbreviation" -> response.setTimezoneAbbreviation(p.getValueAsString());
+                case "utc_offset_seconds" -> response.setUtcOffsetSeconds(value == JsonToken.VALUE_NULL ? null : p.getIntValue());
+                case "elevation" -> response.setElevation(value == JsonToken.VALUE_NULL ? null : p.getDoubleValue());
+                case "current_weather" -> response.setCurrentWeather(value == JsonToken.START_OBJECT ? readCurrent(p) : null);
+                case "hourly" -> response.setHourly(value == JsonToken.START_OBJECT ? readHourly(p) : null);
+                case "daily" -> response.setDaily(value == JsonToken.START_OBJECT ? readDaily(p) : null);
+                default -> p.skipChildren();
+            }
+        }
+        return response;
+    }
+
+    private static WeatherResponse.CurrentWeather readCurrent(JsonParser p) throws IOException {
+        WeatherResponse.CurrentWeather current = new WeatherResponse.CurrentWeather();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            if (value == JsonToken.VALUE_NULL) continue;
+            switch (field) {
+                case "temperature" -> current.setTemperature(p.getDoubleValue());
+                case "windspeed" -> current.setWindspeed(p.getDoubleValue());
+                case "winddirection" -> current.setWinddirection(p.getDoubleValue());
+                case "weathercode" -> current.setWeathercode(p.getIntValue());
+                case "is_day" -> current.setIsDay(p.getIntValue());
+                case "time" -> current.setTime(p.getText());
+                default -> p.skipChildren();
+            }
+        }
+        return current;
+    }
+
+    private static WeatherResponse.Hourly readHourly(JsonParser p) throws IOException {
+        WeatherResponse.Hourly hourly = new WeatherResponse.Hourly();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            if (value != JsonToken.START_ARRAY) {
+                p.skipChildren();
+                continue;
+            }
+            switch (field) {
+                case "time" -> hourly.setTime(readTimes(p));
+                case "temperature_2m" -> hourly.setTemperature(readDoubles(p));
+                case "weathercode" -> hourly.setWeathercode(readInts(p));
+                case "precipitation_probability" -> hourly.setPrecipitationProbability(readInts(p));
+                case "precipitation" -> hourly.setPrecipitation(readNullableDoubles(p));
+                case "wind_speed_10m" -> hourly.setWindSpeed(readDoubles(p));
+                case "soil_temperature_0_to_7cm" -> hourly.setSoilTemperature(readDoubles(p));
+                case "soil_moisture_0_to_7cm" -> hourly.setSoilMoisture(readDoubles(p));
+                case "et0_fao_evapotranspiration" -> hourly.setEt0(readNullableDoubles(p));
+                default -> p.skipChildren();
+            }
+        }
+        return hourly;
+    }
+
+    private static WeatherResponse.Daily readDaily(JsonParser p) throws IOException {
+        WeatherResponse.Daily daily = new WeatherResponse.Daily();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            if (value != JsonToken.START_ARRAY) {
+                p.skipChildren();
+                continue;
+            }
+            switch (field) {
+                case "time" -> daily.setTime(readTimes(p));
+                case "temperature_2m_max" -> daily.setTemperatureMax(readDoubles(p));
+                case "temperature_2m_min" -> daily.setTemperatureMin(readDoubles(p));
+                case "precipitation_sum" -> daily.setPrecipitationSum(readDoubles(p));
+                case "weathercode" -> daily.setWeathercode(readInts(p));
+                default -> p.skipChildren();
+            }
+        }
+        return daily;
+    }
+
+    private static TimeAxis readTimes(JsonParser p) throws IOException {
+        TimeAxis.Builder builder = new TimeAxis.Builder();
+        for (JsonToken t = p.nextToken(); t != JsonToken.END_ARRAY; t = p.nextToken()) {
+            expect(p, t, JsonToken.VALUE_STRING);
+            // Parsed from the parser's own character buffer, without creating a String per entry
+            builder.add(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+        }
+        return builder.build();
+    }
+
+    // Plain double series: a missing value is stored as 0, as the previous data binding did
+    private static double[] readDoubles(JsonParser p) throws IOException {
+        double[] values = new double[INITIAL_CAPACITY];
+        int size = 0;
+        for (JsonToken t = p.nextToken(); t != JsonToken.END_ARRAY; t = p.nextToken()) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = t == JsonToken.VALUE_NULL ? 0 : doubleValue(p, t);
+        }
+        return Arrays.copyOf(values, size);
+    }
+
+    private static int[] readInts(JsonParser p) throws IOException {
+        int[] values = new int[INITIAL_CAPACITY];
+        int size = 0;
+        for (JsonToken t = p.nextToken(); t != JsonToken.END_ARRAY; t = p.nextToken()) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = t == JsonToken.VALUE_NULL ? 0 : p.getValueAsInt();
+        }
+        return Arrays.copyOf(values, size);
+    }
+
+    private static NullableDoubleArray readNullableDoubles(JsonParser p) throws IOException {
+        NullableDoubleArray.Builder builder = new NullableDoubleArray.Builder(INITIAL_CAPACITY);
+        for (JsonToken t = p.nextToken(); t != JsonToken.END_ARRAY; t = p.nextToken()) {
+            if (t == JsonToken.VALUE_NULL) builder.addNull();
+            else builder.add(doubleValue(p, t));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Value of a number token. Decimals such as "22.4" (all Open-Meteo sends) are read straight from the
+     * parser's character buffer: a mantissa below 2^53 divided by an exact power of ten is correctly
+     * rounded, so the result equals Double.parseDouble without the String it would need. Anything else
+     * (exponents, long mantissas) falls back to Jackson.
+     */
+    static double doubleValue(JsonParser p, JsonToken t) throws IOException {
+        if (t != JsonToken.VALUE_NUMBER_FLOAT) return p.getDoubleValue();
+
+        char[] text = p.getTextCharacters();
+        int i = p.getTextOffset();
+        int end = i + p.getTextLength();
+        boolean negative = i < end && text[i] == '-';
+        if (negative) i++;
+
+        long mantissa = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (; i < end; i++) {
+            char c = text[i];
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9' && digits < 16) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (decimals >= 0) decimals++;
+            } else {
+                return p.getDoubleValue();
+            }
+        }
+        if (mantissa >= 1L << 53 || decimals >= POWERS_OF_TEN.length) return p.getDoubleValue();
+
+        double value = decimals > 0 ? mantissa / POWERS_OF_TEN[decimals] : mantissa;
+        return negative ? -value : value;
+    }
+
+    private static void expect(JsonParser p, JsonToken actual, JsonToken expected) throws JsonParseException {
+        if (actual != expected) {
+            throw new JsonParseException(p, "Expected " + expected + " but found " + actual);
+        }
+    }
+}
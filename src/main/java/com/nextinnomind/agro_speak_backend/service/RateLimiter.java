@@ -0,0 +1,47 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Smooth blocking rate limiter: permits are handed out at evenly spaced instants, callers
+ * sleep until their slot comes up. A rate of zero or less disables limiting.
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private long nextFreeNanos = System.nanoTime();
+
+    public RateLimiter(double permitsPerSecond) {
+        this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+    }
+
+    /**
+     * Block until a permit is available
+     *
+     * @return nanoseconds spent waiting
+     */
+    public long acquire() throws InterruptedException {
+        return acquire(1);
+    }
+
+    /**
+     * Block until the given number of permits is available
+     *
+     * @return nanoseconds spent waiting
+     */
+    public long acquire(int permits) throws InterruptedException {
+        if (intervalNanos == 0 || permits <= 0) return 0;
+
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextFreeNanos);
+            nextFreeNanos = slot + intervalNanos * permits;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        return waitNanos;
+    }
+}
@@ -0,0 +1,62 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+
+/**
+ * A configuration file that is parsed again whenever it changes on disk. Callers poll
+ * {@link #reloadIfChanged()} (e.g. from a scheduled task); a file that fails to parse is logged once
+ * and skipped, so the previous value stays in use until the file is fixed.
+ *
+ * @param <T> parsed form of the file
+ */
+@Slf4j
+public class ReloadableFile<T> {
+
+    @FunctionalInterface
+    public interface Parser<T> {
+        T parse(Path path) throws IOException;
+    }
+
+    private final Path path;
+    private final String description;
+    private final Parser<T> parser;
+    private volatile FileTime lastModified;
+
+    public ReloadableFile(Path path, String description, Parser<T> parser) {
+        this.path = path;
+        this.description = description;
+        this.parser = parser;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * Parse the file if it exists and has changed since the last successful parse
+     *
+     * @return the new value, or empty if the file is missing, unchanged or invalid
+     */
+    public Optional<T> reloadIfChanged() {
+        try {
+            if (!Files.isRegularFile(path)) return Optional.empty();
+            FileTime modified = Files.getLastModifiedTime(path);
+            if (modified.equals(lastModified)) return Optional.empty();
+            // Remembered before parsing so a broken file is reported once, not on every poll
+            lastModified = modified;
+
+            T value = parser.parse(path);
+            log.info("Loaded {} from {}", description, path);
+            return Optional.of(value);
+        } catch (Exception e) {
+            log.error("Invalid {} in {}; keeping the previous version: {}", description, path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.nextinnomind.agro_speak_backend.config.SmsBroadcastProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Limit on SMS broadcasts per authenticated caller, so a single admin account (or a leaked token) cannot
+ * queue broadcast after broadcast. Like the forecast limits, a broadcast over the limit is refused.
+ */
+@Component
+public class SmsBroadcastThrottle {
+
+    private final KeyedRateLimiter perCaller;
+
+    public SmsBroadcastThrottle(SmsBroadcastProperties properties) {
+        this.perCaller = new KeyedRateLimiter(properties.getPerCaller(), properties.getMaxKeys());
+    }
+
+    /**
+     * Take a permit for the caller
+     *
+     * @return zero if the broadcast may go ahead, otherwise how long until it may be retried
+     */
+    public Duration check(String caller) {
+        return Duration.ofNanos(perCaller.tryAcquire(caller));
+    }
+
+    public Map<String, Object> stats() {
+        return perCaller.stats();
+    }
+}
@@ -0,0 +1,240 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.Normalizer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Last step before an SMS is queued. Bodies are normalised to the GSM-7 alphabet where that only loses
+ * typography (curly quotes, dashes, accents, symbols), since a single character outside it switches the
+ * whole message to UCS-2 and cuts a segment from 160 to 70 characters. A body longer than the segment
+ * budget is then compacted in steps, each applied only if the previous one was not enough: whitespace,
+ * dates and decimals, common abbreviations, and finally truncation at a line or word boundary.
+ */
+@Slf4j
+@Component
+public class SmsComposer {
+
+    private static final String GSM7_BASIC = "@£$¥èéùìòÇ\nØø\rÅåΔ_ΦΓΛΩΠΨΣΘΞÆæßÉ !\"#¤%&'()*+,-./0123456789:;<=>?"
+            + "¡ABCDEFGHIJKLMNOPQRSTUVWXYZÄÖÑÜ§¿abcdefghijklmnopqrstuvwxyzäöñüà";
+    private static final String GSM7_EXTENSION = "^{}\\[~]|€\f";
+
+    private static final int GSM7_SINGLE = 160;
+    private static final int GSM7_CONCATENATED = 153;
+    private static final int UCS2_SINGLE = 70;
+    private static final int UCS2_CONCATENATED = 67;
+    private static final String ELLIPSIS = "..";
+
+    private static final Map<String, String> TYPOGRAPHY = Map.ofEntries(
+            Map.entry("‘", "'"), Map.entry("’", "'"), Map.entry("‚", "'"), Map.entry("′", "'"),
+            Map.entry("“", "\""), Map.entry("”", "\""), Map.entry("„", "\""), Map.entry("″", "\""),
+            Map.entry("–", "-"), Map.entry("—", "-"), Map.entry("−", "-"), Map.entry("‐", "-"),
+            Map.entry("…", "..."), Map.entry("\u00A0", " "), Map.entry("\u2009", " "), Map.entry("\u202F", " "),
+            Map.entry("\t", " "), Map.entry("°", ""), Map.entry("•", "-"), Map.entry("×", "x"));
+
+    private static final Map<String, String> ABBREVIATIONS = Map.of(
+            "Thunderstorm with hail", "T-storm+hail",
+            "Thunderstorm", "T-storm",
+            "forecast", "fcst",
+            "Partly cloudy", "Pt cloudy",
+            "Freezing rain", "Frz rain",
+            "Light drizzle", "Drizzle",
+            "expected", "exp.",
+            "precipitation", "precip");
+
+    private static final Pattern SPACES = Pattern.compile("[ ]{2,}");
+    private static final Pattern LINE_EDGES = Pattern.compile("(?m)^ +| +$");
+    private static final Pattern BLANK_LINES = Pattern.compile("\n{2,}");
+    private static final Pattern ISO_DATE = Pattern.compile("\\b\\d{4}-(\\d{2})-(\\d{2})\\b");
+    private static final Pattern DECIMAL = Pattern.compile("(?<![\\d.])(-?\\d+\\.\\d+)(?![\\d.])");
+    private static final Pattern ABBREVIATION;
+
+    static {
+        StringBuilder alternatives = new StringBuilder();
+        ABBREVIATIONS.keySet().stream()
+                .sorted((a, b) -> b.length() - a.length())
+                .forEach(phrase -> alternatives.append(alternatives.isEmpty() ? "" : "|").append(Pattern.quote(phrase)));
+        ABBREVIATION = Pattern.compile("\\b(?:" + alternatives + ")\\b");
+    }
+
+    private static final List<UnaryOperator<String>> COMPACTION_STEPS = List.of(
+            SmsComposer::collapseWhitespace, SmsComposer::compactNumbers, SmsComposer::abbreviate);
+
+    private final int maxSegments;
+
+    private final LongAdder composed = new LongAdder();
+    private final LongAdder normalized = new LongAdder();
+    private final LongAdder compacted = new LongAdder();
+    private final LongAdder truncated = new LongAdder();
+    private final LongAdder ucs2 = new LongAdder();
+    private final LongAdder segments = new LongAdder();
+
+    public SmsComposer(@Value("${sms.max-segments:2}") int maxSegments) {
+        this.maxSegments = Math.max(1, maxSegments);
+    }
+
+    /**
+     * Normalise the body and compact it to the configured segment budget
+     */
+    public ComposedSms compose(String body) {
+        return compose(body, maxSegments);
+    }
+
+    public ComposedSms compose(String body, int budget) {
+        String text = normalize(body == null ? "" : body);
+        if (!text.equals(body)) normalized.increment();
+
+        boolean shortened = false;
+        for (UnaryOperator<String> step : COMPACTION_STEPS) {
+            if (segments(text) <= budget) break;
+            text = step.apply(text);
+            shortened = true;
+        }
+        if (segments(text) > budget) {
+            text = truncate(text, budget);
+            truncated.increment();
+        }
+
+        ComposedSms sms = new ComposedSms(text, isGsm7(text), segments(text), shortened);
+        composed.increment();
+        segments.add(sms.segments());
+        if (shortened) compacted.increment();
+        if (!sms.gsm7()) ucs2.increment();
+        return sms;
+    }
+
+    /**
+     * Replace typography outside GSM-7 with plain equivalents and strip accents the alphabet lacks. Other
+     * characters (non-Latin scripts) are kept, and the body is then sent as UCS-2.
+     */
+    static String normalize(String text) {
+        if (isGsm7(text)) return text;
+        StringBuilder out = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            String c = new String(Character.toChars(cp));
+            if (isGsm7(c)) {
+                out.append(c);
+                continue;
+            }
+            String replacement = TYPOGRAPHY.get(c);
+            if (replacement != null) {
+                out.append(replacement);
+                continue;
+            }
+            // Emoji and pictographs carry no information a farmer would miss but cost a UCS-2 message
+            int type = Character.getType(cp);
+            if (type == Character.OTHER_SYMBOL || type == Character.SURROGATE || type == Character.FORMAT) continue;
+            String stripped = Normalizer.normalize(c, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+            out.append(!stripped.isEmpty() && isGsm7(stripped) ? stripped : c);
+        }
+        return out.toString();
+    }
+
+    static boolean isGsm7(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (GSM7_BASIC.indexOf(c) < 0 && GSM7_EXTENSION.indexOf(c) < 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Number of segments the body is billed as: up to 160 septets in one GSM-7 message (extension
+     * characters take two) or 153 per part once concatenated; 70 / 67 UTF-16 units for UCS-2
+     */
+    public static int segments(String text) {
+        if (text.isEmpty()) return 1;
+        if (isGsm7(text)) {
+            int septets = septets(text);
+            return septets <= GSM7_SINGLE ? 1 : (septets + GSM7_CONCATENATED - 1) / GSM7_CONCATENATED;
+        }
+        int units = text.length();
+        return units <= UCS2_SINGLE ? 1 : (units + UCS2_CONCATENATED - 1) / UCS2_CONCATENATED;
+    }
+
+    private static int septets(String text) {
+        int septets = 0;
+        for (int i = 0; i < text.length(); i++) {
+            septets += GSM7_EXTENSION.indexOf(text.charAt(i)) >= 0 ? 2 : 1;
+        }
+        return septets;
+    }
+
+    private static String collapseWhitespace(String text) {
+        String result = SPACES.matcher(text.replace("\r\n", "\n")).replaceAll(" ");
+        result = LINE_EDGES.matcher(result).replaceAll("");
+        return BLANK_LINES.matcher(result).replaceAll("\n").strip();
+    }
+
+    // 2025-01-01 becomes 01/01 and 15.0 becomes 15; SMS readers need neither the year nor the decimals
+    private static String compactNumbers(String text) {
+        String result = ISO_DATE.matcher(text).replaceAll("$2/$1");
+        Matcher decimal = DECIMAL.matcher(result);
+        StringBuilder out = new StringBuilder();
+        while (decimal.find()) {
+            String rounded = new BigDecimal(decimal.group(1)).setScale(0, RoundingMode.HALF_UP).toPlainString();
+            decimal.appendReplacement(out, rounded);
+        }
+        decimal.appendTail(out);
+        return out.toString();
+    }
+
+    private static String abbreviate(String text) {
+        return ABBREVIATION.matcher(text).replaceAll(m -> Matcher.quoteReplacement(ABBREVIATIONS.get(m.group())));
+    }
+
+    /**
+     * Cut the body to the budget, preferably at the end of a line or word, and mark the cut
+     */
+    private static String truncate(String text, int budget) {
+        boolean gsm7 = isGsm7(text);
+        int capacity = budget == 1
+                ? (gsm7 ? GSM7_SINGLE : UCS2_SINGLE)
+                : budget * (gsm7 ? GSM7_CONCATENATED : UCS2_CONCATENATED);
+        capacity -= ELLIPSIS.length();
+
+        int end = 0;
+        int used = 0;
+        while (end < text.length()) {
+            int cost = gsm7 && GSM7_EXTENSION.indexOf(text.charAt(end)) >= 0 ? 2 : 1;
+            if (used + cost > capacity) break;
+            used += cost;
+            end++;
+        }
+        if (end < text.length() && Character.isLowSurrogate(text.charAt(end))) end--;
+        int boundary = Math.max(text.lastIndexOf('\n', end), text.lastIndexOf(' ', end));
+        // Only back off to a boundary if that does not throw away most of the last line
+        if (boundary > end * 3 / 4) end = boundary;
+        return text.substring(0, end).stripTrailing() + ELLIPSIS;
+    }
+
+    /**
+     * Composition counters: how many bodies needed normalising, compacting or truncating, and how many
+     * segments they came to
+     */
+    public Map<String, Object> stats() {
+        long count = composed.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("maxSegments", maxSegments);
+        result.put("composed", count);
+        result.put("normalized", normalized.sum());
+        result.put("compacted", compacted.sum());
+        result.put("truncated", truncated.sum());
+        result.put("ucs2", ucs2.sum());
+        result.put("avgSegments", count > 0 ? Math.round(segments.sum() * 100.0 / count) / 100.0 : 0);
+        return result;
+    }
+}
@@ -0,0 +1,269 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.nextinnomind.agro_speak_backend.config.SmsOutboxProperties;
+import com.nextinnomind.agro_speak_backend.entity.SmsOutboxMessage;
+import com.nextinnomind.agro_speak_backend.entity.SmsOutboxMessage.Status;
+import com.nextinnomind.agro_speak_backend.repository.SmsOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers the SMS outbox. A poller claims batches of due messages through a conditional update (so
+ * several instances can dispatch the same table) and hands them to a pool of sender workers, which call
+ * Twilio at the configured rate and record the outcome. Retryable failures are rescheduled with
+ * exponential backoff and jitter; rejected messages and those out of attempts are marked failed.
+ * <p>
+ * Sends are smoothed rather than refused: workers wait their turn on the global token bucket, and a
+ * message to a number that has used up its per-phone rate is put back until the number has a permit
+ * again, without counting as an attempt.
+ * <p>
+ * Delivery is at least once: a message whose dispatcher dies mid-attempt is put back once its claim
+ * runs out and may then be sent a second time.
+ */
+@Slf4j
+@Component
+public class SmsDispatcher {
+
+    private static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+    private static final int THROUGHPUT_WINDOW = 60;
+
+    private final SmsOutboxRepository repository;
+    private final SmsService smsService;
+    private final SmsOutboxProperties properties;
+    private final TokenBucket globalLimit;
+    private final KeyedRateLimiter perPhoneLimit;
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+    private final ScheduledExecutorService poller;
+    private final Executor senders;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile Instant lastRecovery = Instant.EPOCH;
+    private volatile Instant lastPurge = Instant.EPOCH;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
+    private final LongAdder latencyMillis = new LongAdder();
+    private final LongAdder queueDelayMillis = new LongAdder();
+    private final AtomicLong maxLatencyMillis = new AtomicLong();
+    private final LongAdder segmentsSent = new LongAdder();
+
+    // Messages sent per second over the last minute, as a ring of one-second slots
+    private final long[] sentPerSecond = new long[THROUGHPUT_WINDOW];
+    private final long[] slotSecond = new long[THROUGHPUT_WINDOW];
+
+    @Autowired
+    public SmsDispatcher(SmsOutboxRepository repository, SmsService smsService, SmsOutboxProperties properties) {
+        this(repository, smsService, properties, Executors.newFixedThreadPool(Math.max(1, properties.getWorkers()),
+                daemonThreads("sms-sender-")));
+    }
+
+    /**
+     * @param senders runs the deliveries; an inline executor makes {@link #poll()} synchronous in tests
+     */
+    public SmsDispatcher(SmsOutboxRepository repository, SmsService smsService, SmsOutboxProperties properties,
+                         Executor senders) {
+        this.repository = repository;
+        this.smsService = smsService;
+        this.properties = properties;
+        this.globalLimit = TokenBucket.perSecond(properties.getRate(), properties.getBurst());
+        this.perPhoneLimit = new KeyedRateLimiter(properties.getPerPhone(), properties.getMaxTrackedPhones());
+        this.senders = senders;
+        this.poller = Executors.newSingleThreadScheduledExecutor(daemonThreads("sms-outbox-poller"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isDispatcherEnabled()) return;
+        long interval = properties.getPollInterval().toMillis();
+        poller.scheduleWithFixedDelay(this::safePoll, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("SMS dispatcher started ({} workers, {} SMS/s)", properties.getWorkers(), properties.getRate());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        poller.shutdownNow();
+        if (senders instanceof ExecutorService executor) executor.shutdownNow();
+    }
+
+    private void safePoll() {
+        try {
+            poll();
+        } catch (Exception e) {
+            log.warn("SMS outbox poll failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Claim due messages up to the free worker capacity and hand them to the senders; repeated while
+     * full batches come back. Public for tests and manual triggering.
+     */
+    public void poll() {
+        Instant now = Instant.now();
+        maintain(now);
+
+        int limit;
+        int claimed;
+        do {
+            // Keep at most one batch per worker waiting, so claims do not outlive their lock in the queue
+            limit = Math.min(properties.getBatchSize(), 2 * properties.getWorkers() - inFlight.get());
+            if (limit <= 0) return;
+            List<Long> due = repository.findDueIds(now, Limit.of(limit));
+            if (due.isEmpty()) return;
+
+            String token = nodeId + "-" + UUID.randomUUID();
+            if (repository.claim(due, token, now.plus(properties.getLockDuration())) == 0) return;
+            List<SmsOutboxMessage> messages = repository.findByClaimToken(token);
+            claimed = messages.size();
+            for (SmsOutboxMessage message : messages) {
+                inFlight.incrementAndGet();
+                senders.execute(() -> deliver(message, token));
+            }
+        } while (claimed == limit);
+    }
+
+    private void maintain(Instant now) {
+        if (now.isAfter(lastRecovery.plus(properties.getLockDuration().dividedBy(2)))) {
+            lastRecovery = now;
+            int recovered = repository.recoverExpired(now);
+            if (recovered > 0) log.warn("Put {} SMS back in the outbox after their dispatcher stalled", recovered);
+        }
+        if (now.isAfter(lastPurge.plus(PURGE_INTERVAL))) {
+            lastPurge = now;
+            int purged = repository.deleteFinishedBefore(now.minus(properties.getRetention()));
+            if (purged > 0) log.info("Purged {} finished SMS from the outbox", purged);
+        }
+    }
+
+    private void deliver(SmsOutboxMessage message, String token) {
+        try {
+            long phoneWait = perPhoneLimit.tryAcquire(SmsOutbox.phoneKey(message.getPhone()));
+            if (phoneWait > 0) {
+                repository.complete(message.getId(), token, Status.PENDING, message.getAttempts(),
+                        Instant.now().plusNanos(phoneWait), null, null, "Deferred by per-phone rate limit");
+                deferred.increment();
+                return;
+            }
+            globalLimit.acquire();
+            long start = System.nanoTime();
+            SmsSendResult result = smsService.deliver(message.getPhone(), message.getBody());
+            long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Instant now = Instant.now();
+            int attempts = message.getAttempts() + 1;
+
+            if (result.sent()) {
+                repository.complete(message.getId(), token, Status.SENT, attempts, null, now, latency, null);
+                sent.increment();
+                segmentsSent.add(message.getSegments() != null ? message.getSegments() : 1);
+                countSent(now.getEpochSecond());
+                latencyMillis.add(latency);
+                maxLatencyMillis.accumulateAndGet(latency, Math::max);
+                queueDelayMillis.add(Duration.between(message.getCreatedAt(), now).toMillis());
+            } else if (result.retryable() && attempts < properties.getMaxAttempts()) {
+                repository.complete(message.getId(), token, Status.PENDING, attempts, now.plus(backoff(attempts)),
+                        null, null, truncate(result.error()));
+                retried.increment();
+            } else {
+                repository.complete(message.getId(), token, Status.FAILED, attempts, null, null, null,
+                        truncate(result.error()));
+                failed.increment();
+                log.warn("Gave up on SMS {} to {} after {} attempts: {}", message.getId(), message.getPhone(),
+                        attempts, result.error());
+            }
+        } catch (InterruptedException e) {
+            // Left claimed; it is put back once the claim runs out
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Recording the outcome of SMS {} failed: {}", message.getId(), e.getMessage(), e);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Delay before the attempt after the given number of attempts: doubling from the initial backoff,
+     * capped, with ±20% jitter so messages that failed together do not all retry together
+     */
+    Duration backoff(int attempts) {
+        long initial = properties.getInitialBackoff().toMillis();
+        long delay = initial << Math.min(attempts - 1, 20);
+        delay = Math.min(delay, properties.getMaxBackoff().toMillis());
+        double jitter = 0.8 + 0.4 * ThreadLocalRandom.current().nextDouble();
+        return Duration.ofMillis((long) (delay * jitter));
+    }
+
+    private synchronized void countSent(long second) {
+        int slot = (int) (second % THROUGHPUT_WINDOW);
+        if (slotSecond[slot] != second) {
+            slotSecond[slot] = second;
+            sentPerSecond[slot] = 0;
+        }
+        sentPerSecond[slot]++;
+    }
+
+    private synchronized double messagesPerSecond(long now) {
+        long count = 0;
+        for (int i = 0; i < THROUGHPUT_WINDOW; i++) {
+            if (now - slotSecond[i] < THROUGHPUT_WINDOW) count += sentPerSecond[i];
+        }
+        return Math.round(count * 100.0 / THROUGHPUT_WINDOW) / 100.0;
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > 500 ? error.substring(0, 500) : error;
+    }
+
+    /**
+     * Delivery counters of this instance since startup
+     */
+    public Map<String, Object> stats() {
+        long delivered = sent.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("dispatcherEnabled", properties.isDispatcherEnabled());
+        result.put("inFlight", inFlight.get());
+        result.put("sent", delivered);
+        result.put("retried", retried.sum());
+        result.put("failed", failed.sum());
+        result.put("deferred", deferred.sum());
+        result.put("avgLatencyMs", delivered > 0 ? latencyMillis.sum() / delivered : 0);
+        result.put("maxLatencyMs", maxLatencyMillis.get());
+        result.put("avgQueueDelayMs", delivered > 0 ? queueDelayMillis.sum() / delivered : 0);
+        result.put("segmentsSent", segmentsSent.sum());
+        result.put("avgSegmentsPerMessage", delivered > 0 ? Math.round(segmentsSent.sum() * 100.0 / delivered) / 100.0 : 0);
+        result.put("messagesPerSecond", messagesPerSecond(Instant.now().getEpochSecond()));
+        result.put("perPhoneLimit", perPhoneLimit.stats());
+        return result;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name.endsWith("-") ? name + count.incrementAndGet() : name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.nextinnomind.agro_speak_backend.config.SmsForecastLimitProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Limits on the public ad-hoc forecast SMS endpoint, per client IP and per destination number, so it
+ * cannot be used to flood a phone or to burn through the Twilio budget. Requests over a limit are
+ * refused rather than queued, since the caller is waiting on the answer.
+ */
+@Component
+public class SmsForecastThrottle {
+
+    private final KeyedRateLimiter perIp;
+    private final KeyedRateLimiter perPhone;
+
+    public SmsForecastThrottle(SmsForecastLimitProperties properties) {
+        this.perIp = new KeyedRateLimiter(properties.getPerIp(), properties.getMaxKeys());
+        this.perPhone = new KeyedRateLimiter(properties.getPerPhone(), properties.getMaxKeys());
+    }
+
+    /**
+     * Take a permit for the client and the destination
+     *
+     * @return zero if the request may go ahead, otherwise how long until it may be retried
+     */
+    public Duration check(String clientIp, String phone) {
+        long wait = perIp.tryAcquire(clientIp);
+        if (wait == 0) wait = perPhone.tryAcquire(SmsOutbox.phoneKey(phone));
+        return Duration.ofNanos(wait);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("perIp", perIp.stats());
+        result.put("perPhone", perPhone.stats());
+        return result;
+    }
+}
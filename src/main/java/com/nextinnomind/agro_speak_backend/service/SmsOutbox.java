@@ -0,0 +1,148 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.nextinnomind.agro_speak_backend.entity.SmsOutboxMessage;
+import com.nextinnomind.agro_speak_backend.repository.SmsOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Entry point for sending SMS: bodies are composed to the segment budget by the {@link SmsComposer},
+ * stored in the outbox table and delivered by the {@link SmsDispatcher}, so callers never wait on Twilio
+ * and nothing is lost when it is unavailable. Phone numbers are stored in E.164 form; recipients whose
+ * number is not a valid one are skipped and counted rather than failing the whole batch.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SmsOutbox {
+
+    public static final String SOURCE_ALERT = "ALERT";
+    public static final String SOURCE_FORECAST = "FORECAST";
+    public static final String SOURCE_BROADCAST = "BROADCAST";
+
+    // E.164: '+' and at most 15 digits, the country code not starting with 0
+    private static final Pattern E164 = Pattern.compile("\\+[1-9][0-9]{6,14}");
+
+    private final SmsOutboxRepository repository;
+    private final SmsComposer composer;
+
+    private final LongAdder invalidRecipients = new LongAdder();
+
+    /**
+     * Queue one message for delivery
+     *
+     * @return id of the outbox row
+     * @throws IllegalArgumentException if the phone number is not a valid international number
+     */
+    public long enqueue(String phone, String body, String source) {
+        String number = normalizePhone(phone);
+        if (number == null) {
+            invalidRecipients.increment();
+            throw new IllegalArgumentException("Invalid phone number '" + phone + "'; use the international format, e.g. +260971234567");
+        }
+        return repository.save(message(number, composer.compose(body), source, Instant.now())).getId();
+    }
+
+    /**
+     * Queue the same message for several recipients in one transaction, once per number; invalid numbers
+     * are skipped
+     *
+     * @return number of messages queued
+     */
+    @Transactional
+    public int enqueueAll(Collection<String> phones, String body, String source) {
+        return enqueueAll(phones, composer.compose(body), source);
+    }
+
+    /**
+     * Queue one body for many recipients (duplicates are sent once); the dispatcher's workers and rate
+     * limit bound how fast they go out
+     *
+     * @return the body as queued, with its encoding and segment count
+     */
+    @Transactional
+    public ComposedSms broadcast(Collection<String> phones, String body) {
+        ComposedSms sms = composer.compose(body);
+        enqueueAll(phones, sms, SOURCE_BROADCAST);
+        return sms;
+    }
+
+    private int enqueueAll(Collection<String> phones, ComposedSms sms, String source) {
+        Instant now = Instant.now();
+        Set<String> numbers = new LinkedHashSet<>();
+        int skipped = 0;
+        for (String phone : phones) {
+            String number = normalizePhone(phone);
+            if (number != null) numbers.add(number);
+            else skipped++;
+        }
+        if (skipped > 0) {
+            invalidRecipients.add(skipped);
+            log.warn("Skipped {} of {} {} recipients with an invalid phone number", skipped, phones.size(), source);
+        }
+        List<SmsOutboxMessage> messages = numbers.stream().map(number -> message(number, sms, source, now)).toList();
+        repository.saveAll(messages);
+        return messages.size();
+    }
+
+    /**
+     * Number of messages per status and the age of the oldest one still waiting
+     */
+    public Map<String, Object> backlog() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (SmsOutboxMessage.Status status : SmsOutboxMessage.Status.values()) counts.put(status.name(), 0L);
+        for (Object[] row : repository.countByStatus()) counts.put(row[0].toString(), (Long) row[1]);
+
+        Instant oldest = repository.findOldestPendingCreatedAt();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("counts", counts);
+        result.put("oldestPendingAgeSeconds", oldest != null ? Duration.between(oldest, Instant.now()).toSeconds() : 0);
+        result.put("invalidRecipients", invalidRecipients.sum());
+        result.put("composer", composer.stats());
+        return result;
+    }
+
+    /**
+     * The number in E.164 form, e.g. "+260971234567", or null if it is not a valid international number.
+     * Spaces, dashes, dots and parentheses are ignored and a leading "00" is read as '+'.
+     */
+    public static String normalizePhone(String phone) {
+        if (phone == null) return null;
+        String number = phone.replaceAll("[\\s().-]", "");
+        if (number.startsWith("00")) number = "+" + number.substring(2);
+        return E164.matcher(number).matches() ? number : null;
+    }
+
+    /**
+     * The number with formatting stripped, so "+260 97-1234567" and "+260971234567" share a rate limit
+     */
+    static String phoneKey(String phone) {
+        return phone == null ? "" : phone.replaceAll("[^+0-9]", "");
+    }
+
+    private static SmsOutboxMessage message(String phone, ComposedSms sms, String source, Instant now) {
+        return SmsOutboxMessage.builder()
+                .phone(phone)
+                .body(sms.body())
+                .segments(sms.segments())
+                .source(source)
+                .status(SmsOutboxMessage.Status.PENDING)
+                .attempts(0)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build();
+    }
+}
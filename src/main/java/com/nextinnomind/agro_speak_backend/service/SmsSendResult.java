@@ -0,0 +1,20 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+/**
+ * Outcome of one Twilio call: whether the message was accepted and, if not, whether trying again later
+ * can help (timeouts, throttling, Twilio errors) or not (invalid number, missing configuration)
+ */
+public record SmsSendResult(boolean sent, boolean retryable, String error) {
+
+    public static SmsSendResult accepted() {
+        return new SmsSendResult(true, false, null);
+    }
+
+    public static SmsSendResult retry(String error) {
+        return new SmsSendResult(false, true, error);
+    }
+
+    public static SmsSendResult reject(String error) {
+        return new SmsSendResult(false, false, error);
+    }
+}
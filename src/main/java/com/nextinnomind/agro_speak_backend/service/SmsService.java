@@ -1,21 +1,26 @@
 package com.nextinnomind.agro_speak_backend.service;
 
-import lombok.RequiredArgsConstructor;
+import com.nextinnomind.agro_speak_backend.config.Upstream;
+import com.nextinnomind.agro_speak_backend.config.UpstreamClients;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class SmsService {
 
     private final RestTemplate restTemplate;
 
+    public SmsService(UpstreamClients upstreamClients) {
+        this.restTemplate = upstreamClients.restTemplate(Upstream.TWILIO);
+    }
+
     @Value("${twilio.account-sid:}")
     private String accountSid;
 
@@ -25,16 +30,31 @@ public class SmsService {
     @Value("${twilio.from-number:}")
     private String fromNumber;
 
+    // When set, messages go through the Twilio Messaging Service (sender pool, Twilio-side queueing)
+    @Value("${twilio.messaging-service-sid:}")
+    private String messagingServiceSid;
+
     private boolean configured() {
         return accountSid != null && !accountSid.isEmpty()
                 && authToken != null && !authToken.isEmpty()
-                && fromNumber != null && !fromNumber.isEmpty();
+                && ((fromNumber != null && !fromNumber.isEmpty()) || usesMessagingService());
+    }
+
+    private boolean usesMessagingService() {
+        return messagingServiceSid != null && !messagingServiceSid.isEmpty();
     }
 
     public boolean sendSms(String to, String body) {
+        return deliver(to, body).sent();
+    }
+
+    /**
+     * Send one SMS through Twilio and classify the outcome, so the outbox can decide whether to retry
+     */
+    public SmsSendResult deliver(String to, String body) {
         if (!configured()) {
             log.warn("Twilio not configured - skipping SMS to {}: {}", to, body);
-            return false;
+            return SmsSendResult.reject("Twilio not configured");
         }
 
         try {
@@ -48,7 +68,8 @@ public class SmsService {
             headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
 
             MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
-            form.add("From", fromNumber);
+            if (usesMessagingService()) form.add("MessagingServiceSid", messagingServiceSid);
+            else form.add("From", fromNumber);
             form.add("To", to);
             form.add("Body", body);
 
@@ -58,14 +79,19 @@ public class SmsService {
             ResponseEntity<String> resp = restTemplate.postForEntity(url, request, String.class);
             if (resp.getStatusCode().is2xxSuccessful()) {
                 log.info("SMS sent to {}", to);
-                return true;
+                return SmsSendResult.accepted();
             } else {
                 log.warn("Failed to send SMS to {}: {}", to, resp.getStatusCode());
-                return false;
+                return SmsSendResult.retry("HTTP " + resp.getStatusCode().value());
             }
+        } catch (HttpClientErrorException e) {
+            // 429 is Twilio throttling us; other 4xx (invalid number, unverified sender...) will not improve
+            log.warn("Twilio rejected SMS to {}: {}", to, e.getStatusCode());
+            String error = "HTTP " + e.getStatusCode().value() + " " + e.getResponseBodyAsString();
+            return e.getStatusCode().value() == 429 ? SmsSendResult.retry(error) : SmsSendResult.reject(error);
         } catch (Exception e) {
             log.error("Error sending SMS to {}: {}", to, e.getMessage(), e);
-            return false;
+            return SmsSendResult.retry(e.getClass().getSimpleName() + ": " + e.getMessage());
         }
     }
 }
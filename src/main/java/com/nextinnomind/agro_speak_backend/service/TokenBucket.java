@@ -0,0 +1,78 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, kept as the single timestamp of the generic cell rate algorithm: the
+ * theoretical time at which the bucket will be full again. A permit is available while that time is no
+ * more than the burst allowance ahead of now, and taking one moves it forward by one interval. Each
+ * update is one compare-and-set, so a bucket costs one AtomicLong and never blocks.
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong fullAt;
+
+    /**
+     * @param intervalNanos time between permits at the sustained rate; zero or less disables limiting
+     * @param burst         permits that can be taken back to back from a full bucket
+     */
+    public TokenBucket(long intervalNanos, int burst) {
+        this.intervalNanos = Math.max(0, intervalNanos);
+        this.toleranceNanos = this.intervalNanos * (Math.max(1, burst) - 1);
+        // Starts full
+        this.fullAt = new AtomicLong(System.nanoTime() - this.intervalNanos - this.toleranceNanos);
+    }
+
+    public static TokenBucket perSecond(double permitsPerSecond, int burst) {
+        return new TokenBucket(permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0, burst);
+    }
+
+    /**
+     * Take a permit if one is available now
+     *
+     * @return 0 if the permit was taken, otherwise the nanoseconds until one is available (nothing is taken)
+     */
+    public long tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    long tryAcquire(long now) {
+        if (intervalNanos == 0) return 0;
+        while (true) {
+            long current = fullAt.get();
+            long start = current - now > 0 ? current : now;
+            long wait = start - now - toleranceNanos;
+            if (wait > 0) return wait;
+            if (fullAt.compareAndSet(current, start + intervalNanos)) return 0;
+        }
+    }
+
+    /**
+     * Reserve the next permit, whether or not it is available yet
+     *
+     * @return nanoseconds until the reserved permit may be used
+     */
+    long reserve(long now) {
+        if (intervalNanos == 0) return 0;
+        while (true) {
+            long current = fullAt.get();
+            long start = current - now > 0 ? current : now;
+            if (fullAt.compareAndSet(current, start + intervalNanos)) return Math.max(0, start - now - toleranceNanos);
+        }
+    }
+
+    /**
+     * Block until a permit is available; callers queue up in reservation order, so sends are smoothed
+     * to the rate instead of being refused
+     *
+     * @return nanoseconds spent waiting
+     */
+    public long acquire() throws InterruptedException {
+        long wait = reserve(System.nanoTime());
+        if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+        return wait;
+    }
+}
@@ -0,0 +1,196 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.nextinnomind.agro_speak_backend.config.TranslationCacheProperties;
+import com.nextinnomind.agro_speak_backend.entity.TranslationEntry;
+import com.nextinnomind.agro_speak_backend.repository.TranslationEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Translations by provider, language pair and normalised text, shared by the OpenRouter-backed
+ * {@link TranslationService} and the Flask-backed translation of the AI services. Entries live in a
+ * size-bounded Caffeine cache with a time to live and, optionally, in the datasource, which is read on a
+ * memory miss. Concurrent requests for the same missing translation share one upstream call.
+ * <p>
+ * Only successful translations are stored: a translator signals failure by throwing, and the exception
+ * reaches every caller waiting on it without anything being cached.
+ */
+@Slf4j
+@Component
+public class TranslationCache {
+
+    // Runs of spaces and tabs are collapsed; line breaks are kept since they shape the translation
+    private static final Pattern HORIZONTAL_SPACE = Pattern.compile("[ \\t]+");
+    private static final Pattern LINE_BREAK = Pattern.compile("\\r\\n?");
+
+    private final TranslationCacheProperties properties;
+    private final TranslationEntryRepository repository;
+    private final Cache<Key, String> translations;
+    private final SingleFlight<Key, String> inFlight = new SingleFlight<>();
+
+    private final LongAdder storeHits = new LongAdder();
+    private final LongAdder translated = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+    private final LongAdder translateNanos = new LongAdder();
+
+    public TranslationCache(TranslationCacheProperties properties, TranslationEntryRepository repository) {
+        this.properties = properties;
+        this.repository = repository;
+        this.translations = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+    }
+
+    private record Key(String provider, String source, String target, String text) {
+    }
+
+    /**
+     * The cached translation, or the translator's result, which is cached before being returned
+     *
+     * @param provider   translation backend (and model), part of the key since backends translate differently
+     * @param translator performs the translation; throws if it failed
+     */
+    public String translate(String provider, String text, String sourceLanguage, String targetLanguage,
+                            Supplier<String> translator) {
+        String normalized = normalize(text);
+        if (!properties.isEnabled() || normalized.isEmpty() || normalized.length() > properties.getMaxTextLength()) {
+            bypassed.increment();
+            return translator.get();
+        }
+
+        Key key = new Key(provider, language(sourceLanguage), language(targetLanguage), normalized);
+        String cached = translations.getIfPresent(key);
+        if (cached != null) return cached;
+
+        return inFlight.execute(key, () -> {
+            String stored = load(key);
+            if (stored != null) {
+                storeHits.increment();
+                translations.put(key, stored);
+                return stored;
+            }
+
+            long start = System.nanoTime();
+            String translation;
+            try {
+                translation = translator.get();
+            } catch (RuntimeException e) {
+                failures.increment();
+                throw e;
+            }
+            translateNanos.add(System.nanoTime() - start);
+            translated.increment();
+            translations.put(key, translation);
+            save(key, translation);
+            return translation;
+        });
+    }
+
+    private String load(Key key) {
+        if (!properties.isPersist()) return null;
+        try {
+            return repository.findById(hash(key))
+                    .filter(entry -> entry.getCreatedAt() != null
+                            && entry.getCreatedAt().isAfter(Instant.now().minus(properties.getTtl())))
+                    .map(TranslationEntry::getTranslation)
+                    .orElse(null);
+        } catch (Exception e) {
+            log.warn("Could not read persisted translation: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void save(Key key, String translation) {
+        if (!properties.isPersist() || translation.length() > 8000) return;
+        try {
+            repository.save(new TranslationEntry(hash(key), truncate(key.provider(), 100), truncate(key.source(), 30),
+                    truncate(key.target(), 30), truncate(key.text(), 4000), translation, Instant.now()));
+        } catch (Exception e) {
+            log.warn("Could not persist translation: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Delete persisted translations older than the time to live; they are no longer read
+     */
+    @Scheduled(fixedDelayString = "${translation.cache.purge-interval:6h}",
+            initialDelayString = "${translation.cache.purge-interval:6h}")
+    public void purge() {
+        if (!properties.isPersist()) return;
+        try {
+            int deleted = repository.deleteCreatedBefore(Instant.now().minus(properties.getTtl()));
+            if (deleted > 0) log.debug("Purged {} expired persisted translations", deleted);
+        } catch (Exception e) {
+            log.warn("Could not purge persisted translations: {}", e.getMessage());
+        }
+    }
+
+    private static String normalize(String text) {
+        if (text == null) return "";
+        String lines = LINE_BREAK.matcher(text.strip()).replaceAll("\n");
+        return HORIZONTAL_SPACE.matcher(lines).replaceAll(" ");
+    }
+
+    private static String language(String language) {
+        return language == null ? "" : language.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private static String truncate(String value, int length) {
+        return value.length() > length ? value.substring(0, length) : value;
+    }
+
+    private static String hash(Key key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[]{key.provider(), key.source(), key.target(), key.text()}) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Hit rate of the in-memory cache, datasource hits, upstream translations and their average duration
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = translations.stats();
+        long calls = translated.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", properties.isEnabled());
+        result.put("persist", properties.isPersist());
+        result.put("size", translations.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", Math.round(stats.hitRate() * 1000) / 1000.0);
+        result.put("evictionCount", stats.evictionCount());
+        result.put("storeHitCount", storeHits.sum());
+        result.put("translatedCount", calls);
+        result.put("failureCount", failures.sum());
+        result.put("bypassedCount", bypassed.sum());
+        result.put("avgTranslateMs", calls > 0 ? TimeUnit.NANOSECONDS.toMillis(translateNanos.sum() / calls) : 0);
+        return result;
+    }
+}
@@ -0,0 +1,169 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Known translations of common words and phrases per target language, which the translation prompt asks
+ * the model to use. Only the terms that actually occur in a text are put into its prompt; they are found
+ * with one {@link AhoCorasickMatcher} per language, so the prompt and the matching time stay small however
+ * large the glossary grows.
+ * <p>
+ * The glossary comes from a JSON file ({@code translation.glossary-file}) mapping a target language to its
+ * terms, e.g. {@code {"bemba": {"maize": "amataba"}, "nyanja": {"maize": "chimanga"}}}, which is reloaded
+ * when it changes. Without one, a small built-in Bemba glossary is used.
+ */
+@Slf4j
+@Component
+public class TranslationGlossary {
+
+    static final Map<String, Map<String, String>> DEFAULT_TERMS = Map.of("bemba", Map.of(
+            "how are you", "mulishani",
+            "maize", "amataba",
+            "cultivate", "ukubyala",
+            "to plant", "ukubyala",
+            "kindly asking", "ndeipushako mukwai"));
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ReloadableFile<Map<String, Map<String, String>>> glossaryFile;
+    private volatile Map<String, LanguageGlossary> languages;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder termsMatched = new LongAdder();
+
+    public TranslationGlossary(@Value("${translation.glossary-file:}") String glossaryFile) {
+        this.glossaryFile = glossaryFile.isBlank() ? null
+                : new ReloadableFile<>(Path.of(glossaryFile), "translation glossary", path ->
+                        mapper.readValue(path.toFile(), new TypeReference<Map<String, Map<String, String>>>() {}));
+        this.languages = compile(DEFAULT_TERMS);
+        reload();
+    }
+
+    /**
+     * A glossary entry: the source term and its translation
+     */
+    public record Term(String source, String translation) {
+    }
+
+    /**
+     * Pick up changes to the glossary file. An invalid file is logged and the current glossary stays active.
+     */
+    @Scheduled(fixedDelayString = "${translation.glossary-reload-interval:30s}",
+            initialDelayString = "${translation.glossary-reload-interval:30s}")
+    public void reload() {
+        if (glossaryFile == null) return;
+        glossaryFile.reloadIfChanged().ifPresent(terms -> {
+            try {
+                languages = compile(terms);
+                log.info("Translation glossary active: {}", describe());
+            } catch (RuntimeException e) {
+                log.error("Translation glossary in {} rejected; keeping the previous one: {}",
+                        glossaryFile.path(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Glossary terms of the target language that occur as whole words in the text, in order of appearance
+     */
+    public List<Term> termsIn(String text, String targetLanguage) {
+        LanguageGlossary glossary = languages.get(language(targetLanguage));
+        if (glossary == null || text == null) return List.of();
+        lookups.increment();
+        int[] found = glossary.matcher().find(text);
+        if (found.length == 0) return List.of();
+        termsMatched.add(found.length);
+        List<Term> terms = new ArrayList<>(found.length);
+        for (int index : found) terms.add(glossary.terms().get(index));
+        return terms;
+    }
+
+    /**
+     * Short digest of the target language's glossary, empty if it has none. Part of the translation cache
+     * key, so translations made with an older glossary are not served once it changes.
+     */
+    public String version(String targetLanguage) {
+        LanguageGlossary glossary = languages.get(language(targetLanguage));
+        return glossary != null ? glossary.version() : "";
+    }
+
+    private record LanguageGlossary(List<Term> terms, AhoCorasickMatcher matcher, String version) {
+    }
+
+    private static Map<String, LanguageGlossary> compile(Map<String, Map<String, String>> definitions) {
+        Map<String, LanguageGlossary> compiled = new LinkedHashMap<>();
+        definitions.forEach((language, entries) -> {
+            String key = language(language);
+            if (key.isEmpty()) throw new IllegalArgumentException("Blank glossary language");
+            if (entries == null || entries.isEmpty()) return;
+
+            // Sorted so the version does not depend on the order of the file
+            List<Term> terms = new ArrayList<>(entries.size());
+            new TreeMap<>(entries).forEach((source, translation) -> {
+                if (translation == null || translation.isBlank()) {
+                    throw new IllegalArgumentException("No " + key + " translation for '" + source + "'");
+                }
+                terms.add(new Term(source.strip(), translation.strip()));
+            });
+            AhoCorasickMatcher matcher = AhoCorasickMatcher.build(terms.stream().map(Term::source).toList());
+            compiled.put(key, new LanguageGlossary(List.copyOf(terms), matcher, digest(terms)));
+        });
+        return Map.copyOf(compiled);
+    }
+
+    private static String language(String language) {
+        return language == null ? "" : language.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private static String digest(List<Term> terms) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Term term : terms) {
+                digest.update(term.source().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(term.translation().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Map<String, Integer> describe() {
+        Map<String, Integer> result = new TreeMap<>();
+        languages.forEach((language, glossary) -> result.put(language, glossary.terms().size()));
+        return result;
+    }
+
+    /**
+     * Terms per language, the source of the glossary and how many terms lookups found
+     */
+    public Map<String, Object> stats() {
+        long count = lookups.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("source", glossaryFile != null ? glossaryFile.path().toString() : "built-in");
+        result.put("languages", describe());
+        result.put("lookupCount", count);
+        result.put("matchedTermCount", termsMatched.sum());
+        result.put("avgTermsPerLookup", count > 0 ? Math.round(termsMatched.sum() * 100.0 / count) / 100.0 : 0);
+        return result;
+    }
+}
@@ -1,5 +1,8 @@
 package com.nextinnomind.agro_speak_backend.service;
 
+import com.nextinnomind.agro_speak_backend.config.Upstream;
+import com.nextinnomind.agro_speak_backend.config.UpstreamClients;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -9,10 +12,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.StringJoiner;
 
+@Slf4j
 @Service
 public class TranslationService {
 
     private final WebClient webClient;
+    private final TranslationCache translationCache;
+    private final TranslationGlossary glossary;
 
     @Value("${openrouter.api.key}")
     private String openRouterApiKey;
@@ -23,35 +29,41 @@ public class TranslationService {
     @Value("${openrouter.base-url}")
     private String baseUrl;
 
-    // Common words map (can be extended easily)
-    private static final Map<String, String> BEMBA_COMMON_WORDS = new HashMap<>();
-    static {
-        BEMBA_COMMON_WORDS.put("how are you", "mulishani");
-        BEMBA_COMMON_WORDS.put("maize", "amataba");
-        BEMBA_COMMON_WORDS.put("cultivate", "ukubyala");
-        BEMBA_COMMON_WORDS.put("to plant", "ukubyala");
-        
-        BEMBA_COMMON_WORDS.put("kindly asking", "ndeipushako mukwai");
-        // Add more common words here...
-    }
-
-    public TranslationService(WebClient.Builder builder) {
-        this.webClient = builder.build();
+    public TranslationService(UpstreamClients upstreamClients, TranslationCache translationCache,
+                              TranslationGlossary glossary) {
+        this.webClient = upstreamClients.webClient(Upstream.OPENROUTER).build();
+        this.translationCache = translationCache;
+        this.glossary = glossary;
     }
 
     /**
      * Translates text from sourceLanguage to targetLanguage using OpenRouter Gemini API.
+     * Successful translations are cached; failures come back as "Translation error: ..." and are not.
+     * The glossary version is part of the cache key, so a changed glossary is used right away.
      */
     public String translate(String text, String sourceLanguage, String targetLanguage) {
+        String version = glossary.version(targetLanguage);
+        String provider = "openrouter/" + translationModel + (version.isEmpty() ? "" : "+glossary-" + version);
+        try {
+            return translationCache.translate(provider, text, sourceLanguage, targetLanguage,
+                    () -> requestTranslation(text, sourceLanguage, targetLanguage));
+        } catch (Exception e) {
+            log.warn("Translation to {} failed: {}", targetLanguage, e.getMessage());
+            return "Translation error: " + e.getMessage();
+        }
+    }
+
+    private String requestTranslation(String text, String sourceLanguage, String targetLanguage) {
 
         String prompt;
+        List<TranslationGlossary.Term> terms = glossary.termsIn(text, targetLanguage);
 
-        if (targetLanguage != null && targetLanguage.equalsIgnoreCase("bemba")) {
-            // Build a list of common words and translations to include in the prompt
+        if (!terms.isEmpty()) {
+            // Only the glossary terms that occur in the text, so the prompt does not grow with the glossary
             StringJoiner commonWordsHint = new StringJoiner(", ");
-            for (Map.Entry<String, String> entry : BEMBA_COMMON_WORDS.entrySet()) {
+            for (TranslationGlossary.Term term : terms) {
                 commonWordsHint.add(
-                        String.format("'%s' = '%s'", entry.getKey(), entry.getValue())
+                        String.format("'%s' = '%s'", term.source(), term.translation())
                 );
             }
 
@@ -80,29 +92,25 @@ public class TranslationService {
 
         requestBody.put("messages", List.of(message));
 
-        try {
-            @SuppressWarnings("null")
-            OpenRouterResponse response = webClient.post()
-                    .uri(baseUrl)
-                    .header("Authorization", "Bearer " + openRouterApiKey)
-                    .header("Accept", "application/json")
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(OpenRouterResponse.class)
-                    .block();
-
-            if (response != null && response.getChoices() != null && response.getChoices().length > 0) {
-                String translated = response.getChoices()[0].getMessage().getContent();
-                System.out.println("Translated text: " + translated); // Debug log
-                return translated;
-            }
-
-            return "Translation error: empty response";
-
-        } catch (Exception e) {
-            e.printStackTrace(); // Full stack trace for debugging
-            return "Translation error: " + e.getMessage();
+        @SuppressWarnings("null")
+        OpenRouterResponse response = webClient.post()
+                .uri(baseUrl)
+                .header("Authorization", "Bearer " + openRouterApiKey)
+                .header("Accept", "application/json")
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToMono(OpenRouterResponse.class)
+                .block();
+
+        if (response != null && response.getChoices() != null && response.getChoices().length > 0
+                && response.getChoices()[0].getMessage() != null
+                && response.getChoices()[0].getMessage().getContent() != null) {
+            String translated = response.getChoices()[0].getMessage().getContent();
+            log.debug("Translated text: {}", translated);
+            return translated;
         }
+
+        throw new IllegalStateException("empty response");
     }
 
     // Helper inner classes for JSON parsing
@@ -1,38 +1,112 @@
 package com.nextinnomind.agro_speak_backend.service;
 
-import com.nextinnomind.agro_speak_backend.entity.User;
+import com.nextinnomind.agro_speak_backend.dto.AlertSubscriber;
 import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
-import com.nextinnomind.agro_speak_backend.repository.UserRepository;
+import com.nextinnomind.agro_speak_backend.service.AlertRunReport.Stage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class WeatherAlertScheduler {
 
-    private final UserRepository userRepository;
+    private final AlertSubscriberIndex subscriberIndex;
     private final WeatherService weatherService;
-    private final SmsService smsService;
+    private final SmsOutbox smsOutbox;
+    private final AlertLedger alertLedger;
+    private final AlertRuleEngine ruleEngine;
+    private final AlertShardManager shardManager;
 
     @Value("${weather.alerts.enabled:true}")
     private boolean alertsEnabled;
 
-    @Value("${weather.alerts.precipitation-threshold:20.0}")
-    private double precipitationThreshold;
-
-    @Value("${weather.alerts.severe-codes:95,96,99}")
-    private String severeCodes;
-
     @Value("${weather.alerts.cron:0 0 * * * *}")
     private String cronExpression;
 
+    @Value("${weather.alerts.page-size:500}")
+    private int pageSize;
+
+    @Value("${weather.alerts.concurrency:16}")
+    private int concurrency;
+
+    @Value("${weather.alerts.open-meteo-rate:20}")
+    private double openMeteoRate;
+
+    @Value("${weather.alerts.max-run-duration:50m}")
+    private Duration maxRunDuration;
+
+    private ExecutorService executor;
+    private RateLimiter openMeteoLimiter;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile AlertRunReport lastReport;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread t = new Thread(r, "weather-alert-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        openMeteoLimiter = new RateLimiter(openMeteoRate);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Report of the most recent completed run, or null if none has run yet
+     */
+    public AlertRunReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Size and suppression counters of the ledger of notified hazards
+     */
+    public Map<String, Object> getLedgerStats() {
+        return alertLedger.stats();
+    }
+
+    /**
+     * Source, names and required forecast variables of the active alert rules
+     */
+    public Map<String, Object> getRules() {
+        return ruleEngine.describe();
+    }
+
+    /**
+     * Shard ownership of this instance in the multi-node alert job
+     */
+    public Map<String, Object> getShardStats() {
+        return shardManager.stats();
+    }
+
     // Run on cron configured in properties (default hourly)
     @Scheduled(cron = "${weather.alerts.cron:0 0 * * * *}")
     public void checkAndSendAlerts() {
@@ -40,78 +114,226 @@ public class WeatherAlertScheduler {
             log.debug("Weather alerts disabled; skipping scheduler run.");
             return;
         }
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Previous weather alert run still in progress; skipping this one.");
+            return;
+        }
 
-        log.info("Running weather alert scheduler");
+        shardManager.runStarted();
+        try {
+            if (!shardManager.ownsAny()) {
+                log.info("Node {} holds no alert shards; other instances handle this run", shardManager.nodeId());
+                return;
+            }
+            log.info("Running weather alert scheduler (concurrency={})", concurrency);
+            AlertRunReport report = new AlertRunReport();
+            run(report);
+            report.finish();
+            lastReport = report;
+            log.info("Weather alert scheduler run complete: {}", report);
+        } finally {
+            shardManager.runFinished();
+            running.set(false);
+        }
+    }
 
-        List<Integer> severe = Arrays.stream(severeCodes.split(","))
-                .map(String::trim)
-                .map(Integer::parseInt)
-                .toList();
+    /**
+     * What a run sends for one cell. A cell's subscribers can span several pages, whose tasks run
+     * concurrently; the hazards are decided once per cell and run and then sent to the subscribers of every
+     * page, and only recorded in the ledger after the run, once no page of the cell can still need them.
+     * Decisions are held as futures: the first page of a cell decides it outside the map's locks, later
+     * pages of the cell wait for that decision, and other cells are not held up.
+     */
+    private static final class CellDecision {
+        static final CellDecision NO_HAZARDS = new CellDecision(List.of(), List.of());
 
-        List<User> users = userRepository.findAll();
-        for (User u : users) {
-            try {
-                if (u.getAlertsEnabled() == null || !u.getAlertsEnabled()) continue;
-                if (u.getPhone() == null || u.getPhone().isEmpty()) continue;
-
-                Double lat = u.getLatitude();
-                Double lon = u.getLongitude();
-                if (lat == null || lon == null) {
-                    // skip users without a preferred location
-                    log.debug("Skipping user {} - no preferred location set", u.getEmail());
-                    continue;
-                }
+        final List<AlertHazard> hazards;
+        final List<AlertHazard> unnotified;
+        // Set when a page of the cell could not be queued or was skipped
+        final AtomicBoolean incomplete = new AtomicBoolean();
 
-                WeatherResponse current = weatherService.getCurrentWeather(lat, lon);
-                if (current == null || current.getCurrentWeather() == null) continue;
-
-                int code = current.getCurrentWeather().getWeathercode();
-                
-                // Get next 24 hours forecast for precipitation check
-                WeatherResponse hourlyForecast = weatherService.getHourlyForecast(lat, lon, 24);
-                Double maxPrecipitation = null;
-                
-                if (hourlyForecast != null && hourlyForecast.getHourly() != null 
-                    && hourlyForecast.getHourly().getPrecipitation() != null) {
-                    // Find maximum precipitation in next 24 hours
-                    @SuppressWarnings("null")
-                    Double maxPrecip = Arrays.stream(hourlyForecast.getHourly().getPrecipitation())
-                            .filter(p -> p != null)
-                            .max(Double::compare)
-                            .orElse(null);
-                    maxPrecipitation = maxPrecip;
-                }
+        CellDecision(List<AlertHazard> hazards, List<AlertHazard> unnotified) {
+            this.hazards = hazards;
+            this.unnotified = unnotified;
+        }
+    }
+
+    private void run(AlertRunReport report) {
+        // Rules may be reloaded mid-run; the whole run fetches the variables of the rules active at its start
+        String hourlyVariables = ruleEngine.hourlyVariables();
+        Instant deadline = Instant.now().plus(maxRunDuration);
+        Map<GridCell, CompletableFuture<CellDecision>> decisions = new ConcurrentHashMap<>();
 
-                StringBuilder alertBuilder = new StringBuilder();
-                boolean shouldAlert = false;
+        // Bounds the number of cells queued or in progress so paging cannot outrun the workers
+        int maxPending = concurrency * 2;
+        Semaphore pending = new Semaphore(maxPending);
 
-                if (severe.contains(code)) {
-                    alertBuilder.append("Severe weather alert: ")
-                            .append(current.getCurrentWeather().getMessage())
-                            .append(" at location (")
-                            .append(lat).append(",").append(lon).append(").");
-                    shouldAlert = true;
+        // Walk subscribers in keyset pages so memory stays constant regardless of user count;
+        // within a page, subscribers are grouped by grid cell so each cell is evaluated once.
+        // Only the subscribers of shards this instance holds are read; a subscriber whose stored shard is
+        // stale (or whose shard lapsed mid-run) is still left to the instance owning its cell.
+        subscriberIndex.assignUnassigned();
+        long afterId = 0;
+        List<AlertSubscriber> page;
+        try {
+            do {
+                if (Instant.now().isAfter(deadline)) {
+                    log.warn("Weather alert run hit its {} deadline; remaining subscribers skipped", maxRunDuration);
+                    break;
                 }
 
-                if (maxPrecipitation != null && maxPrecipitation >= precipitationThreshold) {
-                    if (shouldAlert) {
-                        alertBuilder.append(" ");
+                long scanStart = System.nanoTime();
+                page = subscriberIndex.page(afterId, pageSize);
+                report.record(Stage.SCAN, System.nanoTime() - scanStart);
+                if (page.isEmpty()) break;
+                report.subscribers(page.size());
+
+                Map<GridCell, List<AlertSubscriber>> usersByCell = new HashMap<>();
+                for (AlertSubscriber u : page) {
+                    GridCell cell = weatherService.gridCellFor(u.getLatitude(), u.getLongitude());
+                    if (!shardManager.owns(cell)) {
+                        report.subscriberElsewhere();
+                        continue;
                     }
-                    alertBuilder.append("Heavy precipitation expected: ")
-                            .append(String.format("%.1f", maxPrecipitation)).append("mm.");
-                    shouldAlert = true;
+                    usersByCell.computeIfAbsent(cell, c -> new ArrayList<>()).add(u);
                 }
 
-                if (shouldAlert) {
-                    String body = alertBuilder.toString();
-                    smsService.sendSms(u.getPhone(), body);
+                Map<GridCell, WeatherResponse> forecasts = fetchForecasts(usersByCell.keySet(), hourlyVariables, report);
+
+                for (Map.Entry<GridCell, List<AlertSubscriber>> entry : usersByCell.entrySet()) {
+                    WeatherResponse forecast = forecasts.get(entry.getKey());
+                    if (forecast == null) {
+                        report.cellFailed();
+                        log.error("No alert forecast for cell {} ({} users)", entry.getKey().id(), entry.getValue().size());
+                        continue;
+                    }
+
+                    pending.acquire();
+                    try {
+                        executor.execute(() -> {
+                            try {
+                                processCell(entry.getKey(), forecast, entry.getValue(), decisions, deadline, report);
+                            } finally {
+                                pending.release();
+                            }
+                        });
+                    } catch (RejectedExecutionException e) {
+                        pending.release();
+                        throw e;
+                    }
                 }
 
+                afterId = page.get(page.size() - 1).getId();
+            } while (page.size() == pageSize);
+
+            // Wait for in-flight cells to drain
+            pending.acquire(maxPending);
+        } catch (InterruptedException e) {
+            // Cells may still be in progress, so nothing is recorded and the next run sends their hazards
+            Thread.currentThread().interrupt();
+            log.warn("Weather alert run interrupted");
+            return;
+        }
+        recordDecisions(decisions);
+    }
+
+    /**
+     * Record the cells' hazards as notified; if a page of a cell could not be queued, its new hazards are
+     * left unrecorded so the next run retries them
+     */
+    private void recordDecisions(Map<GridCell, CompletableFuture<CellDecision>> decisions) {
+        decisions.forEach((cell, future) -> {
+            // Every page has finished, so each decision is complete; a failed one has nothing to record
+            if (future.isCompletedExceptionally()) return;
+            CellDecision decision = future.join();
+            if (decision.hazards.isEmpty()) return;
+            List<AlertHazard> known = new ArrayList<>(decision.hazards);
+            if (decision.incomplete.get()) known.removeAll(decision.unnotified);
+            try {
+                alertLedger.record(cell, known);
             } catch (Exception e) {
-                log.error("Failed to check/send alert for user {}: {}", u.getEmail(), e.getMessage(), e);
+                // The next run sends these hazards again rather than losing them
+                log.error("Failed to record alerts of cell {} in the ledger: {}", cell.id(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Send the cell's alert (if any) to the given subscribers, one page's share of the cell. The first page
+     * of the cell to get here evaluates it for the whole run.
+     */
+    private void processCell(GridCell cell, WeatherResponse forecast, List<AlertSubscriber> subscribers,
+                             Map<GridCell, CompletableFuture<CellDecision>> decisions, Instant deadline,
+                             AlertRunReport report) {
+        CellDecision decision;
+        try {
+            CompletableFuture<CellDecision> claimed = new CompletableFuture<>();
+            CompletableFuture<CellDecision> existing = decisions.putIfAbsent(cell, claimed);
+            if (existing == null) {
+                try {
+                    claimed.complete(decide(cell, forecast, report));
+                } catch (RuntimeException e) {
+                    claimed.completeExceptionally(e);
+                }
             }
+            decision = (existing != null ? existing : claimed).join();
+        } catch (Exception e) {
+            report.cellFailed();
+            log.error("Failed to check alerts for cell {} ({} users): {}",
+                    cell.id(), subscribers.size(), e.getMessage(), e);
+            return;
+        }
+        if (decision.unnotified.isEmpty()) return;
+        if (Instant.now().isAfter(deadline)) {
+            decision.incomplete.set(true);
+            report.cellSkipped();
+            return;
+        }
+
+        String body = decision.unnotified.stream().map(AlertHazard::message).collect(Collectors.joining(" "));
+        long queueStart = System.nanoTime();
+        try {
+            // Delivery, rate limiting and retries are up to the SMS dispatcher
+            int count = smsOutbox.enqueueAll(subscribers.stream().map(AlertSubscriber::getPhone).toList(),
+                    body, SmsOutbox.SOURCE_ALERT);
+            report.alertsQueued(count);
+            if (count == 0) decision.incomplete.set(true);
+        } catch (Exception e) {
+            decision.incomplete.set(true);
+            report.queueFailed();
+            log.error("Failed to queue alerts for cell {} ({} users): {}",
+                    cell.id(), subscribers.size(), e.getMessage(), e);
         }
+        report.record(Stage.NOTIFY, System.nanoTime() - queueStart);
+    }
 
-        log.info("Weather alert scheduler run complete");
+    private CellDecision decide(GridCell cell, WeatherResponse forecast, AlertRunReport report) {
+        long evaluateStart = System.nanoTime();
+        List<AlertHazard> hazards = ruleEngine.evaluate(cell, forecast, Instant.now().getEpochSecond());
+        List<AlertHazard> unnotified = alertLedger.unnotified(cell, hazards);
+        report.record(Stage.EVALUATE, System.nanoTime() - evaluateStart);
+        report.cellEvaluated();
+        if (unnotified.size() < hazards.size()) {
+            report.hazardsSuppressed(hazards.size() - unnotified.size());
+        }
+        // Hazards still in the forecast but already notified are recorded too, extending their windows
+        return hazards.isEmpty() ? CellDecision.NO_HAZARDS : new CellDecision(hazards, unnotified);
+    }
+
+    /**
+     * Fetch the alert forecasts of a page's cells through the multi-location batch API
+     */
+    private Map<GridCell, WeatherResponse> fetchForecasts(Set<GridCell> cells, String hourlyVariables,
+                                                          AlertRunReport report) throws InterruptedException {
+        // Only upstream requests count against the Open-Meteo budget; cache hits are free
+        int uncached = (int) cells.stream().filter(cell -> !weatherService.hasCachedAlertForecast(cell, hourlyVariables)).count();
+        report.record(Stage.FORECAST_THROTTLE, openMeteoLimiter.acquire(weatherService.upstreamRequestsFor(uncached)));
+
+        long start = System.nanoTime();
+        try {
+            return weatherService.getAlertForecasts(cells, hourlyVariables);
+        } finally {
+            report.record(Stage.FORECAST, System.nanoTime() - start);
+        }
     }
 }
@@ -0,0 +1,439 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.nextinnomind.agro_speak_backend.config.WeatherCacheProperties;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process cache of Open-Meteo forecasts keyed by grid cell, data type and parameters.
+ * Entries are fresh for the TTL configured for their data type and are then served stale for a
+ * further grace period while a background refresh replaces them; beyond the size limit Caffeine's
+ * W-TinyLFU policy evicts the least valuable entries. Concurrent misses for the same key are
+ * coalesced into a single upstream load.
+ */
+@Slf4j
+@Component
+public class WeatherCache {
+
+    private final WeatherCacheProperties properties;
+    private final Cache<WeatherCacheKey, ForecastSnapshot> cache;
+    private final SingleFlight<WeatherCacheKey, ForecastSnapshot> singleFlight = new SingleFlight<>();
+
+    // Background refreshes of stale entries; a full queue just means the stale entry is served a little longer
+    private final ExecutorService refreshExecutor;
+    private final Set<WeatherCacheKey> refreshing = ConcurrentHashMap.newKeySet();
+
+    // Most-requested keys of recent traffic with the loader that fills them, for refresh-ahead
+    // Request counts and loaders of recently requested keys; keys are date-free (see WeatherCacheKey), so a
+    // loader re-run for refresh-ahead always fetches the current forecast window
+    private final Cache<WeatherCacheKey, HotKey> hotKeys;
+
+    private final LongAdder staleServed = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder fallbackServed = new LongAdder();
+
+    // Optional on-disk copy: written through on every upstream load, read on startup and during outages
+    private final ForecastSnapshotStore snapshotStore;
+    private volatile long warmupMillis = -1;
+    private volatile int warmedEntries;
+
+    // Notified of every upstream load, e.g. to push the new forecast to subscribed clients
+    private final ApplicationEventPublisher eventPublisher;
+
+    public WeatherCache(WeatherCacheProperties properties) {
+        this(properties, null);
+    }
+
+    public WeatherCache(WeatherCacheProperties properties, ForecastSnapshotStore snapshotStore) {
+        this(properties, snapshotStore, null);
+    }
+
+    @Autowired
+    public WeatherCache(WeatherCacheProperties properties, ForecastSnapshotStore snapshotStore,
+                        ApplicationEventPublisher eventPublisher) {
+        this.properties = properties;
+        this.snapshotStore = snapshotStore;
+        this.eventPublisher = eventPublisher;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfter(new PerTypeExpiry(properties))
+                .recordStats()
+                .build();
+        this.hotKeys = Caffeine.newBuilder()
+                .maximumSize(properties.getHotKeys())
+                .expireAfterAccess(Duration.ofHours(1))
+                .build();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        int threads = Math.max(1, properties.getRefreshConcurrency());
+        this.refreshExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(1_000), r -> {
+                    Thread t = new Thread(r, "weather-refresh-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        log.info("Weather cache initialised (enabled={}, grid={}°, maxSize={}, staleWhileRevalidate={})",
+                properties.isEnabled(), properties.getGridResolution(), properties.getMaximumSize(),
+                properties.getStaleWhileRevalidate());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Load the persisted snapshots into memory once the application is up, so the first requests after
+     * a restart are cache hits (stale ones are revalidated in the background as usual)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmFromStore() {
+        if (!properties.isEnabled() || snapshotStore == null || !snapshotStore.isOpen()) return;
+
+        long start = System.nanoTime();
+        warmedEntries = snapshotStore.forEach((key, snapshot) -> {
+            // Past the stale window the forecast is only good as a last known value
+            boolean outdated = snapshot.age().compareTo(lifetime(key)) > 0;
+            cache.asMap().putIfAbsent(key, outdated ? snapshot.asFallback() : snapshot);
+        });
+        warmupMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Weather cache warmed with {} persisted forecasts in {} ms", warmedEntries, warmupMillis);
+    }
+
+    /**
+     * Snap coordinates to the configured forecast grid
+     */
+    public GridCell snap(double latitude, double longitude) {
+        return GridCell.snap(latitude, longitude, properties.getGridResolution());
+    }
+
+    public ForecastSnapshot get(WeatherCacheKey key) {
+        if (!properties.isEnabled()) return null;
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Look up an entry without touching hit/miss statistics or access order
+     */
+    public ForecastSnapshot peek(WeatherCacheKey key) {
+        if (!properties.isEnabled()) return null;
+        return cache.policy().getIfPresentQuietly(key);
+    }
+
+    public void put(WeatherCacheKey key, ForecastSnapshot snapshot) {
+        if (!properties.isEnabled()) return;
+        cache.put(key, snapshot);
+    }
+
+    /**
+     * Whether the snapshot is still within its TTL (as opposed to being served stale)
+     */
+    public boolean isFresh(WeatherCacheKey key, ForecastSnapshot snapshot) {
+        return snapshot.age().compareTo(properties.ttlFor(key.type())) < 0;
+    }
+
+    /**
+     * Return the cached forecast for the key, or load it once on behalf of every concurrent caller.
+     * A stale entry is returned immediately and refreshed in the background.
+     */
+    public ForecastSnapshot getOrLoad(WeatherCacheKey key, Supplier<WeatherResponse> loader) {
+        trackHit(key, loader);
+        ForecastSnapshot snapshot = get(key);
+        if (snapshot != null) {
+            if (!isFresh(key, snapshot)) {
+                staleServed.increment();
+                refreshAsync(key, loader);
+            }
+            return snapshot;
+        }
+
+        return load(key, loader);
+    }
+
+    private ForecastSnapshot load(WeatherCacheKey key, Supplier<WeatherResponse> loader) {
+        return singleFlight.execute(key, () -> {
+            // Another flight may have refreshed the entry between our lookup and joining
+            ForecastSnapshot loaded = properties.isEnabled() ? cache.policy().getIfPresentQuietly(key) : null;
+            if (loaded != null && isFresh(key, loaded)) {
+                return loaded;
+            }
+            WeatherResponse response;
+            try {
+                response = loader.get();
+            } catch (RuntimeException e) {
+                ForecastSnapshot last = fallback(key);
+                if (last == null) throw e;
+                log.warn("Upstream unavailable for {} ({}); serving last known forecast from {}",
+                        key, e.getMessage(), last.fetchedAt());
+                return last;
+            }
+            if (response == null) {
+                return null;
+            }
+            loaded = new ForecastSnapshot(response, Instant.now());
+            store(key, loaded);
+            return loaded;
+        });
+    }
+
+    /**
+     * Batch variant of {@link #getOrLoad}: cached keys are served directly (stale ones are refreshed in the
+     * background), keys already being loaded are joined, and the remaining misses are passed to the loader
+     * in a single call. Keys that could not be loaded are absent from the result.
+     */
+    public Map<WeatherCacheKey, ForecastSnapshot> getOrLoadAll(
+            Collection<WeatherCacheKey> keys,
+            Function<List<WeatherCacheKey>, Map<WeatherCacheKey, WeatherResponse>> loader) {
+        Map<WeatherCacheKey, ForecastSnapshot> result = new HashMap<>();
+        List<WeatherCacheKey> misses = new ArrayList<>();
+        List<WeatherCacheKey> stale = new ArrayList<>();
+        for (WeatherCacheKey key : keys) {
+            ForecastSnapshot snapshot = get(key);
+            if (snapshot == null) {
+                misses.add(key);
+                continue;
+            }
+            result.put(key, snapshot);
+            if (!isFresh(key, snapshot)) stale.add(key);
+        }
+        if (!stale.isEmpty()) {
+            staleServed.add(stale.size());
+            refreshAllAsync(stale, loader);
+        }
+        if (misses.isEmpty()) return result;
+
+        result.putAll(loadAll(misses, loader));
+        return result;
+    }
+
+    /**
+     * Reload the given keys now, whether or not they are cached, and return what could be loaded
+     */
+    public Map<WeatherCacheKey, ForecastSnapshot> refreshAll(
+            Collection<WeatherCacheKey> keys,
+            Function<List<WeatherCacheKey>, Map<WeatherCacheKey, WeatherResponse>> loader) {
+        if (keys.isEmpty()) return Map.of();
+        return loadAll(keys, loader);
+    }
+
+    private Map<WeatherCacheKey, ForecastSnapshot> loadAll(
+            Collection<WeatherCacheKey> keys,
+            Function<List<WeatherCacheKey>, Map<WeatherCacheKey, WeatherResponse>> loader) {
+        return singleFlight.executeAll(keys, claimed -> {
+            Map<WeatherCacheKey, ForecastSnapshot> loaded = new HashMap<>();
+            Instant now = Instant.now();
+            Map<WeatherCacheKey, WeatherResponse> responses;
+            try {
+                responses = loader.apply(claimed);
+            } catch (RuntimeException e) {
+                log.warn("Upstream batch load of {} keys failed: {}", claimed.size(), e.getMessage());
+                responses = Map.of();
+            }
+            responses.forEach((key, response) -> {
+                if (response == null) return;
+                ForecastSnapshot snapshot = new ForecastSnapshot(response, now);
+                store(key, snapshot);
+                loaded.put(key, snapshot);
+            });
+
+            // Whatever could not be fetched falls back to its last known forecast, if any
+            for (WeatherCacheKey key : claimed) {
+                if (loaded.containsKey(key)) continue;
+                ForecastSnapshot last = fallback(key);
+                if (last != null) loaded.put(key, last);
+            }
+            return loaded;
+        });
+    }
+
+    private void store(WeatherCacheKey key, ForecastSnapshot snapshot) {
+        put(key, snapshot);
+        if (snapshotStore != null) snapshotStore.save(key, snapshot);
+        if (eventPublisher != null) eventPublisher.publishEvent(new ForecastRefreshedEvent(key, snapshot));
+    }
+
+    /**
+     * Last known forecast for a key whose upstream load failed: the entry still in memory if there is one,
+     * otherwise the persisted snapshot. It is cached again as a fallback so an outage is not retried on
+     * every request; each access schedules a background refresh until upstream recovers.
+     */
+    private ForecastSnapshot fallback(WeatherCacheKey key) {
+        ForecastSnapshot last = peek(key);
+        if (last == null && snapshotStore != null) last = snapshotStore.load(key);
+        if (last == null) return null;
+
+        ForecastSnapshot degraded = last.asFallback();
+        put(key, degraded);
+        fallbackServed.increment();
+        return degraded;
+    }
+
+    private void refreshAsync(WeatherCacheKey key, Supplier<WeatherResponse> loader) {
+        if (!refreshing.add(key)) return;
+        submitRefresh(List.of(key), () -> load(key, loader));
+    }
+
+    private void refreshAllAsync(List<WeatherCacheKey> keys,
+                                 Function<List<WeatherCacheKey>, Map<WeatherCacheKey, WeatherResponse>> loader) {
+        List<WeatherCacheKey> claimed = keys.stream().filter(refreshing::add).toList();
+        if (claimed.isEmpty()) return;
+        submitRefresh(claimed, () -> loadAll(claimed, loader));
+    }
+
+    private void submitRefresh(List<WeatherCacheKey> keys, Runnable refresh) {
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresh.run();
+                    refreshes.add(keys.size());
+                } catch (Exception e) {
+                    refreshFailures.add(keys.size());
+                    log.warn("Background refresh of {} weather cache entries failed: {}", keys.size(), e.getMessage());
+                } finally {
+                    keys.forEach(refreshing::remove);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            keys.forEach(refreshing::remove);
+        }
+    }
+
+    private void trackHit(WeatherCacheKey key, Supplier<WeatherResponse> loader) {
+        if (!properties.isEnabled()) return;
+        hotKeys.get(key, k -> new HotKey(loader, new LongAdder())).hits().increment();
+    }
+
+    /**
+     * Refresh-ahead for recent traffic: of the most-requested keys, refresh in the background those that
+     * are missing or expire within the given window, so their next request is still a fresh hit.
+     * Request counts are halved afterwards so the ranking follows recent traffic.
+     *
+     * @return number of refreshes submitted
+     */
+    public int refreshAhead(int limit, Duration window) {
+        if (!properties.isEnabled()) return 0;
+
+        Instant horizon = Instant.now().plus(window);
+        List<Map.Entry<WeatherCacheKey, Long>> ranked = new ArrayList<>();
+        hotKeys.asMap().forEach((key, hot) -> {
+            long hits = hot.hits().sumThenReset();
+            hot.hits().add(hits / 2);
+            if (hits > 0) ranked.add(Map.entry(key, hits));
+        });
+        ranked.sort(Map.Entry.<WeatherCacheKey, Long>comparingByValue().reversed());
+
+        int submitted = 0;
+        for (Map.Entry<WeatherCacheKey, Long> entry : ranked.subList(0, Math.min(limit, ranked.size()))) {
+            WeatherCacheKey key = entry.getKey();
+            ForecastSnapshot snapshot = peek(key);
+            if (snapshot != null && expiresAt(key, snapshot).isAfter(horizon)) continue;
+
+            HotKey hot = hotKeys.getIfPresent(key);
+            if (hot != null && !refreshing.contains(key)) {
+                refreshAsync(key, hot.loader());
+                submitted++;
+            }
+        }
+        return submitted;
+    }
+
+    /**
+     * When the cache entry holding the snapshot expires
+     */
+    public Instant expiresAt(WeatherCacheKey key, ForecastSnapshot snapshot) {
+        return snapshot.fetchedAt().plus(properties.ttlFor(key.type()));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Hit/miss/eviction counters since startup
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", properties.isEnabled());
+        result.put("size", cache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("coalescedCount", singleFlight.coalescedCount());
+        result.put("inFlight", singleFlight.inFlightCount());
+        result.put("staleServed", staleServed.sum());
+        result.put("backgroundRefreshes", refreshes.sum());
+        result.put("backgroundRefreshFailures", refreshFailures.sum());
+        result.put("hotKeys", hotKeys.estimatedSize());
+        result.put("fallbackServed", fallbackServed.sum());
+        if (snapshotStore != null) {
+            Map<String, Object> store = new LinkedHashMap<>(snapshotStore.stats());
+            store.put("warmedEntries", warmedEntries);
+            store.put("warmupMillis", warmupMillis);
+            result.put("snapshotStore", store);
+        }
+        return result;
+    }
+
+    private Duration lifetime(WeatherCacheKey key) {
+        return properties.ttlFor(key.type()).plus(properties.getStaleWhileRevalidate());
+    }
+
+    private record HotKey(Supplier<WeatherResponse> loader, LongAdder hits) {
+    }
+
+    // Entries stay in the cache for their TTL plus the stale-while-revalidate grace period
+    private record PerTypeExpiry(WeatherCacheProperties properties) implements Expiry<WeatherCacheKey, ForecastSnapshot> {
+
+        @Override
+        public long expireAfterCreate(WeatherCacheKey key, ForecastSnapshot value, long currentTime) {
+            return lifetime(key);
+        }
+
+        @Override
+        public long expireAfterUpdate(WeatherCacheKey key, ForecastSnapshot value, long currentTime, long currentDuration) {
+            return lifetime(key);
+        }
+
+        private long lifetime(WeatherCacheKey key) {
+            return properties.ttlFor(key.type()).plus(properties.getStaleWhileRevalidate()).toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(WeatherCacheKey key, ForecastSnapshot value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
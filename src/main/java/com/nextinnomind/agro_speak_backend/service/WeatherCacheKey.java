@@ -0,0 +1,16 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+/**
+ * Cache key for a forecast: the data type, the snapped grid cell and the
+ * remaining query parameters that change the upstream response.
+ * <p>
+ * Keys hold no dates: the loaders of popular keys are kept and re-run for refresh-ahead, so a key (and its
+ * loader) naming a day would keep fetching that day after it has passed. Date windows are relative
+ * (e.g. forecast_days) and cut to the cell's local date when served.
+ */
+public record WeatherCacheKey(WeatherDataType type, GridCell cell, String params) {
+
+    public static WeatherCacheKey of(WeatherDataType type, GridCell cell) {
+        return new WeatherCacheKey(type, cell, "");
+    }
+}
@@ -0,0 +1,15 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+/**
+ * Kinds of Open-Meteo data the weather cache distinguishes, each with its own TTL
+ */
+public enum WeatherDataType {
+    CURRENT,
+    HOURLY,
+    DAILY,
+    SOIL,
+    /** Combined current conditions + 24h hourly series used by the alert scheduler */
+    ALERT,
+    /** Combined current/hourly/daily/soil query behind the farm dashboard endpoint */
+    DASHBOARD
+}
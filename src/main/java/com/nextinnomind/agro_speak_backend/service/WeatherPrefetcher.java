@@ -0,0 +1,122 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.nextinnomind.agro_speak_backend.dto.AlertSubscriber;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the weather cache warm so foreground requests rarely wait on Open-Meteo:
+ * <ul>
+ *   <li>the most-requested cache keys are refreshed shortly before they expire (refresh-ahead);</li>
+ *   <li>shortly before the alert cron fires, every subscriber's grid cell is fetched so the alert
+ *       run evaluates fresh forecasts straight from the cache.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WeatherPrefetcher {
+
+    private final WeatherCache weatherCache;
+    private final WeatherService weatherService;
+    private final AlertSubscriberIndex subscriberIndex;
+    private final AlertRuleEngine ruleEngine;
+    private final AlertShardManager shardManager;
+
+    @Value("${weather.prefetch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${weather.prefetch.hot-key-limit:200}")
+    private int hotKeyLimit;
+
+    @Value("${weather.prefetch.refresh-ahead:2m}")
+    private Duration refreshAhead;
+
+    @Value("${weather.prefetch.alert-lead:3m}")
+    private Duration alertLead;
+
+    @Value("${weather.alerts.enabled:true}")
+    private boolean alertsEnabled;
+
+    @Value("${weather.alerts.cron:0 0 * * * *}")
+    private String alertCron;
+
+    @Value("${weather.alerts.page-size:500}")
+    private int pageSize;
+
+    // Alert run the subscriber cells were last warmed for, so each run is warmed once
+    private volatile LocalDateTime warmedFor;
+
+    @Scheduled(fixedDelayString = "${weather.prefetch.interval:1m}", initialDelayString = "${weather.prefetch.interval:1m}")
+    public void prefetch() {
+        if (!enabled) return;
+
+        try {
+            int refreshed = weatherCache.refreshAhead(hotKeyLimit, refreshAhead);
+            if (refreshed > 0) {
+                log.debug("Refresh-ahead submitted for {} hot weather cache keys", refreshed);
+            }
+        } catch (Exception e) {
+            log.warn("Hot key refresh-ahead failed: {}", e.getMessage(), e);
+        }
+
+        if (!alertsEnabled) return;
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime nextRun = CronExpression.parse(alertCron).next(now);
+        if (nextRun == null || nextRun.equals(warmedFor)) return;
+        if (Duration.between(now, nextRun).compareTo(alertLead) > 0) return;
+
+        warmedFor = nextRun;
+        try {
+            warmAlertCells(nextRun);
+        } catch (Exception e) {
+            log.warn("Warming alert cells for the {} run failed: {}", nextRun, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Fetch every subscriber cell (of the shards this instance holds) whose cached alert forecast
+     * would no longer be fresh at the next run
+     */
+    private void warmAlertCells(LocalDateTime nextRun) {
+        long start = System.nanoTime();
+        Instant freshUntil = nextRun.atZone(ZoneId.systemDefault()).toInstant();
+        String hourlyVariables = ruleEngine.hourlyVariables();
+
+        int cells = 0;
+        int fetched = 0;
+        Set<GridCell> seen = new HashSet<>();
+        subscriberIndex.assignUnassigned();
+        long afterId = 0;
+        List<AlertSubscriber> page;
+        do {
+            page = subscriberIndex.page(afterId, pageSize);
+            if (page.isEmpty()) break;
+
+            Set<GridCell> pageCells = new HashSet<>();
+            for (AlertSubscriber u : page) {
+                GridCell cell = weatherService.gridCellFor(u.getLatitude(), u.getLongitude());
+                if (shardManager.owns(cell) && seen.add(cell)) pageCells.add(cell);
+            }
+            cells += pageCells.size();
+            fetched += weatherService.prefetchAlertForecasts(pageCells, hourlyVariables, freshUntil);
+
+            afterId = page.get(page.size() - 1).getId();
+        } while (page.size() == pageSize);
+
+        log.info("Warmed alert forecasts for the {} run: {} cells, {} fetched upstream in {} ms",
+                nextRun, cells, fetched, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,645 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nextinnomind.agro_speak_backend.config.WeatherPushProperties;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+import jakarta.annotation.PreDestroy;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.net.SocketTimeoutException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes forecast updates and alert events to WebSocket clients subscribed to grid cells, so they do not
+ * have to poll the weather endpoints.
+ * <p>
+ * Subscriptions are indexed by grid cell: every upstream reload the weather cache publishes for a cell is
+ * serialized once and fanned out to all connections watching it. The forecasts of subscribed cells are
+ * checked here periodically on a small pool of loader threads; each check is normally a cache hit, and a
+ * stale entry is refreshed in the background as usual, which in turn triggers the push. The number of
+ * cells watched across all connections is capped, since the endpoint is open to anonymous clients and
+ * every watched cell costs upstream requests. For {@link WeatherDataType#ALERT} subscriptions the
+ * alert rules are evaluated on each refreshed alert forecast and the hazards are pushed when they change.
+ * <p>
+ * Each connection has its own bounded queue: while a send to it is in progress further messages wait there,
+ * up to a byte limit beyond which the oldest are dropped. Sends go through the container's non-blocking
+ * WebSocket API, so no thread waits on a client; a client that does not take a message within the send
+ * time limit is disconnected. Slow clients therefore cannot hold up the sender threads or the fan-out to
+ * the others. Only sessions without a standard native session (not the case on the embedded Tomcat) fall
+ * back to sending on a sender thread.
+ */
+@Slf4j
+@Component
+public class WeatherPushHub {
+
+    public static final Set<WeatherDataType> PUSHABLE = EnumSet.of(
+            WeatherDataType.CURRENT, WeatherDataType.HOURLY, WeatherDataType.DAILY, WeatherDataType.SOIL,
+            WeatherDataType.ALERT);
+    public static final Set<WeatherDataType> DEFAULT_TYPES = EnumSet.of(
+            WeatherDataType.CURRENT, WeatherDataType.HOURLY, WeatherDataType.ALERT);
+
+    private final WeatherService weatherService;
+    private final WeatherCache weatherCache;
+    private final AlertRuleEngine ruleEngine;
+    private final WeatherPushProperties properties;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Client> clients = new ConcurrentHashMap<>();
+    private final Map<GridCell, Channel> channels = new ConcurrentHashMap<>();
+
+    private final ThreadPoolExecutor senders;
+    // Forecast loads for new subscribers and periodic checks, which may wait on Open-Meteo
+    private final ThreadPoolExecutor loaders;
+    private final ScheduledExecutorService refresher;
+
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder messagesRejected = new LongAdder();
+    private final LongAdder messagesDropped = new LongAdder();
+    private final LongAdder slowClientsClosed = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder refreshesSkipped = new LongAdder();
+    private final LongAdder cellsRejected = new LongAdder();
+
+    public WeatherPushHub(WeatherService weatherService, WeatherCache weatherCache, AlertRuleEngine ruleEngine,
+                          WeatherPushProperties properties, ObjectMapper objectMapper) {
+        this.weatherService = weatherService;
+        this.weatherCache = weatherCache;
+        this.ruleEngine = ruleEngine;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        int threads = Math.max(1, properties.getSenders());
+        this.senders = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(100_000), r -> {
+                    Thread t = new Thread(r, "weather-push-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        AtomicInteger loaderCount = new AtomicInteger();
+        int loaderThreads = Math.max(1, properties.getLoaders());
+        this.loaders = new ThreadPoolExecutor(loaderThreads, loaderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(10_000), r -> {
+                    Thread t = new Thread(r, "weather-push-load-" + loaderCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "weather-push-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Own thread rather than @Scheduled, so a long alert run on the Spring scheduler does not hold back pushes
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) return;
+        long interval = properties.getRefreshInterval().toMillis();
+        refresher.scheduleWithFixedDelay(this::refreshSubscribed, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+        loaders.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    /**
+     * Register a new connection
+     *
+     * @return false if this instance already has the maximum number of connections
+     */
+    public boolean connect(WebSocketSession session) {
+        if (clients.size() >= properties.getMaxSessions()) return false;
+        clients.put(session.getId(), new Client(session, asyncRemote(session)));
+        return true;
+    }
+
+    /**
+     * Drop a connection and all its subscriptions
+     */
+    public void disconnect(String sessionId) {
+        Client client = clients.get(sessionId);
+        if (client != null) disconnect(client);
+    }
+
+    /**
+     * Drop the connection from every channel. The client is marked closed first, so a subscription racing
+     * with this either is seen here or sees the mark and does not join its channel.
+     */
+    private void disconnect(Client client) {
+        client.closed = true;
+        clients.remove(client.session.getId(), client);
+        client.subscriptions.keySet().forEach(cell -> leave(cell, client));
+    }
+
+    /**
+     * Subscribe a connection to the grid cell of the given coordinates. The subscription is acknowledged
+     * and the cell's current forecasts are sent right away; later updates follow whenever they are refreshed.
+     *
+     * @return the subscribed cell
+     */
+    public GridCell subscribe(String sessionId, double latitude, double longitude, Set<WeatherDataType> types) {
+        Client client = clients.get(sessionId);
+        if (client == null) throw new IllegalStateException("Connection is closed");
+        Set<WeatherDataType> requested = types == null || types.isEmpty() ? DEFAULT_TYPES : EnumSet.copyOf(types);
+        if (!PUSHABLE.containsAll(requested)) {
+            throw new IllegalArgumentException("Supported types are " + PUSHABLE);
+        }
+        GridCell cell = weatherService.gridCellFor(latitude, longitude);
+        if (!client.subscriptions.containsKey(cell)
+                && client.subscriptions.size() >= properties.getMaxSubscriptionsPerSession()) {
+            throw new IllegalArgumentException("At most " + properties.getMaxSubscriptionsPerSession()
+                    + " locations per connection");
+        }
+
+        Set<WeatherDataType> previous = client.subscriptions.put(cell, Set.copyOf(requested));
+        Channel channel;
+        try {
+            channel = channels.compute(cell, (c, existing) -> {
+                if (client.closed) return existing;
+                if (existing == null && channels.size() >= properties.getMaxCells()) {
+                    cellsRejected.increment();
+                    throw new IllegalStateException("Too many locations are being watched; try again later");
+                }
+                Channel ch = existing != null ? existing : new Channel(c);
+                ch.clients.add(client);
+                return ch;
+            });
+        } catch (IllegalStateException e) {
+            if (previous == null) client.subscriptions.remove(cell);
+            throw e;
+        }
+        if (client.closed || channel == null) throw new IllegalStateException("Connection is closed");
+        load(() -> sendInitial(cell, channel, client, requested));
+        return cell;
+    }
+
+    /**
+     * Remove a connection's subscription to the grid cell of the given coordinates
+     *
+     * @return the cell, or null if the connection was not subscribed to it
+     */
+    public GridCell unsubscribe(String sessionId, double latitude, double longitude) {
+        Client client = clients.get(sessionId);
+        if (client == null) return null;
+        GridCell cell = weatherService.gridCellFor(latitude, longitude);
+        if (client.subscriptions.remove(cell) == null) return null;
+        leave(cell, client);
+        return cell;
+    }
+
+    private void leave(GridCell cell, Client client) {
+        channels.computeIfPresent(cell, (c, channel) -> {
+            channel.clients.remove(client);
+            return channel.clients.isEmpty() ? null : channel;
+        });
+    }
+
+    /**
+     * Fan a forecast reloaded by the weather cache out to the cell's subscribers. Runs on the thread that
+     * loaded it, so only the lookup happens here; serializing and sending are handed to the sender threads.
+     */
+    @EventListener
+    public void onForecastRefreshed(ForecastRefreshedEvent event) {
+        WeatherCacheKey key = event.key();
+        Channel channel = channels.get(key.cell());
+        // Only the variant kept fresh here is pushed, not e.g. a 7-day hourly series someone else requested
+        if (channel == null || !key.equals(channel.keys.get(key.type()))) return;
+        if (channel.claim(key.type(), event.snapshot())) {
+            submit(() -> broadcast(key.cell(), key.type(), channel, event.snapshot(), null));
+        }
+    }
+
+    /**
+     * Check the forecasts of every subscribed cell on the loader threads. A stale one is refreshed in the
+     * background by the cache (and pushed through {@link #onForecastRefreshed}); one that had expired
+     * altogether is reloaded. A cell whose previous check is still running is left for the next round.
+     */
+    public void refreshSubscribed() {
+        channels.forEach((cell, channel) -> {
+            if (!channel.checking.compareAndSet(false, true)) {
+                refreshesSkipped.increment();
+                return;
+            }
+            boolean submitted = load(() -> {
+                try {
+                    check(cell, channel);
+                } finally {
+                    channel.checking.set(false);
+                }
+            });
+            if (!submitted) {
+                channel.checking.set(false);
+                refreshesSkipped.increment();
+            }
+        });
+    }
+
+    private void check(GridCell cell, Channel channel) {
+        for (WeatherDataType type : channel.types()) {
+            try {
+                ForecastSnapshot snapshot = load(cell, type, channel);
+                // A reload done by this call was published before the channel knew its key
+                if (snapshot != null && channel.claim(type, snapshot)) {
+                    submit(() -> broadcast(cell, type, channel, snapshot, null));
+                }
+            } catch (Exception e) {
+                refreshFailures.increment();
+                log.warn("Refreshing {} forecast of subscribed cell {} failed: {}", type, cell.id(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Load a cell's forecast of the given type through the weather service, the same way the matching
+     * endpoint does with its default parameters, and remember the cache key it is stored under
+     */
+    private ForecastSnapshot load(GridCell cell, WeatherDataType type, Channel channel) {
+        if (type == WeatherDataType.ALERT) {
+            String hourlyVariables = ruleEngine.hourlyVariables();
+            WeatherResponse response = weatherService.getAlertForecast(cell, hourlyVariables);
+            return snapshotOf(WeatherService.alertKey(cell, hourlyVariables), response, null, channel);
+        }
+        CachedForecast forecast = weatherService.getCellForecastCached(cell, type);
+        if (forecast == null) return null;
+        return snapshotOf(forecast.key(), forecast.response(), forecast, channel);
+    }
+
+    // The full cached forecast, as pushed on refresh, rather than the endpoint's window of it
+    private ForecastSnapshot snapshotOf(WeatherCacheKey key, WeatherResponse response, CachedForecast forecast,
+                                        Channel channel) {
+        channel.keys.put(key.type(), key);
+        ForecastSnapshot cached = weatherCache.peek(key);
+        if (cached != null) return cached;
+        if (response == null) return null;
+        return forecast != null
+                ? new ForecastSnapshot(response, forecast.fetchedAt(), forecast.degraded())
+                : new ForecastSnapshot(response, Instant.now());
+    }
+
+    private void sendInitial(GridCell cell, Channel channel, Client client, Set<WeatherDataType> types) {
+        Map<String, Object> ack = new LinkedHashMap<>();
+        ack.put("event", "subscribed");
+        ack.put("cell", cell.id());
+        ack.put("latitude", cell.latitude());
+        ack.put("longitude", cell.longitude());
+        ack.put("types", types);
+        reply(client, ack);
+
+        for (WeatherDataType type : types) {
+            try {
+                ForecastSnapshot snapshot = load(cell, type, channel);
+                if (snapshot == null) continue;
+                send(client, message(cell, type, snapshot, true));
+                if (channel.claim(type, snapshot, false)) {
+                    // Newer than what the other subscribers have seen, so they get it too
+                    broadcast(cell, type, channel, snapshot, client);
+                }
+            } catch (Exception e) {
+                refreshFailures.increment();
+                log.warn("Loading {} forecast for new subscriber of cell {} failed: {}", type, cell.id(), e.getMessage());
+            }
+        }
+    }
+
+    private void broadcast(GridCell cell, WeatherDataType type, Channel channel, ForecastSnapshot snapshot,
+                           Client except) {
+        TextMessage message;
+        try {
+            message = message(cell, type, snapshot, false);
+        } catch (Exception e) {
+            log.warn("Could not serialize {} update for cell {}: {}", type, cell.id(), e.getMessage());
+            return;
+        }
+        if (message == null) return;
+        for (Client client : channel.clients) {
+            Set<WeatherDataType> types = client.subscriptions.get(cell);
+            if (client != except && types != null && types.contains(type)) {
+                submit(() -> send(client, message));
+            }
+        }
+    }
+
+    /**
+     * Message for a forecast update, or for ALERT the hazards its forecast raises. Alerts are only sent when
+     * the hazards differ from the last ones pushed for the cell, unless requested for a new subscriber.
+     */
+    private TextMessage message(GridCell cell, WeatherDataType type, ForecastSnapshot snapshot, boolean always)
+            throws JsonProcessingException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("cell", cell.id());
+        body.put("latitude", cell.latitude());
+        body.put("longitude", cell.longitude());
+        body.put("fetchedAt", snapshot.fetchedAt().toString());
+        body.put("degraded", snapshot.fallback());
+        if (type == WeatherDataType.ALERT) {
+            List<AlertHazard> hazards = ruleEngine.evaluate(cell, snapshot.response(), Instant.now().getEpochSecond());
+            Channel channel = channels.get(cell);
+            if (!always && channel != null && !channel.hazardsChanged(hazards)) return null;
+            body.put("event", "alert");
+            body.put("hazards", hazards);
+        } else {
+            body.put("event", "forecast");
+            body.put("type", type);
+            body.put("forecast", snapshot.response());
+        }
+        return new TextMessage(objectMapper.writeValueAsString(body));
+    }
+
+    /**
+     * Send a control message (acknowledgement or error) to one connection
+     */
+    public void reply(String sessionId, Map<String, Object> body) {
+        Client client = clients.get(sessionId);
+        if (client != null) submit(() -> reply(client, body));
+    }
+
+    private void reply(Client client, Map<String, Object> body) {
+        try {
+            send(client, new TextMessage(objectMapper.writeValueAsString(body)));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize push reply: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Queue a message for a connection and start sending if nothing is in flight for it. Over the buffer
+     * limit the oldest queued messages are dropped; a connection whose send has been in flight for longer
+     * than the send time limit is closed.
+     */
+    private void send(Client client, TextMessage message) {
+        TextMessage next;
+        boolean stalled = false;
+        synchronized (client) {
+            client.queue.addLast(message);
+            client.queuedBytes += message.getPayloadLength();
+            while (client.queuedBytes > properties.getBufferSizeLimit() && client.queue.size() > 1) {
+                client.queuedBytes -= client.queue.removeFirst().getPayloadLength();
+                messagesDropped.increment();
+            }
+            if (client.sending) {
+                stalled = System.nanoTime() - client.sendingSince > properties.getSendTimeLimit().toNanos();
+                next = null;
+            } else {
+                client.sending = true;
+                next = client.poll();
+            }
+        }
+        if (stalled) {
+            closeSlow(client);
+        } else if (next != null) {
+            drain(client, next);
+        }
+    }
+
+    /**
+     * Send the connection's queued messages, starting with the given one, until its queue is empty. An
+     * asynchronous send returns at once; its completion continues with the next message.
+     */
+    private void drain(Client client, TextMessage message) {
+        WebSocketSession session = client.session;
+        while (message != null) {
+            if (!session.isOpen()) {
+                disconnect(client);
+                return;
+            }
+            if (client.async != null) {
+                sendAsync(client, message);
+                return;
+            }
+            try {
+                session.sendMessage(message);
+                messagesSent.increment();
+            } catch (Exception e) {
+                failed(client, e);
+                return;
+            }
+            synchronized (client) {
+                message = client.poll();
+            }
+        }
+    }
+
+    private void sendAsync(Client client, TextMessage message) {
+        synchronized (client) {
+            client.sendingSince = System.nanoTime();
+        }
+        try {
+            client.async.sendText(message.getPayload(), result -> completed(client, result));
+        } catch (Exception e) {
+            failed(client, e);
+        }
+    }
+
+    private void completed(Client client, SendResult result) {
+        if (!result.isOK()) {
+            if (result.getException() instanceof SocketTimeoutException) closeSlow(client);
+            else failed(client, result.getException());
+            return;
+        }
+        messagesSent.increment();
+        TextMessage next;
+        synchronized (client) {
+            next = client.poll();
+        }
+        if (next == null) return;
+        // Continue on a sender thread rather than on the container thread that completed the send
+        try {
+            senders.execute(() -> drain(client, next));
+        } catch (RejectedExecutionException e) {
+            drain(client, next);
+        }
+    }
+
+    private void closeSlow(Client client) {
+        slowClientsClosed.increment();
+        log.debug("Closing slow push connection {}", client.session.getId());
+        disconnect(client);
+        closeQuietly(client.session, CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    private void failed(Client client, Throwable e) {
+        log.debug("Push to connection {} failed: {}", client.session.getId(), e != null ? e.getMessage() : null);
+        disconnect(client);
+        closeQuietly(client.session, CloseStatus.SERVER_ERROR);
+    }
+
+    // The standard session's non-blocking endpoint, with the send time limit as its timeout
+    private RemoteEndpoint.Async asyncRemote(WebSocketSession session) {
+        if (!(session instanceof NativeWebSocketSession nativeSession)) return null;
+        jakarta.websocket.Session standard = nativeSession.getNativeSession(jakarta.websocket.Session.class);
+        if (standard == null) return null;
+        RemoteEndpoint.Async async = standard.getAsyncRemote();
+        async.setSendTimeout(properties.getSendTimeLimit().toMillis());
+        return async;
+    }
+
+    // Queue a task that may block on a forecast load; false if the loader queue is full
+    private boolean load(Runnable task) {
+        try {
+            loaders.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            senders.execute(task);
+        } catch (RejectedExecutionException e) {
+            messagesRejected.increment();
+        }
+    }
+
+    private static void closeQuietly(WebSocketSession session, CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (Exception ignored) {
+            // Already gone
+        }
+    }
+
+    /**
+     * Connection, subscription and delivery counters of this instance
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", properties.isEnabled());
+        result.put("connections", clients.size());
+        result.put("subscribedCells", channels.size());
+        result.put("subscriptions", clients.values().stream().mapToInt(c -> c.subscriptions.size()).sum());
+        result.put("messagesSent", messagesSent.sum());
+        result.put("messagesRejected", messagesRejected.sum());
+        result.put("messagesDropped", messagesDropped.sum());
+        result.put("slowClientsClosed", slowClientsClosed.sum());
+        result.put("pendingSends", senders.getQueue().size());
+        result.put("pendingLoads", loaders.getQueue().size());
+        result.put("refreshFailures", refreshFailures.sum());
+        result.put("refreshesSkipped", refreshesSkipped.sum());
+        result.put("cellsRejected", cellsRejected.sum());
+        return result;
+    }
+
+    private static final class Client {
+        final WebSocketSession session;
+        // Null when the session offers no non-blocking sends
+        final RemoteEndpoint.Async async;
+        // Subscribed cells with the data types wanted for each
+        final Map<GridCell, Set<WeatherDataType>> subscriptions = new ConcurrentHashMap<>();
+        // Set once the connection is dropped; checked when joining a channel
+        volatile boolean closed;
+
+        // Messages waiting while one is in flight; guarded by the client's monitor
+        private final Deque<TextMessage> queue = new ArrayDeque<>();
+        private int queuedBytes;
+        private boolean sending;
+        private long sendingSince;
+
+        Client(WebSocketSession session, RemoteEndpoint.Async async) {
+            this.session = session;
+            this.async = async;
+        }
+
+        /**
+         * The next queued message, or null after marking the connection idle
+         */
+        TextMessage poll() {
+            TextMessage next = queue.pollFirst();
+            if (next == null) {
+                sending = false;
+            } else {
+                queuedBytes -= next.getPayloadLength();
+                sendingSince = System.nanoTime();
+            }
+            return next;
+        }
+    }
+
+    /**
+     * Subscribers of one grid cell, with the cache key kept fresh and the forecast last pushed per data type
+     */
+    private static final class Channel {
+        final GridCell cell;
+        final Set<Client> clients = ConcurrentHashMap.newKeySet();
+        final Map<WeatherDataType, WeatherCacheKey> keys = new ConcurrentHashMap<>();
+        // Set while a periodic check of the cell is queued or running
+        final AtomicBoolean checking = new AtomicBoolean();
+        private final Map<WeatherDataType, Instant> pushedAt = new EnumMap<>(WeatherDataType.class);
+        private String hazards = "";
+
+        Channel(GridCell cell) {
+            this.cell = cell;
+        }
+
+        /**
+         * Data types wanted by at least one subscriber
+         */
+        Set<WeatherDataType> types() {
+            Set<WeatherDataType> types = EnumSet.noneOf(WeatherDataType.class);
+            clients.forEach(client -> {
+                Set<WeatherDataType> wanted = client.subscriptions.get(cell);
+                if (wanted != null) types.addAll(wanted);
+            });
+            return types;
+        }
+
+        /**
+         * Whether the snapshot is newer than the last one pushed for its type; if so it is recorded as pushed
+         */
+        boolean claim(WeatherDataType type, ForecastSnapshot snapshot) {
+            return claim(type, snapshot, true);
+        }
+
+        /**
+         * @param firstCounts whether a snapshot is to be broadcast when nothing was pushed for its type yet
+         */
+        synchronized boolean claim(WeatherDataType type, ForecastSnapshot snapshot, boolean firstCounts) {
+            Instant previous = pushedAt.get(type);
+            if (previous != null && !snapshot.fetchedAt().isAfter(previous)) return false;
+            pushedAt.put(type, snapshot.fetchedAt());
+            return previous != null || firstCounts;
+        }
+
+        synchronized boolean hazardsChanged(List<AlertHazard> current) {
+            String signature = current.stream()
+                    .map(h -> h.type() + ":" + h.severity())
+                    .collect(Collectors.joining(","));
+            if (signature.equals(hazards)) return false;
+            hazards = signature;
+            return true;
+        }
+    }
+}
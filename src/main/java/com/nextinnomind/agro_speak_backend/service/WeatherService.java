@@ -1,26 +1,84 @@
 package com.nextinnomind.agro_speak_backend.service;
 
-import lombok.RequiredArgsConstructor;
+import com.nextinnomind.agro_speak_backend.config.Upstream;
+import com.nextinnomind.agro_speak_backend.config.UpstreamClients;
+import com.nextinnomind.agro_speak_backend.config.WeatherBatchProperties;
+import com.nextinnomind.agro_speak_backend.dto.Coordinate;
+import com.nextinnomind.agro_speak_backend.dto.WeatherDashboardResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
 
-import java.time.LocalDate;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class WeatherService {
 
+    private static final String FORECAST_URL = "https://api.open-meteo.com/v1/forecast";
+    // Open-Meteo serves at most 16 forecast days
+    private static final int MAX_FORECAST_DAYS = 16;
+
     private final RestTemplate restTemplate;
+    private final WeatherCache weatherCache;
+    private final WeatherBatchProperties batchProperties;
+
+    private ExecutorService batchExecutor;
+
+    @Autowired
+    public WeatherService(UpstreamClients upstreamClients, WeatherCache weatherCache,
+                          WeatherBatchProperties batchProperties) {
+        this(upstreamClients.restTemplate(Upstream.OPEN_METEO), weatherCache, batchProperties);
+    }
+
+    public WeatherService(RestTemplate restTemplate, WeatherCache weatherCache, WeatherBatchProperties batchProperties) {
+        this.restTemplate = restTemplate;
+        this.weatherCache = weatherCache;
+        this.batchProperties = batchProperties;
+    }
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        batchExecutor = Executors.newFixedThreadPool(batchProperties.getConcurrency(), r -> {
+            Thread t = new Thread(r, "open-meteo-batch-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        batchExecutor.shutdownNow();
+    }
 
     /**
      * Convert weather code to human-readable message
      */
-    private String getWeatherMessage(int code) {
+    static String getWeatherMessage(int code) {
         return switch (code) {
             case 0 -> "Clear sky";
             case 1 -> "Mainly clear";
@@ -42,22 +100,36 @@ public class WeatherService {
      * Current weather only
      */
     public WeatherResponse getCurrentWeather(double latitude, double longitude) {
+        return responseOf(getCurrentWeatherCached(latitude, longitude));
+    }
+
+    /**
+     * Current weather with its cache metadata (for ETag / Cache-Control)
+     */
+    public CachedForecast getCurrentWeatherCached(double latitude, double longitude) {
         log.info("Fetching current weather for coordinates: lat={}, lon={}", latitude, longitude);
-        
-        String url = UriComponentsBuilder.fromUriString("https://api.open-meteo.com/v1/forecast")
+        return currentWeather(weatherCache.snap(latitude, longitude));
+    }
+
+    private CachedForecast currentWeather(GridCell cell) {
+        return forecast(WeatherCacheKey.of(WeatherDataType.CURRENT, cell), () -> fetchCurrentWeather(cell));
+    }
+
+    private WeatherResponse fetchCurrentWeather(GridCell cell) {
+        double latitude = cell.latitude();
+        double longitude = cell.longitude();
+        String url = currentWeatherQuery()
                 .queryParam("latitude", latitude)
                 .queryParam("longitude", longitude)
-                .queryParam("current", "temperature_2m,relative_humidity_2m,precipitation,wind_speed_10m")
-                .queryParam("timezone", "auto")
                 .toUriString();
 
         try {
-            WeatherResponse response = restTemplate.getForObject(url, WeatherResponse.class);
+            WeatherResponse response = fetch(url);
 
+            applyCurrentMessage(response);
             if (response != null && response.getCurrentWeather() != null) {
-                int code = response.getCurrentWeather().getWeathercode();
-                response.getCurrentWeather().setMessage(getWeatherMessage(code));
-                log.info("Current weather retrieved: {} (code: {})", getWeatherMessage(code), code);
+                log.info("Current weather retrieved: {} (code: {})",
+                        response.getCurrentWeather().getMessage(), response.getCurrentWeather().getWeathercode());
             }
 
             return response;
@@ -67,36 +139,66 @@ public class WeatherService {
         }
     }
 
+    private UriComponentsBuilder currentWeatherQuery() {
+        return UriComponentsBuilder.fromUriString(FORECAST_URL)
+                .queryParam("current", "temperature_2m,relative_humidity_2m,precipitation,wind_speed_10m")
+                .queryParam("timezone", "auto");
+    }
+
+    private void applyCurrentMessage(WeatherResponse response) {
+        if (response != null && response.getCurrentWeather() != null) {
+            int code = response.getCurrentWeather().getWeathercode();
+            response.getCurrentWeather().setMessage(getWeatherMessage(code));
+        }
+    }
+
     /**
      * Daily forecast for next 'daysAhead' days (max/min temps, precipitation, weather code)
      */
     public WeatherResponse getDailyForecast(double latitude, double longitude, int daysAhead) {
+        return responseOf(getDailyForecastCached(latitude, longitude, daysAhead));
+    }
+
+    /**
+     * Daily forecast with its cache metadata (for ETag / Cache-Control)
+     */
+    public CachedForecast getDailyForecastCached(double latitude, double longitude, int daysAhead) {
         log.info("Fetching {}-day forecast for coordinates: lat={}, lon={}", daysAhead, latitude, longitude);
-        
-        LocalDate start = LocalDate.now();
-        LocalDate end = start.plusDays(daysAhead);
+        return dailyForecast(weatherCache.snap(latitude, longitude), daysAhead);
+    }
+
+    // Today and the following daysAhead days, today being the cell's local date. The key holds no date:
+    // Open-Meteo starts the forecast at the local date of the cell, and the days that have passed there
+    // since the fetch are cut off when serving.
+    private CachedForecast dailyForecast(GridCell cell, int daysAhead) {
+        int days = Math.max(0, Math.min(daysAhead, MAX_FORECAST_DAYS - 1)) + 1;
+        WeatherCacheKey key = new WeatherCacheKey(WeatherDataType.DAILY, cell, "days=" + (days - 1));
+        CachedForecast forecast = forecast(key, () -> fetchDailyForecast(cell, days));
+        if (forecast == null) return null;
+        WeatherResponse window = DailyWindow.fromToday(forecast.response(), Instant.now(), days);
+        return window == forecast.response() ? forecast : forecast.withResponse(window);
+    }
 
-        String url = UriComponentsBuilder.fromUriString("https://api.open-meteo.com/v1/forecast")
+    private WeatherResponse fetchDailyForecast(GridCell cell, int days) {
+        double latitude = cell.latitude();
+        double longitude = cell.longitude();
+
+        String url = UriComponentsBuilder.fromUriString(FORECAST_URL)
                 .queryParam("latitude", latitude)
                 .queryParam("longitude", longitude)
                 .queryParam("daily", "temperature_2m_max,temperature_2m_min,precipitation_sum,weathercode")
-                .queryParam("start_date", start)
-                .queryParam("end_date", end)
+                // One spare day, so the forecast still covers the window after the cell's midnight
+                .queryParam("forecast_days", Math.min(days + 1, MAX_FORECAST_DAYS))
                 .queryParam("timezone", "auto")
                 .toUriString();
 
         try {
-            WeatherResponse response = restTemplate.getForObject(url, WeatherResponse.class);
+            WeatherResponse response = fetch(url);
 
             // Apply messages for daily forecast if available
+            applyDailyMessages(response);
             if (response != null && response.getDaily() != null && response.getDaily().getWeathercode() != null) {
-                int[] codes = response.getDaily().getWeathercode();
-                String[] messages = new String[codes.length];
-                for (int i = 0; i < codes.length; i++) {
-                    messages[i] = getWeatherMessage(codes[i]);
-                }
-                response.getDaily().setMessages(messages);
-                log.info("Daily forecast retrieved for {} days", codes.length);
+                log.info("Daily forecast retrieved for {} days", response.getDaily().getWeathercode().length);
             }
 
             return response;
@@ -106,31 +208,63 @@ public class WeatherService {
         }
     }
 
+    private void applyDailyMessages(WeatherResponse response) {
+        if (response != null && response.getDaily() != null && response.getDaily().getWeathercode() != null) {
+            int[] codes = response.getDaily().getWeathercode();
+            String[] messages = new String[codes.length];
+            for (int i = 0; i < codes.length; i++) {
+                messages[i] = getWeatherMessage(codes[i]);
+            }
+            response.getDaily().setMessages(messages);
+        }
+    }
+
     /**
      * Hourly forecast for next 'hoursAhead' hours
      */
     public WeatherResponse getHourlyForecast(double latitude, double longitude, int hoursAhead) {
+        return getHourlyForecast(latitude, longitude, hoursAhead, 1);
+    }
+
+    /**
+     * Hourly forecast for next 'hoursAhead' hours, aggregated into blocks of 'stepHours' (1 = hourly)
+     */
+    public WeatherResponse getHourlyForecast(double latitude, double longitude, int hoursAhead, int stepHours) {
+        return responseOf(getHourlyForecastCached(latitude, longitude, hoursAhead, stepHours));
+    }
+
+    /**
+     * Windowed hourly forecast with the cache metadata of the underlying hourly series
+     */
+    public CachedForecast getHourlyForecastCached(double latitude, double longitude, int hoursAhead, int stepHours) {
         log.info("Fetching {}-hour forecast for coordinates: lat={}, lon={}", hoursAhead, latitude, longitude);
+        return hourlyForecast(weatherCache.snap(latitude, longitude), hoursAhead, stepHours);
+    }
+
+    private CachedForecast hourlyForecast(GridCell cell, int hoursAhead, int stepHours) {
+        int horizon = HourlyWindow.horizonFor(hoursAhead);
+        CachedForecast forecast = forecast(new WeatherCacheKey(WeatherDataType.HOURLY, cell, "hours=" + horizon),
+                () -> fetchHourlyForecast(cell, horizon));
+        return forecast != null
+                ? forecast.withResponse(HourlyWindow.apply(forecast.response(), hoursAhead, stepHours))
+                : null;
+    }
 
-        String url = UriComponentsBuilder.fromUriString("https://api.open-meteo.com/v1/forecast")
+    private WeatherResponse fetchHourlyForecast(GridCell cell, int hoursAhead) {
+        double latitude = cell.latitude();
+        double longitude = cell.longitude();
+        String url = hourlyForecastQuery(hoursAhead)
                 .queryParam("latitude", latitude)
                 .queryParam("longitude", longitude)
-                .queryParam("hourly", "temperature_2m,precipitation_probability,precipitation,wind_speed_10m")
-                .queryParam("timezone", "auto")
                 .toUriString();
 
         try {
-            WeatherResponse response = restTemplate.getForObject(url, WeatherResponse.class);
+            WeatherResponse response = fetch(url);
 
             // Apply messages for hourly forecast if available
+            applyHourlyMessages(response);
             if (response != null && response.getHourly() != null && response.getHourly().getWeathercode() != null) {
-                int[] codes = response.getHourly().getWeathercode();
-                String[] messages = new String[codes.length];
-                for (int i = 0; i < codes.length; i++) {
-                    messages[i] = getWeatherMessage(codes[i]);
-                }
-                response.getHourly().setMessages(messages);
-                log.info("Hourly forecast retrieved for {} hours", Math.min(hoursAhead, codes.length));
+                log.info("Hourly forecast retrieved for {} hours", Math.min(hoursAhead, response.getHourly().getWeathercode().length));
             }
 
             return response;
@@ -140,21 +274,100 @@ public class WeatherService {
         }
     }
 
+    private UriComponentsBuilder hourlyForecastQuery(int hoursAhead) {
+        return UriComponentsBuilder.fromUriString(FORECAST_URL)
+                .queryParam("hourly", "temperature_2m,precipitation_probability,precipitation,wind_speed_10m,weathercode")
+                .queryParam("forecast_hours", hoursAhead)
+                .queryParam("timezone", "auto");
+    }
+
+    private void applyHourlyMessages(WeatherResponse response) {
+        if (response != null && response.getHourly() != null && response.getHourly().getWeathercode() != null) {
+            int[] codes = response.getHourly().getWeathercode();
+            String[] messages = new String[codes.length];
+            for (int i = 0; i < codes.length; i++) {
+                messages[i] = getWeatherMessage(codes[i]);
+            }
+            response.getHourly().setMessages(messages);
+        }
+    }
+
+    /**
+     * Hourly temperature, precipitation and reference evapotranspiration from 'pastDays' days ago to
+     * 'forecastDays' days ahead, the input of the agronomic indicators
+     */
+    public CachedForecast getIndicatorSeriesCached(GridCell cell, int pastDays, int forecastDays) {
+        return forecast(indicatorKey(cell, pastDays, forecastDays),
+                () -> fetchIndicatorSeries(cell, pastDays, forecastDays));
+    }
+
+    static WeatherCacheKey indicatorKey(GridCell cell, int pastDays, int forecastDays) {
+        return new WeatherCacheKey(WeatherDataType.HOURLY, cell,
+                "indicators&past_days=" + pastDays + "&forecast_days=" + forecastDays);
+    }
+
+    private WeatherResponse fetchIndicatorSeries(GridCell cell, int pastDays, int forecastDays) {
+        String url = UriComponentsBuilder.fromUriString(FORECAST_URL)
+                .queryParam("latitude", cell.latitude())
+                .queryParam("longitude", cell.longitude())
+                .queryParam("hourly", "temperature_2m,precipitation,et0_fao_evapotranspiration")
+                .queryParam("past_days", pastDays)
+                .queryParam("forecast_days", forecastDays)
+                .queryParam("timezone", "auto")
+                .toUriString();
+
+        try {
+            return fetch(url);
+        } catch (Exception e) {
+            log.error("Error fetching indicator series for cell {}: {}", cell.id(), e.getMessage());
+            throw new RuntimeException("Failed to fetch indicator series", e);
+        }
+    }
+
     /**
-     * Soil data for agriculture (0-7cm soil temp & moisture)
+     * Soil data for agriculture (0-7cm soil temp & moisture) for the next 7 days
      */
     public WeatherResponse getSoilData(double latitude, double longitude) {
+        return getSoilData(latitude, longitude, 168, 1);
+    }
+
+    /**
+     * Soil data for the next 'hoursAhead' hours, aggregated into blocks of 'stepHours' (1 = hourly)
+     */
+    public WeatherResponse getSoilData(double latitude, double longitude, int hoursAhead, int stepHours) {
+        return responseOf(getSoilDataCached(latitude, longitude, hoursAhead, stepHours));
+    }
+
+    /**
+     * Windowed soil data with the cache metadata of the underlying hourly series
+     */
+    public CachedForecast getSoilDataCached(double latitude, double longitude, int hoursAhead, int stepHours) {
         log.info("Fetching soil data for coordinates: lat={}, lon={}", latitude, longitude);
-        
-        String url = UriComponentsBuilder.fromUriString("https://api.open-meteo.com/v1/forecast")
+        return soilData(weatherCache.snap(latitude, longitude), hoursAhead, stepHours);
+    }
+
+    private CachedForecast soilData(GridCell cell, int hoursAhead, int stepHours) {
+        int horizon = HourlyWindow.horizonFor(hoursAhead);
+        CachedForecast forecast = forecast(new WeatherCacheKey(WeatherDataType.SOIL, cell, "hours=" + horizon),
+                () -> fetchSoilData(cell, horizon));
+        return forecast != null
+                ? forecast.withResponse(HourlyWindow.apply(forecast.response(), hoursAhead, stepHours))
+                : null;
+    }
+
+    private WeatherResponse fetchSoilData(GridCell cell, int hoursAhead) {
+        double latitude = cell.latitude();
+        double longitude = cell.longitude();
+        String url = UriComponentsBuilder.fromUriString(FORECAST_URL)
                 .queryParam("latitude", latitude)
                 .queryParam("longitude", longitude)
                 .queryParam("hourly", "soil_temperature_0_to_7cm,soil_moisture_0_to_7cm")
+                .queryParam("forecast_hours", hoursAhead)
                 .queryParam("timezone", "auto")
                 .toUriString();
 
         try {
-            WeatherResponse response = restTemplate.getForObject(url, WeatherResponse.class);
+            WeatherResponse response = fetch(url);
             log.info("Soil data retrieved successfully for lat={}, lon={}", latitude, longitude);
             return response;
         } catch (Exception e) {
@@ -162,4 +375,339 @@ public class WeatherService {
             throw new RuntimeException("Failed to fetch soil data", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * A cell's forecast of the given type with the defaults of the matching endpoint, sharing its cache
+     * entry. For background work such as the push channel's periodic checks, so unlike the per-request
+     * methods it does not log every call.
+     */
+    public CachedForecast getCellForecastCached(GridCell cell, WeatherDataType type) {
+        log.debug("Checking {} forecast of cell {}", type, cell.id());
+        return switch (type) {
+            case CURRENT -> currentWeather(cell);
+            case HOURLY -> hourlyForecast(cell, 24, 1);
+            case DAILY -> dailyForecast(cell, 7);
+            case SOIL -> soilData(cell, 168, 1);
+            default -> throw new IllegalArgumentException("No default forecast for " + type);
+        };
+    }
+
+    /**
+     * Current conditions plus the next 24 hours of the given hourly variables (those the alert rules test)
+     * for a grid cell, fetched in one request so the alert scheduler can evaluate a whole cell at once
+     */
+    public WeatherResponse getAlertForecast(GridCell cell, String hourlyVariables) {
+        log.debug("Fetching alert forecast for cell {}", cell.id());
+        return cached(alertKey(cell, hourlyVariables), () -> fetchAlertForecast(cell, hourlyVariables));
+    }
+
+    /**
+     * Whether getAlertForecast would be answered without an upstream call
+     */
+    public boolean hasCachedAlertForecast(GridCell cell, String hourlyVariables) {
+        return weatherCache.peek(alertKey(cell, hourlyVariables)) != null;
+    }
+
+    // Different rule sets need different variables, so they must not share cached forecasts
+    static WeatherCacheKey alertKey(GridCell cell, String hourlyVariables) {
+        return new WeatherCacheKey(WeatherDataType.ALERT, cell, "hourly=" + hourlyVariables);
+    }
+
+    private WeatherResponse fetchAlertForecast(GridCell cell, String hourlyVariables) {
+        double latitude = cell.latitude();
+        double longitude = cell.longitude();
+        String url = alertForecastQuery(hourlyVariables)
+                .queryParam("latitude", latitude)
+                .queryParam("longitude", longitude)
+                .toUriString();
+
+        try {
+            WeatherResponse response = fetch(url);
+            applyCurrentMessage(response);
+            return response;
+        } catch (Exception e) {
+            log.error("Error fetching alert forecast for lat={}, lon={}: {}", latitude, longitude, e.getMessage());
+            throw new RuntimeException("Failed to fetch alert forecast data", e);
+        }
+    }
+
+    private UriComponentsBuilder alertForecastQuery(String hourlyVariables) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(FORECAST_URL)
+                .queryParam("current_weather", true);
+        if (!hourlyVariables.isEmpty()) {
+            builder.queryParam("hourly", hourlyVariables);
+        }
+        return builder
+                .queryParam("forecast_hours", 24)
+                .queryParam("timezone", "auto");
+    }
+
+    /**
+     * Everything the farm dashboard shows, fetched with a single Open-Meteo request.
+     * Only the requested sections are asked for upstream; soil data shares the hourly horizon.
+     */
+    public WeatherResponse getDashboardForecast(double latitude, double longitude,
+                                                Set<WeatherDashboardResponse.Section> sections,
+                                                int daysAhead, int hoursAhead) {
+        return responseOf(getDashboardForecastCached(latitude, longitude, sections, daysAhead, hoursAhead));
+    }
+
+    /**
+     * Dashboard forecast with its cache metadata (for ETag / Cache-Control)
+     */
+    public CachedForecast getDashboardForecastCached(double latitude, double longitude,
+                                                     Set<WeatherDashboardResponse.Section> sections,
+                                                     int daysAhead, int hoursAhead) {
+        log.info("Fetching dashboard {} for coordinates: lat={}, lon={}", sections, latitude, longitude);
+
+        GridCell cell = weatherCache.snap(latitude, longitude);
+        // EnumSet iteration order is stable, so equal section sets give equal keys
+        Set<WeatherDashboardResponse.Section> ordered = EnumSet.copyOf(sections);
+        String params = "sections=" + ordered + "&days=" + daysAhead + "&hours=" + hoursAhead;
+        return forecast(new WeatherCacheKey(WeatherDataType.DASHBOARD, cell, params),
+                () -> fetchDashboardForecast(cell, ordered, daysAhead, hoursAhead));
+    }
+
+    private WeatherResponse fetchDashboardForecast(GridCell cell, Set<WeatherDashboardResponse.Section> sections,
+                                                   int daysAhead, int hoursAhead) {
+        double latitude = cell.latitude();
+        double longitude = cell.longitude();
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(FORECAST_URL)
+                .queryParam("latitude", latitude)
+                .queryParam("longitude", longitude)
+                .queryParam("timezone", "auto");
+
+        if (sections.contains(WeatherDashboardResponse.Section.CURRENT)) {
+            builder.queryParam("current_weather", true);
+        }
+
+        List<String> hourly = new ArrayList<>();
+        if (sections.contains(WeatherDashboardResponse.Section.HOURLY)) {
+            hourly.add("temperature_2m,precipitation_probability,precipitation,wind_speed_10m,weathercode");
+        }
+        if (sections.contains(WeatherDashboardResponse.Section.SOIL)) {
+            hourly.add("soil_temperature_0_to_7cm,soil_moisture_0_to_7cm");
+        }
+        if (!hourly.isEmpty()) {
+            builder.queryParam("hourly", String.join(",", hourly))
+                    .queryParam("forecast_hours", hoursAhead);
+        }
+
+        if (sections.contains(WeatherDashboardResponse.Section.DAILY)) {
+            builder.queryParam("daily", "temperature_2m_max,temperature_2m_min,precipitation_sum,weathercode")
+                    .queryParam("forecast_days", daysAhead);
+        }
+
+        try {
+            WeatherResponse response = fetch(builder.toUriString());
+            applyCurrentMessage(response);
+            applyDailyMessages(response);
+            log.info("Dashboard data retrieved for lat={}, lon={}", latitude, longitude);
+            return response;
+        } catch (Exception e) {
+            log.error("Error fetching dashboard data for lat={}, lon={}: {}", latitude, longitude, e.getMessage());
+            throw new RuntimeException("Failed to fetch dashboard data", e);
+        }
+    }
+
+    // ================= Multi-location batch API =================
+
+    /**
+     * Current weather for many locations; the result is aligned with the input (null where a fetch failed)
+     */
+    public List<WeatherResponse> getCurrentWeather(List<Coordinate> coordinates) {
+        log.info("Fetching current weather for {} locations", coordinates.size());
+        return alignWith(coordinates, batch(WeatherDataType.CURRENT, "", cellsOf(coordinates),
+                this::currentWeatherQuery, this::applyCurrentMessage));
+    }
+
+    /**
+     * Hourly forecast for many locations; the result is aligned with the input (null where a fetch failed)
+     */
+    public List<WeatherResponse> getHourlyForecast(List<Coordinate> coordinates, int hoursAhead) {
+        log.info("Fetching {}-hour forecast for {} locations", hoursAhead, coordinates.size());
+        int horizon = HourlyWindow.horizonFor(hoursAhead);
+        List<WeatherResponse> responses = alignWith(coordinates, batch(WeatherDataType.HOURLY, "hours=" + horizon,
+                cellsOf(coordinates), () -> hourlyForecastQuery(horizon), this::applyHourlyMessages));
+        return responses.stream().map(r -> HourlyWindow.apply(r, hoursAhead, 1)).toList();
+    }
+
+    /**
+     * Alert forecasts for many grid cells at once. Cells that could not be fetched are absent from the result.
+     */
+    public Map<GridCell, WeatherResponse> getAlertForecasts(Collection<GridCell> cells, String hourlyVariables) {
+        log.debug("Fetching alert forecasts for {} cells", cells.size());
+        return batch(WeatherDataType.ALERT, "hourly=" + hourlyVariables, cells,
+                () -> alertForecastQuery(hourlyVariables), this::applyCurrentMessage);
+    }
+
+    /**
+     * Make sure the alert forecasts of the given cells stay fresh until the given instant, refetching (in
+     * batches) those that would expire earlier. Used to warm subscriber cells ahead of an alert run.
+     *
+     * @return number of cells that were refetched
+     */
+    public int prefetchAlertForecasts(Collection<GridCell> cells, String hourlyVariables, Instant freshUntil) {
+        List<WeatherCacheKey> due = new LinkedHashSet<>(cells).stream()
+                .map(cell -> alertKey(cell, hourlyVariables))
+                .filter(key -> {
+                    ForecastSnapshot snapshot = weatherCache.peek(key);
+                    return snapshot == null || weatherCache.expiresAt(key, snapshot).isBefore(freshUntil);
+                })
+                .toList();
+        return weatherCache.refreshAll(due, keys -> fetchBatch(keys, () -> alertForecastQuery(hourlyVariables),
+                        this::applyCurrentMessage))
+                .size();
+    }
+
+    /**
+     * Number of upstream requests needed to fetch the given number of uncached locations
+     */
+    public int upstreamRequestsFor(int locations) {
+        int perRequest = Math.max(1, batchProperties.getMaxLocationsPerRequest());
+        return (locations + perRequest - 1) / perRequest;
+    }
+
+    private List<GridCell> cellsOf(List<Coordinate> coordinates) {
+        return coordinates.stream().map(c -> gridCellFor(c.latitude(), c.longitude())).toList();
+    }
+
+    private List<WeatherResponse> alignWith(List<Coordinate> coordinates, Map<GridCell, WeatherResponse> byCell) {
+        List<WeatherResponse> result = new ArrayList<>(coordinates.size());
+        for (Coordinate c : coordinates) {
+            result.add(byCell.get(gridCellFor(c.latitude(), c.longitude())));
+        }
+        return result;
+    }
+
+    private Map<GridCell, WeatherResponse> batch(WeatherDataType type, String params, Collection<GridCell> cells,
+                                                 Supplier<UriComponentsBuilder> query,
+                                                 Consumer<WeatherResponse> postProcess) {
+        List<WeatherCacheKey> keys = new LinkedHashSet<>(cells).stream()
+                .map(cell -> new WeatherCacheKey(type, cell, params))
+                .toList();
+
+        Map<GridCell, WeatherResponse> result = new HashMap<>();
+        weatherCache.getOrLoadAll(keys, misses -> fetchBatch(misses, query, postProcess))
+                .forEach((key, snapshot) -> result.put(key.cell(), snapshot.response()));
+        return result;
+    }
+
+    /**
+     * Fetch the given keys in as few upstream requests as the location and URL limits allow,
+     * running the chunks concurrently. Failed chunks are logged and left out of the result.
+     */
+    private Map<WeatherCacheKey, WeatherResponse> fetchBatch(List<WeatherCacheKey> keys,
+                                                             Supplier<UriComponentsBuilder> query,
+                                                             Consumer<WeatherResponse> postProcess) {
+        List<List<WeatherCacheKey>> chunks = chunk(keys, query.get().toUriString().length());
+        List<CompletableFuture<Map<WeatherCacheKey, WeatherResponse>>> futures = chunks.stream()
+                .map(chunk -> chunks.size() == 1
+                        // A single chunk runs on the caller's thread
+                        ? runInline(() -> fetchChunk(chunk, query, postProcess))
+                        : CompletableFuture.supplyAsync(() -> fetchChunk(chunk, query, postProcess), batchExecutor))
+                .toList();
+
+        Map<WeatherCacheKey, WeatherResponse> result = new HashMap<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                result.putAll(futures.get(i).join());
+            } catch (CompletionException e) {
+                log.error("Open-Meteo batch chunk of {} locations failed: {}",
+                        chunks.get(i).size(), e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    private static <T> CompletableFuture<T> runInline(Supplier<T> task) {
+        try {
+            return CompletableFuture.completedFuture(task.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private List<List<WeatherCacheKey>> chunk(List<WeatherCacheKey> keys, int baseUrlLength) {
+        List<List<WeatherCacheKey>> chunks = new ArrayList<>();
+        List<WeatherCacheKey> current = new ArrayList<>();
+        int urlLength = baseUrlLength + "&latitude=&longitude=".length();
+        for (WeatherCacheKey key : keys) {
+            // Each location adds both coordinates plus their separating commas
+            int added = String.valueOf(key.cell().latitude()).length() + String.valueOf(key.cell().longitude()).length() + 2;
+            if (!current.isEmpty() && (current.size() >= batchProperties.getMaxLocationsPerRequest()
+                    || urlLength + added > batchProperties.getMaxUrlLength())) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                urlLength = baseUrlLength + "&latitude=&longitude=".length();
+            }
+            current.add(key);
+            urlLength += added;
+        }
+        if (!current.isEmpty()) chunks.add(current);
+        return chunks;
+    }
+
+    private Map<WeatherCacheKey, WeatherResponse> fetchChunk(List<WeatherCacheKey> chunk,
+                                                             Supplier<UriComponentsBuilder> query,
+                                                             Consumer<WeatherResponse> postProcess) {
+        String latitudes = chunk.stream().map(k -> String.valueOf(k.cell().latitude())).collect(Collectors.joining(","));
+        String longitudes = chunk.stream().map(k -> String.valueOf(k.cell().longitude())).collect(Collectors.joining(","));
+        String url = query.get()
+                .queryParam("latitude", latitudes)
+                .queryParam("longitude", longitudes)
+                .toUriString();
+
+        // Open-Meteo answers a single location with an object and several with an array; the parser takes both
+        List<WeatherResponse> responses = fetchAll(url);
+        if (responses == null || responses.size() != chunk.size()) {
+            throw new IllegalStateException("Open-Meteo returned " + (responses == null ? 0 : responses.size())
+                    + " results for " + chunk.size() + " locations");
+        }
+
+        Map<WeatherCacheKey, WeatherResponse> result = new HashMap<>();
+        for (int i = 0; i < responses.size(); i++) {
+            postProcess.accept(responses.get(i));
+            result.put(chunk.get(i), responses.get(i));
+        }
+        log.info("Fetched {} locations from Open-Meteo in one request", chunk.size());
+        return result;
+    }
+
+    /**
+     * GET an Open-Meteo URL and stream-parse the body, without buffering it or binding it through a tree
+     */
+    private WeatherResponse fetch(String url) {
+        List<WeatherResponse> responses = fetchAll(url);
+        return responses == null || responses.isEmpty() ? null : responses.get(0);
+    }
+
+    private List<WeatherResponse> fetchAll(String url) {
+        return restTemplate.execute(url, HttpMethod.GET, null, response -> OpenMeteoParser.parse(response.getBody()));
+    }
+
+    /**
+     * Grid cell that the given coordinates share a cached forecast with
+     */
+    public GridCell gridCellFor(double latitude, double longitude) {
+        return weatherCache.snap(latitude, longitude);
+    }
+
+    /**
+     * Serve from the weather cache; on a miss, concurrent callers for the same key share one upstream call
+     */
+    private WeatherResponse cached(WeatherCacheKey key, Supplier<WeatherResponse> loader) {
+        return responseOf(forecast(key, loader));
+    }
+
+    private CachedForecast forecast(WeatherCacheKey key, Supplier<WeatherResponse> loader) {
+        ForecastSnapshot snapshot = weatherCache.getOrLoad(key, loader);
+        if (snapshot == null) return null;
+        return new CachedForecast(key, snapshot.response(), snapshot.fetchedAt(), weatherCache.expiresAt(key, snapshot),
+                snapshot.fallback());
+    }
+
+    private static WeatherResponse responseOf(CachedForecast forecast) {
+        return forecast != null ? forecast.response() : null;
+    }
+}
@@ -0,0 +1,121 @@
+package com.nextinnomind.agro_speak_backend.benchmark;
+
+import com.nextinnomind.agro_speak_backend.service.AhoCorasickMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the glossary hint of a translation prompt from the whole glossary, as the translation service
+ * used to, versus from the terms found in the text by scanning for each term and by the Aho-Corasick
+ * matcher, for glossaries of growing size. The prompt lengths of both approaches are printed on setup.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.nextinnomind.agro_speak_backend.benchmark.GlossaryMatcherBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GlossaryMatcherBenchmark {
+
+    private static final String TEXT = "3-day forecast: 2025-01-01: Heavy rain expected, delay planting maize "
+            + "and protect groundnut seedlings - 18.2/27.9 C. 2025-01-02: Light showers, good day to plant "
+            + "beans - 17.5/28.4 C. 2025-01-03: Dry and sunny, irrigate tomato nursery - 16.9/30.1 C";
+
+    @Param({"10", "100", "1000", "10000"})
+    public int glossarySize;
+
+    private Map<String, String> glossary;
+    private List<String> terms;
+    private List<String> translations;
+    private AhoCorasickMatcher matcher;
+
+    @Setup
+    public void setUp() {
+        glossary = glossary(glossarySize);
+        terms = new ArrayList<>(glossary.keySet());
+        translations = new ArrayList<>(glossary.values());
+        matcher = AhoCorasickMatcher.build(terms);
+        System.out.printf("%n%d terms: full glossary hint %d chars, matched hint %d chars (%d terms)%n",
+                glossarySize, fullGlossary().length(), ahoCorasick().length(), matcher.find(TEXT).length);
+    }
+
+    @Benchmark
+    public String fullGlossary() {
+        StringJoiner hint = new StringJoiner(", ");
+        glossary.forEach((term, translation) -> hint.add(String.format("'%s' = '%s'", term, translation)));
+        return hint.toString();
+    }
+
+    @Benchmark
+    public String scanPerTerm() {
+        String text = TEXT.toLowerCase(Locale.ROOT);
+        StringJoiner hint = new StringJoiner(", ");
+        glossary.forEach((term, translation) -> {
+            if (text.contains(term)) hint.add(String.format("'%s' = '%s'", term, translation));
+        });
+        return hint.toString();
+    }
+
+    @Benchmark
+    public String ahoCorasick() {
+        StringJoiner hint = new StringJoiner(", ");
+        for (int index : matcher.find(TEXT)) {
+            hint.add(String.format("'%s' = '%s'", terms.get(index), translations.get(index)));
+        }
+        return hint.toString();
+    }
+
+    /**
+     * A few real farming terms, padded with synthetic words and two-word phrases that do not occur in the text
+     */
+    static Map<String, String> glossary(int size) {
+        Map<String, String> glossary = new LinkedHashMap<>();
+        String[][] real = {{"maize", "amataba"}, {"rain", "imfula"}, {"to plant", "ukubyala"},
+                {"groundnut", "imbalala"}, {"beans", "ilyunguyungu"}, {"irrigate", "ukusuminisha"}};
+        for (String[] entry : real) {
+            if (glossary.size() < size) glossary.put(entry[0], entry[1]);
+        }
+        for (int i = 0; glossary.size() < size; i++) {
+            String word = word(i);
+            glossary.put(i % 3 == 0 ? word + " " + word(i * 7 + 1) : word, "bemba" + i);
+        }
+        return glossary;
+    }
+
+    private static String word(int n) {
+        StringBuilder word = new StringBuilder("ku");
+        do {
+            word.append((char) ('a' + n % 26));
+            n /= 26;
+        } while (n > 0);
+        return word.append("la").toString();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(GlossaryMatcherBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
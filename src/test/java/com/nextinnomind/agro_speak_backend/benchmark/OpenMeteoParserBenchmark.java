@@ -0,0 +1,158 @@
+package com.nextinnomind.agro_speak_backend.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+import com.nextinnomind.agro_speak_backend.service.OpenMeteoParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Throughput and allocation of decoding a 16-day hourly + daily Open-Meteo response:
+ * <ul>
+ *   <li>{@code legacyDataBinding}: Jackson data binding into the previous model (a String per time entry,
+ *       boxed Double precipitation);</li>
+ *   <li>{@code dataBinding}: Jackson data binding into the current {@link WeatherResponse};</li>
+ *   <li>{@code streamingParser}: {@link OpenMeteoParser}, as used for upstream calls.</li>
+ * </ul>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.nextinnomind.agro_speak_backend.benchmark.OpenMeteoParserBenchmark};
+ * compare {@code gc.alloc.rate.norm} (bytes per operation) alongside ops/ms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpenMeteoParserBenchmark {
+
+    // Configured like Spring Boot's mapper, which ignores fields the model does not declare
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private byte[] body;
+
+    /** Shape of the hourly/daily model before the streaming parser, kept here for comparison only */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class LegacyResponse {
+        public double latitude;
+        public double longitude;
+        public String timezone;
+        @JsonProperty("utc_offset_seconds")
+        public Integer utcOffsetSeconds;
+        public LegacyHourly hourly;
+        public LegacyDaily daily;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class LegacyHourly {
+        public String[] time;
+        @JsonProperty("temperature_2m")
+        public double[] temperature;
+        public int[] weathercode;
+        @JsonProperty("precipitation_probability")
+        public int[] precipitationProbability;
+        public Double[] precipitation;
+        @JsonProperty("wind_speed_10m")
+        public double[] windSpeed;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class LegacyDaily {
+        public String[] time;
+        @JsonProperty("temperature_2m_max")
+        public double[] temperatureMax;
+        @JsonProperty("temperature_2m_min")
+        public double[] temperatureMin;
+        @JsonProperty("precipitation_sum")
+        public double[] precipitationSum;
+        public int[] weathercode;
+    }
+
+    @Setup
+    public void setUp() {
+        body = payload(384, 16).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public LegacyResponse legacyDataBinding() throws IOException {
+        return mapper.readValue(new ByteArrayInputStream(body), LegacyResponse.class);
+    }
+
+    @Benchmark
+    public WeatherResponse dataBinding() throws IOException {
+        return mapper.readValue(new ByteArrayInputStream(body), WeatherResponse.class);
+    }
+
+    @Benchmark
+    public List<WeatherResponse> streamingParser() throws IOException {
+        return OpenMeteoParser.parse(new ByteArrayInputStream(body));
+    }
+
+    /**
+     * Response in Open-Meteo's layout, with the occasional null precipitation value it sends
+     */
+    static String payload(int hours, int days) {
+        StringBuilder json = new StringBuilder(64 * 1024);
+        json.append("{\"latitude\":-15.4,\"longitude\":28.3,\"generationtime_ms\":0.31,\"utc_offset_seconds\":7200,")
+                .append("\"timezone\":\"Africa/Lusaka\",\"timezone_abbreviation\":\"CAT\",\"elevation\":1279.0,")
+                .append("\"hourly_units\":{\"time\":\"iso8601\",\"temperature_2m\":\"°C\",\"precipitation\":\"mm\"},")
+                .append("\"hourly\":{");
+
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        series(json, "time", hours, i -> "\"" + start.plusHours(i) + "\"").append(',');
+        series(json, "temperature_2m", hours, i -> String.valueOf(22 + (i % 24) * 0.4)).append(',');
+        series(json, "weathercode", hours, i -> i % 9 == 0 ? "61" : "3").append(',');
+        series(json, "precipitation_probability", hours, i -> String.valueOf(i * 37 % 100)).append(',');
+        series(json, "precipitation", hours, i -> i % 50 == 7 ? "null" : String.valueOf(i % 5 * 0.3)).append(',');
+        series(json, "wind_speed_10m", hours, i -> String.valueOf(8 + i % 11 * 0.7));
+        json.append("},\"daily\":{");
+
+        LocalDate firstDay = LocalDate.of(2025, 1, 1);
+        series(json, "time", days, i -> "\"" + firstDay.plusDays(i) + "\"").append(',');
+        series(json, "temperature_2m_max", days, i -> String.valueOf(29.4 + i * 0.3)).append(',');
+        series(json, "temperature_2m_min", days, i -> String.valueOf(16.1 + i * 0.2)).append(',');
+        series(json, "precipitation_sum", days, i -> String.valueOf(i % 3 * 4.7)).append(',');
+        series(json, "weathercode", days, i -> i % 3 == 0 ? "61" : "3");
+        return json.append("}}").toString();
+    }
+
+    private static StringBuilder series(StringBuilder json, String name, int count,
+                                        IntFunction<String> value) {
+        json.append('"').append(name).append("\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) json.append(',');
+            json.append(value.apply(i));
+        }
+        return json.append(']');
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(OpenMeteoParserBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,138 @@
+package com.nextinnomind.agro_speak_backend.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.nextinnomind.agro_speak_backend.dto.ColumnarWeatherResponse;
+import com.nextinnomind.agro_speak_backend.entity.NullableDoubleArray;
+import com.nextinnomind.agro_speak_backend.entity.TimeAxis;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time and allocation of serializing a 16-day hourly + daily forecast in each response encoding:
+ * the row-oriented {@link WeatherResponse} as JSON, Smile and CBOR, and {@link ColumnarWeatherResponse}
+ * as JSON and CBOR. Encoded sizes are checked by WeatherEncodingComparisonTest.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.nextinnomind.agro_speak_backend.benchmark.WeatherEncodingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WeatherEncodingBenchmark {
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final ObjectMapper smile = new SmileMapper();
+    private final ObjectMapper cbor = new CBORMapper();
+    private WeatherResponse response;
+
+    @Setup
+    public void setUp() {
+        response = forecast(384, 16);
+    }
+
+    @Benchmark
+    public byte[] json() throws JsonProcessingException {
+        return json.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] smile() throws JsonProcessingException {
+        return smile.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] cbor() throws JsonProcessingException {
+        return cbor.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] columnarJson() throws JsonProcessingException {
+        return json.writeValueAsBytes(ColumnarWeatherResponse.from(response));
+    }
+
+    @Benchmark
+    public byte[] columnarCbor() throws JsonProcessingException {
+        return cbor.writeValueAsBytes(ColumnarWeatherResponse.from(response));
+    }
+
+    /**
+     * Hourly + daily forecast with the value patterns of a real one; also used by WeatherEncodingComparisonTest
+     */
+    public static WeatherResponse forecast(int hours, int days) {
+        WeatherResponse response = new WeatherResponse();
+        response.setLatitude(-15.4);
+        response.setLongitude(28.3);
+        response.setTimezone("Africa/Lusaka");
+        response.setTimezoneAbbreviation("CAT");
+        response.setUtcOffsetSeconds(7200);
+
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        WeatherResponse.Hourly hourly = new WeatherResponse.Hourly();
+        String[] hourlyTime = new String[hours];
+        NullableDoubleArray.Builder precipitation = new NullableDoubleArray.Builder(hours);
+        hourly.setTemperature(new double[hours]);
+        hourly.setPrecipitationProbability(new int[hours]);
+        hourly.setWindSpeed(new double[hours]);
+        hourly.setWeathercode(new int[hours]);
+        hourly.setMessages(new String[hours]);
+        for (int i = 0; i < hours; i++) {
+            hourlyTime[i] = start.plusHours(i).toString();
+            hourly.getTemperature()[i] = 22 + 6 * Math.sin(i * Math.PI / 12) + (i % 7) * 0.13;
+            hourly.getPrecipitationProbability()[i] = (i * 37) % 100;
+            precipitation.add((i % 5 == 0) ? 1.2 + i % 3 : 0.0);
+            hourly.getWindSpeed()[i] = 8 + (i % 11) * 0.7;
+            hourly.getWeathercode()[i] = (i % 9 == 0) ? 61 : 3;
+            hourly.getMessages()[i] = (i % 9 == 0) ? "Rainy" : "Overcast";
+        }
+        hourly.setTime(TimeAxis.of(hourlyTime));
+        hourly.setPrecipitation(precipitation.build());
+        response.setHourly(hourly);
+
+        WeatherResponse.Daily daily = new WeatherResponse.Daily();
+        String[] dailyTime = new String[days];
+        daily.setTemperatureMax(new double[days]);
+        daily.setTemperatureMin(new double[days]);
+        daily.setPrecipitationSum(new double[days]);
+        daily.setWeathercode(new int[days]);
+        daily.setMessages(new String[days]);
+        for (int i = 0; i < days; i++) {
+            dailyTime[i] = LocalDate.of(2025, 1, 1).plusDays(i).toString();
+            daily.getTemperatureMax()[i] = 29.4 + i * 0.3;
+            daily.getTemperatureMin()[i] = 16.1 + i * 0.2;
+            daily.getPrecipitationSum()[i] = i % 3 * 4.7;
+            daily.getWeathercode()[i] = i % 3 == 0 ? 61 : 3;
+            daily.getMessages()[i] = i % 3 == 0 ? "Rainy" : "Overcast";
+        }
+        daily.setTime(TimeAxis.of(dailyTime));
+        response.setDaily(daily);
+        return response;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(WeatherEncodingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
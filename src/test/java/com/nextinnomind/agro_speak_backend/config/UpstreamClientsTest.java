@@ -0,0 +1,115 @@
+package com.nextinnomind.agro_speak_backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.ExpectedCount.manyTimes;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class UpstreamClientsTest {
+
+    @Test
+    void bulkheadRejectsCallsBeyondTheLimitAndCountsThem() throws Exception {
+        UpstreamProperties properties = new UpstreamProperties();
+        properties.getTwilio().setMaxConcurrentRequests(1);
+        properties.getTwilio().setBulkheadWait(Duration.ZERO);
+        UpstreamClients clients = new UpstreamClients(properties, WebClient.builder());
+        RestTemplate twilio = clients.restTemplate(Upstream.TWILIO);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MockRestServiceServer server = MockRestServiceServer.bindTo(twilio).build();
+        server.expect(requestTo("https://api.twilio.com/slow")).andRespond(request -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return withSuccess().createResponse(request);
+        });
+        server.expect(manyTimes(), requestTo("https://api.twilio.com/down"))
+                .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+
+        CompletableFuture<String> slow = CompletableFuture.supplyAsync(
+                () -> twilio.getForObject("https://api.twilio.com/slow", String.class));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // The only slot is taken by the slow call, so this one fails fast instead of waiting behind it
+        assertThatThrownBy(() -> twilio.getForObject("https://api.twilio.com/down", String.class))
+                .isInstanceOf(UpstreamBusyException.class);
+        release.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+
+        assertThatThrownBy(() -> twilio.getForObject("https://api.twilio.com/down", String.class))
+                .hasMessageContaining("503");
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stats = (Map<String, Object>) clients.stats().get("twilio");
+        assertThat(stats).containsEntry("requests", 2L).containsEntry("errors", 1L)
+                .containsEntry("rejected", 1L).containsEntry("inFlight", 0);
+        clients.shutdown();
+    }
+
+    @Test
+    void slotIsHeldUntilTheResponseBodyHasBeenRead() throws Exception {
+        UpstreamProperties properties = new UpstreamProperties();
+        properties.getTwilio().setMaxConcurrentRequests(1);
+        properties.getTwilio().setBulkheadWait(Duration.ZERO);
+        UpstreamClients clients = new UpstreamClients(properties, WebClient.builder());
+        RestTemplate twilio = clients.restTemplate(Upstream.TWILIO);
+
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Headers arrive at once, the body only when released
+        InputStream slowBody = new InputStream() {
+            private final InputStream body = new ByteArrayInputStream("ok".getBytes(StandardCharsets.UTF_8));
+
+            @Override
+            public int read() throws IOException {
+                reading.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return body.read();
+            }
+        };
+        MockRestServiceServer server = MockRestServiceServer.bindTo(twilio).build();
+        server.expect(requestTo("https://api.twilio.com/slow"))
+                .andRespond(request -> new MockClientHttpResponse(slowBody, HttpStatus.OK));
+
+        CompletableFuture<String> slow = CompletableFuture.supplyAsync(
+                () -> twilio.getForObject("https://api.twilio.com/slow", String.class));
+        assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> twilio.getForObject("https://api.twilio.com/other", String.class))
+                .isInstanceOf(UpstreamBusyException.class);
+        release.countDown();
+        assertThat(slow.get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stats = (Map<String, Object>) clients.stats().get("twilio");
+        assertThat(stats).containsEntry("requests", 1L).containsEntry("rejected", 1L).containsEntry("inFlight", 0);
+        clients.shutdown();
+    }
+}
@@ -0,0 +1,68 @@
+package com.nextinnomind.agro_speak_backend.controllers;
+
+import com.nextinnomind.agro_speak_backend.entity.User;
+import com.nextinnomind.agro_speak_backend.repository.UserRepository;
+import com.nextinnomind.agro_speak_backend.security.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Same configuration as SmsBroadcastSecurityTest, so both share one application context
+@SpringBootTest(properties = {
+        "sms.outbox.dispatcher-enabled=false",
+        "sms.broadcast.per-caller.permits=1",
+        "sms.broadcast.per-caller.burst=1"
+})
+@AutoConfigureMockMvc
+class OperationalEndpointsSecurityTest {
+
+    // Stats and configuration of the running instance
+    private static final List<String> ADMIN_ONLY = List.of(
+            "/api/v1/weather/sms/outbox",
+            "/api/v1/weather/alerts/last-run",
+            "/api/v1/weather/alerts/rules",
+            "/api/v1/weather/push/stats",
+            "/api/v1/weather/cache/stats",
+            "/api/v1/security/health/upstreams");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void operationalEndpointsAreForAdminsOnly() throws Exception {
+        String farmer = token("farmer@ops.test", "farmer");
+        String admin = token("admin@ops.test", "admin");
+
+        for (String path : ADMIN_ONLY) {
+            mockMvc.perform(get(path)).andExpect(status().isUnauthorized());
+            mockMvc.perform(get(path).header(HttpHeaders.AUTHORIZATION, "Bearer " + farmer))
+                    .andExpect(status().isForbidden());
+            int adminStatus = mockMvc.perform(get(path).header(HttpHeaders.AUTHORIZATION, "Bearer " + admin))
+                    .andReturn().getResponse().getStatus();
+            assertThat(adminStatus).as(path).isNotIn(401, 403);
+        }
+    }
+
+    private String token(String email, String role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setRole(role);
+        userRepository.save(user);
+        return jwtUtil.generateToken(email);
+    }
+}
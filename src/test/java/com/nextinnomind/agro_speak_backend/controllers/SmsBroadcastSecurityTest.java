@@ -0,0 +1,67 @@
+package com.nextinnomind.agro_speak_backend.controllers;
+
+import com.nextinnomind.agro_speak_backend.entity.User;
+import com.nextinnomind.agro_speak_backend.repository.UserRepository;
+import com.nextinnomind.agro_speak_backend.security.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "sms.outbox.dispatcher-enabled=false",
+        "sms.broadcast.per-caller.permits=1",
+        "sms.broadcast.per-caller.burst=1"
+})
+@AutoConfigureMockMvc
+class SmsBroadcastSecurityTest {
+
+    private static final String BROADCAST = "{\"phones\": [\"+260970000001\"], \"message\": \"Heavy rain tonight\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void onlyAdminsMayBroadcastAndEachWithinTheirLimit() throws Exception {
+        broadcast(null).andExpect(status().isUnauthorized());
+        broadcast(token("farmer@broadcast.test", "farmer")).andExpect(status().isForbidden());
+
+        String admin = token("admin@broadcast.test", "admin");
+        broadcast(admin, "{\"phones\": [\"+260970000001\", \"0970000002\"], \"message\": \"Heavy rain tonight\"}")
+                .andExpect(status().isBadRequest());
+        broadcast(admin).andExpect(status().isAccepted());
+        broadcast(admin).andExpect(status().isTooManyRequests()).andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    private ResultActions broadcast(String token) throws Exception {
+        return broadcast(token, BROADCAST);
+    }
+
+    private ResultActions broadcast(String token, String body) throws Exception {
+        var request = post("/api/v1/weather/sms/broadcast").contentType(MediaType.APPLICATION_JSON).content(body);
+        if (token != null) request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        return mockMvc.perform(request);
+    }
+
+    private String token(String email, String role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setRole(role);
+        userRepository.save(user);
+        return jwtUtil.generateToken(email);
+    }
+}
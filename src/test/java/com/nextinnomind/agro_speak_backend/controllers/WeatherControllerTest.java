@@ -0,0 +1,197 @@
+package com.nextinnomind.agro_speak_backend.controllers;
+
+import com.nextinnomind.agro_speak_backend.config.SmsBroadcastProperties;
+import com.nextinnomind.agro_speak_backend.config.WeatherBatchProperties;
+import com.nextinnomind.agro_speak_backend.dto.WeatherDashboardResponse;
+import com.nextinnomind.agro_speak_backend.entity.TimeAxis;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+import com.nextinnomind.agro_speak_backend.repository.UserRepository;
+import com.nextinnomind.agro_speak_backend.service.AgroIndicatorService;
+import com.nextinnomind.agro_speak_backend.service.CachedForecast;
+import com.nextinnomind.agro_speak_backend.service.ForecastSmsRenderer;
+import com.nextinnomind.agro_speak_backend.service.GridCell;
+import com.nextinnomind.agro_speak_backend.service.SmsBroadcastThrottle;
+import com.nextinnomind.agro_speak_backend.service.SmsDispatcher;
+import com.nextinnomind.agro_speak_backend.service.SmsForecastThrottle;
+import com.nextinnomind.agro_speak_backend.service.SmsOutbox;
+import com.nextinnomind.agro_speak_backend.service.WeatherAlertScheduler;
+import com.nextinnomind.agro_speak_backend.service.WeatherCache;
+import com.nextinnomind.agro_speak_backend.service.WeatherCacheKey;
+import com.nextinnomind.agro_speak_backend.service.WeatherDataType;
+import com.nextinnomind.agro_speak_backend.service.WeatherPushHub;
+import com.nextinnomind.agro_speak_backend.service.WeatherService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class WeatherControllerTest {
+
+    private WeatherService weatherService;
+    private SmsForecastThrottle smsForecastThrottle;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        weatherService = mock(WeatherService.class);
+        smsForecastThrottle = mock(SmsForecastThrottle.class);
+        when(smsForecastThrottle.check(anyString(), anyString())).thenReturn(Duration.ZERO);
+        WeatherController controller = new WeatherController(weatherService, mock(SmsOutbox.class),
+                mock(UserRepository.class), mock(WeatherCache.class), mock(WeatherAlertScheduler.class),
+                new WeatherBatchProperties(), mock(WeatherPushHub.class),
+                mock(AgroIndicatorService.class), mock(ForecastSmsRenderer.class), mock(SmsDispatcher.class),
+                smsForecastThrottle, new SmsBroadcastProperties(), mock(SmsBroadcastThrottle.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        WeatherResponse response = new WeatherResponse();
+        response.setLatitude(-15.4);
+        response.setLongitude(28.3);
+        Instant fetchedAt = Instant.now();
+        CachedForecast forecast = new CachedForecast(
+                new WeatherCacheKey(WeatherDataType.HOURLY, GridCell.snap(-15.4, 28.3, 0.1), "hours=24"),
+                response, fetchedAt, fetchedAt.plus(Duration.ofHours(1)));
+        when(weatherService.getHourlyForecastCached(anyDouble(), anyDouble(), anyInt(), anyInt())).thenReturn(forecast);
+    }
+
+    @Test
+    void repeatedGetWithMatchingEtagReturnsNotModified() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/v1/weather/hourly").param("latitude", "-15.4").param("longitude", "28.3"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, startsWith("max-age=")))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"").endsWith("\"");
+
+        mockMvc.perform(get("/api/v1/weather/hourly").param("latitude", "-15.4").param("longitude", "28.3")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void etagDiffersPerWindowAndEncoding() throws Exception {
+        String hourly = etag(get("/api/v1/weather/hourly").param("latitude", "-15.4").param("longitude", "28.3"));
+        String threeHourly = etag(get("/api/v1/weather/hourly").param("latitude", "-15.4").param("longitude", "28.3")
+                .param("step", "3"));
+        String cbor = etag(get("/api/v1/weather/hourly").param("latitude", "-15.4").param("longitude", "28.3")
+                .header(HttpHeaders.ACCEPT, "application/cbor"));
+
+        assertThat(hourly).isNotEqualTo(threeHourly).isNotEqualTo(cbor);
+    }
+
+    @Test
+    void batchWithAMissingOrOutOfRangeCoordinateIsRejected() throws Exception {
+        for (String body : new String[]{"[{\"latitude\": -15.4, \"longitude\": 28.3}, null]",
+                "[{\"latitude\": 91, \"longitude\": 28.3}]", "[{\"latitude\": -15.4, \"longitude\": -180.5}]"}) {
+            mockMvc.perform(post("/api/v1/weather/current/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isBadRequest());
+        }
+
+        verify(weatherService, never()).getCurrentWeather(anyList());
+    }
+
+    @Test
+    void forecastSmsToAnInvalidNumberIsRejected() throws Exception {
+        mockMvc.perform(post("/api/v1/weather/sms/forecast").param("latitude", "-15.4").param("longitude", "28.3")
+                        .param("phone", "+2609700000010000000001"))
+                .andExpect(status().isBadRequest());
+
+        verify(smsForecastThrottle, never()).check(anyString(), anyString());
+    }
+
+    @Test
+    void soilDataCoversTheWholeWeekUnlessAskedForLess() throws Exception {
+        mockMvc.perform(get("/api/v1/weather/soil").param("latitude", "-15.4").param("longitude", "28.3"));
+        mockMvc.perform(get("/api/v1/weather/soil").param("latitude", "-15.4").param("longitude", "28.3")
+                .param("hours", "24"));
+
+        verify(weatherService).getSoilDataCached(-15.4, 28.3, 168, 1);
+        verify(weatherService).getSoilDataCached(-15.4, 28.3, 24, 1);
+    }
+
+    @Test
+    void forecastSmsLimitIgnoresClientSuppliedForwardedFor() throws Exception {
+        for (String spoofed : new String[]{"203.0.113.1", "203.0.113.2"}) {
+            mockMvc.perform(post("/api/v1/weather/sms/forecast").param("latitude", "-15.4").param("longitude", "28.3")
+                    .param("phone", "+260970000001").header("X-Forwarded-For", spoofed)
+                    .with(request -> {
+                        request.setRemoteAddr("198.51.100.7");
+                        return request;
+                    }));
+        }
+
+        verify(smsForecastThrottle, times(2)).check("198.51.100.7", "+260970000001");
+    }
+
+    @Test
+    void dashboardSectionsAreParsedAndOnlyTheRequestedOnesReturned() throws Exception {
+        WeatherResponse response = new WeatherResponse();
+        WeatherResponse.CurrentWeather current = new WeatherResponse.CurrentWeather();
+        current.setTemperature(25.0);
+        response.setCurrentWeather(current);
+        WeatherResponse.Daily daily = new WeatherResponse.Daily();
+        daily.setTime(TimeAxis.of("2025-01-01"));
+        daily.setTemperatureMax(new double[]{29.0});
+        response.setDaily(daily);
+        Instant fetchedAt = Instant.now();
+        when(weatherService.getDashboardForecastCached(anyDouble(), anyDouble(), any(), anyInt(), anyInt()))
+                .thenReturn(new CachedForecast(new WeatherCacheKey(WeatherDataType.DASHBOARD,
+                        GridCell.snap(-15.4, 28.3, 0.1), "sections=[DAILY]"), response, fetchedAt,
+                        fetchedAt.plus(Duration.ofMinutes(10))));
+
+        mockMvc.perform(get("/api/v1/weather/dashboard").param("latitude", "-15.4").param("longitude", "28.3")
+                        .param("sections", " Daily,,soil ").param("days", "30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.daily.temperatureMax[0]").value(29.0))
+                .andExpect(jsonPath("$.current").doesNotExist())
+                .andExpect(jsonPath("$.hourly").doesNotExist());
+        verify(weatherService).getDashboardForecastCached(-15.4, 28.3,
+                EnumSet.of(WeatherDashboardResponse.Section.DAILY, WeatherDashboardResponse.Section.SOIL), 16, 24);
+
+        mockMvc.perform(get("/api/v1/weather/dashboard").param("latitude", "-15.4").param("longitude", "28.3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.current.temperature").value(25.0))
+                .andExpect(jsonPath("$.daily").exists());
+        verify(weatherService).getDashboardForecastCached(-15.4, 28.3,
+                EnumSet.allOf(WeatherDashboardResponse.Section.class), 7, 24);
+
+        for (String sections : new String[]{"daily,wind", " , "}) {
+            mockMvc.perform(get("/api/v1/weather/dashboard").param("latitude", "-15.4").param("longitude", "28.3")
+                            .param("sections", sections))
+                    .andExpect(status().isBadRequest());
+        }
+        verify(weatherService, times(2)).getDashboardForecastCached(anyDouble(), anyDouble(), any(), anyInt(), anyInt());
+    }
+
+    private String etag(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
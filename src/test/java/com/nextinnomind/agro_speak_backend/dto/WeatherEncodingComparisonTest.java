@@ -0,0 +1,70 @@
+package com.nextinnomind.agro_speak_backend.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.nextinnomind.agro_speak_backend.entity.NullableDoubleArray;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+import org.junit.jupiter.api.Test;
+
+import static com.nextinnomind.agro_speak_backend.benchmark.WeatherEncodingBenchmark.forecast;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Size and round-trip checks of the weather payload encodings, on a 16-day hourly + daily forecast.
+ * Serialization time is measured by WeatherEncodingBenchmark.
+ */
+class WeatherEncodingComparisonTest {
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final ObjectMapper cbor = new CBORMapper();
+
+    @Test
+    void binaryAndColumnarEncodingsAreSmallerThanJson() throws Exception {
+        WeatherResponse response = forecast(384, 16);
+
+        int plainJson = json.writeValueAsBytes(response).length;
+        int plainCbor = cbor.writeValueAsBytes(response).length;
+        int columnarJson = json.writeValueAsBytes(ColumnarWeatherResponse.from(response)).length;
+        int columnarCbor = cbor.writeValueAsBytes(ColumnarWeatherResponse.from(response)).length;
+
+        assertThat(plainCbor).isLessThan(plainJson);
+        assertThat(columnarJson).isLessThan(plainJson / 2);
+        assertThat(columnarCbor).isLessThan(columnarJson);
+    }
+
+    @Test
+    void columnarEncodingDecodesBackToTheSourceValues() {
+        WeatherResponse response = forecast(48, 2);
+        Double[] source = response.getHourly().getPrecipitation().toArray();
+        source[5] = null;
+        response.getHourly().setPrecipitation(NullableDoubleArray.of(source));
+
+        ColumnarWeatherResponse.Columns hourly = ColumnarWeatherResponse.from(response).getHourly();
+
+        assertThat(hourly.getTime()).isNull();
+        assertThat(hourly.getStep()).isEqualTo(3600);
+        assertThat(hourly.getCount()).isEqualTo(48);
+
+        double[] temperature = response.getHourly().getTemperature();
+        Double[] decoded = decode(hourly.getSeries().get("temperature_2m"));
+        for (int i = 0; i < temperature.length; i++) {
+            assertThat(decoded[i]).isCloseTo(temperature[i], within(0.05));
+        }
+
+        Double[] precipitation = decode(hourly.getSeries().get("precipitation"));
+        assertThat(precipitation[5]).isNull();
+        assertThat(precipitation[6]).isCloseTo(response.getHourly().getPrecipitation().get(6), within(0.05));
+    }
+
+    private static Double[] decode(ColumnarWeatherResponse.Series series) {
+        Double[] values = new Double[series.getDeltas().length];
+        long current = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (series.getDeltas()[i] == null) continue;
+            current += series.getDeltas()[i];
+            values[i] = (double) current / series.getScale();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,68 @@
+package com.nextinnomind.agro_speak_backend.repository;
+
+import com.nextinnomind.agro_speak_backend.config.AlertShardingProperties;
+import com.nextinnomind.agro_speak_backend.service.AlertShardManager;
+import com.nextinnomind.agro_speak_backend.service.GridCell;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class AlertShardLeaseRepositoryTest {
+
+    @Autowired
+    private AlertShardLeaseRepository leaseRepository;
+
+    @Autowired
+    private AlertNodeRepository nodeRepository;
+
+    @Test
+    void claimSucceedsOnlyForFreeExpiredOrOwnShards() {
+        Instant now = Instant.now();
+        leaseRepository.insertShard(0, Instant.EPOCH);
+
+        assertThat(leaseRepository.claim(0, "a", now, now.plusSeconds(60))).isEqualTo(1);
+        assertThat(leaseRepository.claim(0, "b", now, now.plusSeconds(60))).isZero();
+        assertThat(leaseRepository.claim(0, "a", now, now.plusSeconds(90))).isEqualTo(1);
+
+        // Once a's lease has run out, b can take the shard over and a can no longer renew it
+        Instant later = now.plusSeconds(120);
+        assertThat(leaseRepository.claim(0, "b", later, later.plusSeconds(60))).isEqualTo(1);
+        assertThat(leaseRepository.renew("a", later, later.plusSeconds(60))).isZero();
+        assertThat(leaseRepository.findHeldShards("b", later)).containsExactly(0);
+    }
+
+    @Test
+    void nodesSplitShardsEvenlyAndEachCellHasOneOwner() {
+        AlertShardManager a = manager("node-a");
+        AlertShardManager b = manager("node-b");
+
+        a.heartbeat();
+        assertThat(a.stats()).containsEntry("ownedShards", 8);
+
+        // b joins: it finds nothing free until a gives up the shards above its new share
+        b.heartbeat();
+        a.heartbeat();
+        b.heartbeat();
+        assertThat(a.stats()).containsEntry("ownedShards", 4);
+        assertThat(b.stats()).containsEntry("ownedShards", 4);
+
+        for (int lat = -100; lat < 100; lat += 7) {
+            GridCell cell = GridCell.snap(lat / 10.0, 28.3, 0.1);
+            assertThat(a.owns(cell)).isNotEqualTo(b.owns(cell));
+        }
+    }
+
+    private AlertShardManager manager(String nodeId) {
+        AlertShardingProperties properties = new AlertShardingProperties();
+        properties.setShards(8);
+        properties.setLeaseDuration(Duration.ofMinutes(1));
+        properties.setNodeId(nodeId);
+        return new AlertShardManager(leaseRepository, nodeRepository, properties);
+    }
+}
@@ -0,0 +1,96 @@
+package com.nextinnomind.agro_speak_backend.repository;
+
+import com.nextinnomind.agro_speak_backend.config.SmsOutboxProperties;
+import com.nextinnomind.agro_speak_backend.entity.SmsOutboxMessage;
+import com.nextinnomind.agro_speak_backend.entity.SmsOutboxMessage.Status;
+import com.nextinnomind.agro_speak_backend.service.SmsComposer;
+import com.nextinnomind.agro_speak_backend.service.SmsDispatcher;
+import com.nextinnomind.agro_speak_backend.service.SmsOutbox;
+import com.nextinnomind.agro_speak_backend.service.SmsSendResult;
+import com.nextinnomind.agro_speak_backend.service.SmsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+class SmsOutboxRepositoryTest {
+
+    @Autowired
+    private SmsOutboxRepository repository;
+
+    @Test
+    void claimIsExclusiveAndExpiredClaimsAreRecovered() {
+        SmsOutbox outbox = new SmsOutbox(repository, new SmsComposer(2));
+        long id = outbox.enqueue("+260970000001", "hello", SmsOutbox.SOURCE_FORECAST);
+        Instant now = Instant.now();
+
+        assertThat(repository.claim(List.of(id), "a", now.plusSeconds(60))).isEqualTo(1);
+        assertThat(repository.claim(List.of(id), "b", now.plusSeconds(60))).isZero();
+        assertThat(repository.findDueIds(now, Limit.of(10))).isEmpty();
+
+        assertThat(repository.recoverExpired(now.plusSeconds(120))).isEqualTo(1);
+        // The old claim no longer holds, so a stalled dispatcher cannot overwrite the retry
+        assertThat(repository.complete(id, "a", Status.SENT, 1, null, now, 5L, null)).isZero();
+        assertThat(repository.findById(id)).get().extracting(SmsOutboxMessage::getStatus).isEqualTo(Status.PENDING);
+    }
+
+    @Test
+    void dispatcherRecordsSentRetriedAndFailedMessages() {
+        SmsService smsService = mock(SmsService.class);
+        when(smsService.deliver("+260970000011", "ok")).thenReturn(SmsSendResult.accepted());
+        when(smsService.deliver("+260970000012", "busy")).thenReturn(SmsSendResult.retry("HTTP 503"));
+        when(smsService.deliver("+260970000013", "bad")).thenReturn(SmsSendResult.reject("HTTP 400"));
+
+        SmsOutboxProperties properties = new SmsOutboxProperties();
+        properties.setRate(0);
+        SmsOutbox outbox = new SmsOutbox(repository, new SmsComposer(2));
+        SmsDispatcher dispatcher = new SmsDispatcher(repository, smsService, properties, Runnable::run);
+
+        long sent = outbox.enqueue("+260970000011", "ok", SmsOutbox.SOURCE_FORECAST);
+        long retried = outbox.enqueue("+260970000012", "busy", SmsOutbox.SOURCE_ALERT);
+        long failed = outbox.enqueue("+260970000013", "bad", SmsOutbox.SOURCE_ALERT);
+        dispatcher.poll();
+
+        assertThat(repository.findById(sent)).get().satisfies(m -> {
+            assertThat(m.getStatus()).isEqualTo(Status.SENT);
+            assertThat(m.getLatencyMs()).isNotNull();
+        });
+        assertThat(repository.findById(retried)).get().satisfies(m -> {
+            assertThat(m.getStatus()).isEqualTo(Status.PENDING);
+            assertThat(m.getAttempts()).isEqualTo(1);
+            assertThat(m.getNextAttemptAt()).isAfter(Instant.now().plus(Duration.ofSeconds(20)));
+        });
+        assertThat(repository.findById(failed)).get().extracting(SmsOutboxMessage::getStatus).isEqualTo(Status.FAILED);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Long> counts = (Map<String, Long>) outbox.backlog().get("counts");
+        assertThat(counts).containsEntry("SENT", 1L).containsEntry("PENDING", 1L).containsEntry("FAILED", 1L);
+        assertThat(dispatcher.stats()).containsEntry("sent", 1L).containsEntry("retried", 1L).containsEntry("failed", 1L);
+    }
+
+    @Test
+    void invalidNumbersAreSkippedWithoutFailingTheBatch() {
+        SmsOutbox outbox = new SmsOutbox(repository, new SmsComposer(2));
+
+        int queued = outbox.enqueueAll(List.of("+260 97-000-0021", "00260970000021", "0970000022",
+                "+2609700000220000000000", "+260970000023"), "Heavy rain tonight", SmsOutbox.SOURCE_ALERT);
+
+        assertThat(queued).isEqualTo(2);
+        assertThat(repository.findAll()).extracting(SmsOutboxMessage::getPhone)
+                .containsExactlyInAnyOrder("+260970000021", "+260970000023");
+        assertThat(outbox.backlog()).containsEntry("invalidRecipients", 2L);
+        assertThatThrownBy(() -> outbox.enqueue("12345", "hello", SmsOutbox.SOURCE_FORECAST))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,68 @@
+package com.nextinnomind.agro_speak_backend.repository;
+
+import com.nextinnomind.agro_speak_backend.dto.AlertLocation;
+import com.nextinnomind.agro_speak_backend.dto.AlertSubscriber;
+import com.nextinnomind.agro_speak_backend.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void alertSubscriberPagesSkipIneligibleUsersAndContinueFromLastId() {
+        User first = userRepository.save(user("a@x.zm", "+260971000001", true, -15.4, 28.3));
+        userRepository.save(user("b@x.zm", "+260971000002", false, -15.4, 28.3));
+        userRepository.save(user("c@x.zm", "", true, -15.4, 28.3));
+        userRepository.save(user("d@x.zm", "+260971000004", true, null, null));
+        User second = userRepository.save(user("e@x.zm", "+260971000005", true, -12.8, 28.2));
+        User third = userRepository.save(user("f@x.zm", "+260971000006", true, -13.0, 27.9));
+
+        List<AlertSubscriber> page = userRepository.findAlertSubscribersAfter(0, Limit.of(2));
+        assertThat(page).extracting(AlertSubscriber::getId).containsExactly(first.getId(), second.getId());
+        assertThat(page.get(1).getLatitude()).isEqualTo(-12.8);
+
+        List<AlertSubscriber> next = userRepository.findAlertSubscribersAfter(page.get(1).getId(), Limit.of(2));
+        assertThat(next).extracting(AlertSubscriber::getId).containsExactly(third.getId());
+    }
+
+    @Test
+    void shardPagesOnlyReturnSubscribersOfTheGivenShards() {
+        User first = userRepository.save(user("a@x.zm", "+260971000001", true, -15.4, 28.3));
+        User second = userRepository.save(user("b@x.zm", "+260971000002", true, -12.8, 28.2));
+        User third = userRepository.save(user("c@x.zm", "+260971000003", true, -13.0, 27.9));
+
+        assertThat(userRepository.findUnassignedAlertLocationsAfter(0, Limit.of(10)))
+                .extracting(AlertLocation::getId).containsExactly(first.getId(), second.getId(), third.getId());
+        userRepository.assignAlertShard(first.getId(), -15.4, 28.3, 1);
+        userRepository.assignAlertShard(second.getId(), -12.8, 28.2, 2);
+        userRepository.assignAlertShard(third.getId(), -13.0, 27.9, 1);
+        // Computed from a location the user has since left: not applied
+        assertThat(userRepository.assignAlertShard(third.getId(), -10.0, 27.9, 2)).isZero();
+
+        assertThat(userRepository.findUnassignedAlertLocationsAfter(0, Limit.of(10))).isEmpty();
+        assertThat(userRepository.findAlertSubscribersInShardsAfter(List.of(1, 3), 0, Limit.of(10)))
+                .extracting(AlertSubscriber::getId).containsExactly(first.getId(), third.getId());
+        assertThat(userRepository.findAlertSubscribersInShardsAfter(List.of(2), 0, Limit.of(10)))
+                .extracting(AlertSubscriber::getId).containsExactly(second.getId());
+    }
+
+    private static User user(String email, String phone, boolean alerts, Double lat, Double lon) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPhone(phone);
+        user.setAlertsEnabled(alerts);
+        user.setLatitude(lat);
+        user.setLongitude(lon);
+        return user;
+    }
+}
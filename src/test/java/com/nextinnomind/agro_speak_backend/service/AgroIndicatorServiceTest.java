@@ -0,0 +1,123 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.nextinnomind.agro_speak_backend.config.AgroIndicatorProperties;
+import com.nextinnomind.agro_speak_backend.dto.AgroIndicatorsResponse;
+import com.nextinnomind.agro_speak_backend.entity.NullableDoubleArray;
+import com.nextinnomind.agro_speak_backend.entity.TimeAxis;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AgroIndicatorServiceTest {
+
+    private static final GridCell CELL = GridCell.snap(-15.4, 28.3, 0.1);
+    private static final int PAST_DAYS = 3;
+    private static final int FORECAST_DAYS = 2;
+
+    private WeatherService weatherService;
+    private AgroIndicatorService service;
+    private long today;
+
+    @BeforeEach
+    void setUp() {
+        weatherService = mock(WeatherService.class);
+        when(weatherService.gridCellFor(anyDouble(), anyDouble())).thenReturn(CELL);
+        AgroIndicatorProperties properties = new AgroIndicatorProperties();
+        properties.setPastDays(PAST_DAYS);
+        properties.setForecastDays(FORECAST_DAYS);
+        service = new AgroIndicatorService(weatherService, properties);
+        today = Math.floorDiv(Instant.now().getEpochSecond(), 86_400);
+    }
+
+    @Test
+    void indicatorsAreSummedPerPeriodFromDailyTotals() {
+        // Past days: 5 mm on the first, then two dry days; every day 15..25 °C and 0.2 mm ET0 per hour
+        serve(series(new double[]{5, 0, 0, 12, 0}, 25.0), Instant.now());
+
+        AgroIndicatorsResponse indicators = service.getIndicators(-15.4, 28.3, null);
+
+        assertThat(indicators.getPast().getFrom()).isEqualTo(LocalDate.ofEpochDay(today - 3).toString());
+        assertThat(indicators.getPast().getDays()).isEqualTo(3);
+        // (25 + 15) / 2 - 10 = 10 degree days per day
+        assertThat(indicators.getPast().getGrowingDegreeDays()).isEqualTo(30.0);
+        assertThat(indicators.getPast().getEt0()).isEqualTo(14.4);
+        assertThat(indicators.getPast().getRainfall()).isEqualTo(5.0);
+        assertThat(indicators.getPast().getWaterBalance()).isEqualTo(-9.4);
+        assertThat(indicators.getPast().getLongestDrySpell()).isEqualTo(2);
+        assertThat(indicators.getCurrentDrySpell()).isEqualTo(2);
+        assertThat(indicators.getForecast().getDays()).isEqualTo(2);
+        assertThat(indicators.getForecast().getRainfall()).isEqualTo(12.0);
+        assertThat(indicators.getDaily()).hasSize(5);
+
+        // The default base is a cached read; another base is derived from the same daily totals
+        assertThat(service.getIndicators(-15.4, 28.3, null)).isSameAs(indicators);
+        assertThat(service.getIndicators(-15.4, 28.3, 15.0).getPast().getGrowingDegreeDays()).isEqualTo(15.0);
+    }
+
+    @Test
+    void pastDaysAreSealedAndOnlyNewHoursAreFoldedIn() {
+        Instant first = Instant.now().minusSeconds(600);
+        serve(series(new double[]{5, 0, 0, 12, 0}, 25.0), first);
+        AgroIndicatorsResponse before = service.getIndicators(-15.4, 28.3, null);
+
+        // A refresh published by the cache: forecast changed, and so did the already sealed past days
+        WeatherResponse refreshed = series(new double[]{50, 50, 50, 1, 3}, 35.0);
+        Instant second = Instant.now();
+        service.onForecastRefreshed(new ForecastRefreshedEvent(
+                WeatherService.indicatorKey(CELL, PAST_DAYS, FORECAST_DAYS), new ForecastSnapshot(refreshed, second)));
+        serve(refreshed, second);
+        AgroIndicatorsResponse after = service.getIndicators(-15.4, 28.3, null);
+
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.getFetchedAt()).isEqualTo(second.toString());
+        assertThat(after.getPast().getRainfall()).isEqualTo(5.0);
+        assertThat(after.getPast().getGrowingDegreeDays()).isEqualTo(30.0);
+        assertThat(after.getForecast().getRainfall()).isEqualTo(4.0);
+        // Capped at the 30 °C upper threshold: (30 + 15) / 2 - 10
+        assertThat(after.getForecast().getGrowingDegreeDays()).isEqualTo(25.0);
+    }
+
+    private void serve(WeatherResponse series, Instant fetchedAt) {
+        when(weatherService.getIndicatorSeriesCached(any(), anyInt(), anyInt())).thenReturn(new CachedForecast(
+                WeatherService.indicatorKey(CELL, PAST_DAYS, FORECAST_DAYS), series, fetchedAt,
+                fetchedAt.plus(Duration.ofHours(1))));
+    }
+
+    /**
+     * Hourly series from three days ago to the end of tomorrow (UTC) with the given daily rain; the
+     * temperature swings between 15 °C and the given maximum every day
+     */
+    private WeatherResponse series(double[] dailyRain, double maxTemperature) {
+        int hours = dailyRain.length * 24;
+        double[] temperature = new double[hours];
+        Double[] rain = new Double[hours];
+        Double[] et0 = new Double[hours];
+        for (int i = 0; i < hours; i++) {
+            temperature[i] = i % 24 == 14 ? maxTemperature : i % 24 == 4 ? 15.0 : 20.0;
+            rain[i] = i % 24 == 12 ? dailyRain[i / 24] : 0.0;
+            et0[i] = 0.2;
+        }
+        WeatherResponse.Hourly hourly = new WeatherResponse.Hourly();
+        hourly.setTime(TimeAxis.regular((today - 3) * 86_400, 3_600, hours, false));
+        hourly.setTemperature(temperature);
+        hourly.setPrecipitation(NullableDoubleArray.of(rain));
+        hourly.setEt0(NullableDoubleArray.of(et0));
+
+        WeatherResponse response = new WeatherResponse();
+        response.setUtcOffsetSeconds(0);
+        response.setTimezone("GMT");
+        response.setHourly(hourly);
+        return response;
+    }
+}
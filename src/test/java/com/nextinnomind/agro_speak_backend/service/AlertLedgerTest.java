@@ -0,0 +1,82 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.nextinnomind.agro_speak_backend.repository.AlertLedgerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class AlertLedgerTest {
+
+    private static final GridCell CELL = GridCell.snap(-15.4, 28.3, 0.1);
+    private static final long NOW = Instant.now().getEpochSecond();
+
+    @Autowired
+    private AlertLedgerRepository repository;
+
+    private AlertLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new AlertLedger(Duration.ofHours(6), repository);
+    }
+
+    @Test
+    void continuingHazardIsNotifiedOnceAndEscalationsAgain() {
+        AlertHazard storm = hazard(HazardType.SEVERE_WEATHER, 1, NOW, NOW + 3_600);
+        assertThat(ledger.unnotified(CELL, List.of(storm))).containsExactly(storm);
+        ledger.record(CELL, List.of(storm));
+
+        // Next run: the same storm in the following hour, plus a new rain hazard
+        AlertHazard stillStorming = hazard(HazardType.SEVERE_WEATHER, 1, NOW + 3_600, NOW + 7_200);
+        AlertHazard rain = hazard(HazardType.HEAVY_PRECIPITATION, 1, NOW + 7_200, NOW + 18_000);
+        assertThat(ledger.unnotified(CELL, List.of(stillStorming, rain))).containsExactly(rain);
+        ledger.record(CELL, List.of(stillStorming, rain));
+
+        AlertHazard hail = hazard(HazardType.SEVERE_WEATHER, 3, NOW + 7_200, NOW + 10_800);
+        assertThat(ledger.unnotified(CELL, List.of(hail, rain))).containsExactly(hail);
+
+        // Other cells are unaffected
+        assertThat(ledger.unnotified(GridCell.snap(-12.8, 28.2, 0.1), List.of(rain))).containsExactly(rain);
+        assertThat(ledger.stats()).containsEntry("suppressed", 2L).containsEntry("escalations", 1L);
+    }
+
+    @Test
+    void laterHazardOutsideTheNotifiedWindowIsNew() {
+        ledger.record(CELL, List.of(hazard(HazardType.HEAVY_PRECIPITATION, 2, NOW, NOW + 3_600)));
+
+        AlertHazard tomorrow = hazard(HazardType.HEAVY_PRECIPITATION, 1, NOW + 86_400, NOW + 90_000);
+        assertThat(ledger.unnotified(CELL, List.of(tomorrow))).containsExactly(tomorrow);
+    }
+
+    @Test
+    void hazardIsForgottenAfterItsWindowAndCooldown() {
+        AlertLedger noCooldown = new AlertLedger(Duration.ZERO, repository);
+        AlertHazard past = hazard(HazardType.SEVERE_WEATHER, 1, NOW - 7_200, NOW - 3_600);
+        noCooldown.record(CELL, List.of(past));
+
+        assertThat(noCooldown.unnotified(CELL, List.of(past))).containsExactly(past);
+    }
+
+    @Test
+    void nodeTakingOverACellKnowsWhatWasSent() {
+        AlertHazard storm = hazard(HazardType.SEVERE_WEATHER, 1, NOW, NOW + 3_600);
+        ledger.record(CELL, List.of(storm));
+
+        // Another instance whose shards now include the cell, or this one after a restart
+        AlertLedger newOwner = new AlertLedger(Duration.ofHours(6), repository);
+        assertThat(newOwner.unnotified(CELL, List.of(storm))).isEmpty();
+        assertThat(newOwner.stats()).containsEntry("cells", 1L);
+    }
+
+    private static AlertHazard hazard(HazardType type, int severity, long start, long end) {
+        return new AlertHazard(type, severity, start, end, type + " " + severity);
+    }
+}
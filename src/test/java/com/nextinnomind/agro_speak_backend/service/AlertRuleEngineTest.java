@@ -0,0 +1,91 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.nextinnomind.agro_speak_backend.entity.NullableDoubleArray;
+import com.nextinnomind.agro_speak_backend.entity.TimeAxis;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AlertRuleEngineTest {
+
+    private static final GridCell CELL = GridCell.snap(-15.4, 28.3, 0.1);
+    private static final long NOW = Instant.parse("2025-01-01T00:00:00Z").getEpochSecond();
+
+    @Test
+    void defaultRulesComeFromTheProperties() {
+        AlertRuleEngine engine = new AlertRuleEngine("", 20.0, "95,96,99");
+
+        List<AlertHazard> hazards = engine.evaluate(CELL, forecast(96, 5.0, 45.0, 12.0), NOW);
+
+        assertThat(engine.hourlyVariables()).isEqualTo("precipitation,weathercode");
+        assertThat(hazards).extracting(AlertHazard::type)
+                .containsExactly(HazardType.SEVERE_WEATHER, HazardType.HEAVY_PRECIPITATION);
+        assertThat(hazards.get(0).severity()).isEqualTo(2);
+        assertThat(hazards.get(0).message()).isEqualTo("Severe weather alert: Thunderstorm with hail at location (-15.4,28.3).");
+        // 45 mm is two multiples of the 20 mm threshold; the window is the 01:00 and 02:00 hours (UTC+2 local)
+        assertThat(hazards.get(1).severity()).isEqualTo(2);
+        assertThat(hazards.get(1).windowStart()).isEqualTo(NOW - 7_200 + 3_600);
+        assertThat(hazards.get(1).windowEnd()).isEqualTo(NOW - 7_200 + 3 * 3_600);
+        assertThat(hazards.get(1).message()).isEqualTo("Heavy precipitation expected: 45.0mm.");
+
+        assertThat(engine.evaluate(CELL, forecast(3, 0.0, 1.0, 0.0), NOW)).isEmpty();
+    }
+
+    @Test
+    void rulesFileIsCompiledAndReloadedWhenItChanges(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("alert-rules.json");
+        Files.writeString(file, """
+                {"rules": [{"name": "frost", "hazard": "FROST", "variable": "temperature_2m",
+                            "below": 2.0, "step": 2.0, "message": "Frost risk: down to {peak}C."}]}
+                """);
+        AlertRuleEngine engine = new AlertRuleEngine(file.toString(), 20.0, "95,96,99");
+
+        List<AlertHazard> hazards = engine.evaluate(CELL, forecast(96, -3.0, 45.0, 12.0), NOW);
+        assertThat(engine.hourlyVariables()).isEqualTo("temperature_2m");
+        assertThat(hazards).hasSize(1);
+        assertThat(hazards.get(0).severity()).isEqualTo(3);
+        assertThat(hazards.get(0).message()).isEqualTo("Frost risk: down to -3.0C.");
+
+        // An invalid edit is rejected and the previous rules stay active
+        Files.writeString(file, "{\"rules\": [{\"name\": \"broken\", \"hazard\": \"HEAT\"}]}");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 1_000));
+        engine.reload();
+        assertThat(engine.hourlyVariables()).isEqualTo("temperature_2m");
+
+        Files.writeString(file, """
+                {"rules": [{"name": "gale", "hazard": "STRONG_WIND", "variable": "wind_speed_10m",
+                            "above": 10.0, "message": "Strong wind: {peak} km/h."}]}
+                """);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 2_000));
+        engine.reload();
+
+        assertThat(engine.hourlyVariables()).isEqualTo("wind_speed_10m");
+        assertThat(engine.evaluate(CELL, forecast(96, -3.0, 45.0, 12.0), NOW))
+                .extracting(AlertHazard::message).containsExactly("Strong wind: 12.0 km/h.");
+    }
+
+    private static WeatherResponse forecast(int currentCode, double minTemperature, double peakRain, double wind) {
+        WeatherResponse response = new WeatherResponse();
+        response.setUtcOffsetSeconds(7_200);
+        WeatherResponse.CurrentWeather current = new WeatherResponse.CurrentWeather();
+        current.setWeathercode(currentCode);
+        response.setCurrentWeather(current);
+
+        WeatherResponse.Hourly hourly = new WeatherResponse.Hourly();
+        hourly.setTime(TimeAxis.of("2025-01-01T00:00", "2025-01-01T01:00", "2025-01-01T02:00", "2025-01-01T03:00"));
+        hourly.setPrecipitation(NullableDoubleArray.of(0.0, peakRain, peakRain / 2, null));
+        hourly.setWeathercode(new int[]{3, 61, 61, 3});
+        hourly.setTemperature(new double[]{18.0, 12.0, minTemperature, 15.0});
+        hourly.setWindSpeed(new double[]{4.0, wind, 6.0, 3.0});
+        response.setHourly(hourly);
+        return response;
+    }
+}
@@ -0,0 +1,117 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.nextinnomind.agro_speak_backend.entity.TimeAxis;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ForecastSmsRendererTest {
+
+    private static final GridCell CELL = GridCell.snap(-15.4, 28.3, 0.1);
+    private static final WeatherCacheKey DAILY_KEY = new WeatherCacheKey(WeatherDataType.DAILY, CELL, "days=3");
+
+    private WeatherService weatherService;
+    private TranslationService translationService;
+    private ForecastSmsRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        weatherService = mock(WeatherService.class);
+        translationService = mock(TranslationService.class);
+        renderer = renderer(Duration.ZERO);
+        when(weatherService.gridCellFor(anyDouble(), anyDouble())).thenReturn(CELL);
+        serve(forecast(24.5));
+    }
+
+    @Test
+    void bodyIsRenderedOncePerCellAndDayUntilTheDailyForecastRefreshes() {
+        String body = renderer.render(-15.41, 28.29, "en");
+        assertThat(body).isEqualTo("""
+                3-day forecast:
+                2025-01-01: Rainy - 15.0/24.5 C
+                2025-01-02: Clear sky - 14.0/27.0 C
+                """);
+        assertThat(renderer.render(-15.38, 28.31, null)).isSameAs(body);
+        verify(weatherService, times(1)).getDailyForecastCached(anyDouble(), anyDouble(), eq(3));
+
+        // Other forecasts of the cell leave the bodies alone; a refreshed 3-day forecast drops them
+        renderer.onForecastRefreshed(new ForecastRefreshedEvent(WeatherCacheKey.of(WeatherDataType.CURRENT, CELL),
+                new ForecastSnapshot(new WeatherResponse(), Instant.now())));
+        assertThat(renderer.render(-15.4, 28.3, "en")).isSameAs(body);
+
+        serve(forecast(29.0));
+        renderer.onForecastRefreshed(new ForecastRefreshedEvent(DAILY_KEY, new ForecastSnapshot(forecast(29.0), Instant.now())));
+        assertThat(renderer.render(-15.4, 28.3, "en")).contains("15.0/29.0 C");
+        assertThat(renderer.stats()).containsEntry("hitCount", 2L).containsEntry("renderCount", 2L);
+    }
+
+    @Test
+    void phrasesAreTranslatedOncePerLanguageAndFailuresAreNotKept() {
+        when(translationService.translate(anyString(), eq("English"), eq("bemba")))
+                .thenAnswer(inv -> "[bem] " + inv.getArgument(0));
+        when(translationService.translate(eq("Rainy"), eq("English"), eq("nyanja")))
+                .thenReturn("Translation error: timeout", "Mvula");
+        when(translationService.translate(eq("Clear sky"), eq("English"), eq("nyanja"))).thenReturn("Kuwala");
+        when(translationService.translate(eq("3-day forecast:"), eq("English"), eq("nyanja"))).thenReturn("Nyengo:");
+
+        assertThat(renderer.render(-15.4, 28.3, "Bemba")).startsWith("[bem] 3-day forecast:\n2025-01-01: [bem] Rainy");
+        renderer.onForecastRefreshed(new ForecastRefreshedEvent(DAILY_KEY, new ForecastSnapshot(forecast(24.5), Instant.now())));
+        renderer.render(-15.4, 28.3, "bemba");
+        verify(translationService, times(1)).translate("Rainy", "English", "bemba");
+
+        // The first rendering falls back to English for the failed phrase and is not kept
+        assertThat(renderer.render(-15.4, 28.3, "nyanja")).contains("2025-01-01: Rainy");
+        assertThat(renderer.render(-15.4, 28.3, "nyanja")).contains("2025-01-01: Mvula");
+    }
+
+    @Test
+    void unsupportedLanguagesAreRejectedAndFailedPhrasesAreNotRetriedRightAway() {
+        renderer = renderer(Duration.ofMinutes(5));
+        assertThatThrownBy(() -> renderer.render(-15.4, 28.3, "klingon"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("bemba");
+        verifyNoInteractions(translationService);
+
+        when(translationService.translate(anyString(), eq("English"), eq("nyanja"))).thenReturn("Translation error: timeout");
+        assertThat(renderer.render(-15.4, 28.3, "Nyanja")).contains("2025-01-01: Rainy");
+        assertThat(renderer.render(-15.4, 28.3, "nyanja")).contains("2025-01-01: Rainy");
+        verify(translationService, times(1)).translate("Rainy", "English", "nyanja");
+        assertThat(renderer.stats()).containsEntry("translationsSkipped", 3L);
+    }
+
+    private ForecastSmsRenderer renderer(Duration translationRetryAfter) {
+        return new ForecastSmsRenderer(weatherService, translationService, 1_000, List.of("bemba", "nyanja"),
+                translationRetryAfter);
+    }
+
+    private void serve(WeatherResponse response) {
+        Instant now = Instant.now();
+        when(weatherService.getDailyForecastCached(anyDouble(), anyDouble(), eq(3)))
+                .thenReturn(new CachedForecast(DAILY_KEY, response, now, now.plus(Duration.ofHours(3))));
+    }
+
+    private static WeatherResponse forecast(double firstMax) {
+        WeatherResponse.Daily daily = new WeatherResponse.Daily();
+        daily.setTime(TimeAxis.of("2025-01-01", "2025-01-02"));
+        daily.setTemperatureMax(new double[]{firstMax, 27.0});
+        daily.setTemperatureMin(new double[]{15.0, 14.0});
+        daily.setMessages(new String[]{"Rainy", "Clear sky"});
+        WeatherResponse response = new WeatherResponse();
+        response.setDaily(daily);
+        return response;
+    }
+}
@@ -0,0 +1,47 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.nextinnomind.agro_speak_backend.config.SnapshotStoreProperties;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ForecastSnapshotStoreTest {
+
+    @Test
+    void pruneRemovesExpiredSnapshotsAndTheOldestBeyondTheLimit(@TempDir Path dir) {
+        SnapshotStoreProperties properties = new SnapshotStoreProperties();
+        properties.setPath(dir.resolve("snapshots.mv.db").toString());
+        ForecastSnapshotStore store = new ForecastSnapshotStore(properties);
+        store.open();
+        try {
+            WeatherCacheKey expired = key(-15.4, 28.3);
+            WeatherCacheKey older = key(-12.8, 28.2);
+            WeatherCacheKey newer = key(-13.0, 31.5);
+            Instant now = Instant.now();
+            store.save(expired, new ForecastSnapshot(new WeatherResponse(), now.minus(Duration.ofDays(3))));
+            store.save(older, new ForecastSnapshot(new WeatherResponse(), now.minus(Duration.ofHours(2))));
+            store.save(newer, new ForecastSnapshot(new WeatherResponse(), now.minus(Duration.ofHours(1))));
+            store.flush();
+            assertThat(store.stats()).containsEntry("size", 3);
+
+            properties.setMaxEntries(1);
+            assertThat(store.prune()).isEqualTo(2);
+
+            assertThat(store.load(newer)).isNotNull();
+            assertThat(store.load(older)).isNull();
+            assertThat(store.stats()).containsEntry("size", 1).containsEntry("pruned", 2L);
+        } finally {
+            store.close();
+        }
+    }
+
+    private static WeatherCacheKey key(double latitude, double longitude) {
+        return WeatherCacheKey.of(WeatherDataType.CURRENT, GridCell.snap(latitude, longitude, 0.1));
+    }
+}
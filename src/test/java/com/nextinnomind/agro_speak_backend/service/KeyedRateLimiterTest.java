@@ -0,0 +1,42 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.nextinnomind.agro_speak_backend.config.RateLimit;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyedRateLimiterTest {
+
+    @Test
+    void burstIsAllowedThenTheKeyWaitsForItsNextPermit() {
+        // 6 per minute = one every 10 s, up to 2 back to back
+        KeyedRateLimiter limiter = new KeyedRateLimiter(new RateLimit(6, Duration.ofMinutes(1), 2), 1000);
+        long now = System.nanoTime();
+
+        assertThat(limiter.tryAcquire("+260971", now)).isZero();
+        assertThat(limiter.tryAcquire("+260971", now)).isZero();
+        long wait = limiter.tryAcquire("+260971", now);
+        assertThat(TimeUnit.NANOSECONDS.toSeconds(wait)).isEqualTo(10);
+        // A refused request takes nothing, so the wait does not grow with retries
+        assertThat(limiter.tryAcquire("+260971", now)).isEqualTo(wait);
+
+        // Other keys have their own bucket
+        assertThat(limiter.tryAcquire("+260972", now)).isZero();
+        assertThat(limiter.tryAcquire("+260971", now + wait)).isZero();
+        assertThat(limiter.stats()).containsEntry("allowed", 4L).containsEntry("limited", 2L);
+    }
+
+    @Test
+    void reservationsAreSpacedAtTheRate() {
+        TokenBucket bucket = TokenBucket.perSecond(10, 1);
+        long now = System.nanoTime();
+
+        assertThat(bucket.reserve(now)).isZero();
+        assertThat(bucket.reserve(now)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(bucket.reserve(now)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+        assertThat(bucket.tryAcquire(now)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(300));
+    }
+}
@@ -0,0 +1,79 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpenMeteoParserTest {
+
+    private static final String TWO_LOCATIONS_JSON = """
+            [{"latitude": -15.4, "longitude": 28.3, "utc_offset_seconds": 7200, "generationtime_ms": 0.2,
+              "hourly_units": {"time": "iso8601"},
+              "hourly": {"time": ["2025-01-01T00:00", "2025-01-01T01:00", "2025-01-01T03:00"],
+                         "precipitation": [0.5, null, 1.5], "weathercode": [1, 61, 3]},
+              "daily": {"time": ["2025-01-01", "2025-01-02"], "temperature_2m_max": [29.5, 30.1]}},
+             {"latitude": -12.8, "longitude": 28.2,
+              "current_weather": {"temperature": 25.0, "windspeed": 5.0, "weathercode": 95, "is_day": 1,
+                                  "time": "2025-01-01T12:00"}}]
+            """;
+
+    @Test
+    void parsesEveryLocationIntoPrimitiveSeries() throws Exception {
+        List<WeatherResponse> responses = parse(TWO_LOCATIONS_JSON);
+
+        assertThat(responses).hasSize(2);
+        WeatherResponse.Hourly hourly = responses.get(0).getHourly();
+        assertThat(hourly.getTime().isRegular()).isFalse();
+        assertThat(hourly.getTime().toArray()).containsExactly("2025-01-01T00:00", "2025-01-01T01:00", "2025-01-01T03:00");
+        assertThat(hourly.getPrecipitation().isNull(1)).isTrue();
+        assertThat(hourly.getPrecipitation().toArray()).containsExactly(0.5, null, 1.5);
+        assertThat(hourly.getWeathercode()).containsExactly(1, 61, 3);
+
+        WeatherResponse.Daily daily = responses.get(0).getDaily();
+        assertThat(daily.getTime().isRegular()).isTrue();
+        assertThat(daily.getTime().step()).isEqualTo(86_400);
+        assertThat(daily.getTime().get(1)).isEqualTo("2025-01-02");
+
+        assertThat(responses.get(1).getCurrentWeather().getWeathercode()).isEqualTo(95);
+        assertThat(responses.get(1).getCurrentWeather().getTime()).isEqualTo("2025-01-01T12:00");
+    }
+
+    @Test
+    void serializesBackToTheUpstreamShape() throws Exception {
+        WeatherResponse response = parse(TWO_LOCATIONS_JSON).get(0);
+
+        ObjectMapper mapper = new ObjectMapper();
+        String json = mapper.writeValueAsString(response);
+
+        assertThat(json).contains("\"time\":[\"2025-01-01T00:00\",\"2025-01-01T01:00\",\"2025-01-01T03:00\"]");
+        assertThat(json).contains("\"precipitation\":[0.5,null,1.5]");
+        assertThat(json).contains("\"time\":[\"2025-01-01\",\"2025-01-02\"]");
+
+        // Data binding reads the same representation back
+        WeatherResponse bound = mapper.readValue(json, WeatherResponse.class);
+        assertThat(bound.getHourly().getTime()).isEqualTo(response.getHourly().getTime());
+        assertThat(bound.getHourly().getPrecipitation()).isEqualTo(response.getHourly().getPrecipitation());
+    }
+
+    @Test
+    void decimalsMatchDoubleParseDouble() throws Exception {
+        String[] values = {"0.1", "-0.3", "22.4", "1279.0", "0.307", "-15.4166", "100", "1.5e2", "123456789.123456789"};
+        String json = "{\"hourly\": {\"temperature_2m\": [" + String.join(",", values) + "]}}";
+
+        double[] parsed = parse(json).get(0).getHourly().getTemperature();
+
+        for (int i = 0; i < values.length; i++) {
+            assertThat(parsed[i]).isEqualTo(Double.parseDouble(values[i]));
+        }
+    }
+
+    private static List<WeatherResponse> parse(String json) throws Exception {
+        return OpenMeteoParser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,50 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SmsComposerTest {
+
+    private final SmsComposer composer = new SmsComposer(1);
+
+    @Test
+    void typographyIsNormalisedSoTheBodyStaysGsm7() {
+        ComposedSms sms = composer.compose("Storm “warning” – 30°C… stay safe ☔ naïve");
+
+        assertThat(sms.body()).isEqualTo("Storm \"warning\" - 30C... stay safe  naive");
+        assertThat(sms.gsm7()).isTrue();
+        assertThat(sms.segments()).isEqualTo(1);
+        assertThat(sms.compacted()).isFalse();
+
+        // Scripts outside GSM-7 are kept and counted as UCS-2
+        assertThat(SmsComposer.segments("Привет".repeat(12))).isEqualTo(2);
+        assertThat(SmsComposer.segments("a".repeat(160))).isEqualTo(1);
+        assertThat(SmsComposer.segments("a".repeat(159) + "€")).isEqualTo(2);
+    }
+
+    @Test
+    void longBodiesAreCompactedStepByStepThenTruncated() {
+        String forecast = """
+                4-day forecast:
+                2025-01-01: Thunderstorm with hail - 15.0/29.0 C
+                2025-01-02: Partly cloudy   - 16.0/30.0 C
+                2025-01-03: Thunderstorm - 14.0/27.0 C
+                2025-01-04: Light drizzle - 13.5/26.0 C
+                """;
+        ComposedSms sms = composer.compose(forecast);
+        // Shortening the dates and decimals is enough; the weather descriptions are left alone
+        assertThat(sms.body()).isEqualTo("""
+                4-day forecast:
+                01/01: Thunderstorm with hail - 15/29 C
+                02/01: Partly cloudy - 16/30 C
+                03/01: Thunderstorm - 14/27 C
+                04/01: Light drizzle - 14/26 C""");
+        assertThat(sms.compacted()).isTrue();
+
+        ComposedSms cut = composer.compose("word ".repeat(60));
+        assertThat(cut.segments()).isEqualTo(1);
+        assertThat(cut.body()).endsWith("word..");
+        assertThat(cut.body().length()).isLessThanOrEqualTo(160);
+    }
+}
@@ -0,0 +1,97 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.nextinnomind.agro_speak_backend.config.TranslationCacheProperties;
+import com.nextinnomind.agro_speak_backend.entity.TranslationEntry;
+import com.nextinnomind.agro_speak_backend.repository.TranslationEntryRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TranslationCacheTest {
+
+    @Test
+    void repeatsAreServedFromMemoryAndFailuresAreNotCached() {
+        TranslationCache cache = new TranslationCache(new TranslationCacheProperties(), mock(TranslationEntryRepository.class));
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThat(cache.translate("openrouter/m", "Heavy rain expected", "English", "Bemba",
+                () -> "Imfula " + calls.incrementAndGet())).isEqualTo("Imfula 1");
+        // Same text up to whitespace and language case
+        assertThat(cache.translate("openrouter/m", "  Heavy   rain expected ", "english", "BEMBA",
+                () -> "Imfula " + calls.incrementAndGet())).isEqualTo("Imfula 1");
+        // Line breaks are part of the text
+        assertThat(cache.translate("openrouter/m", "Heavy rain\nexpected", "English", "Bemba",
+                () -> "Imfula\n" + calls.incrementAndGet())).isEqualTo("Imfula\n2");
+        assertThat(cache.translate("openrouter/m", "Heavy \t rain\r\nexpected", "English", "Bemba",
+                () -> "Imfula\n" + calls.incrementAndGet())).isEqualTo("Imfula\n2");
+        // Another provider translates on its own
+        assertThat(cache.translate("flask", "Heavy rain expected", "English", "Bemba",
+                () -> "Imfula " + calls.incrementAndGet())).isEqualTo("Imfula 3");
+
+        assertThatThrownBy(() -> cache.translate("openrouter/m", "Frost", "English", "Bemba", () -> {
+            throw new IllegalStateException("empty response");
+        })).hasMessage("empty response");
+        assertThat(cache.translate("openrouter/m", "Frost", "English", "Bemba", () -> "Chipale")).isEqualTo("Chipale");
+
+        assertThat(cache.stats())
+                .containsEntry("hitCount", 2L)
+                .containsEntry("translatedCount", 4L)
+                .containsEntry("failureCount", 1L);
+    }
+
+    @Test
+    void persistedTranslationsAreReadOnAMemoryMissAndNewOnesWritten() {
+        TranslationCacheProperties properties = new TranslationCacheProperties();
+        properties.setPersist(true);
+        TranslationEntryRepository repository = mock(TranslationEntryRepository.class);
+        when(repository.findById(anyString())).thenReturn(Optional.empty());
+        TranslationCache writer = new TranslationCache(properties, repository);
+
+        writer.translate("flask", "Plant maize", "English", "Nyanja", () -> "Bzalani chimanga");
+        ArgumentCaptor<TranslationEntry> saved = ArgumentCaptor.forClass(TranslationEntry.class);
+        verify(repository).save(saved.capture());
+        assertThat(saved.getValue().getSourceText()).isEqualTo("Plant maize");
+        assertThat(saved.getValue().getTargetLanguage()).isEqualTo("nyanja");
+
+        // A fresh instance (e.g. after a restart) finds it in the datasource
+        when(repository.findById(saved.getValue().getCacheKey())).thenReturn(Optional.of(saved.getValue()));
+        TranslationCache reader = new TranslationCache(properties, repository);
+        assertThat(reader.translate("flask", "Plant maize", "English", "Nyanja", () -> {
+            throw new AssertionError("should not translate");
+        })).isEqualTo("Bzalani chimanga");
+        assertThat(reader.stats()).containsEntry("storeHitCount", 1L);
+
+        saved.getValue().setCreatedAt(Instant.now().minus(properties.getTtl()).minusSeconds(1));
+        assertThat(new TranslationCache(properties, repository)
+                .translate("flask", "Plant maize", "English", "Nyanja", () -> "Bzalani chimanga!")).isEqualTo("Bzalani chimanga!");
+    }
+
+    @Test
+    void purgeDeletesPersistedTranslationsPastTheTtlOnlyWhenPersisting() {
+        TranslationCacheProperties properties = new TranslationCacheProperties();
+        TranslationEntryRepository repository = mock(TranslationEntryRepository.class);
+        TranslationCache cache = new TranslationCache(properties, repository);
+
+        cache.purge();
+        verify(repository, never()).deleteCreatedBefore(any());
+
+        properties.setPersist(true);
+        Instant before = Instant.now().minus(properties.getTtl());
+        cache.purge();
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(repository).deleteCreatedBefore(cutoff.capture());
+        assertThat(cutoff.getValue()).isBetween(before, Instant.now().minus(properties.getTtl()));
+    }
+}
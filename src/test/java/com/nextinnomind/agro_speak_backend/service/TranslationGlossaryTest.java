@@ -0,0 +1,64 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TranslationGlossaryTest {
+
+    @Test
+    void matcherFindsWholeWordsIgnoringCaseAndSpacing() {
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.build(List.of("maize", "to plant", "plant", "he", "she"));
+
+        assertThat(matcher.find("Time TO  PLANT maize; maize again")).containsExactly(1, 2, 0);
+        // Inside longer words nothing matches, although "he" ends inside "she" and "maize" starts "maizemeal"
+        assertThat(matcher.find("maizemeal planting ushe")).isEmpty();
+        assertThat(matcher.find("she said")).containsExactly(4);
+    }
+
+    @Test
+    void onlyTermsInTheTextOfTheTargetLanguageAreReturned() {
+        TranslationGlossary glossary = new TranslationGlossary("");
+
+        assertThat(glossary.termsIn("How are you? The maize is ready.", "Bemba")).containsExactly(
+                new TranslationGlossary.Term("how are you", "mulishani"),
+                new TranslationGlossary.Term("maize", "amataba"));
+        assertThat(glossary.termsIn("Heavy rain expected", "bemba")).isEmpty();
+        assertThat(glossary.termsIn("The maize is ready", "nyanja")).isEmpty();
+        assertThat(glossary.version("nyanja")).isEmpty();
+    }
+
+    @Test
+    void glossaryFileIsReloadedWhenItChanges(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("glossary.json");
+        Files.writeString(file, """
+                {"bemba": {"maize": "amataba"}, "Nyanja": {"maize": "chimanga", "rain": "mvula"}}
+                """);
+        TranslationGlossary glossary = new TranslationGlossary(file.toString());
+
+        assertThat(glossary.termsIn("Rain on the maize", "nyanja")).containsExactly(
+                new TranslationGlossary.Term("rain", "mvula"),
+                new TranslationGlossary.Term("maize", "chimanga"));
+        String version = glossary.version("bemba");
+
+        // A broken file keeps the current glossary
+        Files.writeString(file, "{\"bemba\": {\"maize\": \"\"}}");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 1_000));
+        glossary.reload();
+        assertThat(glossary.version("bemba")).isEqualTo(version);
+
+        Files.writeString(file, "{\"bemba\": {\"maize\": \"amataba\", \"rain\": \"imfula\"}}");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 2_000));
+        glossary.reload();
+        assertThat(glossary.termsIn("Rain on the maize", "bemba")).extracting(TranslationGlossary.Term::translation)
+                .containsExactly("imfula", "amataba");
+        assertThat(glossary.version("bemba")).isNotEqualTo(version);
+        assertThat(glossary.termsIn("Rain on the maize", "nyanja")).isEmpty();
+    }
+}
@@ -0,0 +1,193 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.nextinnomind.agro_speak_backend.dto.AlertSubscriber;
+import com.nextinnomind.agro_speak_backend.entity.NullableDoubleArray;
+import com.nextinnomind.agro_speak_backend.entity.TimeAxis;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+import com.nextinnomind.agro_speak_backend.repository.AlertLedgerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Cells are evaluated on worker threads, so the ledger is written in committed transactions
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WeatherAlertSchedulerTest {
+
+    private static final GridCell CELL = GridCell.snap(-15.4, 28.3, 0.1);
+
+    private record Subscriber(Long getId, String getPhone, Double getLatitude, Double getLongitude)
+            implements AlertSubscriber {
+    }
+
+    @Autowired
+    private AlertLedgerRepository ledgerRepository;
+
+    private final List<String> queued = new ArrayList<>();
+    private final Set<String> notifyThreads = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger notifying = new AtomicInteger();
+    private final AtomicInteger maxNotifying = new AtomicInteger();
+    private long notifyMillis;
+    private final AlertRuleEngine ruleEngine = spy(new AlertRuleEngine("", 20.0, "95,96,99"));
+    private WeatherService weatherService;
+    private WeatherAlertScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) scheduler.shutdown();
+        ledgerRepository.deleteAll();
+    }
+
+    @Test
+    void subscribersOfOneCellSpreadOverPagesAllGetTheAlertOnce() {
+        // Eleven subscribers in one cell, read three at a time
+        List<AlertSubscriber> subscribers = LongStream.rangeClosed(1, 11)
+                .mapToObj(id -> (AlertSubscriber) new Subscriber(id, "+26097000" + String.format("%04d", id), -15.4, 28.3))
+                .toList();
+        scheduler = scheduler(subscribers, 3, 4);
+
+        scheduler.checkAndSendAlerts();
+        assertThat(queued).hasSize(11).doesNotHaveDuplicates();
+        assertThat(scheduler.getLastReport().toMap()).containsEntry("cells", 1L);
+
+        // The hazard is now in the ledger, so the next run sends nothing
+        scheduler.checkAndSendAlerts();
+        assertThat(queued).hasSize(11);
+    }
+
+    @Test
+    void eachCellIsEvaluatedOnceWithOneForecastAndAllItsSubscribersNotified() {
+        // Three cells with four subscribers each, interleaved, on a single page
+        double[][] points = {{-15.4, 28.3}, {-12.8, 28.2}, {-13.0, 27.9}};
+        List<AlertSubscriber> subscribers = LongStream.rangeClosed(1, 12)
+                .mapToObj(id -> {
+                    double[] point = points[(int) (id % points.length)];
+                    return (AlertSubscriber) new Subscriber(id, "+26097000" + String.format("%04d", id),
+                            point[0] + id * 0.001, point[1] - id * 0.001);
+                })
+                .toList();
+        scheduler = scheduler(subscribers, 50, 4);
+
+        scheduler.checkAndSendAlerts();
+
+        assertThat(queued).containsExactlyInAnyOrderElementsOf(subscribers.stream().map(AlertSubscriber::getPhone).toList());
+        assertThat(scheduler.getLastReport().toMap()).containsEntry("cells", 3L).containsEntry("alertsQueued", 12L);
+        for (double[] point : points) {
+            verify(ruleEngine, times(1)).evaluate(eq(GridCell.snap(point[0], point[1], 0.1)), any(), anyLong());
+        }
+        // One batch fetch for the page, naming each cell once
+        ArgumentCaptor<Collection<GridCell>> cells = ArgumentCaptor.forClass(Collection.class);
+        verify(weatherService, times(1)).getAlertForecasts(cells.capture(), anyString());
+        assertThat(cells.getValue()).hasSize(3).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void cellsFanOutOverAtMostTheConfiguredNumberOfWorkers() {
+        // Ten cells with two subscribers each, spread over five pages
+        List<AlertSubscriber> subscribers = LongStream.rangeClosed(1, 20)
+                .mapToObj(id -> (AlertSubscriber) new Subscriber(id, "+26097000" + String.format("%04d", id),
+                        -15.0 + (id % 10) * 0.5, 28.3))
+                .toList();
+        notifyMillis = 50;
+        scheduler = scheduler(subscribers, 4, 2);
+
+        scheduler.checkAndSendAlerts();
+
+        assertThat(queued).containsExactlyInAnyOrderElementsOf(subscribers.stream().map(AlertSubscriber::getPhone).toList());
+        assertThat(scheduler.getLastReport().toMap()).containsEntry("cells", 10L).containsEntry("alertsQueued", 20L);
+        verify(ruleEngine, times(10)).evaluate(any(), any(), anyLong());
+        assertThat(maxNotifying.get()).isBetween(1, 2);
+        assertThat(notifyThreads).isNotEmpty().allMatch(name -> name.startsWith("weather-alert-"));
+    }
+
+    private WeatherAlertScheduler scheduler(List<AlertSubscriber> subscribers, int pageSize, int concurrency) {
+        AlertSubscriberIndex users = mock(AlertSubscriberIndex.class);
+        when(users.page(anyLong(), anyInt())).thenAnswer(call -> {
+            long afterId = call.getArgument(0);
+            int limit = call.getArgument(1);
+            return subscribers.stream().filter(s -> s.getId() > afterId).limit(limit).toList();
+        });
+
+        weatherService = mock(WeatherService.class);
+        when(weatherService.gridCellFor(anyDouble(), anyDouble()))
+                .thenAnswer(call -> GridCell.snap(call.getArgument(0), call.getArgument(1), CELL.resolution()));
+        when(weatherService.upstreamRequestsFor(anyInt())).thenReturn(0);
+        when(weatherService.getAlertForecasts(any(), anyString()))
+                .thenAnswer(call -> ((Collection<GridCell>) call.getArgument(0)).stream()
+                        .collect(Collectors.toMap(cell -> cell, cell -> stormForecast())));
+
+        SmsOutbox outbox = mock(SmsOutbox.class);
+        when(outbox.enqueueAll(any(), anyString(), eq(SmsOutbox.SOURCE_ALERT))).thenAnswer(call -> {
+            Collection<String> phones = call.getArgument(0);
+            notifyThreads.add(Thread.currentThread().getName());
+            maxNotifying.accumulateAndGet(notifying.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(notifyMillis);
+                synchronized (queued) {
+                    queued.addAll(phones);
+                }
+            } finally {
+                notifying.decrementAndGet();
+            }
+            return phones.size();
+        });
+
+        AlertShardManager shards = mock(AlertShardManager.class);
+        when(shards.ownsAny()).thenReturn(true);
+        when(shards.owns(any())).thenReturn(true);
+
+        WeatherAlertScheduler scheduler = new WeatherAlertScheduler(users, weatherService, outbox,
+                new AlertLedger(Duration.ofHours(6), ledgerRepository), ruleEngine, shards);
+        ReflectionTestUtils.setField(scheduler, "alertsEnabled", true);
+        ReflectionTestUtils.setField(scheduler, "pageSize", pageSize);
+        ReflectionTestUtils.setField(scheduler, "concurrency", concurrency);
+        ReflectionTestUtils.setField(scheduler, "openMeteoRate", 1000.0);
+        ReflectionTestUtils.setField(scheduler, "maxRunDuration", Duration.ofMinutes(5));
+        scheduler.init();
+        return scheduler;
+    }
+
+    // 45 mm of rain in the coming hours
+    private static WeatherResponse stormForecast() {
+        WeatherResponse response = new WeatherResponse();
+        response.setUtcOffsetSeconds(0);
+        WeatherResponse.Hourly hourly = new WeatherResponse.Hourly();
+        long hour = Instant.now().truncatedTo(ChronoUnit.HOURS).getEpochSecond();
+        hourly.setTime(TimeAxis.regular(hour, 3_600, 4, false));
+        hourly.setPrecipitation(NullableDoubleArray.of(0.0, 45.0, 22.5, 0.0));
+        hourly.setWeathercode(new int[]{3, 61, 61, 3});
+        response.setHourly(hourly);
+        return response;
+    }
+}
@@ -0,0 +1,181 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nextinnomind.agro_speak_backend.config.WeatherCacheProperties;
+import com.nextinnomind.agro_speak_backend.config.WeatherPushProperties;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WeatherPushHubTest {
+
+    private static final GridCell CELL = GridCell.snap(-15.4, 28.3, 0.1);
+    private static final WeatherCacheKey CURRENT_KEY = WeatherCacheKey.of(WeatherDataType.CURRENT, CELL);
+
+    private WeatherService weatherService;
+    private WeatherCache weatherCache;
+    private WeatherPushProperties properties;
+    private WeatherPushHub hub;
+
+    @BeforeEach
+    void setUp() {
+        weatherService = mock(WeatherService.class);
+        weatherCache = new WeatherCache(new WeatherCacheProperties());
+        properties = new WeatherPushProperties();
+        hub = new WeatherPushHub(weatherService, weatherCache, new AlertRuleEngine("", 20.0, "95,96,99"),
+                properties, new ObjectMapper());
+
+        when(weatherService.gridCellFor(anyDouble(), anyDouble()))
+                .thenAnswer(inv -> GridCell.snap(inv.getArgument(0), inv.getArgument(1), 0.1));
+        ForecastSnapshot snapshot = snapshot(20.0, Instant.now().minusSeconds(60));
+        weatherCache.put(CURRENT_KEY, snapshot);
+        when(weatherService.getCellForecastCached(any(), eq(WeatherDataType.CURRENT))).thenReturn(new CachedForecast(
+                CURRENT_KEY, snapshot.response(), snapshot.fetchedAt(), snapshot.fetchedAt().plus(Duration.ofMinutes(10))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.shutdown();
+    }
+
+    @Test
+    void oneRefreshIsFannedOutToEverySubscriberOfTheCell() throws Exception {
+        List<String> first = new CopyOnWriteArrayList<>();
+        List<String> second = new CopyOnWriteArrayList<>();
+        WebSocketSession a = session("a", first);
+        WebSocketSession b = session("b", second);
+        hub.connect(a);
+        hub.connect(b);
+
+        hub.subscribe("a", -15.41, 28.29, Set.of(WeatherDataType.CURRENT));
+        hub.subscribe("b", -15.38, 28.32, Set.of(WeatherDataType.CURRENT));
+        // Acknowledgement plus the cached forecast
+        verify(a, timeout(2_000).times(2)).sendMessage(any());
+        verify(b, timeout(2_000).times(2)).sendMessage(any());
+        assertThat(first.get(0)).contains("\"event\":\"subscribed\"").contains("\"cell\":\"-15.4,28.3\"");
+        assertThat(first.get(1)).contains("\"event\":\"forecast\"").contains("\"temperature\":20.0");
+
+        hub.onForecastRefreshed(new ForecastRefreshedEvent(CURRENT_KEY, snapshot(23.5, Instant.now())));
+        verify(a, timeout(2_000).times(3)).sendMessage(any());
+        verify(b, timeout(2_000).times(3)).sendMessage(any());
+        assertThat(first.get(2)).contains("\"temperature\":23.5");
+        assertThat(second.get(2)).isEqualTo(first.get(2));
+
+        // Other cells, variants nobody subscribed to and repeats of a pushed forecast are not sent
+        hub.onForecastRefreshed(new ForecastRefreshedEvent(
+                WeatherCacheKey.of(WeatherDataType.CURRENT, GridCell.snap(-12.8, 28.2, 0.1)), snapshot(30.0, Instant.now())));
+        hub.onForecastRefreshed(new ForecastRefreshedEvent(
+                new WeatherCacheKey(WeatherDataType.HOURLY, CELL, "hours=168"), snapshot(30.0, Instant.now())));
+        hub.unsubscribe("b", -15.4, 28.3);
+        hub.onForecastRefreshed(new ForecastRefreshedEvent(CURRENT_KEY, snapshot(24.0, Instant.now().plusSeconds(1))));
+
+        verify(a, timeout(2_000).times(4)).sendMessage(any());
+        Thread.sleep(100);
+        verify(b, times(3)).sendMessage(any());
+        assertThat(hub.stats()).containsEntry("subscribedCells", 1).containsEntry("subscriptions", 1);
+    }
+
+    @Test
+    void connectionAndSubscriptionLimitsAreEnforced() throws Exception {
+        properties.setMaxSessions(1);
+        properties.setMaxSubscriptionsPerSession(1);
+
+        assertThat(hub.connect(session("a", new CopyOnWriteArrayList<>()))).isTrue();
+        assertThat(hub.connect(session("b", new CopyOnWriteArrayList<>()))).isFalse();
+
+        hub.subscribe("a", -15.4, 28.3, Set.of(WeatherDataType.CURRENT));
+        assertThatThrownBy(() -> hub.subscribe("a", -12.8, 28.2, Set.of(WeatherDataType.CURRENT)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> hub.subscribe("a", -15.4, 28.3, Set.of(WeatherDataType.DASHBOARD)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        hub.disconnect("a");
+        assertThat(hub.stats()).containsEntry("connections", 0).containsEntry("subscribedCells", 0);
+    }
+
+    @Test
+    void cellsWatchedAcrossConnectionsAreCappedAndCheckedOffTheRefresherThread() throws Exception {
+        properties.setMaxCells(1);
+        hub.connect(session("a", new CopyOnWriteArrayList<>()));
+        hub.connect(session("b", new CopyOnWriteArrayList<>()));
+
+        hub.subscribe("a", -15.4, 28.3, Set.of(WeatherDataType.CURRENT));
+        hub.subscribe("b", -15.4, 28.3, Set.of(WeatherDataType.CURRENT));
+        assertThatThrownBy(() -> hub.subscribe("b", -12.8, 28.2, Set.of(WeatherDataType.CURRENT)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(hub.stats()).containsEntry("subscribedCells", 1).containsEntry("subscriptions", 2)
+                .containsEntry("cellsRejected", 1L);
+
+        List<String> loadThreads = new CopyOnWriteArrayList<>();
+        when(weatherService.getCellForecastCached(any(), eq(WeatherDataType.CURRENT))).thenAnswer(inv -> {
+            loadThreads.add(Thread.currentThread().getName());
+            return null;
+        });
+        hub.refreshSubscribed();
+        verify(weatherService, timeout(2_000).atLeast(1)).getCellForecastCached(any(), eq(WeatherDataType.CURRENT));
+        assertThat(loadThreads).allMatch(name -> name.startsWith("weather-push-load-"));
+    }
+
+    @Test
+    void subscriptionRacingWithDisconnectLeavesNoChannelBehind() throws Exception {
+        properties.setMaxSessions(1_000);
+        for (int i = 0; i < 200; i++) {
+            String id = "c" + i;
+            hub.connect(session(id, new CopyOnWriteArrayList<>()));
+            CountDownLatch start = new CountDownLatch(1);
+            Thread subscriber = new Thread(() -> {
+                try {
+                    start.await();
+                    hub.subscribe(id, -15.4, 28.3, Set.of(WeatherDataType.CURRENT));
+                } catch (Exception ignored) {
+                    // Lost the race against the disconnect
+                }
+            });
+            subscriber.start();
+            start.countDown();
+            hub.disconnect(id);
+            subscriber.join();
+        }
+
+        assertThat(hub.stats()).containsEntry("connections", 0).containsEntry("subscribedCells", 0);
+    }
+
+    private static WebSocketSession session(String id, List<String> received) throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        doAnswer(inv -> received.add(((TextMessage) inv.getArgument(0)).getPayload()))
+                .when(session).sendMessage(any());
+        return session;
+    }
+
+    private static ForecastSnapshot snapshot(double temperature, Instant fetchedAt) {
+        WeatherResponse response = new WeatherResponse();
+        WeatherResponse.CurrentWeather current = new WeatherResponse.CurrentWeather();
+        current.setTemperature(temperature);
+        response.setCurrentWeather(current);
+        return new ForecastSnapshot(response, fetchedAt);
+    }
+}
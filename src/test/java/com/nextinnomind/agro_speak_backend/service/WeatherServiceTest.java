@@ -0,0 +1,303 @@
+package com.nextinnomind.agro_speak_backend.service;
+
+import com.nextinnomind.agro_speak_backend.config.SnapshotStoreProperties;
+import com.nextinnomind.agro_speak_backend.config.WeatherBatchProperties;
+import com.nextinnomind.agro_speak_backend.config.WeatherCacheProperties;
+import com.nextinnomind.agro_speak_backend.dto.Coordinate;
+import com.nextinnomind.agro_speak_backend.dto.WeatherDashboardResponse;
+import com.nextinnomind.agro_speak_backend.entity.WeatherResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.queryParam;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+
+class WeatherServiceTest {
+
+    private static final String SOIL_JSON = """
+            {"latitude": -15.4, "longitude": 28.3, "timezone": "Africa/Lusaka",
+             "hourly": {"time": ["2025-01-01T00:00"], "soil_temperature_0_to_7cm": [24.5],
+                        "soil_moisture_0_to_7cm": [0.31]}}
+            """;
+
+    private static final String CURRENT_JSON = """
+            {"latitude": %s, "longitude": %s,
+             "current_weather": {"temperature": 25.0, "windspeed": 5.0, "weathercode": %d}}
+            """;
+
+    private static final String HOURLY_JSON = """
+            {"latitude": -15.4, "longitude": 28.3,
+             "hourly": {"time": ["2025-01-01T00:00", "2025-01-01T01:00", "2025-01-01T02:00", "2025-01-01T03:00"],
+                        "temperature_2m": [20.0, 22.0, 24.0, 26.0],
+                        "precipitation": [0.5, null, 1.5, 2.0],
+                        "weathercode": [1, 61, 3, 0]}}
+            """;
+
+    private RestTemplate restTemplate;
+    private MockRestServiceServer server;
+    private WeatherCache weatherCache;
+    private WeatherService weatherService;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        weatherCache = new WeatherCache(new WeatherCacheProperties());
+        weatherService = new WeatherService(restTemplate, weatherCache, new WeatherBatchProperties());
+        weatherService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        weatherService.shutdown();
+        weatherCache.shutdown();
+    }
+
+    @Test
+    void nearbyCoordinatesShareOneUpstreamCall() {
+        server.expect(ExpectedCount.once(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                .andExpect(queryParam("latitude", "-15.4"))
+                .andExpect(queryParam("longitude", "28.3"))
+                .andRespond(withSuccess(SOIL_JSON, MediaType.APPLICATION_JSON));
+
+        WeatherResponse first = weatherService.getSoilData(-15.41, 28.29);
+        WeatherResponse second = weatherService.getSoilData(-15.38, 28.31);
+
+        server.verify();
+        assertThat(second).isSameAs(first);
+        assertThat(weatherCache.stats())
+                .containsEntry("hitCount", 1L)
+                .containsEntry("missCount", 1L);
+    }
+
+    @Test
+    void distantCoordinatesAreCachedSeparately() {
+        server.expect(ExpectedCount.twice(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                .andRespond(withSuccess(SOIL_JSON, MediaType.APPLICATION_JSON));
+
+        weatherService.getSoilData(-15.41, 28.29);
+        weatherService.getSoilData(-12.80, 28.20);
+
+        server.verify();
+        assertThat(weatherCache.stats()).containsEntry("size", 2L);
+    }
+
+    @Test
+    void batchFetchesOnlyUncachedCellsInOneRequestAndAlignsResults() {
+        server.expect(ExpectedCount.once(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                .andExpect(queryParam("latitude", "-15.4"))
+                .andRespond(withSuccess(CURRENT_JSON.formatted(-15.4, 28.3, 95), MediaType.APPLICATION_JSON));
+        server.expect(ExpectedCount.once(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                .andExpect(queryParam("latitude", "-12.8,-13.0"))
+                .andExpect(queryParam("longitude", "28.2,27.9"))
+                .andRespond(withSuccess("[" + CURRENT_JSON.formatted(-12.8, 28.2, 0) + ","
+                        + CURRENT_JSON.formatted(-13.0, 27.9, 3) + "]", MediaType.APPLICATION_JSON));
+
+        weatherService.getCurrentWeather(-15.41, 28.29);
+        List<WeatherResponse> results = weatherService.getCurrentWeather(List.of(
+                new Coordinate(-12.81, 28.21),
+                new Coordinate(-15.39, 28.31),
+                new Coordinate(-13.02, 27.88),
+                new Coordinate(-12.79, 28.19)));
+
+        server.verify();
+        assertThat(results).extracting(r -> r.getCurrentWeather().getMessage())
+                .containsExactly("Clear sky", "Thunderstorm", "Overcast", "Clear sky");
+    }
+
+    @Test
+    void hourlyForecastRequestsOnlyTheHorizonAndAggregatesSteps() {
+        server.expect(ExpectedCount.once(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                .andExpect(queryParam("forecast_hours", "24"))
+                .andRespond(withSuccess(HOURLY_JSON, MediaType.APPLICATION_JSON));
+
+        WeatherResponse windowed = weatherService.getHourlyForecast(-15.41, 28.29, 3, 2);
+
+        server.verify();
+        WeatherResponse.Hourly hourly = windowed.getHourly();
+        assertThat(hourly.getTime().toArray()).containsExactly("2025-01-01T00:00", "2025-01-01T02:00");
+        assertThat(hourly.getTemperature()).containsExactly(21.0, 24.0);
+        assertThat(hourly.getPrecipitation().toArray()).containsExactly(0.5, 1.5);
+        assertThat(hourly.getWeathercode()).containsExactly(61, 3);
+        assertThat(hourly.getMessages()).containsExactly("Rainy", "Overcast");
+    }
+
+    @Test
+    void dailyForecastIsKeyedWithoutADateAndStartsAtTheCellsLocalToday() {
+        // Fetched the day before, in the cell's timezone (UTC+2)
+        LocalDate today = LocalDate.now(ZoneOffset.ofHours(2));
+        server.expect(ExpectedCount.once(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                .andExpect(queryParam("forecast_days", "3"))
+                .andExpect(queryParam("timezone", "auto"))
+                .andRespond(withSuccess("""
+                        {"latitude": -15.4, "longitude": 28.3, "utc_offset_seconds": 7200,
+                         "daily": {"time": ["%s", "%s", "%s"], "temperature_2m_max": [27.0, 28.0, 29.0],
+                                   "temperature_2m_min": [15.0, 16.0, 17.0], "weathercode": [3, 61, 0]}}
+                        """.formatted(today.minusDays(1), today, today.plusDays(1)), MediaType.APPLICATION_JSON));
+
+        CachedForecast forecast = weatherService.getDailyForecastCached(-15.41, 28.29, 1);
+
+        server.verify();
+        assertThat(forecast.key().params()).isEqualTo("days=1");
+        WeatherResponse.Daily daily = forecast.response().getDaily();
+        assertThat(daily.getTime().toArray()).containsExactly(today.toString(), today.plusDays(1).toString());
+        assertThat(daily.getTemperatureMax()).containsExactly(28.0, 29.0);
+        assertThat(daily.getMessages()).containsExactly("Rainy", "Clear sky");
+    }
+
+    @Test
+    void refreshAheadOfAHotDailyForecastFetchesTheCurrentWindow() throws Exception {
+        WeatherCacheProperties properties = new WeatherCacheProperties();
+        properties.setDailyTtl(Duration.ofMillis(200));
+        weatherCache.shutdown();
+        weatherCache = new WeatherCache(properties);
+        weatherService = new WeatherService(restTemplate, weatherCache, new WeatherBatchProperties());
+        weatherService.init();
+
+        server.expect(ExpectedCount.twice(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                .andExpect(requestTo(not(containsString("start_date"))))
+                .andExpect(queryParam("forecast_days", "4"))
+                .andRespond(withSuccess("""
+                        {"latitude": -15.4, "longitude": 28.3, "utc_offset_seconds": 7200,
+                         "daily": {"time": ["%s"], "temperature_2m_max": [27.0], "temperature_2m_min": [15.0]}}
+                        """.formatted(LocalDate.now(ZoneOffset.ofHours(2))), MediaType.APPLICATION_JSON));
+
+        weatherService.getDailyForecast(-15.41, 28.29, 2);
+        weatherService.getDailyForecast(-15.41, 28.29, 2);
+        Thread.sleep(300);
+        assertThat(weatherCache.refreshAhead(10, Duration.ofMinutes(1))).isEqualTo(1);
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while ((long) weatherCache.stats().get("backgroundRefreshes") < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        server.verify();
+    }
+
+    @Test
+    void dashboardSectionsShareOneUpstreamRequestAndAreSlicedPerSection() {
+        server.expect(ExpectedCount.once(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                .andExpect(queryParam("current_weather", "true"))
+                .andExpect(queryParam("hourly", "temperature_2m,precipitation_probability,precipitation,wind_speed_10m,"
+                        + "weathercode,soil_temperature_0_to_7cm,soil_moisture_0_to_7cm"))
+                .andExpect(queryParam("forecast_hours", "2"))
+                .andExpect(queryParam("forecast_days", "1"))
+                .andRespond(withSuccess("""
+                        {"latitude": -15.4, "longitude": 28.3, "timezone": "Africa/Lusaka",
+                         "current_weather": {"temperature": 25.0, "windspeed": 5.0, "weathercode": 61},
+                         "hourly": {"time": ["2025-01-01T00:00", "2025-01-01T01:00"], "temperature_2m": [20.0, 21.0],
+                                    "soil_temperature_0_to_7cm": [24.5, 24.0], "soil_moisture_0_to_7cm": [0.31, 0.30]},
+                         "daily": {"time": ["2025-01-01"], "temperature_2m_max": [29.0], "weathercode": [3]}}
+                        """, MediaType.APPLICATION_JSON));
+
+        Set<WeatherDashboardResponse.Section> all = EnumSet.allOf(WeatherDashboardResponse.Section.class);
+        WeatherResponse response = weatherService.getDashboardForecast(-15.41, 28.29, all, 1, 2);
+        // Same sections in another order, from a nearby point: served from the same cache entry
+        Set<WeatherDashboardResponse.Section> reordered = new LinkedHashSet<>(List.of(
+                WeatherDashboardResponse.Section.SOIL, WeatherDashboardResponse.Section.DAILY,
+                WeatherDashboardResponse.Section.HOURLY, WeatherDashboardResponse.Section.CURRENT));
+        assertThat(weatherService.getDashboardForecast(-15.38, 28.31, reordered, 1, 2)).isSameAs(response);
+        server.verify();
+
+        WeatherDashboardResponse dashboard = WeatherDashboardResponse.from(response, all);
+        assertThat(dashboard.getCurrent().getMessage()).isEqualTo("Rainy");
+        assertThat(dashboard.getHourly().getTemperature()).containsExactly(20.0, 21.0);
+        assertThat(dashboard.getSoil().getMoisture()).containsExactly(0.31, 0.30);
+        assertThat(dashboard.getDaily().getMessages()).containsExactly("Overcast");
+
+        WeatherDashboardResponse soil = WeatherDashboardResponse.from(response, EnumSet.of(WeatherDashboardResponse.Section.SOIL));
+        assertThat(soil.getSoil().getTemperature()).containsExactly(24.5, 24.0);
+        assertThat(soil.getCurrent()).isNull();
+        assertThat(soil.getHourly()).isNull();
+        assertThat(soil.getDaily()).isNull();
+    }
+
+    @Test
+    void staleEntryIsServedImmediatelyAndRefreshedInTheBackground() throws Exception {
+        WeatherCacheProperties properties = new WeatherCacheProperties();
+        properties.setSoilTtl(Duration.ofMillis(50));
+        weatherCache.shutdown();
+        weatherCache = new WeatherCache(properties);
+        weatherService = new WeatherService(restTemplate, weatherCache, new WeatherBatchProperties());
+        weatherService.init();
+
+        server.expect(ExpectedCount.twice(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                .andRespond(withSuccess(SOIL_JSON, MediaType.APPLICATION_JSON));
+
+        WeatherResponse first = weatherService.getSoilData(-15.41, 28.29);
+        Thread.sleep(100);
+        WeatherResponse stale = weatherService.getSoilData(-15.41, 28.29);
+        assertThat(stale).isSameAs(first);
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while ((long) weatherCache.stats().get("backgroundRefreshes") < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        server.verify();
+        assertThat(weatherService.getSoilData(-15.41, 28.29)).isNotSameAs(first);
+        assertThat(weatherCache.stats()).containsEntry("staleServed", 1L);
+    }
+
+    @Test
+    void persistedSnapshotsWarmTheCacheAndBackUpOutages(@TempDir Path dir) {
+        SnapshotStoreProperties storeProperties = new SnapshotStoreProperties();
+        storeProperties.setPath(dir.resolve("snapshots.mv.db").toString());
+        ForecastSnapshotStore store = new ForecastSnapshotStore(storeProperties);
+        store.open();
+        try {
+            server.expect(ExpectedCount.once(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                    .andRespond(withSuccess(SOIL_JSON, MediaType.APPLICATION_JSON));
+            server.expect(ExpectedCount.once(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                    .andRespond(withServerError());
+
+            // Fetched once and written through to disk
+            useCache(new WeatherCache(new WeatherCacheProperties(), store));
+            weatherService.getSoilData(-15.41, 28.29);
+            store.flush();
+
+            // After a restart the persisted forecast is served without an upstream call
+            useCache(new WeatherCache(new WeatherCacheProperties(), store));
+            weatherCache.warmFromStore();
+            assertThat(weatherService.getSoilData(-15.41, 28.29).getHourly().getSoilMoisture()).containsExactly(0.31);
+
+            // With a cold cache and Open-Meteo failing, the last known forecast is served and marked degraded
+            useCache(new WeatherCache(new WeatherCacheProperties(), store));
+            CachedForecast forecast = weatherService.getSoilDataCached(-15.41, 28.29, 168, 1);
+
+            server.verify();
+            assertThat(forecast.degraded()).isTrue();
+            assertThat(forecast.response().getHourly().getSoilTemperature()).containsExactly(24.5);
+        } finally {
+            store.close();
+        }
+    }
+
+    private void useCache(WeatherCache cache) {
+        weatherService.shutdown();
+        weatherCache.shutdown();
+        weatherCache = cache;
+        weatherService = new WeatherService(restTemplate, weatherCache, new WeatherBatchProperties());
+        weatherService.init();
+    }
+}